@@ -0,0 +1,82 @@
+package com.example.asyncpayments.benchmark;
+
+import com.example.asyncpayments.entity.StatusTransacao;
+import com.example.asyncpayments.service.FilaTransacaoService;
+import com.example.asyncpayments.util.MapaLongByteConcorrente;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o índice de status de {@link FilaTransacaoService} ({@link MapaLongByteConcorrente}, status pelo
+ * ordinal) com o mapa anterior ({@code ConcurrentHashMap<Long, StatusTransacao>}): latência de consulta de ids
+ * aleatórios com várias threads e, na montagem, a memória ocupada por entrada, impressa na saída do fork.
+ *
+ * <p>Com 10 milhões de entradas o fork precisa de heap suficiente para o {@code ConcurrentHashMap}; os
+ * argumentos de JVM abaixo reservam 4 GB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Threads(4)
+public class IndiceStatusBenchmark {
+
+    public enum Estrutura { CONCURRENT_HASH_MAP, MAPA_LONG_BYTE }
+
+    private static final StatusTransacao[] STATUS = StatusTransacao.values();
+
+    @Param({"CONCURRENT_HASH_MAP", "MAPA_LONG_BYTE"})
+    private Estrutura estrutura;
+
+    @Param({"10000000"})
+    private int entradas;
+
+    private Map<Long, StatusTransacao> mapaAnterior;
+    private MapaLongByteConcorrente mapaPrimitivo;
+
+    @Setup(Level.Trial)
+    public void montar() {
+        long antes = memoriaUsada();
+        if (estrutura == Estrutura.CONCURRENT_HASH_MAP) {
+            mapaAnterior = new ConcurrentHashMap<>();
+            for (long id = 1; id <= entradas; id++) {
+                mapaAnterior.put(id, STATUS[(int) (id % STATUS.length)]);
+            }
+        } else {
+            mapaPrimitivo = new MapaLongByteConcorrente(entradas, 64);
+            for (long id = 1; id <= entradas; id++) {
+                mapaPrimitivo.put(id, (byte) (id % STATUS.length));
+            }
+        }
+        long ocupada = memoriaUsada() - antes;
+        System.out.printf("%n[BENCHMARK] %s com %d entradas: %.1f MB, %.1f bytes por entrada%n",
+                estrutura, entradas, ocupada / (1024.0 * 1024.0), (double) ocupada / entradas);
+    }
+
+    /**
+     * Consulta de um id aleatório entre os gravados, como {@code consultarStatus} faz no índice.
+     */
+    @Benchmark
+    public StatusTransacao consultar() {
+        long id = 1 + ThreadLocalRandom.current().nextInt(entradas);
+        if (estrutura == Estrutura.CONCURRENT_HASH_MAP) {
+            return mapaAnterior.get(id);
+        }
+        int status = mapaPrimitivo.get(id);
+        return status < 0 ? null : STATUS[status];
+    }
+
+    private static long memoriaUsada() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
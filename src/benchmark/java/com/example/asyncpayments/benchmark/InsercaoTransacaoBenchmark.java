@@ -0,0 +1,120 @@
+package com.example.asyncpayments.benchmark;
+
+import com.example.asyncpayments.config.JpaConfig;
+import com.example.asyncpayments.entity.Dinheiro;
+import com.example.asyncpayments.entity.DinheiroConverter;
+import com.example.asyncpayments.entity.GatewayPagamento;
+import com.example.asyncpayments.entity.MetodoConexao;
+import com.example.asyncpayments.entity.StatusTransacao;
+import com.example.asyncpayments.entity.TipoOperacao;
+import com.example.asyncpayments.entity.Transacao;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede a inserção de um lote de transações com id por sequência ({@link Transacao}, agrupado em lotes
+ * JDBC) e com id {@code IDENTITY} ({@link TransacaoIdentidade}, um INSERT por ida ao banco), usando as
+ * mesmas propriedades de {@link JpaConfig}.
+ *
+ * <p>O banco vem de {@code -Dbenchmark.url}/{@code -Dbenchmark.usuario}/{@code -Dbenchmark.senha}
+ * (H2 em memória por padrão); o dialeto é detectado pelo Hibernate. As tabelas são recriadas a cada fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsercaoTransacaoBenchmark {
+
+    public enum Estrategia { SEQUENCIA, IDENTITY }
+
+    @Param({"SEQUENCIA", "IDENTITY"})
+    private Estrategia estrategia;
+
+    @Param({"500"})
+    private int linhas;
+
+    private SessionFactory sessionFactory;
+
+    @Setup(Level.Trial)
+    public void abrir() {
+        Map<String, Object> propriedades = new HashMap<>();
+        new JpaConfig().loteJdbcCustomizer().customize(propriedades);
+
+        Configuration configuracao = new Configuration()
+            .addAnnotatedClass(Transacao.class)
+            .addAnnotatedClass(TransacaoIdentidade.class)
+            .addAttributeConverter(DinheiroConverter.class, true)
+            // Mesmos nomes de coluna que o Spring gera; sem isso os índices da entidade não são criados.
+            .setPhysicalNamingStrategy(new CamelCaseToUnderscoresNamingStrategy())
+            .setProperty(AvailableSettings.JAKARTA_JDBC_URL, System.getProperty("benchmark.url", "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1"))
+            .setProperty(AvailableSettings.JAKARTA_JDBC_USER, System.getProperty("benchmark.usuario", "sa"))
+            .setProperty(AvailableSettings.JAKARTA_JDBC_PASSWORD, System.getProperty("benchmark.senha", ""))
+            .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+            .setProperty(AvailableSettings.JAKARTA_VALIDATION_MODE, "none");
+        propriedades.forEach((chave, valor) -> configuracao.setProperty(chave, String.valueOf(valor)));
+        sessionFactory = configuracao.buildSessionFactory();
+    }
+
+    @TearDown(Level.Trial)
+    public void fechar() {
+        sessionFactory.close();
+    }
+
+    /**
+     * Cada operação insere {@link #linhas} transações em uma transação de banco.
+     */
+    @Benchmark
+    public int inserirLote() {
+        sessionFactory.inTransaction(sessao -> {
+            for (int i = 0; i < linhas; i++) {
+                sessao.persist(estrategia == Estrategia.SEQUENCIA ? novaTransacao(i) : novaTransacaoIdentidade(i));
+            }
+        });
+        return linhas;
+    }
+
+    // As duas variantes preenchem os mesmos campos com os mesmos valores, e as duas entidades têm o mesmo
+    // @PrePersist; a única diferença entre os braços é a geração do id.
+    private static Transacao novaTransacao(int i) {
+        OffsetDateTime agora = OffsetDateTime.now(ZoneOffset.UTC);
+        Transacao transacao = new Transacao();
+        transacao.setIdUsuarioOrigem(1L);
+        transacao.setIdUsuarioDestino(2L + i % 100);
+        transacao.setValor(Dinheiro.deCentavos(1_000 + i));
+        transacao.setTipoOperacao(TipoOperacao.SINCRONA);
+        transacao.setMetodoConexao(MetodoConexao.INTERNET);
+        transacao.setGatewayPagamento(GatewayPagamento.INTERNO);
+        transacao.setStatus(StatusTransacao.PENDENTE);
+        transacao.setDescricao("Benchmark de inserção");
+        transacao.setDataCriacao(agora);
+        transacao.setDataAtualizacao(agora);
+        return transacao;
+    }
+
+    private static TransacaoIdentidade novaTransacaoIdentidade(int i) {
+        OffsetDateTime agora = OffsetDateTime.now(ZoneOffset.UTC);
+        TransacaoIdentidade transacao = new TransacaoIdentidade();
+        transacao.setIdUsuarioOrigem(1L);
+        transacao.setIdUsuarioDestino(2L + i % 100);
+        transacao.setValor(Dinheiro.deCentavos(1_000 + i));
+        transacao.setTipoOperacao(TipoOperacao.SINCRONA);
+        transacao.setMetodoConexao(MetodoConexao.INTERNET);
+        transacao.setGatewayPagamento(GatewayPagamento.INTERNO);
+        transacao.setStatus(StatusTransacao.PENDENTE);
+        transacao.setDescricao("Benchmark de inserção");
+        transacao.setDataCriacao(agora);
+        transacao.setDataAtualizacao(agora);
+        return transacao;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.asyncpayments.benchmark;
+
+import com.example.asyncpayments.config.JwtAuthFilter;
+import com.example.asyncpayments.entity.User;
+import com.example.asyncpayments.entity.UserRole;
+import com.example.asyncpayments.repository.UserRepository;
+import com.example.asyncpayments.service.JwtService;
+import com.example.asyncpayments.service.UsuarioCacheService;
+import com.example.asyncpayments.service.VersaoTokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Mede o custo de {@link JwtAuthFilter} por requisição autenticada, com o cache de tokens verificados de
+ * {@link JwtService} ligado e desligado ({@code jwt.cache.tamanho=0}). A versão do token é carregada uma vez
+ * de um repositório falso e depois respondida da memória, como em produção. Roda em {@value #THREADS}
+ * threads, que disputam o mesmo cache como as requisições concorrentes de um servidor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(JwtFiltroBenchmark.THREADS)
+public class JwtFiltroBenchmark {
+
+    static final int THREADS = 4;
+
+    @Param({"0", "4096"})
+    private int tamanhoCache;
+
+    private JwtAuthFilter filtro;
+    private String autorizacao;
+
+    @Setup(Level.Trial)
+    public void montar() {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "benchmark-secret-1234567890");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtService, "tamanhoCache", tamanhoCache);
+
+        User usuario = User.builder().id(1L).email("benchmark@asyncpayments.com").password("x").role(UserRole.USER).build();
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findVersaoTokenById(usuario.getId())).thenReturn(Optional.of(0L));
+        filtro = new JwtAuthFilter(jwtService, new VersaoTokenService(userRepository, mock(UsuarioCacheService.class), new SimpleMeterRegistry(), 1024));
+        autorizacao = "Bearer " + jwtService.generateToken(usuario, usuario.getId());
+    }
+
+    @Benchmark
+    public Object filtrar() throws Exception {
+        MockHttpServletRequest requisicao = new MockHttpServletRequest("GET", "/transacoes");
+        requisicao.setServletPath("/transacoes");
+        requisicao.addHeader("Authorization", autorizacao);
+        try {
+            filtro.doFilter(requisicao, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.asyncpayments.benchmark;
+
+import com.example.asyncpayments.entity.Dinheiro;
+import com.example.asyncpayments.entity.GatewayPagamento;
+import com.example.asyncpayments.entity.MetodoConexao;
+import com.example.asyncpayments.entity.StatusTransacao;
+import com.example.asyncpayments.entity.TipoOperacao;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Cópia das colunas, índices e {@code @PrePersist} de {@link com.example.asyncpayments.entity.Transacao} com id
+ * {@code IDENTITY}, usada só como referência no benchmark de inserção.
+ */
+@Entity
+@Table(indexes = {
+    @Index(name = "idx_transacao_identidade_destino_data", columnList = "id_usuario_destino, data_criacao"),
+    @Index(name = "idx_transacao_identidade_origem_data", columnList = "id_usuario_origem, data_criacao"),
+    @Index(name = "idx_transacao_identidade_status_data", columnList = "status, data_criacao")
+})
+@Data
+@NoArgsConstructor
+public class TransacaoIdentidade {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long idUsuarioOrigem;
+    private Long idUsuarioDestino;
+
+    @Column(precision = 19, scale = 2)
+    private Dinheiro valor;
+
+    @Enumerated(EnumType.STRING)
+    private TipoOperacao tipoOperacao;
+
+    @Enumerated(EnumType.STRING)
+    private MetodoConexao metodoConexao;
+
+    @Enumerated(EnumType.STRING)
+    private GatewayPagamento gatewayPagamento;
+
+    @Enumerated(EnumType.STRING)
+    private StatusTransacao status;
+
+    @Column(length = 140)
+    private String descricao;
+
+    private OffsetDateTime dataCriacao;
+    private OffsetDateTime dataAtualizacao;
+
+    private String nomeUsuarioOrigem;
+    private String emailUsuarioOrigem;
+    private String cpfUsuarioOrigem;
+
+    private String nomeUsuarioDestino;
+    private String emailUsuarioDestino;
+    private String cpfUsuarioDestino;
+
+    @PrePersist
+    protected void onCreate() {
+        this.dataCriacao = OffsetDateTime.now();
+        this.dataAtualizacao = OffsetDateTime.now();
+        this.status = StatusTransacao.PENDENTE;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.asyncpayments.config;
+
+import com.example.asyncpayments.exception.HashSenhaSobrecarregadoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Codificador BCrypt que calcula os hashes num pool próprio, de {@code threads} threads e fila de
+ * {@code capacidadeFila} pedidos. Com a fila cheia o pedido é recusado na hora com
+ * {@link HashSenhaSobrecarregadoException} (HTTP 429).
+ *
+ * <p>{@link #encode} e {@link #matches} chamados de fora do pool esperam o resultado, então a thread que chama
+ * fica parada durante a fila e o BCrypt. Para não prender as threads do Tomcat, o login roda inteiro no pool
+ * por {@link #executarAssincrono} e devolve um {@link CompletableFuture}; dentro do pool os hashes são
+ * calculados na própria thread, sem ocupar outra vaga.
+ *
+ * <p>Novos hashes usam o custo {@code custo}. {@link #upgradeEncoding} pede um novo hash para todo hash com
+ * outro custo, para cima ou para baixo, e o login bem-sucedido regrava a senha com o custo configurado.
+ */
+public class CodificadorSenhaLimitado implements PasswordEncoder, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CodificadorSenhaLimitado.class);
+
+    private static final Pattern CUSTO_BCRYPT = Pattern.compile("^\\$2[abyx]?\\$(\\d{2})\\$");
+
+    private final BCryptPasswordEncoder bcrypt;
+    private final int custo;
+    private final ThreadPoolExecutor executor;
+    private final ThreadLocal<Boolean> threadDoPool = ThreadLocal.withInitial(() -> false);
+    private final Timer tempoCodificacao;
+    private final Timer tempoConferencia;
+    private final Counter recusados;
+
+    public CodificadorSenhaLimitado(int custo, int threads, int capacidadeFila, MeterRegistry meterRegistry) {
+        if (threads <= 0 || capacidadeFila <= 0) {
+            throw new IllegalArgumentException("Threads e fila do pool de hash de senha devem ser positivos.");
+        }
+        this.bcrypt = new BCryptPasswordEncoder(custo);
+        this.custo = custo;
+        ThreadFactory fabrica = Thread.ofPlatform().name("hash-senha-", 0).daemon(true).factory();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadeFila), tarefa -> fabrica.newThread(() -> {
+                    threadDoPool.set(true);
+                    tarefa.run();
+                }));
+        this.tempoCodificacao = meterRegistry.timer("senha.hash.tempo", "operacao", "codificar");
+        this.tempoConferencia = meterRegistry.timer("senha.hash.tempo", "operacao", "conferir");
+        this.recusados = meterRegistry.counter("senha.hash.recusados");
+        Gauge.builder("senha.hash.fila", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+        Gauge.builder("senha.hash.ativos", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence senha) {
+        return executar(() -> bcrypt.encode(senha), tempoCodificacao);
+    }
+
+    @Override
+    public boolean matches(CharSequence senha, String hash) {
+        return executar(() -> bcrypt.matches(senha, hash), tempoConferencia);
+    }
+
+    /**
+     * Executa {@code tarefa} numa thread do pool, sem esperar por ela. Os hashes pedidos pela tarefa são
+     * calculados na mesma thread.
+     *
+     * @throws HashSenhaSobrecarregadoException se a fila está cheia
+     */
+    public <T> CompletableFuture<T> executarAssincrono(Supplier<T> tarefa) {
+        CompletableFuture<T> futuro = new CompletableFuture<>();
+        submeter(() -> {
+            try {
+                futuro.complete(tarefa.get());
+            } catch (RuntimeException | Error e) {
+                futuro.completeExceptionally(e);
+            }
+            return null;
+        });
+        return futuro;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String hash) {
+        int custoAtual = custoDe(hash);
+        return custoAtual > 0 && custoAtual != custo;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * @return o custo de um hash BCrypt, ou -1 se {@code hash} não é um hash BCrypt
+     */
+    static int custoDe(String hash) {
+        if (hash == null) {
+            return -1;
+        }
+        Matcher matcher = CUSTO_BCRYPT.matcher(hash);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    private <T> T executar(Supplier<T> calculo, Timer tempo) {
+        if (threadDoPool.get()) {
+            return tempo.record(calculo);
+        }
+        Future<T> resultado = submeter(() -> tempo.record(calculo));
+        try {
+            return resultado.get();
+        } catch (InterruptedException e) {
+            resultado.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido enquanto aguardava o hash da senha.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException("Falha ao calcular o hash da senha.", e.getCause());
+        }
+    }
+
+    private <T> Future<T> submeter(Callable<T> tarefa) {
+        try {
+            return executor.submit(tarefa);
+        } catch (RejectedExecutionException e) {
+            recusados.increment();
+            logger.warn("[AUTH] Hash de senha recusado: fila cheia ({} pedidos)", executor.getQueue().size());
+            throw new HashSenhaSobrecarregadoException("Muitas autenticações em andamento. Tente novamente em instantes.");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.asyncpayments.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injeta num parâmetro {@code Long} de um endpoint o id do usuário autenticado, lido do
+ * {@link UsuarioAutenticado} da requisição, sem consulta ao banco. Sem usuário autenticado a requisição
+ * recebe 401.
+ */
+@Documented
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentUserId {
+}
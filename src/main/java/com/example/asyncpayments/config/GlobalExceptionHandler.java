@@ -1,11 +1,14 @@
 package com.example.asyncpayments.config;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import com.example.asyncpayments.exception.HashSenhaSobrecarregadoException;
 import com.example.asyncpayments.exception.NotFoundException;
 
 @ControllerAdvice
@@ -19,4 +22,18 @@ public class GlobalExceptionHandler {
 public ResponseEntity<String> handleNotFoundException(NotFoundException ex) {
     return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
 }
+
+    /**
+     * Credenciais recusadas no login, que é assíncrono e por isso não passa mais pelo ponto de entrada do
+     * Spring Security.
+     */
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<Void> handleAuthenticationException(AuthenticationException ex) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+
+    @ExceptionHandler(HashSenhaSobrecarregadoException.class)
+    public ResponseEntity<String> handleHashSenhaSobrecarregado(HashSenhaSobrecarregadoException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").body(ex.getMessage());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.example.asyncpayments.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JpaConfig {
+
+    public static final int TAMANHO_LOTE_JDBC = 50;
+
+    /**
+     * Agrupa INSERTs e UPDATEs em lotes JDBC. Todas as entidades geram o id por sequência com
+     * {@code allocationSize} igual ao tamanho do lote: com {@code IDENTITY} o Hibernate precisa do id
+     * gerado pelo banco a cada INSERT e desliga o agrupamento sem avisar.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer loteJdbcCustomizer() {
+        return propriedades -> {
+            propriedades.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, TAMANHO_LOTE_JDBC);
+            propriedades.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+            propriedades.putIfAbsent(AvailableSettings.ORDER_UPDATES, true);
+        };
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.asyncpayments.config;
 
 import com.example.asyncpayments.service.JwtService;
+import com.example.asyncpayments.service.VersaoTokenService;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -10,20 +11,25 @@ import lombok.RequiredArgsConstructor;
 
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
+/**
+ * Autentica a requisição só com o que está no token: id e e-mail viram o {@link UsuarioAutenticado} e as
+ * autoridades vêm das claims. A única checagem além da assinatura é a versão do token, que {@link VersaoTokenService} responde
+ * da memória.
+ */
 @Component
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final VersaoTokenService versaoTokenService;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
@@ -42,23 +48,21 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             return;
         }
 
-        String jwt = authHeader.substring(7);
-        String userEmail;
-
-        try {
-            userEmail = jwtService.extractUsername(jwt);
-        } catch (Exception e) {
+        // O token é verificado uma vez; os dados dele seguem como detalhes da autenticação.
+        Optional<JwtService.TokenVerificado> verificado = jwtService.verificar(authHeader.substring(7));
+        if (verificado.isEmpty()) {
             filterChain.doFilter(request, response);
             return;
         }
+        JwtService.TokenVerificado token = verificado.get();
 
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+        if (token.email() != null && token.versao() != null && SecurityContextHolder.getContext().getAuthentication() == null
+                && versaoTokenService.vigente(token.userId(), token.versao())) {
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    new UsuarioAutenticado(token.userId(), token.email()), null,
+                    token.autoridades().stream().map(SimpleGrantedAuthority::new).toList());
+            authToken.setDetails(token);
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
         filterChain.doFilter(request, response);
@@ -1,5 +1,7 @@
 package com.example.asyncpayments.config;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -9,8 +11,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.access.AccessDeniedHandler;
@@ -45,9 +45,12 @@ public class SecurityConfig {
                 .build();
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Bean(destroyMethod = "close")
+    public CodificadorSenhaLimitado passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${asyncpayments.senha.custo-bcrypt:10}") int custo,
+                                           @Value("${asyncpayments.senha.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int threads,
+                                           @Value("${asyncpayments.senha.fila:64}") int capacidadeFila) {
+        return new CodificadorSenhaLimitado(custo, threads, capacidadeFila, meterRegistry);
     }
 
     @Bean
@@ -0,0 +1,15 @@
+package com.example.asyncpayments.config;
+
+import java.security.Principal;
+
+/**
+ * Principal das requisições autenticadas por JWT, montado por {@link JwtAuthFilter} a partir das claims do
+ * token. {@link #getName()} devolve o e-mail, como o principal anterior.
+ */
+public record UsuarioAutenticado(Long id, String email) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -3,6 +3,9 @@ package com.example.asyncpayments.config;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
+
+import java.util.List;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -19,6 +22,11 @@ public class WebConfig {
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                         .allowedHeaders("*");
             }
+
+            @Override
+            public void addArgumentResolvers(@NonNull List<HandlerMethodArgumentResolver> resolvers) {
+                resolvers.add(new CurrentUserIdArgumentResolver());
+            }
         };
     }
 }
\ No newline at end of file
@@ -1,12 +1,16 @@
 package com.example.asyncpayments.controller;
 
+import com.example.asyncpayments.config.CodificadorSenhaLimitado;
+import com.example.asyncpayments.config.CurrentUserId;
 import com.example.asyncpayments.dto.AuthRequest;
 import com.example.asyncpayments.dto.AuthResponse;
 import com.example.asyncpayments.dto.RegisterRequest;
 import com.example.asyncpayments.entity.User;
-import com.example.asyncpayments.repository.UserRepository;
+import com.example.asyncpayments.repository.UsuarioResumo;
 import com.example.asyncpayments.service.AuthService;
 import com.example.asyncpayments.service.JwtService;
+import com.example.asyncpayments.service.UsuarioCacheService;
+import com.example.asyncpayments.service.VersaoTokenService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -16,6 +20,8 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/auth")
 @RequiredArgsConstructor
@@ -24,19 +30,29 @@ public class AuthController {
     private final JwtService jwtService;
     private final AuthService authService;
     private final AuthenticationManager authenticationManager;
-    private final UserRepository repository;
+    private final UsuarioCacheService usuarioCacheService;
+    private final VersaoTokenService versaoTokenService;
+    private final CodificadorSenhaLimitado codificadorSenha;
 
     @PostMapping("/register")
     public ResponseEntity<AuthResponse> register(@RequestBody RegisterRequest request) {
         return ResponseEntity.ok(authService.register(request));
     }
 
+    /**
+     * Autentica no pool de hash de senha, para que a thread da requisição volte ao Tomcat enquanto o BCrypt
+     * roda; com o pool lotado responde 429 na hora.
+     */
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest request) {
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@RequestBody AuthRequest request) {
+        return codificadorSenha.executarAssincrono(() -> autenticar(request));
+    }
+
+    private ResponseEntity<AuthResponse> autenticar(AuthRequest request) {
     var usernamePassword = new UsernamePasswordAuthenticationToken(request.email(), request.password());
     authenticationManager.authenticate(usernamePassword);
 
-    User user = repository.findByEmail(request.email()).orElse(null);
+    User user = usuarioCacheService.buscarPorEmail(request.email()).map(UsuarioResumo::paraUsuario).orElse(null);
     if (user == null) {
         return ResponseEntity.notFound().build();
     }
@@ -44,14 +60,22 @@ public class AuthController {
     return ResponseEntity.ok(new AuthResponse(token));
 }
 
+    /**
+     * Encerra todas as sessões do usuário: os tokens já emitidos para ele deixam de valer.
+     */
+    @PostMapping("/logout")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Void> logout(@CurrentUserId Long idUsuario) {
+        versaoTokenService.revogar(idUsuario);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/user/id")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Long> getUserIdByEmail(@RequestParam String email) {
-        User user = repository.findByEmail(email).orElse(null);
-        if (user == null) {
-            return ResponseEntity.notFound().build();
-        }
-        return ResponseEntity.ok(user.getId());
+        return usuarioCacheService.buscarIdPorEmail(email)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
 }
\ No newline at end of file
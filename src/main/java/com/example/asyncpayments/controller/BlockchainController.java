@@ -0,0 +1,46 @@
+package com.example.asyncpayments.controller;
+
+import com.example.asyncpayments.dto.ProvaInclusao;
+import com.example.asyncpayments.dto.StatusAuditoriaLedger;
+import com.example.asyncpayments.service.AuditoriaLedgerService;
+import com.example.asyncpayments.service.ProvaLedgerService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/blockchain")
+@RequiredArgsConstructor
+public class BlockchainController {
+
+    private final AuditoriaLedgerService auditoriaLedgerService;
+    private final ProvaLedgerService provaLedgerService;
+
+    @GetMapping("/prova/{hash}")
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    public ResponseEntity<ProvaInclusao> buscarProva(@PathVariable String hash) {
+        return provaLedgerService.gerarProva(hash)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/auditoria")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> iniciarAuditoria(@RequestParam(defaultValue = "true") boolean retomar) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(auditoriaLedgerService.iniciar(retomar));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/auditoria")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StatusAuditoriaLedger> consultarAuditoria() {
+        return ResponseEntity.ok(auditoriaLedgerService.consultar());
+    }
+}
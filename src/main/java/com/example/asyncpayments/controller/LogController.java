@@ -31,7 +31,7 @@ public class LogController {
 
     private static final String FRONT_LOG_PREFIX = "[FRONT]";
 
-    // Limpa o arquivo de log a cada 10 minutos
+    // Limpa o arquivo de log a cada 10 minutos. O arquivo é local, então roda em todas as instâncias.
     @Scheduled(fixedRate = 600_000)
     public void limparLogsPeriodicamente() {
         try {
@@ -1,30 +1,40 @@
 package com.example.asyncpayments.controller;
 
+import com.example.asyncpayments.config.CurrentUserId;
+import com.example.asyncpayments.dto.ResultadoLote;
+import com.example.asyncpayments.dto.TransacaoFiltro;
 import com.example.asyncpayments.dto.TransacaoRequest;
 import com.example.asyncpayments.dto.TransactionResponse;
+import com.example.asyncpayments.entity.Dinheiro;
 import com.example.asyncpayments.entity.GatewayPagamento;
 import com.example.asyncpayments.entity.MetodoConexao;
 import com.example.asyncpayments.entity.StatusTransacao;
 import com.example.asyncpayments.entity.TipoOperacao;
 import com.example.asyncpayments.entity.Transacao;
 import com.example.asyncpayments.repository.TransacaoRepository;
-import com.example.asyncpayments.repository.UserRepository;
 import com.example.asyncpayments.service.TransacaoService;
 import com.example.asyncpayments.service.FilaTransacaoService;
+import com.example.asyncpayments.service.MovimentacaoSaldoService;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,11 +44,14 @@ import org.slf4j.LoggerFactory;
 public class TransacaoController {
 
     private static final Logger logger = LoggerFactory.getLogger(TransacaoController.class);
+    private static final String TAMANHO_PAGINA_PADRAO = "50";
+    private static final String CONTA_EM_USO = "Conta em uso por outra transação. Tente novamente.";
 
     private final TransacaoService transacaoService;
-    private final UserRepository userRepository;       
     private final FilaTransacaoService filaTransacaoService;
     private final TransacaoRepository transacaoRepository;
+    private final ObjectMapper objectMapper;
+    private final MovimentacaoSaldoService movimentacaoSaldoService;
 
 
     @GetMapping
@@ -47,7 +60,7 @@ public class TransacaoController {
             @RequestParam(required = false) Long id,
             @RequestParam(required = false) Long idUsuarioOrigem,
             @RequestParam(required = false) Long idUsuarioDestino,
-            @RequestParam(required = false) Double valor,
+            @RequestParam(required = false) Dinheiro valor,
             @RequestParam(required = false) TipoOperacao tipoOperacao,
             @RequestParam(required = false) MetodoConexao metodoConexao,
             @RequestParam(required = false) GatewayPagamento gatewayPagamento,
@@ -77,6 +90,49 @@ public class TransacaoController {
     }
 
 
+    /**
+     * Variante paginada por cursor de {@code GET /transacoes}: aceita os mesmos filtros e devolve
+     * no máximo {@code limite} transações mais o {@code nextCursor} da próxima página.
+     */
+    @GetMapping(params = "limite")
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    public ResponseEntity<?> buscarPaginaTransacoes(
+            TransacaoFiltro filtro,
+            @RequestParam(required = false) String cursor,
+            @RequestParam int limite
+    ) {
+        try {
+            return ResponseEntity.ok(transacaoService.buscarPaginaTransacoes(filtro, cursor, limite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Variante em NDJSON de {@code GET /transacoes}: escreve uma transação por linha à medida que
+     * são lidas do banco, com memória constante qualquer que seja o tamanho do resultado.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportarTransacoes(TransacaoFiltro filtro) {
+        StreamingResponseBody corpo = saida -> {
+            try {
+                transacaoService.percorrerTransacoes(filtro, transacao -> {
+                    try {
+                        saida.write(objectMapper.writeValueAsBytes(transacao));
+                        saida.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            saida.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(corpo);
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<TransactionResponse> buscarTransacaoPorId(@PathVariable Long id) {
@@ -107,7 +163,7 @@ public class TransacaoController {
     @PreAuthorize("hasAnyRole('USER','ADMIN')")
     public ResponseEntity<?> criarTransacao(@Valid @RequestBody TransacaoRequest request) {
         try {
-            Transacao transacao = transacaoService.criarTransacao(
+            Transacao transacao = movimentacaoSaldoService.executarComRetentativa(() -> transacaoService.criarTransacao(
                     request.getIdUsuarioOrigem(),
                     request.getIdUsuarioDestino(),
                     request.getValor(),
@@ -115,13 +171,17 @@ public class TransacaoController {
                     request.getMetodoConexao(),
                     request.getGatewayPagamento(),
                     request.getDescricao()
-            );
+            ));
             logger.info("[API][RESPONSE] Transação criada com sucesso: id={}, tipoOperacao={}", transacao.getId(), transacao.getTipoOperacao());
             return ResponseEntity.ok(transacao);
         } catch (IllegalArgumentException | IllegalStateException e) {
             logger.warn("[API][RESPONSE][4xx] Erro de negócio ao criar transação: tipoOperacao={}, origem={}, destino={}, valor={}, motivo={}",
                 request.getTipoOperacao(), request.getIdUsuarioOrigem(), request.getIdUsuarioDestino(), request.getValor(), e.getMessage());
             return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (ConcurrencyFailureException e) {
+            logger.warn("[API][RESPONSE][4xx] Conflito de concorrência ao criar transação: origem={}, destino={}, motivo={}",
+                request.getIdUsuarioOrigem(), request.getIdUsuarioDestino(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", CONTA_EM_USO));
         } catch (Exception e) {
             logger.error("[API][RESPONSE][5xx] Erro interno ao criar transação: tipoOperacao={}, origem={}, destino={}, valor={}, motivo={}",
                 request.getTipoOperacao(), request.getIdUsuarioOrigem(), request.getIdUsuarioDestino(), request.getValor(), e.getMessage(), e);
@@ -131,6 +191,30 @@ public class TransacaoController {
     }
 
 
+    /**
+     * Cria várias transações em uma única chamada, todas com origem no usuário autenticado. Um item
+     * malformado recusa o lote inteiro com 400; itens recusados pelas regras de negócio (inclusive por outra
+     * origem) não impedem os demais. O resultado de cada item vem em {@code itens}, na ordem enviada.
+     */
+    @PostMapping("/lote")
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    public ResponseEntity<?> criarTransacoesEmLote(@CurrentUserId Long userId,
+            @RequestBody List<@Valid TransacaoRequest> requests) {
+        try {
+            ResultadoLote resultado = movimentacaoSaldoService.executarComRetentativa(
+                () -> transacaoService.criarTransacoesEmLote(userId, requests));
+            logger.info("[API][RESPONSE] Lote processado: efetuadas={}, recusadas={}", resultado.efetuadas(), resultado.recusadas());
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException e) {
+            logger.warn("[API][RESPONSE][4xx] Lote recusado: motivo={}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (ConcurrencyFailureException e) {
+            logger.warn("[API][RESPONSE][4xx] Conflito de concorrência ao processar lote: motivo={}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", CONTA_EM_USO));
+        }
+    }
+
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Transacao> atualizarTransacao(@PathVariable Long id, @RequestBody TransacaoRequest request) {
@@ -157,41 +241,49 @@ public class TransacaoController {
         return ResponseEntity.ok("Transações offline sincronizadas com sucesso.");
     }
 
+    /**
+     * Transações recebidas pelo usuário, mais recentes primeiro, paginadas por {@code pagina} e {@code tamanho}
+     * ({@value #TAMANHO_PAGINA_PADRAO} por padrão, no máximo 500). Uma página com menos de {@code tamanho}
+     * itens é a última. Para percorrer o histórico inteiro, use {@code GET /transacoes?limite=} com
+     * {@code idUsuarioDestino}, que pagina por cursor.
+     */
     @GetMapping("/recebidas")
     @PreAuthorize("hasAnyRole('USER','ADMIN')")
-    public ResponseEntity<List<Transacao>> listarTransacoesRecebidas(Authentication authentication) {
-        String email = authentication.getName();
-        var userOpt = userRepository.findByEmail(email); 
-        if (userOpt.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-        Long userId = userOpt.get().getId();
-        List<Transacao> recebidas = transacaoService.listarTodasTransacoes()
-            .stream()
-            .filter(t -> t.getIdUsuarioDestino().equals(userId))
-            .toList();
-        return ResponseEntity.ok(recebidas);
+    public ResponseEntity<List<Transacao>> listarTransacoesRecebidas(@CurrentUserId Long userId,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = TAMANHO_PAGINA_PADRAO) int tamanho) {
+        return ResponseEntity.ok(transacaoService.listarTransacoesRecebidas(userId, pagina, tamanho));
     }
 
+    /**
+     * Transações enviadas pelo usuário, paginadas como {@code GET /transacoes/recebidas}. Para percorrer o
+     * histórico inteiro, use {@code GET /transacoes?limite=} com {@code idUsuarioOrigem}.
+     */
     @GetMapping("/enviadas")
     @PreAuthorize("hasAnyRole('USER','ADMIN')")
-    public ResponseEntity<List<Transacao>> listarTransacoesEnviadas(Authentication authentication) {
-        String email = authentication.getName();
-        List<Transacao> transacoes = transacaoService.listarTransacoesEnviadas(email);
-        return ResponseEntity.ok(transacoes);
+    public ResponseEntity<List<Transacao>> listarTransacoesEnviadas(@CurrentUserId Long userId,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = TAMANHO_PAGINA_PADRAO) int tamanho) {
+        return ResponseEntity.ok(transacaoService.listarTransacoesEnviadas(userId, pagina, tamanho));
     }
 
-    @PostMapping("/adicionar-fundos")
+    @GetMapping("/extrato")
     @PreAuthorize("hasAnyRole('USER','ADMIN')")
-    public ResponseEntity<?> adicionarFundos(Authentication authentication, @RequestBody TransacaoRequest request) {
-        String email = authentication.getName();
-        var userOpt = userRepository.findByEmail(email);
-        if (userOpt.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    public ResponseEntity<?> listarExtrato(@CurrentUserId Long userId,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = TAMANHO_PAGINA_PADRAO) int tamanho) {
+        try {
+            return ResponseEntity.ok(transacaoService.listarExtrato(userId, pagina, tamanho));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         }
-        Long userId = userOpt.get().getId();
+    }
+
+    @PostMapping("/adicionar-fundos")
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    public ResponseEntity<?> adicionarFundos(@CurrentUserId Long userId, @RequestBody TransacaoRequest request) {
         try {
-            Transacao transacao = transacaoService.criarTransacao(
+            Transacao transacao = movimentacaoSaldoService.executarComRetentativa(() -> transacaoService.criarTransacao(
                 userId, 
                 userId, 
                 request.getValor(),
@@ -199,10 +291,12 @@ public class TransacaoController {
                 MetodoConexao.ASYNC,
                 GatewayPagamento.INTERNO,
                 "Adição de fundos da conta síncrona para assincrona"
-            );
+            ));
             return ResponseEntity.ok(transacao);
         } catch (IllegalArgumentException | IllegalStateException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (ConcurrencyFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(CONTA_EM_USO);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erro interno: " + e.getMessage());
         }
@@ -210,20 +304,24 @@ public class TransacaoController {
 
     @GetMapping("/{id}/status")
     public ResponseEntity<String> consultarStatus(@PathVariable Long id) {
-        Optional<Transacao> transacao = transacaoRepository.findById(id);
-
-        if (transacao.isEmpty()) {
+        try {
+            StatusTransacao status = filaTransacaoService.consultarStatus(id);
+            return ResponseEntity.ok("Status da transação " + id + ": " + status.name());
+        } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Transação não encontrada.");
         }
-
-        StatusTransacao status = filaTransacaoService.consultarStatus(id);
-        return ResponseEntity.ok("Status da transação " + id + ": " + status.name());
     }
 
     @PutMapping("/{id}/status")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Void> atualizarStatusTransacao(@PathVariable Long id, @RequestParam StatusTransacao novoStatus) {
-        transacaoService.atualizarStatusTransacao(id, novoStatus);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<String> atualizarStatusTransacao(@PathVariable Long id, @RequestParam StatusTransacao novoStatus) {
+        try {
+            transacaoService.atualizarStatusTransacao(id, novoStatus);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
     }
 }
\ No newline at end of file
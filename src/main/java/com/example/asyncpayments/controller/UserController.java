@@ -1,19 +1,22 @@
 package com.example.asyncpayments.controller;
 
+import com.example.asyncpayments.config.CurrentUserId;
 import com.example.asyncpayments.dto.ApiResponse;
 import com.example.asyncpayments.dto.UserDTO;
 import com.example.asyncpayments.entity.User;
 import com.example.asyncpayments.exception.NotFoundException;
 import com.example.asyncpayments.repository.UserRepository;
+import com.example.asyncpayments.service.UsuarioCacheService;
+import com.example.asyncpayments.service.VersaoTokenService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/usuarios")
@@ -21,6 +24,8 @@ import java.util.List;
 public class UserController {
 
     private final UserRepository userRepository;
+    private final VersaoTokenService versaoTokenService;
+    private final UsuarioCacheService usuarioCacheService;
 
     @GetMapping
     @PreAuthorize("hasAnyRole('USER','ADMIN')")
@@ -31,9 +36,8 @@ public class UserController {
 
     @GetMapping("/me")
     @PreAuthorize("hasAnyRole('USER','ADMIN')")
-    public ResponseEntity<UserDTO> getMe(Authentication authentication) {
-        String email = authentication.getName();
-        return userRepository.findByEmail(email)
+    public ResponseEntity<UserDTO> getMe(@CurrentUserId Long idUsuario) {
+        return userRepository.findById(idUsuario)
             .map(user -> {
                 carregarContas(user); 
                 return toDTO(user);
@@ -58,30 +62,38 @@ public class UserController {
                 .orElseThrow(() -> new NotFoundException("Usuário não encontrado"));
 
         validarEmailECpf(userDTO, id); 
-        atualizarDadosUsuario(user, userDTO);
+        boolean emailAlterado = atualizarDadosUsuario(user, userDTO);
         userRepository.save(user);
+        usuarioCacheService.invalidar(user.getId());
+        if (emailAlterado) {
+            versaoTokenService.revogar(user.getId());
+        }
         return ResponseEntity.ok(new ApiResponse<>(toDTO(user), null));
     }
 
     @PutMapping("/me")
     @PreAuthorize("hasAnyRole('USER','ADMIN')")
-    public ResponseEntity<ApiResponse<UserDTO>> atualizarMe(Authentication authentication, @RequestBody UserDTO userDTO) {
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
+    public ResponseEntity<ApiResponse<UserDTO>> atualizarMe(@CurrentUserId Long idUsuario, @RequestBody UserDTO userDTO) {
+        User user = userRepository.findById(idUsuario)
                 .orElseThrow(() -> new NotFoundException("Usuário não encontrado"));
 
         validarEmailECpf(userDTO, user.getId()); 
-        atualizarDadosUsuario(user, userDTO);
+        boolean emailAlterado = atualizarDadosUsuario(user, userDTO);
         userRepository.save(user);
+        usuarioCacheService.invalidar(user.getId());
+        if (emailAlterado) {
+            versaoTokenService.revogar(user.getId());
+        }
         return ResponseEntity.ok(new ApiResponse<>(toDTO(user), null));
     }
 
 @DeleteMapping("/me")
 @PreAuthorize("hasAnyRole('USER','ADMIN')")
-public ResponseEntity<ApiResponse<Void>> excluirMe(Authentication authentication) {
-    String email = authentication.getName();
-    return userRepository.findByEmail(email).map(user -> {
+public ResponseEntity<ApiResponse<Void>> excluirMe(@CurrentUserId Long idUsuario) {
+    return userRepository.findById(idUsuario).map(user -> {
         userRepository.delete(user);
+        usuarioCacheService.invalidar(user.getId());
+        versaoTokenService.revogar(user.getId());
         return ResponseEntity.<ApiResponse<Void>>ok(new ApiResponse<>(null, "Usuário excluído com sucesso."));
     }).orElse(ResponseEntity.<ApiResponse<Void>>status(HttpStatus.NOT_FOUND)
             .body(new ApiResponse<>(null, "Usuário não encontrado.")));
@@ -97,12 +109,17 @@ public ResponseEntity<ApiResponse<Void>> excluirMe(Authentication authentication
         }
     }
 
-    private void atualizarDadosUsuario(User user, UserDTO userDTO) {
+    /**
+     * @return se o e-mail mudou; os tokens emitidos com o e-mail antigo devem ser revogados
+     */
+    private boolean atualizarDadosUsuario(User user, UserDTO userDTO) {
+        boolean emailAlterado = !Objects.equals(user.getEmail(), userDTO.getEmail());
         user.setEmail(userDTO.getEmail());
         user.setCpf(userDTO.getCpf());
         user.setNome(userDTO.getNome());
         user.setSobrenome(userDTO.getSobrenome());
         user.setCelular(userDTO.getCelular());
+        return emailAlterado;
     }
 
     private void carregarContas(User user) {
@@ -0,0 +1,50 @@
+package com.example.asyncpayments.dto;
+
+import com.example.asyncpayments.entity.Transacao;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Posição da paginação por cursor de transações, chaveada por {@code (dataCriacao, id)}.
+ * Trafega para o cliente como um token opaco em Base64 URL-safe. Transações antigas podem não ter
+ * {@code dataCriacao}; nesse caso o cursor também não tem.
+ */
+public record CursorTransacao(OffsetDateTime dataCriacao, Long id) {
+
+    private static final String SEPARADOR = "|";
+
+    // O banco guarda timestamps com precisão de microssegundos; o cursor precisa casar com o valor persistido
+    public static CursorTransacao de(Transacao transacao) {
+        OffsetDateTime dataCriacao = transacao.getDataCriacao();
+        return new CursorTransacao(dataCriacao == null ? null : dataCriacao.truncatedTo(ChronoUnit.MICROS), transacao.getId());
+    }
+
+    public String codificar() {
+        String bruto = (dataCriacao == null ? "" : dataCriacao.toInstant().toString()) + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bruto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CursorTransacao decodificar(String token) {
+        try {
+            String bruto = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separador = bruto.lastIndexOf(SEPARADOR);
+            if (separador < 0) {
+                throw new IllegalArgumentException("Cursor inválido.");
+            }
+            String data = bruto.substring(0, separador);
+            Long id = Long.valueOf(bruto.substring(separador + 1));
+            if (data.isEmpty()) {
+                return new CursorTransacao(null, id);
+            }
+            return new CursorTransacao(OffsetDateTime.ofInstant(Instant.parse(data), ZoneOffset.UTC), id);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido.", e);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.asyncpayments.dto;
+
+import java.util.List;
+
+public record PaginaTransacoes(List<TransactionResponse> transacoes, String nextCursor) {}
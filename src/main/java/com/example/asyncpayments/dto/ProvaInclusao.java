@@ -0,0 +1,15 @@
+package com.example.asyncpayments.dto;
+
+import com.example.asyncpayments.util.ArvoreMerkle.PassoProva;
+
+import java.util.List;
+
+/**
+ * Prova de que um registro pertence a um bloco selado do ledger. O cliente parte de
+ * {@code hashTransacao} e, para cada passo do {@code caminho}, calcula o SHA-256 da concatenação
+ * (em hexadecimal) com o hash do passo, à esquerda ou à direita conforme {@code lado}; o resultado final
+ * deve ser {@code raizMerkle}. O bloco se liga à cadeia por {@code hashAnterior} e {@code hashBloco}.
+ */
+public record ProvaInclusao(String hashTransacao, long numeroBloco, int indiceBloco, int quantidadeRegistros,
+                            String raizMerkle, String hashAnterior, String hashBloco, List<PassoProva> caminho) {
+}
@@ -0,0 +1,15 @@
+package com.example.asyncpayments.dto;
+
+/**
+ * Resultado de um item de {@code POST /transacoes/lote}. {@code indice} é a posição do item no lote enviado.
+ */
+public record ResultadoItemLote(int indice, boolean efetuada, Long idTransacao, String mensagem) {
+
+    public static ResultadoItemLote efetuado(int indice, Long idTransacao) {
+        return new ResultadoItemLote(indice, true, idTransacao, null);
+    }
+
+    public static ResultadoItemLote recusado(int indice, String mensagem) {
+        return new ResultadoItemLote(indice, false, null, mensagem);
+    }
+}
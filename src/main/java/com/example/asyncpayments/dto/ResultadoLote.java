@@ -0,0 +1,11 @@
+package com.example.asyncpayments.dto;
+
+import java.util.List;
+
+public record ResultadoLote(int efetuadas, int recusadas, List<ResultadoItemLote> itens) {
+
+    public static ResultadoLote de(List<ResultadoItemLote> itens) {
+        int efetuadas = (int) itens.stream().filter(ResultadoItemLote::efetuada).count();
+        return new ResultadoLote(efetuadas, itens.size() - efetuadas, itens);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.asyncpayments.dto;
+
+/**
+ * Resultado de uma verificação do ledger. {@code ultimoBlocoVerificado} é o bloco do checkpoint ao fim da
+ * verificação; quando {@code integro} é falso, {@code blocoInvalido} e {@code motivo} apontam a falha.
+ */
+public record ResultadoVerificacaoLedger(long blocosVerificados, long ultimoBlocoVerificado, boolean integro,
+                                         Long blocoInvalido, String motivo) {
+
+    public static ResultadoVerificacaoLedger integro(long blocosVerificados, long ultimoBlocoVerificado) {
+        return new ResultadoVerificacaoLedger(blocosVerificados, ultimoBlocoVerificado, true, null, null);
+    }
+
+    public static ResultadoVerificacaoLedger invalido(long blocosVerificados, long ultimoBlocoVerificado,
+                                                      long blocoInvalido, String motivo) {
+        return new ResultadoVerificacaoLedger(blocosVerificados, ultimoBlocoVerificado, false, blocoInvalido, motivo);
+    }
+}
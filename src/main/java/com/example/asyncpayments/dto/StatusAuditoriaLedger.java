@@ -0,0 +1,18 @@
+package com.example.asyncpayments.dto;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Andamento da auditoria completa do ledger. {@code ultimoBlocoVerificado} é o checkpoint de onde uma
+ * auditoria retomada continua; {@code registrosPorSegundo} é a vazão desde o início da execução.
+ */
+public record StatusAuditoriaLedger(Situacao situacao, OffsetDateTime inicio, OffsetDateTime fim,
+                                    long blocosVerificados, long registrosVerificados, double registrosPorSegundo,
+                                    long ultimoBlocoVerificado, Long blocoInvalido, String motivo) {
+
+    public enum Situacao { NUNCA_EXECUTADA, EM_ANDAMENTO, INTEGRO, INVALIDO, ERRO }
+
+    public static StatusAuditoriaLedger nuncaExecutada() {
+        return new StatusAuditoriaLedger(Situacao.NUNCA_EXECUTADA, null, null, 0, 0, 0, 0, null, null);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.asyncpayments.dto;
+
+import com.example.asyncpayments.entity.Dinheiro;
+import com.example.asyncpayments.entity.GatewayPagamento;
+import com.example.asyncpayments.entity.MetodoConexao;
+import com.example.asyncpayments.entity.StatusTransacao;
+import com.example.asyncpayments.entity.TipoOperacao;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransacaoFiltro {
+    private Long id;
+    private Long idUsuarioOrigem;
+    private Long idUsuarioDestino;
+    private Dinheiro valor;
+    private TipoOperacao tipoOperacao;
+    private MetodoConexao metodoConexao;
+    private GatewayPagamento gatewayPagamento;
+    private StatusTransacao status;
+    private String descricao;
+    private String nomeUsuarioOrigem;
+    private String emailUsuarioOrigem;
+    private String cpfUsuarioOrigem;
+    private String nomeUsuarioDestino;
+    private String emailUsuarioDestino;
+    private String cpfUsuarioDestino;
+    private String dataCriacaoInicio;
+    private String dataCriacaoFim;
+    private String dataAtualizacaoInicio;
+    private String dataAtualizacaoFim;
+}
@@ -1,5 +1,6 @@
 package com.example.asyncpayments.dto;
 
+import com.example.asyncpayments.entity.Dinheiro;
 import com.example.asyncpayments.entity.GatewayPagamento;
 import com.example.asyncpayments.entity.MetodoConexao;
 import com.example.asyncpayments.entity.TipoOperacao;
@@ -22,7 +23,7 @@ public class TransacaoRequest {
 
     @NotNull(message = "O valor da transação é obrigatório.")
     @Positive(message = "O valor da transação deve ser positivo.")
-    private Double valor;
+    private Dinheiro valor;
 
     @NotNull(message = "O método de conexão é obrigatório.")
     private MetodoConexao metodoConexao;
@@ -1,5 +1,7 @@
 package com.example.asyncpayments.dto;
 
+import com.example.asyncpayments.entity.Dinheiro;
+
 import java.time.OffsetDateTime;
 
 import lombok.Data;
@@ -7,7 +9,7 @@ import lombok.Data;
 @Data
 public class TransactionResponse {
     private Long id;
-    private Double valor;
+    private Dinheiro valor;
     private String tipoOperacao;
     private String metodoConexao;
     private String gatewayPagamento;
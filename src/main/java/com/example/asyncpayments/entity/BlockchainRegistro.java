@@ -11,14 +11,32 @@ import lombok.*;
 @AllArgsConstructor
 @Builder
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_blockchain_registro_hash", columnList = "hash_transacao", unique = true),
+    @Index(name = "idx_blockchain_registro_bloco", columnList = "numero_bloco, indice_bloco"),
+    @Index(name = "idx_blockchain_registro_pendente", columnList = "pendente_selagem, id")
+})
 public class BlockchainRegistro {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "blockchain_registro_seq")
+    @SequenceGenerator(name = "blockchain_registro_seq", sequenceName = "blockchain_registro_seq", allocationSize = 50)
     private Long id;
 
+    private Long idTransacao;
     private Long idUsuarioOrigem;
     private Long idUsuarioDestino;
-    private Double valor;
+    @Column(precision = 19, scale = 2)
+    private Dinheiro valor;
     private OffsetDateTime dataRegistro;
     private String hashTransacao;
+
+    /** Bloco do ledger em que o registro foi selado e sua posição na árvore de Merkle do bloco. */
+    private Long numeroBloco;
+    private Integer indiceBloco;
+
+    /**
+     * {@code true} enquanto o registro aguarda a selagem num bloco; volta a nulo ao ser selado. Registros
+     * gravados antes do ledger em blocos também ficam com nulo e nunca são selados.
+     */
+    private Boolean pendenteSelagem;
 }
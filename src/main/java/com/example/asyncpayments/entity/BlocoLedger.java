@@ -0,0 +1,30 @@
+package com.example.asyncpayments.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Bloco selado do ledger: agrupa registros do blockchain pela raiz de Merkle de seus hashes e se
+ * encadeia ao bloco anterior por {@code hashAnterior}.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(indexes = @Index(name = "idx_bloco_ledger_numero", columnList = "numero", unique = true))
+public class BlocoLedger {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bloco_ledger_seq")
+    @SequenceGenerator(name = "bloco_ledger_seq", sequenceName = "bloco_ledger_seq", allocationSize = 50)
+    private Long id;
+
+    private long numero;
+    private String hashAnterior;
+    private String raizMerkle;
+    private String hashBloco;
+    private int quantidadeRegistros;
+    private OffsetDateTime dataCriacao;
+}
@@ -0,0 +1,28 @@
+package com.example.asyncpayments.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Último bloco do ledger já verificado. Há uma linha para a verificação incremental periódica e outra
+ * para a auditoria completa, que é retomada de onde parou.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CheckpointLedger {
+    public static final long ID_VERIFICACAO = 1L;
+    public static final long ID_AUDITORIA = 2L;
+
+    @Id
+    private Long id;
+
+    private long numeroBloco;
+    private String hashBloco;
+    private OffsetDateTime dataVerificacao;
+}
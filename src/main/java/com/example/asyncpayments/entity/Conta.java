@@ -11,18 +11,19 @@ import lombok.NoArgsConstructor;
 @MappedSuperclass
 public abstract class Conta {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "conta_seq")
+    @SequenceGenerator(name = "conta_seq", sequenceName = "conta_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false)
-    private Double saldo;
+    @Column(nullable = false, precision = 19, scale = 2)
+    private Dinheiro saldo;
 
     @OneToOne
     @JoinColumn(name = "user_id", nullable = false)
     @JsonIgnore
     private User user;
 
-    public Conta(Double saldo, User user) {
+    public Conta(Dinheiro saldo, User user) {
         this.saldo = saldo;
         this.user = user;
     }
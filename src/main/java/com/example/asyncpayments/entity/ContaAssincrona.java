@@ -19,7 +19,7 @@ public class ContaAssincrona extends Conta {
     private boolean bloqueada;
     private OffsetDateTime ultimaSincronizacao;
 
-    public ContaAssincrona(Double saldo, User user) {
+    public ContaAssincrona(Dinheiro saldo, User user) {
         super(saldo, user);
     }
 
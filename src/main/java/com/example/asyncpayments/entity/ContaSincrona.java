@@ -11,7 +11,7 @@ import lombok.NoArgsConstructor;
 @EqualsAndHashCode(callSuper = false)
 public class ContaSincrona extends Conta {
 
-    public ContaSincrona(Double saldo, User user) {
+    public ContaSincrona(Dinheiro saldo, User user) {
         super(saldo, user);
     }
 
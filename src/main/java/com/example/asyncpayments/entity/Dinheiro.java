@@ -0,0 +1,83 @@
+package com.example.asyncpayments.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Valor monetário em reais, guardado como um número inteiro de centavos. Somas e comparações são
+ * exatas e feitas sobre um {@code long}; a conversão para {@link BigDecimal} só acontece na borda
+ * (JSON e banco).
+ */
+public record Dinheiro(long centavos) implements Comparable<Dinheiro> {
+
+    public static final Dinheiro ZERO = new Dinheiro(0);
+
+    public static Dinheiro deCentavos(long centavos) {
+        return new Dinheiro(centavos);
+    }
+
+    /**
+     * Converte um valor em reais. Valores com mais de duas casas decimais são rejeitados em vez de arredondados.
+     */
+    @JsonCreator
+    public static Dinheiro de(BigDecimal reais) {
+        try {
+            return new Dinheiro(reais.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Valor monetário inválido: " + reais.toPlainString());
+        }
+    }
+
+    /**
+     * Usado pelo Spring para converter parâmetros de requisição ({@code ?valor=10.50}).
+     */
+    public static Dinheiro valueOf(String reais) {
+        try {
+            return de(new BigDecimal(reais.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor monetário inválido: " + reais);
+        }
+    }
+
+    public Dinheiro mais(Dinheiro outro) {
+        return new Dinheiro(Math.addExact(centavos, outro.centavos));
+    }
+
+    public Dinheiro menos(Dinheiro outro) {
+        return new Dinheiro(Math.subtractExact(centavos, outro.centavos));
+    }
+
+    public Dinheiro negado() {
+        return new Dinheiro(Math.negateExact(centavos));
+    }
+
+    public boolean positivo() {
+        return centavos > 0;
+    }
+
+    public boolean maiorQue(Dinheiro outro) {
+        return centavos > outro.centavos;
+    }
+
+    public boolean menorQue(Dinheiro outro) {
+        return centavos < outro.centavos;
+    }
+
+    @JsonValue
+    public BigDecimal emReais() {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    @Override
+    public int compareTo(Dinheiro outro) {
+        return Long.compare(centavos, outro.centavos);
+    }
+
+    @Override
+    public String toString() {
+        return emReais().toPlainString();
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.asyncpayments.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Persiste {@link Dinheiro} como {@code NUMERIC(19,2)}, o que mantém legíveis as colunas de valor já existentes.
+ */
+@Converter(autoApply = true)
+public class DinheiroConverter implements AttributeConverter<Dinheiro, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Dinheiro valor) {
+        return valor != null ? valor.emReais() : null;
+    }
+
+    @Override
+    public Dinheiro convertToEntityAttribute(BigDecimal coluna) {
+        // colunas antigas em ponto flutuante podem trazer mais de duas casas
+        return coluna != null ? Dinheiro.deCentavos(coluna.setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact()) : null;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.asyncpayments.entity;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * Permite usar {@link Positive} em campos {@link Dinheiro}. Registrado via
+ * {@code META-INF/services/jakarta.validation.ConstraintValidator}.
+ */
+public class DinheiroPositivoValidator implements ConstraintValidator<Positive, Dinheiro> {
+
+    @Override
+    public boolean isValid(Dinheiro valor, ConstraintValidatorContext context) {
+        return valor == null || valor.positivo();
+    }
+}
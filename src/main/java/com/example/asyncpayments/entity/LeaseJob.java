@@ -0,0 +1,25 @@
+package com.example.asyncpayments.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Concessão de um job agendado a uma instância. A instância {@code dono} é a única que executa o job
+ * {@code nome} até {@code expiraEm}; ao renovar a concessão a cada execução, ela continua líder.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LeaseJob {
+
+    @Id
+    private String nome;
+
+    private String dono;
+    private OffsetDateTime expiraEm;
+}
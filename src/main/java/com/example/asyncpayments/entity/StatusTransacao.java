@@ -4,5 +4,12 @@ public enum StatusTransacao {
     PENDENTE,
     SINCRONIZADA,
     ROLLBACK,
-    ERRO
+    ERRO;
+
+    /**
+     * Status de que a transação não sai mais.
+     */
+    public boolean isFinal() {
+        return this != PENDENTE;
+    }
 }
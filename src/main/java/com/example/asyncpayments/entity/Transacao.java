@@ -10,13 +10,19 @@ import lombok.AllArgsConstructor;
 import java.time.OffsetDateTime;
 
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_transacao_destino_data", columnList = "id_usuario_destino, data_criacao"),
+    @Index(name = "idx_transacao_origem_data", columnList = "id_usuario_origem, data_criacao"),
+    @Index(name = "idx_transacao_status_data", columnList = "status, data_criacao")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Transacao {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transacao_seq")
+    @SequenceGenerator(name = "transacao_seq", sequenceName = "transacao_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "O ID do usuário de origem é obrigatório.")
@@ -27,7 +33,8 @@ public class Transacao {
 
     @NotNull(message = "O valor da transação é obrigatório.")
     @Positive(message = "O valor da transação deve ser positivo.")
-    private Double valor;
+    @Column(precision = 19, scale = 2)
+    private Dinheiro valor;
 
     @Enumerated(EnumType.STRING)
     @NotNull(message = "O tipo de operação é obrigatório.")
@@ -83,7 +90,7 @@ public class Transacao {
         return this.dataAtualizacao;
     }
 
-    public Transacao(Long id, Long idUsuarioOrigem, Long idUsuarioDestino, Double valor, TipoOperacao tipoOperacao,
+    public Transacao(Long id, Long idUsuarioOrigem, Long idUsuarioDestino, Dinheiro valor, TipoOperacao tipoOperacao,
                      MetodoConexao metodoConexao, GatewayPagamento gatewayPagamento, StatusTransacao status,
                      OffsetDateTime dataCriacao, OffsetDateTime dataAtualizacao, String descricao) {
         this.id = id;
@@ -12,13 +12,15 @@ import java.time.OffsetDateTime;
 @Builder
 public class TransacaoAltoValor {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transacao_alto_valor_seq")
+    @SequenceGenerator(name = "transacao_alto_valor_seq", sequenceName = "transacao_alto_valor_seq", allocationSize = 50)
     private Long id;
 
     private Long idTransacao;
     private Long idUsuarioOrigem;
     private Long idUsuarioDestino;
-    private Double valor;
+    @Column(precision = 19, scale = 2)
+    private Dinheiro valor;
     private OffsetDateTime dataCriacao;
     private String descricao;
 }
\ No newline at end of file
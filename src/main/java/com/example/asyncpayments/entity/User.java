@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -23,7 +24,8 @@ import java.util.List;
 public class User implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -62,6 +64,13 @@ public class User implements UserDetails {
     @Column(name = "consentimento_dados")
     private Boolean consentimentoDados;
 
+    /**
+     * Versão gravada nos tokens emitidos para o usuário; incrementá-la revoga os tokens anteriores.
+     */
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "versao_token", nullable = false)
+    private long versaoToken;
 
     public User(String email, String password, UserRole role) {
         this.email = email;
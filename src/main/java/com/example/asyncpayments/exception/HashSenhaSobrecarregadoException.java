@@ -0,0 +1,14 @@
+package com.example.asyncpayments.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A fila de cálculo de hashes de senha está cheia; o cliente deve tentar de novo mais tarde.
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class HashSenhaSobrecarregadoException extends RuntimeException {
+    public HashSenhaSobrecarregadoException(String message) {
+        super(message);
+    }
+}
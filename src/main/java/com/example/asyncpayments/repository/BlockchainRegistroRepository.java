@@ -1,7 +1,54 @@
 package com.example.asyncpayments.repository;
 
 import com.example.asyncpayments.entity.BlockchainRegistro;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BlockchainRegistroRepository extends JpaRepository<BlockchainRegistro, Long> {
-}
\ No newline at end of file
+
+    boolean existsByHashTransacao(String hashTransacao);
+
+    Optional<BlockchainRegistro> findByHashTransacao(String hashTransacao);
+
+    @Query("select r.hashTransacao from BlockchainRegistro r where r.numeroBloco = :numeroBloco order by r.indiceBloco")
+    List<String> findHashesDoBloco(@Param("numeroBloco") Long numeroBloco);
+
+    @Query("select r.hashTransacao from BlockchainRegistro r where r.hashTransacao in :hashes")
+    List<String> findHashesExistentes(@Param("hashes") Collection<String> hashes);
+
+    /**
+     * Próximos registros à espera de selagem, na ordem em que foram gravados, pelo índice
+     * {@code (pendente_selagem, id)}. As linhas ficam bloqueadas até o fim da transação; linhas já
+     * bloqueadas por outra instância são puladas (lock timeout -2 = SKIP LOCKED).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select r from BlockchainRegistro r where r.pendenteSelagem = true order by r.id")
+    List<BlockchainRegistro> findPendentesDeSelagem(Pageable pageable);
+
+    /**
+     * Registros ainda não selados, contados pelo mesmo índice {@code (pendente_selagem, id)}.
+     */
+    long countByPendenteSelagemTrue();
+
+    List<BlockchainRegistro> findByNumeroBlocoBetweenOrderByNumeroBlocoAscIndiceBlocoAsc(Long primeiro, Long ultimo);
+
+    /**
+     * Percorre os hashes do ledger sem carregar as entidades. Precisa ser consumido dentro de uma transação.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select r.hashTransacao from BlockchainRegistro r")
+    Stream<String> streamHashes();
+}
@@ -0,0 +1,17 @@
+package com.example.asyncpayments.repository;
+
+import com.example.asyncpayments.entity.BlocoLedger;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface BlocoLedgerRepository extends JpaRepository<BlocoLedger, Long> {
+
+    Optional<BlocoLedger> findTopByOrderByNumeroDesc();
+
+    Optional<BlocoLedger> findByNumero(long numero);
+
+    List<BlocoLedger> findByNumeroGreaterThanOrderByNumeroAsc(long numero, Pageable pageable);
+}
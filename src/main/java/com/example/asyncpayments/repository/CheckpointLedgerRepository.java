@@ -0,0 +1,7 @@
+package com.example.asyncpayments.repository;
+
+import com.example.asyncpayments.entity.CheckpointLedger;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface CheckpointLedgerRepository extends JpaRepository<CheckpointLedger, Long> {
+}
@@ -1,8 +1,71 @@
 package com.example.asyncpayments.repository;
 
 import com.example.asyncpayments.entity.ContaAssincrona;
+import com.example.asyncpayments.entity.Dinheiro;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
 
 public interface ContaAssincronaRepository extends JpaRepository<ContaAssincrona, Long> {
     ContaAssincrona findByUserId(Long userId);
-}
\ No newline at end of file
+
+    boolean existsByUserId(Long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from ContaAssincrona c where c.user.id = :userId")
+    ContaAssincrona findByUserIdParaAtualizacao(@Param("userId") Long userId);
+
+    /**
+     * Bloqueia as contas dos usuários informados, em ordem de id de usuário, e devolve os saldos.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+        select new com.example.asyncpayments.repository.SaldoConta(c.user.id, c.saldo)
+        from ContaAssincrona c where c.user.id in :userIds order by c.user.id
+        """)
+    List<SaldoConta> findSaldosParaAtualizacao(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Debita o valor em um único UPDATE condicional. Devolve 0 se a conta não existe ou não tem saldo.
+     */
+    default int debitarSeSuficiente(Long userId, Dinheiro valor) {
+        return debitarSeSuficiente(userId, valor, limiteInatividade());
+    }
+
+    default int creditar(Long userId, Dinheiro valor) {
+        return creditar(userId, valor, limiteInatividade());
+    }
+
+    // UPDATEs em massa não disparam o @PreUpdate da entidade, então o bloqueio por inatividade é aplicado aqui.
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        update ContaAssincrona c
+        set c.saldo = c.saldo - :valor,
+            c.bloqueada = case when c.ultimaSincronizacao < :limiteInatividade then true else c.bloqueada end
+        where c.user.id = :userId and c.saldo >= :valor
+        """)
+    int debitarSeSuficiente(@Param("userId") Long userId, @Param("valor") Dinheiro valor,
+                            @Param("limiteInatividade") OffsetDateTime limiteInatividade);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        update ContaAssincrona c
+        set c.saldo = c.saldo + :valor,
+            c.bloqueada = case when c.ultimaSincronizacao < :limiteInatividade then true else c.bloqueada end
+        where c.user.id = :userId
+        """)
+    int creditar(@Param("userId") Long userId, @Param("valor") Dinheiro valor,
+                 @Param("limiteInatividade") OffsetDateTime limiteInatividade);
+
+    private static OffsetDateTime limiteInatividade() {
+        return OffsetDateTime.now(ZoneOffset.UTC).minusHours(72);
+    }
+}
@@ -1,8 +1,44 @@
 package com.example.asyncpayments.repository;
 
 import com.example.asyncpayments.entity.ContaSincrona;
+import com.example.asyncpayments.entity.Dinheiro;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface ContaSincronaRepository extends JpaRepository<ContaSincrona, Long> {
     ContaSincrona findByUserId(Long userId);
-}
\ No newline at end of file
+
+    boolean existsByUserId(Long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from ContaSincrona c where c.user.id = :userId")
+    ContaSincrona findByUserIdParaAtualizacao(@Param("userId") Long userId);
+
+    /**
+     * Bloqueia as contas dos usuários informados, em ordem de id de usuário, e devolve os saldos.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+        select new com.example.asyncpayments.repository.SaldoConta(c.user.id, c.saldo)
+        from ContaSincrona c where c.user.id in :userIds order by c.user.id
+        """)
+    List<SaldoConta> findSaldosParaAtualizacao(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Debita o valor em um único UPDATE condicional. Devolve 0 se a conta não existe ou não tem saldo.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update ContaSincrona c set c.saldo = c.saldo - :valor where c.user.id = :userId and c.saldo >= :valor")
+    int debitarSeSuficiente(@Param("userId") Long userId, @Param("valor") Dinheiro valor);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update ContaSincrona c set c.saldo = c.saldo + :valor where c.user.id = :userId")
+    int creditar(@Param("userId") Long userId, @Param("valor") Dinheiro valor);
+}
@@ -0,0 +1,38 @@
+package com.example.asyncpayments.repository;
+
+import com.example.asyncpayments.entity.LeaseJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+
+public interface LeaseJobRepository extends JpaRepository<LeaseJob, String> {
+
+    /**
+     * Toma ou renova a concessão num único UPDATE: só muda a linha se {@code dono} já a tem ou se ela
+     * expirou, então duas instâncias nunca tomam a mesma concessão.
+     *
+     * @return 1 se a concessão ficou com {@code dono}
+     */
+    @Modifying
+    @Query("""
+            update LeaseJob l set l.dono = :dono, l.expiraEm = :expiraEm
+            where l.nome = :nome and (l.dono = :dono or l.expiraEm < :agora)
+            """)
+    int tomar(@Param("nome") String nome, @Param("dono") String dono,
+              @Param("agora") OffsetDateTime agora, @Param("expiraEm") OffsetDateTime expiraEm);
+
+    /**
+     * Cria a concessão de um job que ainda não tem linha. Falha com violação de chave se outra instância
+     * a criou antes.
+     */
+    @Modifying
+    @Query(value = "insert into lease_job (nome, dono, expira_em) values (:nome, :dono, :expiraEm)", nativeQuery = true)
+    int criar(@Param("nome") String nome, @Param("dono") String dono, @Param("expiraEm") OffsetDateTime expiraEm);
+
+    @Modifying
+    @Query("update LeaseJob l set l.expiraEm = :agora where l.nome = :nome and l.dono = :dono")
+    int liberar(@Param("nome") String nome, @Param("dono") String dono, @Param("agora") OffsetDateTime agora);
+}
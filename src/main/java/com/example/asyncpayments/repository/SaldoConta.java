@@ -0,0 +1,9 @@
+package com.example.asyncpayments.repository;
+
+import com.example.asyncpayments.entity.Dinheiro;
+
+/**
+ * Saldo de uma conta lido sem carregar a entidade (e o usuário associado).
+ */
+public record SaldoConta(Long userId, Dinheiro saldo) {
+}
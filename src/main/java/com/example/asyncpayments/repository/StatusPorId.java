@@ -0,0 +1,9 @@
+package com.example.asyncpayments.repository;
+
+import com.example.asyncpayments.entity.StatusTransacao;
+
+/**
+ * Status atual de uma transação no banco, para conferir em lote os status guardados fora dele.
+ */
+public record StatusPorId(Long id, StatusTransacao status) {
+}
@@ -0,0 +1,10 @@
+package com.example.asyncpayments.repository;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Transação pendente com só o necessário para agendar o seu vencimento e distribuí-la entre os workers do
+ * processador.
+ */
+public record TransacaoPendente(Long id, Long idUsuarioOrigem, OffsetDateTime dataCriacao) {
+}
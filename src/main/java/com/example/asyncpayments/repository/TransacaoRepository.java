@@ -3,14 +3,28 @@ package com.example.asyncpayments.repository;
 import com.example.asyncpayments.entity.StatusTransacao;
 import com.example.asyncpayments.entity.TipoOperacao;
 import com.example.asyncpayments.entity.Transacao;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TransacaoRepository extends JpaRepository<Transacao, Long> {
+public interface TransacaoRepository extends JpaRepository<Transacao, Long>, JpaSpecificationExecutor<Transacao>, TransacaoRepositoryCustom {
     List<Transacao> findByIdUsuarioOrigem(Long idUsuarioOrigem);
 
     List<Transacao> findByIdUsuarioOrigemAndDataCriacaoBetween(Long idUsuarioOrigem, OffsetDateTime startDate, OffsetDateTime endDate);
@@ -18,4 +32,92 @@ public interface TransacaoRepository extends JpaRepository<Transacao, Long> {
     List<Transacao> findByTipoOperacao(TipoOperacao tipoOperacao);
 
     List<Transacao> findByStatus(StatusTransacao status);
+
+    /**
+     * Próximas transações no status informado criadas antes de {@code limite}, mais antigas primeiro, pelo
+     * índice {@code (status, data_criacao)}. As linhas ficam bloqueadas até o fim da transação; linhas já
+     * bloqueadas por outra transação são puladas (lock timeout -2 = SKIP LOCKED).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            select new com.example.asyncpayments.repository.TransacaoVencida(t.id, t.idUsuarioOrigem, t.valor)
+            from Transacao t where t.status = :status and t.dataCriacao < :limite order by t.dataCriacao
+            """)
+    List<TransacaoVencida> findVencidasParaAtualizacao(@Param("status") StatusTransacao status,
+                                                      @Param("limite") OffsetDateTime limite, Pageable pageable);
+
+    /**
+     * As transações informadas que ainda estão no status informado e foram criadas antes de {@code limite},
+     * bloqueadas como em {@link #findVencidasParaAtualizacao}.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            select new com.example.asyncpayments.repository.TransacaoVencida(t.id, t.idUsuarioOrigem, t.valor)
+            from Transacao t where t.id in :ids and t.status = :status and t.dataCriacao < :limite
+            """)
+    List<TransacaoVencida> findVencidasPorIdParaAtualizacao(@Param("ids") Collection<Long> ids, @Param("status") StatusTransacao status,
+                                                            @Param("limite") OffsetDateTime limite);
+
+    @Query("select t.status from Transacao t where t.id = :id")
+    Optional<StatusTransacao> findStatusById(@Param("id") Long id);
+
+    @Query("select new com.example.asyncpayments.repository.StatusPorId(t.id, t.status) from Transacao t where t.id in :ids")
+    List<StatusPorId> findStatusPorIds(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            select new com.example.asyncpayments.repository.TransacaoPendente(t.id, t.idUsuarioOrigem, t.dataCriacao)
+            from Transacao t where t.status = :status and t.dataCriacao is not null
+            """)
+    Stream<TransacaoPendente> streamPorStatus(@Param("status") StatusTransacao status);
+
+    @Query("""
+            select new com.example.asyncpayments.repository.TransacaoPendente(t.id, t.idUsuarioOrigem, t.dataCriacao)
+            from Transacao t where t.status = :status order by t.dataCriacao, t.id
+            """)
+    List<TransacaoPendente> findPendentesPorStatus(@Param("status") StatusTransacao status, Pageable pageable);
+
+    /**
+     * Muda o status só das transações informadas que ainda estão em {@code statusAtual}.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            update Transacao t set t.status = :novoStatus, t.dataAtualizacao = :dataAtualizacao
+            where t.id in :ids and t.status = :statusAtual
+            """)
+    int atualizarStatusSeAinda(@Param("ids") Collection<Long> ids, @Param("statusAtual") StatusTransacao statusAtual,
+                               @Param("novoStatus") StatusTransacao novoStatus, @Param("dataAtualizacao") OffsetDateTime dataAtualizacao);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            update Transacao t set t.status = :status, t.descricao = :descricao, t.dataAtualizacao = :dataAtualizacao
+            where t.id in :ids
+            """)
+    int atualizarStatus(@Param("ids") Collection<Long> ids, @Param("status") StatusTransacao status,
+                        @Param("descricao") String descricao, @Param("dataAtualizacao") OffsetDateTime dataAtualizacao);
+
+    Slice<Transacao> findByIdUsuarioOrigemOrderByDataCriacaoDescIdDesc(Long idUsuarioOrigem, Pageable pageable);
+
+    Slice<Transacao> findByIdUsuarioDestinoOrderByDataCriacaoDescIdDesc(Long idUsuarioDestino, Pageable pageable);
+
+    /**
+     * Extrato do usuário (enviadas e recebidas) em ordem decrescente de criação. Cada ramo do UNION
+     * percorre o seu índice composto já ordenado e lê no máximo {@code limite} linhas; a intercalação
+     * final opera só sobre esses candidatos. Transferências para si mesmo entram apenas uma vez.
+     */
+    @Query(value = """
+            select * from (
+                (select * from transacao where id_usuario_origem = :idUsuario
+                 order by data_criacao desc, id desc limit :limite)
+                union all
+                (select * from transacao where id_usuario_destino = :idUsuario and id_usuario_origem <> :idUsuario
+                 order by data_criacao desc, id desc limit :limite)
+            ) extrato
+            order by data_criacao desc, id desc
+            limit :tamanho offset :deslocamento
+            """, nativeQuery = true)
+    List<Transacao> findExtrato(@Param("idUsuario") Long idUsuario, @Param("limite") int limite,
+                                @Param("tamanho") int tamanho, @Param("deslocamento") int deslocamento);
 }
\ No newline at end of file
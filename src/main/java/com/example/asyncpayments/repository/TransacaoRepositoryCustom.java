@@ -0,0 +1,16 @@
+package com.example.asyncpayments.repository;
+
+import com.example.asyncpayments.entity.Transacao;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+public interface TransacaoRepositoryCustom {
+
+    /**
+     * Percorre as transações que atendem à especificação sobre um cursor JDBC, sem materializar o
+     * resultado. Deve ser consumido dentro de uma transação e fechado ao final.
+     */
+    Stream<Transacao> streamAll(Specification<Transacao> especificacao, Sort ordenacao);
+}
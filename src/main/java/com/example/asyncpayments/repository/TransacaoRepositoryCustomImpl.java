@@ -0,0 +1,46 @@
+package com.example.asyncpayments.repository;
+
+import com.example.asyncpayments.entity.Transacao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class TransacaoRepositoryCustomImpl implements TransacaoRepositoryCustom {
+
+    private static final int TAMANHO_FETCH = 500;
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Stream<Transacao> streamAll(Specification<Transacao> especificacao, Sort ordenacao) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Transacao> query = cb.createQuery(Transacao.class);
+        Root<Transacao> root = query.from(Transacao.class);
+        Predicate predicado = especificacao.toPredicate(root, query, cb);
+        if (predicado != null) {
+            query.where(predicado);
+        }
+        query.orderBy(QueryUtils.toOrders(ordenacao, root, cb));
+
+        // Cada linha é desanexada ao ser lida para que o contexto de persistência não cresça com o resultado
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, TAMANHO_FETCH)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .map(transacao -> {
+                    entityManager.detach(transacao);
+                    return transacao;
+                });
+    }
+}
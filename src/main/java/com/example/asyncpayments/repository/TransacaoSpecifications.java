@@ -0,0 +1,131 @@
+package com.example.asyncpayments.repository;
+
+import com.example.asyncpayments.dto.CursorTransacao;
+import com.example.asyncpayments.dto.TransacaoFiltro;
+import com.example.asyncpayments.entity.Transacao;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Traduz os filtros de {@link TransacaoFiltro} em predicados SQL, para que a busca de transações
+ * seja resolvida pelo banco em vez de filtrar {@code findAll()} em memória.
+ */
+public final class TransacaoSpecifications {
+
+    private static final char ESCAPE = '\\';
+
+    private TransacaoSpecifications() {
+    }
+
+    /**
+     * Monta a especificação com todos os filtros informados. As datas são convertidas uma única vez,
+     * aqui; uma data em formato inválido lança {@link DateTimeParseException}.
+     */
+    public static Specification<Transacao> comFiltros(TransacaoFiltro filtro) {
+        OffsetDateTime criacaoInicio = converterData(filtro.getDataCriacaoInicio());
+        OffsetDateTime criacaoFim = converterData(filtro.getDataCriacaoFim());
+        OffsetDateTime atualizacaoInicio = converterData(filtro.getDataAtualizacaoInicio());
+        OffsetDateTime atualizacaoFim = converterData(filtro.getDataAtualizacaoFim());
+
+        return (root, query, cb) -> {
+            List<Predicate> predicados = new ArrayList<>();
+
+            igual(predicados, cb, root, "id", filtro.getId());
+            igual(predicados, cb, root, "idUsuarioOrigem", filtro.getIdUsuarioOrigem());
+            igual(predicados, cb, root, "idUsuarioDestino", filtro.getIdUsuarioDestino());
+            igual(predicados, cb, root, "valor", filtro.getValor());
+            igual(predicados, cb, root, "tipoOperacao", filtro.getTipoOperacao());
+            igual(predicados, cb, root, "metodoConexao", filtro.getMetodoConexao());
+            igual(predicados, cb, root, "gatewayPagamento", filtro.getGatewayPagamento());
+            igual(predicados, cb, root, "status", filtro.getStatus());
+
+            contemIgnorandoCaixa(predicados, cb, root, "descricao", filtro.getDescricao());
+            contemIgnorandoCaixa(predicados, cb, root, "nomeUsuarioOrigem", filtro.getNomeUsuarioOrigem());
+            contemIgnorandoCaixa(predicados, cb, root, "emailUsuarioOrigem", filtro.getEmailUsuarioOrigem());
+            contem(predicados, cb, root.get("cpfUsuarioOrigem"), filtro.getCpfUsuarioOrigem());
+            contemIgnorandoCaixa(predicados, cb, root, "nomeUsuarioDestino", filtro.getNomeUsuarioDestino());
+            contemIgnorandoCaixa(predicados, cb, root, "emailUsuarioDestino", filtro.getEmailUsuarioDestino());
+            contem(predicados, cb, root.get("cpfUsuarioDestino"), filtro.getCpfUsuarioDestino());
+
+            intervalo(predicados, cb, root.get("dataCriacao"), criacaoInicio, criacaoFim);
+            intervalo(predicados, cb, root.get("dataAtualizacao"), atualizacaoInicio, atualizacaoFim);
+
+            return cb.and(predicados.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Restringe às transações posteriores ao cursor na ordem {@code dataCriacao DESC, id DESC}
+     * (paginação por keyset). Sem cursor, não restringe nada. Transações sem {@code dataCriacao} ficam no
+     * começo, como o PostgreSQL ordena nulos em ordem decrescente.
+     */
+    public static Specification<Transacao> aposCursor(CursorTransacao cursor) {
+        return (root, query, cb) -> {
+            if (cursor == null) {
+                return null;
+            }
+            Expression<OffsetDateTime> dataCriacao = root.get("dataCriacao");
+            if (cursor.dataCriacao() == null) {
+                // As sem data vêm primeiro; depois delas, todas as que têm data.
+                return cb.or(
+                        cb.isNotNull(dataCriacao),
+                        cb.and(cb.isNull(dataCriacao), cb.lessThan(root.get("id"), cursor.id()))
+                );
+            }
+            return cb.or(
+                    cb.lessThan(dataCriacao, cursor.dataCriacao()),
+                    cb.and(cb.equal(dataCriacao, cursor.dataCriacao()), cb.lessThan(root.get("id"), cursor.id()))
+            );
+        };
+    }
+
+    private static OffsetDateTime converterData(String valor) {
+        return valor == null ? null : OffsetDateTime.parse(valor);
+    }
+
+    private static void igual(List<Predicate> predicados, CriteriaBuilder cb, Root<Transacao> root, String atributo, Object valor) {
+        if (valor != null) {
+            predicados.add(cb.equal(root.get(atributo), valor));
+        }
+    }
+
+    private static void contemIgnorandoCaixa(List<Predicate> predicados, CriteriaBuilder cb, Root<Transacao> root, String atributo, String valor) {
+        if (valor != null) {
+            predicados.add(cb.like(cb.lower(root.get(atributo)), padraoContem(valor.toLowerCase()), ESCAPE));
+        }
+    }
+
+    private static void contem(List<Predicate> predicados, CriteriaBuilder cb, Expression<String> campo, String valor) {
+        if (valor != null) {
+            predicados.add(cb.like(campo, padraoContem(valor), ESCAPE));
+        }
+    }
+
+    private static void intervalo(List<Predicate> predicados, CriteriaBuilder cb, Expression<OffsetDateTime> campo,
+                                  OffsetDateTime inicio, OffsetDateTime fim) {
+        if (inicio != null) {
+            predicados.add(cb.greaterThanOrEqualTo(campo, inicio));
+        }
+        if (fim != null) {
+            predicados.add(cb.lessThanOrEqualTo(campo, fim));
+        }
+    }
+
+    // Escapa os curingas do LIKE para manter a semântica de "contains" do filtro original
+    private static String padraoContem(String valor) {
+        String escapado = valor
+                .replace(String.valueOf(ESCAPE), "" + ESCAPE + ESCAPE)
+                .replace("%", ESCAPE + "%")
+                .replace("_", ESCAPE + "_");
+        return "%" + escapado + "%";
+    }
+}
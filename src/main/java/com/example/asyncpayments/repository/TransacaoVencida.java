@@ -0,0 +1,9 @@
+package com.example.asyncpayments.repository;
+
+import com.example.asyncpayments.entity.Dinheiro;
+
+/**
+ * Transação pendente vencida, com só o necessário para desfazê-la.
+ */
+public record TransacaoVencida(Long id, Long idUsuarioOrigem, Dinheiro valor) {
+}
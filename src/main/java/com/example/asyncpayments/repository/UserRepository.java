@@ -2,8 +2,13 @@ package com.example.asyncpayments.repository;
 
 import com.example.asyncpayments.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,4 +18,32 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByCpf(String cpf);
 
+    @Query("""
+            select new com.example.asyncpayments.repository.UsuarioResumo(u.id, u.email, u.password, u.role, u.versaoToken)
+            from User u where u.email = :email
+            """)
+    Optional<UsuarioResumo> findResumoByEmail(@Param("email") String email);
+
+    @Query("""
+            select new com.example.asyncpayments.repository.UsuarioResumo(u.id, u.email, u.password, u.role, u.versaoToken)
+            from User u where u.id = :id
+            """)
+    Optional<UsuarioResumo> findResumoById(@Param("id") Long id);
+
+    @Query("select u.versaoToken from User u where u.id = :id")
+    Optional<Long> findVersaoTokenById(@Param("id") Long id);
+
+    @Query("select new com.example.asyncpayments.repository.VersaoToken(u.id, u.versaoToken) from User u where u.id in :ids")
+    List<VersaoToken> findVersoesToken(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.password = :senha where u.email = :email")
+    int atualizarSenha(@Param("email") String email, @Param("senha") String senha);
+
+    /**
+     * Revoga todos os tokens já emitidos para o usuário.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.versaoToken = u.versaoToken + 1 where u.id = :id")
+    int incrementarVersaoToken(@Param("id") Long id);
 }
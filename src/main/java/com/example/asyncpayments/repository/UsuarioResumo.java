@@ -0,0 +1,18 @@
+package com.example.asyncpayments.repository;
+
+import com.example.asyncpayments.entity.User;
+import com.example.asyncpayments.entity.UserRole;
+
+/**
+ * Dados de um usuário necessários para identificá-lo e autenticá-lo, sem as contas.
+ */
+public record UsuarioResumo(Long id, String email, String password, UserRole role, long versaoToken) {
+
+    /**
+     * Usuário fora do contexto de persistência, só com os campos do resumo. Serve para autenticação e emissão
+     * de tokens; não deve ser salvo.
+     */
+    public User paraUsuario() {
+        return User.builder().id(id).email(email).password(password).role(role).versaoToken(versaoToken).build();
+    }
+}
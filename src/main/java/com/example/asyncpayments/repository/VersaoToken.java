@@ -0,0 +1,7 @@
+package com.example.asyncpayments.repository;
+
+/**
+ * Versão atual dos tokens de um usuário; tokens emitidos com outra versão estão revogados.
+ */
+public record VersaoToken(Long id, long versao) {
+}
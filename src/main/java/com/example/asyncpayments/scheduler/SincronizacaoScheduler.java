@@ -1,18 +1,29 @@
 package com.example.asyncpayments.scheduler;
 
+import com.example.asyncpayments.service.LeaseJobService;
 import com.example.asyncpayments.service.SincronizacaoService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Component
 @RequiredArgsConstructor
 public class SincronizacaoScheduler {
 
+    private static final String JOB = "sincronizacao.rollback";
+    private static final Duration CONCESSAO = Duration.ofMinutes(35);
+
     private final SincronizacaoService sincronizacaoService;
+    private final LeaseJobService leaseJobService;
 
-    @Scheduled(fixedRate = 60000)
+    /**
+     * Rede de segurança: o rollback no vencimento é feito por {@code ExpiracaoPendentesService}; esta varredura
+     * só recolhe o que a roda de temporização não tiver visto.
+     */
+    @Scheduled(fixedRate = 1_800_000)
     public void executarRollbackTransacoesNaoSincronizadas() {
-        sincronizacaoService.rollbackTransacoesNaoSincronizadas();
+        leaseJobService.executarComoLider(JOB, CONCESSAO, sincronizacaoService::rollbackTransacoesNaoSincronizadas);
     }
 }
@@ -0,0 +1,25 @@
+package com.example.asyncpayments.scheduler;
+
+import com.example.asyncpayments.service.LeaseJobService;
+import com.example.asyncpayments.service.VerificadorLedgerService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@RequiredArgsConstructor
+public class VerificacaoLedgerScheduler {
+
+    private static final String JOB = "ledger.verificacao";
+    private static final Duration CONCESSAO = Duration.ofMinutes(15);
+
+    private final VerificadorLedgerService verificadorLedgerService;
+    private final LeaseJobService leaseJobService;
+
+    @Scheduled(fixedDelay = 600_000)
+    public void verificarNovosBlocos() {
+        leaseJobService.executarComoLider(JOB, CONCESSAO, verificadorLedgerService::verificarNovosBlocos);
+    }
+}
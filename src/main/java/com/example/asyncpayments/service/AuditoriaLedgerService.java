@@ -0,0 +1,241 @@
+package com.example.asyncpayments.service;
+
+import com.example.asyncpayments.dto.StatusAuditoriaLedger;
+import com.example.asyncpayments.dto.StatusAuditoriaLedger.Situacao;
+import com.example.asyncpayments.entity.BlockchainRegistro;
+import com.example.asyncpayments.entity.BlocoLedger;
+import com.example.asyncpayments.entity.CheckpointLedger;
+import com.example.asyncpayments.repository.BlockchainRegistroRepository;
+import com.example.asyncpayments.repository.BlocoLedgerRepository;
+import com.example.asyncpayments.repository.CheckpointLedgerRepository;
+import com.example.asyncpayments.util.HashLedger;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Auditoria completa do ledger, disparada pelo administrador.
+ *
+ * <p>Lê a cadeia em faixas de {@value #BLOCOS_POR_FAIXA} blocos consecutivos, com os registros da faixa em
+ * uma única consulta, e verifica os blocos da faixa em paralelo num {@link ForkJoinPool} do tamanho do número
+ * de processadores: o bloco anterior de cada bloco já está na faixa (ou é o checkpoint), então os blocos são
+ * independentes entre si. O checkpoint da auditoria avança a cada faixa íntegra, o que permite retomar uma
+ * auditoria interrompida. Só uma auditoria roda por vez.
+ */
+@Service
+public class AuditoriaLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditoriaLedgerService.class);
+
+    static final int BLOCOS_POR_FAIXA = 200;
+    static final int BLOCOS_POR_TAREFA = 8;
+
+    private final BlocoLedgerRepository blocoLedgerRepository;
+    private final BlockchainRegistroRepository blockchainRegistroRepository;
+    private final CheckpointLedgerRepository checkpointLedgerRepository;
+    private final TransactionTemplate transacao;
+    private final ForkJoinPool pool;
+
+    private final AtomicBoolean emAndamento = new AtomicBoolean();
+    private final AtomicReference<StatusAuditoriaLedger> status = new AtomicReference<>(StatusAuditoriaLedger.nuncaExecutada());
+
+    @Autowired
+    public AuditoriaLedgerService(BlocoLedgerRepository blocoLedgerRepository,
+                                  BlockchainRegistroRepository blockchainRegistroRepository,
+                                  CheckpointLedgerRepository checkpointLedgerRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this(blocoLedgerRepository, blockchainRegistroRepository, checkpointLedgerRepository, transactionManager,
+                new ForkJoinPool(Runtime.getRuntime().availableProcessors()));
+    }
+
+    AuditoriaLedgerService(BlocoLedgerRepository blocoLedgerRepository,
+                           BlockchainRegistroRepository blockchainRegistroRepository,
+                           CheckpointLedgerRepository checkpointLedgerRepository,
+                           PlatformTransactionManager transactionManager,
+                           ForkJoinPool pool) {
+        this.blocoLedgerRepository = blocoLedgerRepository;
+        this.blockchainRegistroRepository = blockchainRegistroRepository;
+        this.checkpointLedgerRepository = checkpointLedgerRepository;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.pool = pool;
+    }
+
+    /**
+     * Inicia a auditoria em segundo plano. Com {@code retomar}, continua do checkpoint da última auditoria;
+     * sem, recomeça do primeiro bloco.
+     */
+    public StatusAuditoriaLedger iniciar(boolean retomar) {
+        if (!emAndamento.compareAndSet(false, true)) {
+            throw new IllegalStateException("Já existe uma auditoria do ledger em andamento.");
+        }
+        OffsetDateTime inicio = OffsetDateTime.now(ZoneOffset.UTC);
+        try {
+            CheckpointLedger checkpoint = retomar ? checkpointLedgerRepository.findById(CheckpointLedger.ID_AUDITORIA).orElseGet(this::checkpointInicial)
+                    : checkpointInicial();
+            StatusAuditoriaLedger inicial = new StatusAuditoriaLedger(Situacao.EM_ANDAMENTO, inicio, null,
+                    0, 0, 0, checkpoint.getNumeroBloco(), null, null);
+            status.set(inicial);
+            logger.info("[BLOCKCHAIN] Auditoria do ledger iniciada: aPartirDoBloco={} paralelismo={}", checkpoint.getNumeroBloco(), pool.getParallelism());
+            pool.execute(() -> {
+                try {
+                    executar(checkpoint, inicio);
+                } finally {
+                    emAndamento.set(false);
+                }
+            });
+            return inicial;
+        } catch (RuntimeException e) {
+            // A auditoria não chegou a ser agendada: libera a próxima e registra a falha no status.
+            logger.error("[BLOCKCHAIN] Auditoria do ledger não iniciada: motivo={}", e.getMessage());
+            status.set(new StatusAuditoriaLedger(Situacao.ERRO, inicio, OffsetDateTime.now(ZoneOffset.UTC), 0, 0, 0,
+                    status.get().ultimoBlocoVerificado(), null, e.getMessage()));
+            emAndamento.set(false);
+            throw e;
+        }
+    }
+
+    public StatusAuditoriaLedger consultar() {
+        return status.get();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        pool.shutdownNow();
+    }
+
+    StatusAuditoriaLedger executar(CheckpointLedger checkpoint, OffsetDateTime inicio) {
+        long inicioNanos = System.nanoTime();
+        long blocos = 0;
+        long registros = 0;
+        try {
+            while (true) {
+                Faixa faixa = transacao.execute(status -> lerFaixa(checkpoint.getNumeroBloco()));
+                if (faixa.blocos().isEmpty()) {
+                    return concluir(Situacao.INTEGRO, inicio, inicioNanos, blocos, registros, checkpoint, null, null);
+                }
+                Falha falha = pool.invoke(new VerificacaoBlocos(faixa, checkpoint.getNumeroBloco(), checkpoint.getHashBloco(), 0, faixa.blocos().size()));
+                int integros = falha == null ? faixa.blocos().size() : falha.indice();
+                for (BlocoLedger bloco : faixa.blocos().subList(0, integros)) {
+                    registros += bloco.getQuantidadeRegistros();
+                }
+                blocos += integros;
+                if (integros > 0) {
+                    BlocoLedger ultimo = faixa.blocos().get(integros - 1);
+                    checkpoint.setNumeroBloco(ultimo.getNumero());
+                    checkpoint.setHashBloco(ultimo.getHashBloco());
+                    checkpoint.setDataVerificacao(OffsetDateTime.now(ZoneOffset.UTC));
+                    transacao.executeWithoutResult(status -> checkpointLedgerRepository.save(checkpoint));
+                }
+                if (falha != null) {
+                    logger.error("[BLOCKCHAIN] Auditoria do ledger encontrou inconsistência: bloco={} motivo={}", falha.numero(), falha.motivo());
+                    return concluir(Situacao.INVALIDO, inicio, inicioNanos, blocos, registros, checkpoint, falha.numero(), falha.motivo());
+                }
+                status.set(new StatusAuditoriaLedger(Situacao.EM_ANDAMENTO, inicio, null, blocos, registros,
+                        porSegundo(registros, inicioNanos), checkpoint.getNumeroBloco(), null, null));
+            }
+        } catch (RuntimeException e) {
+            logger.error("[BLOCKCHAIN] Auditoria do ledger interrompida: ultimoBloco={} motivo={}", checkpoint.getNumeroBloco(), e.getMessage());
+            return concluir(Situacao.ERRO, inicio, inicioNanos, blocos, registros, checkpoint, null, e.getMessage());
+        }
+    }
+
+    private StatusAuditoriaLedger concluir(Situacao situacao, OffsetDateTime inicio, long inicioNanos, long blocos, long registros,
+                                           CheckpointLedger checkpoint, Long blocoInvalido, String motivo) {
+        StatusAuditoriaLedger fim = new StatusAuditoriaLedger(situacao, inicio, OffsetDateTime.now(ZoneOffset.UTC), blocos, registros,
+                porSegundo(registros, inicioNanos), checkpoint.getNumeroBloco(), blocoInvalido, motivo);
+        status.set(fim);
+        logger.info("[BLOCKCHAIN] Auditoria do ledger concluída: situacao={} blocos={} registros={} registrosPorSegundo={}",
+                situacao, blocos, registros, Math.round(fim.registrosPorSegundo()));
+        return fim;
+    }
+
+    private Faixa lerFaixa(long depoisDoBloco) {
+        List<BlocoLedger> blocos = blocoLedgerRepository.findByNumeroGreaterThanOrderByNumeroAsc(depoisDoBloco, PageRequest.of(0, BLOCOS_POR_FAIXA));
+        if (blocos.isEmpty()) {
+            return new Faixa(blocos, Map.of());
+        }
+        Map<Long, List<BlockchainRegistro>> registros = blockchainRegistroRepository
+                .findByNumeroBlocoBetweenOrderByNumeroBlocoAscIndiceBlocoAsc(blocos.get(0).getNumero(), blocos.get(blocos.size() - 1).getNumero())
+                .stream()
+                .collect(Collectors.groupingBy(BlockchainRegistro::getNumeroBloco));
+        return new Faixa(blocos, registros);
+    }
+
+    private CheckpointLedger checkpointInicial() {
+        return new CheckpointLedger(CheckpointLedger.ID_AUDITORIA, 0, HashLedger.HASH_GENESIS, null);
+    }
+
+    private static double porSegundo(long registros, long inicioNanos) {
+        long decorrido = System.nanoTime() - inicioNanos;
+        return decorrido == 0 ? 0 : registros * 1_000_000_000.0 / decorrido;
+    }
+
+    private record Faixa(List<BlocoLedger> blocos, Map<Long, List<BlockchainRegistro>> registros) {
+    }
+
+    private record Falha(int indice, long numero, String motivo) {
+    }
+
+    /**
+     * Verifica os blocos {@code [inicio, fim)} da faixa e devolve a falha de menor posição, se houver.
+     */
+    private static class VerificacaoBlocos extends RecursiveTask<Falha> {
+
+        private final Faixa faixa;
+        private final long numeroAnteriorFaixa;
+        private final String hashAnteriorFaixa;
+        private final int inicio;
+        private final int fim;
+
+        VerificacaoBlocos(Faixa faixa, long numeroAnteriorFaixa, String hashAnteriorFaixa, int inicio, int fim) {
+            this.faixa = faixa;
+            this.numeroAnteriorFaixa = numeroAnteriorFaixa;
+            this.hashAnteriorFaixa = hashAnteriorFaixa;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected Falha compute() {
+            if (fim - inicio <= BLOCOS_POR_TAREFA) {
+                return verificarSequencialmente();
+            }
+            int meio = (inicio + fim) >>> 1;
+            VerificacaoBlocos direita = new VerificacaoBlocos(faixa, numeroAnteriorFaixa, hashAnteriorFaixa, meio, fim);
+            direita.fork();
+            Falha falhaEsquerda = new VerificacaoBlocos(faixa, numeroAnteriorFaixa, hashAnteriorFaixa, inicio, meio).compute();
+            Falha falhaDireita = direita.join();
+            return falhaEsquerda != null ? falhaEsquerda : falhaDireita;
+        }
+
+        private Falha verificarSequencialmente() {
+            List<BlocoLedger> blocos = faixa.blocos();
+            for (int i = inicio; i < fim; i++) {
+                BlocoLedger bloco = blocos.get(i);
+                long numeroAnterior = i == 0 ? numeroAnteriorFaixa : blocos.get(i - 1).getNumero();
+                String hashAnterior = i == 0 ? hashAnteriorFaixa : blocos.get(i - 1).getHashBloco();
+                String motivo = VerificadorLedgerService.verificarBloco(bloco, numeroAnterior, hashAnterior,
+                        faixa.registros().getOrDefault(bloco.getNumero(), List.of()));
+                if (motivo != null) {
+                    return new Falha(i, bloco.getNumero(), motivo);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.example.asyncpayments.dto.RegisterRequest;
 import com.example.asyncpayments.entity.User;
 import com.example.asyncpayments.entity.UserRole;
 import com.example.asyncpayments.repository.UserRepository;
+import com.example.asyncpayments.repository.UsuarioResumo;
 import com.example.asyncpayments.util.UserFakerUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -29,6 +30,7 @@ public class AuthService {
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
     private final UserService userService;
+    private final UsuarioCacheService usuarioCacheService;
 
     public AuthResponse register(RegisterRequest request) {
         logger.info("[AUTH] Tentativa de registro: email={} cpf={}", request.email(), request.cpf());
@@ -75,7 +77,8 @@ public class AuthService {
         }
 
 
-        var user = userRepository.findByEmail(request.email())
+        var user = usuarioCacheService.buscarPorEmail(request.email())
+                .map(UsuarioResumo::paraUsuario)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
 
@@ -0,0 +1,123 @@
+package com.example.asyncpayments.service;
+
+import com.example.asyncpayments.entity.StatusTransacao;
+import com.example.asyncpayments.entity.Transacao;
+import com.example.asyncpayments.repository.TransacaoPendente;
+import com.example.asyncpayments.repository.TransacaoRepository;
+import com.example.asyncpayments.util.RodaTemporizacao;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Rollback das transações pendentes no instante em que vencem o prazo de sincronização. Cada transação
+ * pendente é agendada numa {@link RodaTemporizacao} ao ser criada, e as já gravadas são agendadas na
+ * inicialização; a cada segundo a roda entrega as vencidas para {@link SincronizacaoService#rollbackTransacoes}.
+ * A varredura periódica de {@link SincronizacaoService#rollbackTransacoesNaoSincronizadas} continua como rede
+ * de segurança para o que a roda perder, como transações criadas em outra instância depois da inicialização.
+ *
+ * <p>Com várias instâncias, a roda não é particionada: cada uma agenda o que cria e, na inicialização, todas
+ * as pendentes do banco. A mesma transação pode vencer em mais de uma instância; o rollback bloqueia as
+ * linhas com SKIP LOCKED e confere o status, então a devolução acontece uma vez só.
+ */
+@Service
+public class ExpiracaoPendentesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpiracaoPendentesService.class);
+
+    private static final long TICK_MS = 1_000;
+    private static final long NOVA_TENTATIVA_MS = 60_000;
+
+    private final TransacaoRepository transacaoRepository;
+    private final SincronizacaoService sincronizacaoService;
+    private final LongSupplier relogio;
+    private final RodaTemporizacao<Long> roda;
+
+    @Autowired
+    public ExpiracaoPendentesService(TransacaoRepository transacaoRepository,
+                                     SincronizacaoService sincronizacaoService,
+                                     MeterRegistry meterRegistry) {
+        this(transacaoRepository, sincronizacaoService, meterRegistry, System::currentTimeMillis);
+    }
+
+    ExpiracaoPendentesService(TransacaoRepository transacaoRepository,
+                              SincronizacaoService sincronizacaoService,
+                              MeterRegistry meterRegistry,
+                              LongSupplier relogio) {
+        this.transacaoRepository = transacaoRepository;
+        this.sincronizacaoService = sincronizacaoService;
+        this.relogio = relogio;
+        this.roda = new RodaTemporizacao<>(TICK_MS, relogio.getAsLong());
+
+        meterRegistry.gauge("transacoes.pendentes.agendadas", roda, RodaTemporizacao::tamanho);
+    }
+
+    /**
+     * Agenda o rollback de uma transação pendente já gravada para o fim do prazo de sincronização.
+     */
+    public void agendar(Transacao transacao) {
+        if (transacao.getId() == null || transacao.getDataCriacao() == null) {
+            return;
+        }
+        roda.agendar(transacao.getId(), vencimentoMs(transacao.getDataCriacao()));
+    }
+
+    /**
+     * Tira da roda transações que deixaram de estar pendentes.
+     */
+    public void cancelar(Collection<Long> ids) {
+        ids.forEach(roda::cancelar);
+    }
+
+    public int agendadas() {
+        return roda.tamanho();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void semear() {
+        long inicio = System.currentTimeMillis();
+        LongAdder agendadas = new LongAdder();
+        try (Stream<TransacaoPendente> pendentes = transacaoRepository.streamPorStatus(StatusTransacao.PENDENTE)) {
+            pendentes.forEach(pendente -> {
+                roda.agendar(pendente.id(), vencimentoMs(pendente.dataCriacao()));
+                agendadas.increment();
+            });
+        }
+        logger.info("[SINCRONIZACAO] Transações pendentes agendadas para rollback: quantidade={} tempoMs={}",
+                agendadas.sum(), System.currentTimeMillis() - inicio);
+    }
+
+    @Scheduled(fixedDelay = TICK_MS)
+    public void disparar() {
+        long agora = relogio.getAsLong();
+        List<Long> vencidas = roda.avancar(agora);
+        if (vencidas.isEmpty()) {
+            return;
+        }
+        try {
+            sincronizacaoService.rollbackTransacoes(vencidas);
+        } catch (RuntimeException e) {
+            logger.error("[SINCRONIZACAO] Falha no rollback de transações vencidas, nova tentativa em {} ms: quantidade={}",
+                    NOVA_TENTATIVA_MS, vencidas.size(), e);
+            vencidas.forEach(id -> roda.agendar(id, agora + NOVA_TENTATIVA_MS));
+        }
+    }
+
+    private static long vencimentoMs(OffsetDateTime dataCriacao) {
+        return dataCriacao.plus(SincronizacaoService.PRAZO_SINCRONIZACAO).toInstant().toEpochMilli();
+    }
+}
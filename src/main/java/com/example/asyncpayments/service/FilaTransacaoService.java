@@ -1,40 +1,402 @@
 package com.example.asyncpayments.service;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.example.asyncpayments.entity.Transacao;
 import com.example.asyncpayments.entity.StatusTransacao;
+import com.example.asyncpayments.repository.StatusPorId;
+import com.example.asyncpayments.repository.TransacaoRepository;
+import com.example.asyncpayments.util.LogStatus;
+import com.example.asyncpayments.util.MapaLongByte;
+import com.example.asyncpayments.util.MapaLongByteConcorrente;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Status das transações para consulta rápida. Os status finais ({@code SINCRONIZADA}, {@code ROLLBACK},
+ * {@code ERRO}) ficam, codificados pelo ordinal, num {@link MapaLongByteConcorrente} em memória espelhado
+ * num {@link LogStatus} em disco que é relido na inicialização. Consultas ao índice não pegam trava global;
+ * as escritas são serializadas para que o log fique na mesma ordem do índice. Transações pendentes e as que
+ * não estão no índice são consultadas no banco, que continua sendo a fonte da verdade. As mudanças entram no
+ * índice depois do commit que as gravou no banco. O índice guarda até {@code asyncpayments.fila.capacidade}
+ * transações; ao enchê-lo, o quarto mais antigo (pelos ids) é descartado e volta a ser lido do banco quando
+ * consultado. O índice é local à instância, o que basta porque um status final não muda mais.
+ *
+ * <p>O log não sabe de que banco veio: depois de o banco ser recriado ou restaurado de um backup, o log
+ * pode trazer status que o banco não tem mais. Por isso o índice recuperado só é usado depois de conferido
+ * com o banco na inicialização ({@link #revalidar}), em consultas de {@value #TAMANHO_REVALIDACAO} ids;
+ * os que divergem saem do índice. Até lá, toda consulta vai ao banco.
+ *
+ * <p>Quando o log passa de três quartos da capacidade, ou depois de um descarte, ele é compactado em segundo
+ * plano ({@link #compactarLog}): a cópia das entradas vivas é feita fora da trava de escrita, e as mudanças
+ * gravadas enquanto isso são anexadas ao log novo na troca. Quem grava um status, inclusive no
+ * {@code afterCommit} de um pagamento, nunca reescreve o arquivo.
+ */
 @Service
-@RequiredArgsConstructor
 public class FilaTransacaoService {
 
     private static final Logger logger = LoggerFactory.getLogger(FilaTransacaoService.class);
-    private final Map<Long, StatusTransacao> statusTransacoes = new ConcurrentHashMap<>(); 
+    private static final StatusTransacao[] STATUS = StatusTransacao.values();
+    private static final int FAIXAS_INDICE = 64;
+    static final int TAMANHO_REVALIDACAO = 1_000;
+
+    private final TransacaoRepository transacaoRepository;
+    private final Path arquivo;
+    private final int capacidade;
+    private final ReentrantLock escrita = new ReentrantLock();
+    private final MapaLongByteConcorrente indice;
+    private LogStatus log;
+    private volatile boolean revalidado;
+    // Protegidos por escrita.
+    private boolean compactacaoPendente;
+    private Map<Long, Byte> alteracoesDuranteCompactacao;
+
+    private final Counter consultasIndice;
+    private final Counter consultasBanco;
+    private final Counter descartes;
+    private final Counter divergentes;
+
+    @Autowired
+    public FilaTransacaoService(TransacaoRepository transacaoRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${asyncpayments.fila.arquivo:data/status-transacoes.log}") String arquivo,
+                                @Value("${asyncpayments.fila.capacidade:1000000}") int capacidade) {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("A capacidade do índice de status deve ser positiva.");
+        }
+        this.transacaoRepository = transacaoRepository;
+        this.arquivo = Path.of(arquivo);
+        this.capacidade = capacidade;
+        this.indice = new MapaLongByteConcorrente(capacidade, FAIXAS_INDICE);
+
+        meterRegistry.gauge("fila.status.indice", this, FilaTransacaoService::tamanhoIndice);
+        this.consultasIndice = meterRegistry.counter("fila.status.consultas", "origem", "indice");
+        this.consultasBanco = meterRegistry.counter("fila.status.consultas", "origem", "banco");
+        this.descartes = meterRegistry.counter("fila.status.descartes");
+        this.divergentes = meterRegistry.counter("fila.status.divergentes");
+    }
+
+    /**
+     * Abre o log e refaz o índice a partir dele. Se o log não puder ser aberto, o serviço segue só com o
+     * índice em memória.
+     */
+    @PostConstruct
+    public void recuperar() {
+        escrita.lock();
+        try {
+            long inicio = System.currentTimeMillis();
+            log = new LogStatus(arquivo, capacidade * 2);
+            log.recuperar((id, status) -> {
+                if (status == LogStatus.REMOVIDO) {
+                    indice.remover(id);
+                } else {
+                    indice.put(id, status);
+                }
+            });
+            if (indice.tamanho() > capacidade) {
+                descartarMaisAntigas();
+            }
+            logger.info("[FILA] Índice de status recuperado do log: transacoes={} registros={} tempoMs={}",
+                    indice.tamanho(), log.registros(), System.currentTimeMillis() - inicio);
+        } catch (IOException | RuntimeException e) {
+            abandonarLog("abrir", e);
+            indice.limpar();
+        } finally {
+            revalidado = indice.tamanho() == 0;
+            escrita.unlock();
+        }
+    }
+
+    /**
+     * Confere com o banco o índice recuperado do log e tira dele as transações cujo status diverge ou que não
+     * existem mais. Só remove: uma mudança gravada durante a conferência pode sair do índice, mas nunca fica
+     * com um status errado. Se o banco não responder, o índice recuperado é descartado inteiro.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void revalidar() {
+        if (revalidado) {
+            return;
+        }
+        long inicio = System.currentTimeMillis();
+        long[] ids = indice.chaves();
+        int removidas = 0;
+        try {
+            for (int de = 0; de < ids.length; de += TAMANHO_REVALIDACAO) {
+                List<Long> parte = Arrays.stream(ids, de, Math.min(ids.length, de + TAMANHO_REVALIDACAO)).boxed().toList();
+                Map<Long, StatusTransacao> noBanco = new HashMap<>();
+                for (StatusPorId status : transacaoRepository.findStatusPorIds(parte)) {
+                    noBanco.put(status.id(), status.status());
+                }
+                removidas += removerDivergentes(parte, noBanco);
+            }
+        } catch (RuntimeException e) {
+            logger.error("[FILA] Falha ao conferir o índice de status com o banco, índice recuperado descartado.", e);
+            escrita.lock();
+            try {
+                removidas = indice.tamanho();
+                indice.limpar();
+                compactacaoPendente = true;
+            } finally {
+                escrita.unlock();
+            }
+        }
+        divergentes.increment(removidas);
+        revalidado = true;
+        logger.info("[FILA] Índice de status conferido com o banco: transacoes={} removidas={} tempoMs={}",
+                ids.length, removidas, System.currentTimeMillis() - inicio);
+    }
 
     public void adicionarNaFila(Transacao transacao) {
-        statusTransacoes.put(transacao.getId(), StatusTransacao.PENDENTE);
+        atualizarStatus(transacao.getId(), StatusTransacao.PENDENTE);
         logger.info("[FILA] Transação adicionada na fila: id={}", transacao.getId());
     }
 
+    /**
+     * Status da transação, do índice quando ela está nele.
+     *
+     * @throws IllegalArgumentException se a transação não existe
+     */
     public StatusTransacao consultarStatus(Long idTransacao) {
-        if (!statusTransacoes.containsKey(idTransacao)) {
+        int status = idTransacao == null || idTransacao == 0 || !revalidado ? MapaLongByte.AUSENTE : indice.get(idTransacao);
+        if (status != MapaLongByte.AUSENTE) {
+            consultasIndice.increment();
+            logger.debug("[FILA] Consulta de status: id={} status={}", idTransacao, STATUS[status]);
+            return STATUS[status];
+        }
+        consultasBanco.increment();
+        StatusTransacao encontrado = transacaoRepository.findStatusById(idTransacao).orElseThrow(() -> {
             logger.warn("[FILA] Consulta de status: transação não encontrada: id={}", idTransacao);
-            throw new IllegalArgumentException("Transação não encontrada.");
+            return new IllegalArgumentException("Transação não encontrada.");
+        });
+        if (encontrado != StatusTransacao.PENDENTE) {
+            gravar(List.of(idTransacao), encontrado, true);
         }
-        logger.info("[FILA] Consulta de status: id={} status={}", idTransacao, statusTransacoes.get(idTransacao));
-        return statusTransacoes.get(idTransacao);
+        logger.debug("[FILA] Consulta de status no banco: id={} status={}", idTransacao, encontrado);
+        return encontrado;
     }
 
     public void atualizarStatus(Long idTransacao, StatusTransacao novoStatus) {
-        statusTransacoes.put(idTransacao, novoStatus);
+        if (idTransacao == null || novoStatus == null) {
+            return;
+        }
+        atualizarStatus(List.of(idTransacao), novoStatus);
         logger.info("[FILA] Status atualizado: id={} novoStatus={}", idTransacao, novoStatus);
     }
-}
\ No newline at end of file
+
+    /**
+     * Registra o novo status das transações. Dentro de uma transação, o registro só é feito depois do commit.
+     */
+    public void atualizarStatus(Collection<Long> idsTransacoes, StatusTransacao novoStatus) {
+        depoisDoCommit(() -> gravar(idsTransacoes, novoStatus, false));
+    }
+
+    public void remover(Long idTransacao) {
+        if (idTransacao != null) {
+            depoisDoCommit(() -> gravar(List.of(idTransacao), null, false));
+        }
+    }
+
+    public int tamanhoIndice() {
+        return indice.tamanho();
+    }
+
+    @Scheduled(fixedDelay = 1_000)
+    public void sincronizar() {
+        escrita.lock();
+        try {
+            if (log != null) {
+                log.sincronizar();
+            }
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    /**
+     * Compacta o log quando preciso. A cópia do índice é feita sem a trava de escrita; só a troca do arquivo e
+     * o acréscimo das mudanças feitas durante a cópia acontecem com ela.
+     */
+    @Scheduled(fixedDelay = 1_000)
+    public void compactarLog() {
+        LogStatus compactado;
+        escrita.lock();
+        try {
+            if (log == null || alteracoesDuranteCompactacao != null
+                    || (!compactacaoPendente && log.registros() < log.capacidade() / 4 * 3)) {
+                return;
+            }
+            compactado = log;
+            compactacaoPendente = false;
+            alteracoesDuranteCompactacao = new LinkedHashMap<>();
+        } finally {
+            escrita.unlock();
+        }
+
+        long inicio = System.currentTimeMillis();
+        LogStatus.Copia copia = null;
+        Exception falha = null;
+        try {
+            copia = compactado.copiar(indice);
+        } catch (IOException | RuntimeException e) {
+            falha = e;
+        }
+
+        escrita.lock();
+        try {
+            Map<Long, Byte> alteracoes = alteracoesDuranteCompactacao;
+            alteracoesDuranteCompactacao = null;
+            if (log != compactado) {
+                // O log foi fechado ou abandonado durante a cópia.
+                if (copia != null) {
+                    copia.descartar();
+                }
+                return;
+            }
+            if (falha != null) {
+                abandonarLog("compactar", falha);
+                return;
+            }
+            log.trocar(copia);
+            alteracoes.forEach((id, status) -> anexar(id, status));
+            logger.info("[FILA] Log de status compactado: registros={} alteracoesDuranteCopia={} tempoMs={}",
+                    log != null ? log.registros() : 0, alteracoes.size(), System.currentTimeMillis() - inicio);
+        } catch (IOException | RuntimeException e) {
+            abandonarLog("compactar", e);
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void fechar() {
+        escrita.lock();
+        try {
+            if (log != null) {
+                log.close();
+                log = null;
+            }
+        } catch (IOException e) {
+            logger.warn("[FILA] Falha ao fechar o log de status: arquivo={}", arquivo, e);
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    /**
+     * Status {@code null} ou pendente tira a transação do índice. Com {@code seAusente}, só grava transações
+     * que ainda não estão no índice, para que uma leitura do banco não sobrescreva uma mudança mais nova.
+     */
+    private void gravar(Collection<Long> idsTransacoes, StatusTransacao status, boolean seAusente) {
+        escrita.lock();
+        try {
+            for (Long id : idsTransacoes) {
+                if (id == null || id == 0) {
+                    continue;
+                }
+                if (status == null || status == StatusTransacao.PENDENTE) {
+                    if (indice.remover(id)) {
+                        anexar(id, LogStatus.REMOVIDO);
+                    }
+                } else if (!seAusente) {
+                    indice.put(id, (byte) status.ordinal());
+                    anexar(id, (byte) status.ordinal());
+                } else if (indice.putSeAusente(id, (byte) status.ordinal())) {
+                    anexar(id, (byte) status.ordinal());
+                }
+            }
+            if (indice.tamanho() > capacidade) {
+                descartarMaisAntigas();
+            }
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    private int removerDivergentes(List<Long> ids, Map<Long, StatusTransacao> noBanco) {
+        int removidas = 0;
+        escrita.lock();
+        try {
+            for (Long id : ids) {
+                int status = indice.get(id);
+                StatusTransacao atual = noBanco.get(id);
+                if (status != MapaLongByte.AUSENTE && (atual == null || atual.ordinal() != status)) {
+                    indice.remover(id);
+                    anexar(id, LogStatus.REMOVIDO);
+                    removidas++;
+                }
+            }
+        } finally {
+            escrita.unlock();
+        }
+        return removidas;
+    }
+
+    private void anexar(long id, byte status) {
+        if (alteracoesDuranteCompactacao != null) {
+            alteracoesDuranteCompactacao.put(id, status);
+        }
+        if (log != null && !log.anexar(id, status)) {
+            // O log cheio será reescrito a partir do índice, que já contém esta mudança.
+            compactacaoPendente = true;
+        }
+    }
+
+    private void descartarMaisAntigas() {
+        long[] ids = indice.chaves();
+        Arrays.sort(ids);
+        int removidas = indice.removerAbaixoDe(ids[ids.length / 4]);
+        descartes.increment(removidas);
+        logger.info("[FILA] Transações mais antigas descartadas do índice de status: quantidade={}", removidas);
+        compactacaoPendente = true;
+    }
+
+    /**
+     * Segue só com o índice em memória. O arquivo é apagado, porque deixaria de receber as mudanças e seria
+     * recuperado desatualizado na próxima inicialização.
+     */
+    private void abandonarLog(String operacao, Exception causa) {
+        logger.error("[FILA] Falha ao {} o log de status, o índice fica só em memória: arquivo={}", operacao, arquivo, causa);
+        log = null;
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            logger.warn("[FILA] Falha ao apagar o log de status abandonado: arquivo={}", arquivo, e);
+        }
+    }
+
+    private static void depoisDoCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+}
@@ -5,67 +5,162 @@ import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.auth0.jwt.interfaces.JWTVerifier;
+import com.example.asyncpayments.entity.User;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Instant;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Emissão e verificação de tokens JWT. O token leva o id, as autoridades e a versão de tokens do usuário, o
+ * bastante para autenticar a requisição sem consultar o usuário no banco; a versão é conferida por
+ * {@link VersaoTokenService}. O algoritmo e o verificador são montados uma vez. Tokens verificados
+ * ficam num cache de até {@code jwt.cache.tamanho} entradas (0 desliga), indexado pelo token inteiro, para
+ * que um cliente que repete o mesmo token não pague a verificação HMAC a cada requisição; uma entrada só é
+ * usada enquanto o token não expirou. O cache é um {@link ConcurrentHashMap} sem trava global, para não
+ * serializar a autenticação: cheio, sai uma entrada qualquer, que se for usada de novo é verificada outra vez.
+ */
 @Service
 public class JwtService {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtService.class);
 
+    private static final String CLAIM_ID = "id";
+    private static final String CLAIM_AUTORIDADES = "autoridades";
+    private static final String CLAIM_VERSAO = "versao";
+
     @Value("${jwt.secret.key}")
     private String secretKey;
 
     @Value("${jwt.expiration:86400000}")
     private long jwtExpiration;
 
-    private Algorithm getAlgorithm() {
-        return Algorithm.HMAC256(secretKey);
+    @Value("${jwt.cache.tamanho:4096}")
+    private int tamanhoCache = 4096;
+
+    private volatile Verificacao verificacao;
+    private volatile Map<String, TokenVerificado> tokensVerificados;
+
+    /**
+     * Dados de um token com assinatura e validade já verificadas. {@code versao} é nula em tokens emitidos
+     * antes da revogação por versão, que não devem mais ser aceitos.
+     */
+    public record TokenVerificado(String email, Long userId, List<String> autoridades, Long versao, Instant expiraEm) {
+
+        public boolean expirado(Instant agora) {
+            return expiraEm != null && !agora.isBefore(expiraEm);
+        }
+    }
+
+    private record Verificacao(Algorithm algoritmo, JWTVerifier verificador) {
     }
 
     public String generateToken(UserDetails userDetails, Long userId) {
         logger.info("[JWT] Gerando token para userId={}", userId);
         return JWT.create()
                 .withSubject(userDetails.getUsername())
-                .withClaim("id", userId)
+                .withClaim(CLAIM_ID, userId)
+                .withClaim(CLAIM_AUTORIDADES, userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList())
+                .withClaim(CLAIM_VERSAO, userDetails instanceof User user ? user.getVersaoToken() : 0L)
                 .withIssuedAt(new Date())
                 .withExpiresAt(new Date(System.currentTimeMillis() + jwtExpiration))
-                .sign(getAlgorithm());
+                .sign(verificacao().algoritmo());
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        boolean valid = false;
+    /**
+     * Verifica o token uma vez, consultando antes o cache de tokens já verificados.
+     *
+     * @return os dados do token, ou vazio se a assinatura não confere ou o token expirou
+     */
+    public Optional<TokenVerificado> verificar(String token) {
         try {
-            String username = extractUsername(token);
-            valid = username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+            return Optional.of(decodificar(token));
         } catch (JWTVerificationException e) {
             logger.warn("[JWT] Token inválido: {}", e.getMessage());
-            return false;
+            return Optional.empty();
         }
+    }
+
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        boolean valid = verificar(token).map(verificado -> verificado.email().equals(userDetails.getUsername())).orElse(false);
         logger.info("[JWT] Validação de token para user={} resultado={}", userDetails.getUsername(), valid);
         return valid;
     }
 
     public String extractUsername(String token) {
-        return decodeToken(token).getSubject();
+        return decodificar(token).email();
     }
 
     public Long extractUserId(String token) {
-        return decodeToken(token).getClaim("id").asLong();
+        return decodificar(token).userId();
     }
 
-    private boolean isTokenExpired(String token) {
-        return decodeToken(token).getExpiresAt().before(new Date());
+    private TokenVerificado decodificar(String token) {
+        Map<String, TokenVerificado> cache = tokensVerificados();
+        Instant agora = Instant.now();
+        if (cache != null) {
+            TokenVerificado emCache = cache.get(token);
+            if (emCache != null) {
+                if (!emCache.expirado(agora)) {
+                    return emCache;
+                }
+                cache.remove(token, emCache);
+            }
+        }
+        DecodedJWT decodificado = verificacao().verificador().verify(token);
+        Date expiraEm = decodificado.getExpiresAt();
+        List<String> autoridades = decodificado.getClaim(CLAIM_AUTORIDADES).asList(String.class);
+        TokenVerificado verificado = new TokenVerificado(decodificado.getSubject(), decodificado.getClaim(CLAIM_ID).asLong(),
+                autoridades == null ? List.of() : List.copyOf(autoridades), decodificado.getClaim(CLAIM_VERSAO).asLong(),
+                expiraEm == null ? null : expiraEm.toInstant());
+        if (cache != null) {
+            if (cache.size() >= tamanhoCache) {
+                // Sai uma entrada qualquer; threads concorrentes podem passar o limite por algumas entradas.
+                Iterator<String> chaves = cache.keySet().iterator();
+                if (chaves.hasNext()) {
+                    chaves.next();
+                    chaves.remove();
+                }
+            }
+            cache.put(token, verificado);
+        }
+        return verificado;
     }
 
+    private Verificacao verificacao() {
+        Verificacao atual = verificacao;
+        if (atual == null) {
+            Algorithm algoritmo = Algorithm.HMAC256(secretKey);
+            atual = new Verificacao(algoritmo, JWT.require(algoritmo).build());
+            verificacao = atual;
+        }
+        return atual;
+    }
 
-    private DecodedJWT decodeToken(String token) {
-        JWTVerifier verifier = JWT.require(getAlgorithm()).build();
-        return verifier.verify(token);
+    private Map<String, TokenVerificado> tokensVerificados() {
+        if (tamanhoCache <= 0) {
+            return null;
+        }
+        Map<String, TokenVerificado> atual = tokensVerificados;
+        if (atual == null) {
+            synchronized (this) {
+                atual = tokensVerificados;
+                if (atual == null) {
+                    atual = new ConcurrentHashMap<>(tamanhoCache * 4 / 3 + 1);
+                    tokensVerificados = atual;
+                }
+            }
+        }
+        return atual;
     }
-}
\ No newline at end of file
+}
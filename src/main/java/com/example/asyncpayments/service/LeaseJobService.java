@@ -0,0 +1,156 @@
+package com.example.asyncpayments.service;
+
+import com.example.asyncpayments.repository.LeaseJobRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Eleição de líder por job agendado, apoiada numa tabela de concessões ({@code lease_job}). Antes de cada
+ * execução a instância toma ou renova a concessão do job com um UPDATE condicional; só quem a tem executa.
+ * O líder renova a cada execução e continua líder; se ele parar, outra instância assume quando a concessão
+ * expira. A duração da concessão deve passar do intervalo do job e tolerar a diferença de relógio entre as
+ * instâncias.
+ */
+@Service
+public class LeaseJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaseJobService.class);
+
+    private final LeaseJobRepository leaseJobRepository;
+    private final TransactionTemplate transacaoPropria;
+    private final MeterRegistry meterRegistry;
+    private final Clock relogio;
+    private final String instancia;
+    private final Map<String, AtomicInteger> lider = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LeaseJobService(LeaseJobRepository leaseJobRepository,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry) {
+        this(leaseJobRepository, transactionManager, meterRegistry, Clock.systemUTC(), identificarInstancia());
+    }
+
+    LeaseJobService(LeaseJobRepository leaseJobRepository,
+                    PlatformTransactionManager transactionManager,
+                    MeterRegistry meterRegistry,
+                    Clock relogio,
+                    String instancia) {
+        this.leaseJobRepository = leaseJobRepository;
+        this.transacaoPropria = new TransactionTemplate(transactionManager);
+        this.transacaoPropria.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.relogio = relogio;
+        this.instancia = instancia;
+    }
+
+    /**
+     * Executa {@code tarefa} só se esta instância tomar ou renovar a concessão de {@code job} por {@code duracao}.
+     * A concessão é tomada uma vez, antes da tarefa; uma tarefa que possa passar de {@code duracao} deve
+     * renová-la com {@link #adquirir} entre as suas etapas e parar quando a renovação falhar.
+     *
+     * @return se a tarefa foi executada
+     */
+    public boolean executarComoLider(String job, Duration duracao, Runnable tarefa) {
+        if (!adquirir(job, duracao)) {
+            return false;
+        }
+        tarefa.run();
+        return true;
+    }
+
+    public boolean adquirir(String job, Duration duracao) {
+        OffsetDateTime agora = OffsetDateTime.now(relogio);
+        OffsetDateTime expiraEm = agora.plus(duracao);
+        boolean adquirida;
+        try {
+            adquirida = tomarOuCriar(job, agora, expiraEm);
+        } catch (RuntimeException e) {
+            logger.error("[LEASE] Falha ao tomar a concessão do job: job={} instancia={}", job, instancia, e);
+            adquirida = false;
+        }
+        registrar(job, adquirida);
+        return adquirida;
+    }
+
+    public String getInstancia() {
+        return instancia;
+    }
+
+    /**
+     * Devolve as concessões desta instância ao encerrar, para que outra assuma sem esperar a expiração.
+     */
+    @PreDestroy
+    public void liberarTodas() {
+        OffsetDateTime agora = OffsetDateTime.now(relogio);
+        lider.forEach((job, ativo) -> {
+            if (ativo.get() == 1) {
+                try {
+                    transacaoPropria.executeWithoutResult(status -> leaseJobRepository.liberar(job, instancia, agora));
+                    ativo.set(0);
+                } catch (RuntimeException e) {
+                    logger.warn("[LEASE] Falha ao liberar a concessão do job: job={} instancia={}", job, instancia, e);
+                }
+            }
+        });
+    }
+
+    private boolean tomarOuCriar(String job, OffsetDateTime agora, OffsetDateTime expiraEm) {
+        Boolean tomada = transacaoPropria.execute(status -> {
+            if (leaseJobRepository.tomar(job, instancia, agora, expiraEm) == 1) {
+                return true;
+            }
+            return leaseJobRepository.existsById(job) ? false : null;
+        });
+        if (tomada != null) {
+            return tomada;
+        }
+        try {
+            transacaoPropria.executeWithoutResult(status -> leaseJobRepository.criar(job, instancia, expiraEm));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Outra instância criou a concessão ao mesmo tempo e ficou com ela.
+            return false;
+        }
+    }
+
+    private void registrar(String job, boolean adquirida) {
+        AtomicInteger ativo = lider.computeIfAbsent(job,
+                nome -> meterRegistry.gauge("jobs.lease.lider", Tags.of("job", nome), new AtomicInteger()));
+        int anterior = ativo.getAndSet(adquirida ? 1 : 0);
+        if (adquirida && anterior == 0) {
+            logger.info("[LEASE] Instância assumiu o job: job={} instancia={}", job, instancia);
+        } else if (!adquirida && anterior == 1) {
+            logger.warn("[LEASE] Instância perdeu o job: job={} instancia={}", job, instancia);
+        }
+        meterRegistry.counter(adquirida ? "jobs.lease.adquiridas" : "jobs.lease.negadas", "job", job).increment();
+    }
+
+    private static String identificarInstancia() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "desconhecido";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.asyncpayments.service;
+
+import com.example.asyncpayments.entity.BlockchainRegistro;
+import com.example.asyncpayments.entity.BlocoLedger;
+import com.example.asyncpayments.repository.BlockchainRegistroRepository;
+import com.example.asyncpayments.repository.BlocoLedgerRepository;
+import com.example.asyncpayments.util.ArvoreMerkle;
+import com.example.asyncpayments.util.HashLedger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Ledger do blockchain com selagem em lotes fora do caminho do pagamento.
+ *
+ * <p>O registro é gravado na própria transação do pagamento, marcado como pendente de selagem: um pagamento
+ * desfeito não deixa registro e um pagamento confirmado nunca perde o seu, mesmo que o processo caia logo
+ * depois do commit. A descarga periódica lê os pendentes do banco em lotes de até {@value #TAMANHO_LOTE},
+ * na ordem de gravação, e sela cada lote como um {@link BlocoLedger}, em transação própria: os registros
+ * guardam sua posição no bloco, o bloco guarda a raiz de Merkle dos hashes dos registros e o hash do bloco
+ * anterior. Se a selagem falhar, nada muda no banco e os mesmos registros continuam pendentes para a
+ * descarga seguinte.
+ *
+ * <p>Os pendentes são lidos com SKIP LOCKED, então duas instâncias nunca selam o mesmo registro; se ambas
+ * selarem um bloco de mesmo número, o índice único do número recusa o segundo e o lote perdedor é selado
+ * de novo sobre o bloco vencedor. Um commit de pagamento nesta instância só acorda a descarga seguinte;
+ * sem aviso, a descarga ainda varre o banco a cada {@value #INTERVALO_VARREDURA_MS} ms, para selar o que
+ * outras instâncias ou uma execução anterior deixaram pendente.
+ *
+ * <p>O pagamento ainda paga o insert do registro na sua transação; é o preço da durabilidade. O que saiu do
+ * seu caminho é a selagem: a fila de selagem é a própria tabela, e o seu tamanho, recontado a cada descarga,
+ * fica no gauge {@code blockchain.ledger.pendentes}, ao lado do timer {@code blockchain.ledger.descarga}.
+ */
+@Service
+@Primary
+public class LedgerBlockchainService implements BlockchainService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerBlockchainService.class);
+
+    static final int TAMANHO_LOTE = 500;
+    static final long INTERVALO_VARREDURA_MS = 5_000;
+
+    private final SimpleBlockchainService blockchainService;
+    private final BlockchainRegistroRepository blockchainRegistroRepository;
+    private final BlocoLedgerRepository blocoLedgerRepository;
+    private final TransactionTemplate transacaoPropria;
+    private final LongSupplier relogio;
+    private final ReentrantLock descarga = new ReentrantLock();
+    private final AtomicBoolean pendentesNovos = new AtomicBoolean(true);
+    private final AtomicLong pendentes = new AtomicLong();
+    private long proximaVarredura;
+
+    private final Timer tempoDescarga;
+    private final Counter registrados;
+    private final Counter selados;
+    private final Counter falhasDescarga;
+
+    @Autowired
+    public LedgerBlockchainService(SimpleBlockchainService blockchainService,
+                                   BlockchainRegistroRepository blockchainRegistroRepository,
+                                   BlocoLedgerRepository blocoLedgerRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        this(blockchainService, blockchainRegistroRepository, blocoLedgerRepository, transactionManager, meterRegistry,
+                System::currentTimeMillis);
+    }
+
+    LedgerBlockchainService(SimpleBlockchainService blockchainService,
+                            BlockchainRegistroRepository blockchainRegistroRepository,
+                            BlocoLedgerRepository blocoLedgerRepository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            LongSupplier relogio) {
+        this.blockchainService = blockchainService;
+        this.blockchainRegistroRepository = blockchainRegistroRepository;
+        this.blocoLedgerRepository = blocoLedgerRepository;
+        this.transacaoPropria = new TransactionTemplate(transactionManager);
+        this.transacaoPropria.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.relogio = relogio;
+
+        this.tempoDescarga = meterRegistry.timer("blockchain.ledger.descarga");
+        this.registrados = meterRegistry.counter("blockchain.ledger.registrados");
+        this.selados = meterRegistry.counter("blockchain.ledger.selados");
+        this.falhasDescarga = meterRegistry.counter("blockchain.ledger.descarga.falhas");
+        meterRegistry.gauge("blockchain.ledger.pendentes", pendentes, AtomicLong::get);
+    }
+
+    /**
+     * Grava o registro como pendente de selagem, na transação do chamador quando houver uma.
+     */
+    @Override
+    public void registrarTransacao(BlockchainRegistro registro) {
+        registro.setNumeroBloco(null);
+        registro.setIndiceBloco(null);
+        registro.setPendenteSelagem(true);
+        blockchainService.anotarHash(registro.getHashTransacao());
+        blockchainRegistroRepository.save(registro);
+        registrados.increment();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pendentesNovos.set(true);
+                }
+            });
+        } else {
+            pendentesNovos.set(true);
+        }
+    }
+
+    @Override
+    public boolean validarTransacao(String hash) {
+        return blockchainService.validarTransacao(hash);
+    }
+
+    /**
+     * Sela os registros pendentes em blocos de até {@value #TAMANHO_LOTE}, até acabarem ou uma selagem falhar.
+     * Sem commit novo nesta instância desde a última descarga, só vai ao banco a cada
+     * {@value #INTERVALO_VARREDURA_MS} ms.
+     */
+    @Scheduled(fixedDelay = 200)
+    public void descarregar() {
+        if (!descarga.tryLock()) {
+            return;
+        }
+        try {
+            long agora = relogio.getAsLong();
+            if (!pendentesNovos.getAndSet(false) && agora < proximaVarredura) {
+                return;
+            }
+            proximaVarredura = agora + INTERVALO_VARREDURA_MS;
+            int selagem;
+            do {
+                selagem = selarProximoLote();
+            } while (selagem == TAMANHO_LOTE);
+            contarPendentes();
+        } finally {
+            descarga.unlock();
+        }
+    }
+
+    private void contarPendentes() {
+        try {
+            pendentes.set(blockchainRegistroRepository.countByPendenteSelagemTrue());
+        } catch (RuntimeException e) {
+            logger.warn("[BLOCKCHAIN] Falha ao contar registros pendentes de selagem: motivo={}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return quantos registros foram selados, ou {@code -1} se a selagem falhou
+     */
+    private int selarProximoLote() {
+        long inicio = System.nanoTime();
+        BlocoLedger bloco;
+        try {
+            bloco = transacaoPropria.execute(status -> selar());
+        } catch (DataIntegrityViolationException e) {
+            // Outra instância selou um bloco de mesmo número; o lote continua pendente e é selado de novo
+            // sobre o bloco vencedor na próxima descarga.
+            pendentesNovos.set(true);
+            falhasDescarga.increment();
+            logger.warn("[BLOCKCHAIN] Conflito ao selar bloco do ledger, nova tentativa na próxima descarga: motivo={}", e.getMessage());
+            return -1;
+        } catch (RuntimeException e) {
+            pendentesNovos.set(true);
+            falhasDescarga.increment();
+            logger.error("[BLOCKCHAIN] Falha ao selar bloco do ledger, nova tentativa na próxima descarga: motivo={}", e.getMessage());
+            return -1;
+        }
+        if (bloco == null) {
+            return 0;
+        }
+        tempoDescarga.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        selados.increment(bloco.getQuantidadeRegistros());
+        logger.debug("[BLOCKCHAIN] Bloco do ledger selado: numero={} registros={}", bloco.getNumero(), bloco.getQuantidadeRegistros());
+        return bloco.getQuantidadeRegistros();
+    }
+
+    /**
+     * Sela os próximos pendentes como o próximo bloco da cadeia: numera os registros na ordem de gravação,
+     * calcula a raiz de Merkle dos seus hashes e encadeia o bloco ao último selado.
+     *
+     * @return o bloco selado, ou {@code null} se não havia pendentes
+     */
+    private BlocoLedger selar() {
+        List<BlockchainRegistro> lote = blockchainRegistroRepository.findPendentesDeSelagem(PageRequest.of(0, TAMANHO_LOTE));
+        if (lote.isEmpty()) {
+            return null;
+        }
+        BlocoLedger ultimoBloco = blocoLedgerRepository.findTopByOrderByNumeroDesc().orElse(null);
+        long numero = ultimoBloco == null ? 1 : ultimoBloco.getNumero() + 1;
+        String hashAnterior = ultimoBloco == null ? HashLedger.HASH_GENESIS : ultimoBloco.getHashBloco();
+
+        List<String> folhas = new ArrayList<>(lote.size());
+        for (int i = 0; i < lote.size(); i++) {
+            BlockchainRegistro registro = lote.get(i);
+            registro.setNumeroBloco(numero);
+            registro.setIndiceBloco(i);
+            registro.setPendenteSelagem(null);
+            folhas.add(registro.getHashTransacao());
+        }
+        String raizMerkle = ArvoreMerkle.raiz(folhas);
+        BlocoLedger bloco = BlocoLedger.builder()
+                .numero(numero)
+                .hashAnterior(hashAnterior)
+                .raizMerkle(raizMerkle)
+                .hashBloco(HashLedger.hashBloco(numero, hashAnterior, raizMerkle, lote.size()))
+                .quantidadeRegistros(lote.size())
+                .dataCriacao(OffsetDateTime.now(ZoneOffset.UTC))
+                .build();
+        return blocoLedgerRepository.saveAndFlush(bloco);
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.asyncpayments.service;
+
+import com.example.asyncpayments.entity.Dinheiro;
+import com.example.asyncpayments.entity.Transacao;
+import com.example.asyncpayments.repository.TransacaoRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Acumulador em memória do gasto de cada usuário nas últimas 24h, usado para validar o limite diário
+ * sem consultar o banco a cada transferência.
+ *
+ * <p>O gasto é guardado em baldes de uma hora. A janela soma o balde da hora corrente e os 24
+ * anteriores, então um gasto sai da janela entre 24h e 25h depois de feito — nunca antes, o que
+ * mantém a validação ao menos tão restritiva quanto a consulta por intervalo que ela substitui.
+ * Um usuário ainda não visto (inclusive após reiniciar a aplicação) é reconciliado com o banco no
+ * primeiro acesso. O estado é local a cada instância.
+ */
+@Service
+@RequiredArgsConstructor
+public class LimiteDiarioService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LimiteDiarioService.class);
+
+    static final long LIMITE_DIARIO_CENTAVOS = 100_000L;
+    private static final int BALDES = 25;
+    private static final long SEGUNDOS_POR_HORA = 3600L;
+
+    private final TransacaoRepository transacaoRepository;
+    private final Map<Long, JanelaGastos> janelas = new ConcurrentHashMap<>();
+
+    /**
+     * Valida o limite diário e já reserva o valor na janela do usuário. Se a transação corrente for
+     * desfeita, a reserva é estornada.
+     */
+    public void reservar(Long idUsuario, Dinheiro valor) {
+        long centavos = valor.centavos();
+        long hora = horaAtual();
+        JanelaGastos janela = janela(idUsuario);
+        long total = janela.reservar(hora, centavos, LIMITE_DIARIO_CENTAVOS);
+        if (total < 0) {
+            logger.warn("[VALIDACAO] Limite diário excedido para usuário {}: total={} valorTentativa={}", idUsuario, Dinheiro.deCentavos(janela.total(hora)), valor);
+            throw new IllegalStateException("Limite diário excedido");
+        }
+        estornarSeDesfeita(janela, hora, centavos);
+    }
+
+    /**
+     * Contabiliza um gasto que não passa pela validação do limite, para que ele conte nas validações seguintes.
+     */
+    public void registrar(Long idUsuario, Dinheiro valor) {
+        long centavos = valor.centavos();
+        long hora = horaAtual();
+        JanelaGastos janela = janela(idUsuario);
+        janela.adicionar(hora, centavos);
+        estornarSeDesfeita(janela, hora, centavos);
+    }
+
+    public Dinheiro totalUltimas24h(Long idUsuario) {
+        return Dinheiro.deCentavos(janela(idUsuario).total(horaAtual()));
+    }
+
+    /**
+     * Descarta as janelas de usuários sem gasto dentro da janela, para que o mapa não cresça indefinidamente.
+     */
+    @Scheduled(fixedRate = 3_600_000)
+    public void descartarJanelasOciosas() {
+        long hora = horaAtual();
+        janelas.values().removeIf(janela -> janela.ociosa(hora));
+    }
+
+    private JanelaGastos janela(Long idUsuario) {
+        JanelaGastos janela = janelas.get(idUsuario);
+        if (janela != null) {
+            return janela;
+        }
+        JanelaGastos carregada = carregar(idUsuario);
+        JanelaGastos existente = janelas.putIfAbsent(idUsuario, carregada);
+        return existente != null ? existente : carregada;
+    }
+
+    private JanelaGastos carregar(Long idUsuario) {
+        long hora = horaAtual();
+        OffsetDateTime inicio = OffsetDateTime.ofInstant(Instant.ofEpochSecond((hora - BALDES + 1) * SEGUNDOS_POR_HORA), ZoneOffset.UTC);
+        List<Transacao> transacoes = transacaoRepository.findByIdUsuarioOrigemAndDataCriacaoBetween(idUsuario, inicio, OffsetDateTime.now(ZoneOffset.UTC));
+
+        JanelaGastos janela = new JanelaGastos();
+        for (Transacao transacao : transacoes) {
+            if (transacao.getDataCriacao() != null && transacao.getValor() != null) {
+                janela.adicionar(transacao.getDataCriacao().toEpochSecond() / SEGUNDOS_POR_HORA, transacao.getValor().centavos());
+            }
+        }
+        logger.debug("[VALIDACAO] Janela de limite diário reconciliada com o banco: usuario={} transacoes={}", idUsuario, transacoes.size());
+        return janela;
+    }
+
+    private void estornarSeDesfeita(JanelaGastos janela, long hora, long centavos) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    janela.adicionar(hora, -centavos);
+                }
+            }
+        });
+    }
+
+    private static long horaAtual() {
+        return System.currentTimeMillis() / 1000 / SEGUNDOS_POR_HORA;
+    }
+
+    static final class JanelaGastos {
+        private final long[] horas = new long[BALDES];
+        private final long[] centavos = new long[BALDES];
+
+        JanelaGastos() {
+            Arrays.fill(horas, Long.MIN_VALUE);
+        }
+
+        synchronized void adicionar(long hora, long valor) {
+            int indice = (int) Math.floorMod(hora, (long) BALDES);
+            if (horas[indice] == hora) {
+                centavos[indice] += valor;
+            } else if (horas[indice] < hora) {
+                horas[indice] = hora;
+                centavos[indice] = valor;
+            }
+            // balde mais novo já ocupa a posição: o gasto está fora da janela
+        }
+
+        synchronized long total(long horaAtual) {
+            long total = 0;
+            for (int i = 0; i < BALDES; i++) {
+                if (horas[i] > horaAtual - BALDES) {
+                    total += centavos[i];
+                }
+            }
+            return total;
+        }
+
+        /**
+         * Soma o valor à hora corrente se couber no limite. Devolve o novo total, ou -1 se exceder.
+         */
+        synchronized long reservar(long horaAtual, long valor, long limite) {
+            long total = total(horaAtual);
+            if (total + valor > limite) {
+                return -1;
+            }
+            adicionar(horaAtual, valor);
+            return total + valor;
+        }
+
+        synchronized boolean ociosa(long horaAtual) {
+            return total(horaAtual) == 0;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.asyncpayments.service;
+
+import com.example.asyncpayments.entity.ContaAssincrona;
+import com.example.asyncpayments.entity.ContaSincrona;
+import com.example.asyncpayments.entity.Dinheiro;
+import com.example.asyncpayments.entity.TipoOperacao;
+import com.example.asyncpayments.repository.ContaAssincronaRepository;
+import com.example.asyncpayments.repository.ContaSincronaRepository;
+import com.example.asyncpayments.repository.SaldoConta;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Ponto único de alteração de saldo das contas.
+ *
+ * <p>Transferências são aplicadas com UPDATEs condicionais ({@code saldo = saldo - ? ... and saldo >= ?}),
+ * sem carregar as entidades: o próprio UPDATE bloqueia a linha até o fim da transação. As contas são
+ * sempre alteradas na mesma ordem — a síncrona antes da assíncrona e, entre contas do mesmo tipo, a de
+ * menor id de usuário primeiro — para que transferências cruzadas (A→B e B→A) esperem uma pela outra em
+ * vez de entrar em deadlock. Quem precisar ler o saldo antes de decidir usa {@link #bloquearContasDoUsuario},
+ * que segue a mesma ordem, e lotes usam {@link #movimentarLote}.
+ */
+@Service
+@RequiredArgsConstructor
+public class MovimentacaoSaldoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MovimentacaoSaldoService.class);
+
+    static final int MAXIMO_TENTATIVAS = 3;
+    private static final long ESPERA_BASE_MS = 20;
+
+    private final ContaSincronaRepository contaSincronaRepository;
+    private final ContaAssincronaRepository contaAssincronaRepository;
+    private final MeterRegistry meterRegistry;
+
+    public enum Resultado {
+        EFETUADA,
+        CONTA_NAO_ENCONTRADA,
+        SALDO_INSUFICIENTE
+    }
+
+    public record ContasUsuario(ContaSincrona sincrona, ContaAssincrona assincrona) {
+    }
+
+    public record Movimento(TipoOperacao tipoOrigem, Long idOrigem, TipoOperacao tipoDestino, Long idDestino, Dinheiro valor) {
+    }
+
+    /**
+     * Debita {@code valor} da conta de origem e credita na de destino, na ordem canônica.
+     * {@code tipoOrigem} e {@code tipoDestino} devem ser {@link TipoOperacao#SINCRONA} ou {@link TipoOperacao#ASSINCRONA}.
+     * Se a movimentação não puder ser feita, nenhum saldo fica alterado, mesmo que a transação seja confirmada.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public Resultado movimentar(TipoOperacao tipoOrigem, Long idOrigem, TipoOperacao tipoDestino, Long idDestino, Dinheiro valor) {
+        ChaveConta origem = new ChaveConta(tipoOrigem, idOrigem);
+        ChaveConta destino = new ChaveConta(tipoDestino, idDestino);
+
+        if (origem.compareTo(destino) <= 0) {
+            if (!debitarSeSuficiente(origem, valor)) {
+                return motivoFalhaDebito(origem);
+            }
+            if (!creditar(destino, valor)) {
+                creditar(origem, valor);
+                return Resultado.CONTA_NAO_ENCONTRADA;
+            }
+        } else {
+            if (!creditar(destino, valor)) {
+                return Resultado.CONTA_NAO_ENCONTRADA;
+            }
+            if (!debitarSeSuficiente(origem, valor)) {
+                creditar(destino, valor.negado());
+                return motivoFalhaDebito(origem);
+            }
+        }
+        return Resultado.EFETUADA;
+    }
+
+    /**
+     * Aplica vários movimentos de uma vez. Todas as contas envolvidas são bloqueadas de início, na ordem
+     * canônica; os movimentos são então avaliados em memória, na ordem recebida, e cada conta recebe um único
+     * UPDATE com a variação líquida. Um movimento sem saldo ou com conta inexistente é descartado sem afetar os
+     * demais. Devolve o resultado de cada movimento, na mesma ordem.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public List<Resultado> movimentarLote(List<Movimento> movimentos) {
+        ContasBloqueadas contas = bloquearSaldos(movimentos);
+        long[] saldos = contas.saldos().clone();
+
+        List<Resultado> resultados = new ArrayList<>(movimentos.size());
+        for (Movimento movimento : movimentos) {
+            int origem = contas.indice(movimento.tipoOrigem(), movimento.idOrigem());
+            int destino = contas.indice(movimento.tipoDestino(), movimento.idDestino());
+            long centavos = movimento.valor().centavos();
+
+            if (origem < 0 || destino < 0) {
+                resultados.add(Resultado.CONTA_NAO_ENCONTRADA);
+            } else if (saldos[origem] < centavos) {
+                resultados.add(Resultado.SALDO_INSUFICIENTE);
+            } else {
+                saldos[origem] = Math.subtractExact(saldos[origem], centavos);
+                saldos[destino] = Math.addExact(saldos[destino], centavos);
+                resultados.add(Resultado.EFETUADA);
+            }
+        }
+
+        // As contas já estão na ordem canônica de bloqueio.
+        for (int i = 0; i < saldos.length; i++) {
+            long variacao = Math.subtractExact(saldos[i], contas.saldos()[i]);
+            if (variacao != 0) {
+                creditar(contas.chaves()[i], Dinheiro.deCentavos(variacao));
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * Credita {@code valor} em uma única conta. Devolve {@code false} se a conta não existe.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public boolean creditar(TipoOperacao tipo, Long userId, Dinheiro valor) {
+        return creditar(new ChaveConta(tipo, userId), valor);
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public ContasUsuario bloquearContasDoUsuario(Long userId) {
+        ContaSincrona sincrona = contaSincronaRepository.findByUserIdParaAtualizacao(userId);
+        ContaAssincrona assincrona = contaAssincronaRepository.findByUserIdParaAtualizacao(userId);
+        return new ContasUsuario(sincrona, assincrona);
+    }
+
+    /**
+     * Executa a operação e, se ela falhar por conflito de bloqueio (timeout ou deadlock detectado pelo banco),
+     * tenta de novo até {@value #MAXIMO_TENTATIVAS} vezes com espera exponencial e aleatória. A operação
+     * precisa abrir a própria transação: chamar este método de dentro de uma transação não adianta, pois
+     * ela já estará marcada para rollback.
+     */
+    public <T> T executarComRetentativa(Supplier<T> operacao) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return operacao.get();
+            } catch (ConcurrencyFailureException e) {
+                meterRegistry.counter("movimentacao.saldo.conflitos").increment();
+                if (tentativa >= MAXIMO_TENTATIVAS) {
+                    meterRegistry.counter("movimentacao.saldo.conflitos.esgotados").increment();
+                    logger.error("[CONCORRENCIA] Conflito ao movimentar saldo persistiu após {} tentativas: {}", tentativa, e.getMessage());
+                    throw e;
+                }
+                meterRegistry.counter("movimentacao.saldo.retentativas").increment();
+                logger.warn("[CONCORRENCIA] Conflito ao movimentar saldo, nova tentativa: tentativa={} motivo={}", tentativa, e.getMessage());
+                esperar(tentativa);
+            }
+        }
+    }
+
+    private ContasBloqueadas bloquearSaldos(List<Movimento> movimentos) {
+        Set<Long> sincronas = new TreeSet<>();
+        Set<Long> assincronas = new TreeSet<>();
+        for (Movimento movimento : movimentos) {
+            for (ChaveConta chave : List.of(new ChaveConta(movimento.tipoOrigem(), movimento.idOrigem()),
+                                            new ChaveConta(movimento.tipoDestino(), movimento.idDestino()))) {
+                (chave.tipo() == TipoOperacao.SINCRONA ? sincronas : assincronas).add(chave.userId());
+            }
+        }
+
+        List<SaldoConta> saldosSincronas = sincronas.isEmpty() ? List.of() : contaSincronaRepository.findSaldosParaAtualizacao(sincronas);
+        List<SaldoConta> saldosAssincronas = assincronas.isEmpty() ? List.of() : contaAssincronaRepository.findSaldosParaAtualizacao(assincronas);
+
+        int total = saldosSincronas.size() + saldosAssincronas.size();
+        ContasBloqueadas contas = new ContasBloqueadas(new ChaveConta[total], new long[total], new HashMap<>(), new HashMap<>());
+        int i = 0;
+        for (SaldoConta saldo : saldosSincronas) {
+            contas.adicionar(i++, TipoOperacao.SINCRONA, saldo);
+        }
+        for (SaldoConta saldo : saldosAssincronas) {
+            contas.adicionar(i++, TipoOperacao.ASSINCRONA, saldo);
+        }
+        return contas;
+    }
+
+    private boolean debitarSeSuficiente(ChaveConta chave, Dinheiro valor) {
+        int linhas = chave.tipo() == TipoOperacao.SINCRONA
+                ? contaSincronaRepository.debitarSeSuficiente(chave.userId(), valor)
+                : contaAssincronaRepository.debitarSeSuficiente(chave.userId(), valor);
+        return linhas > 0;
+    }
+
+    private boolean creditar(ChaveConta chave, Dinheiro valor) {
+        int linhas = chave.tipo() == TipoOperacao.SINCRONA
+                ? contaSincronaRepository.creditar(chave.userId(), valor)
+                : contaAssincronaRepository.creditar(chave.userId(), valor);
+        return linhas > 0;
+    }
+
+    private Resultado motivoFalhaDebito(ChaveConta chave) {
+        boolean existe = chave.tipo() == TipoOperacao.SINCRONA
+                ? contaSincronaRepository.existsByUserId(chave.userId())
+                : contaAssincronaRepository.existsByUserId(chave.userId());
+        return existe ? Resultado.SALDO_INSUFICIENTE : Resultado.CONTA_NAO_ENCONTRADA;
+    }
+
+    private void esperar(int tentativa) {
+        long teto = ESPERA_BASE_MS << (tentativa - 1);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(teto / 2, teto + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando nova tentativa de movimentação de saldo.", e);
+        }
+    }
+
+    /**
+     * Contas bloqueadas por {@link #movimentarLote}, na ordem canônica, com os saldos em centavos no mesmo
+     * índice de {@code chaves}.
+     */
+    private record ContasBloqueadas(ChaveConta[] chaves, long[] saldos,
+                                    Map<Long, Integer> sincronas, Map<Long, Integer> assincronas) {
+
+        void adicionar(int indice, TipoOperacao tipo, SaldoConta saldo) {
+            chaves[indice] = new ChaveConta(tipo, saldo.userId());
+            saldos[indice] = saldo.saldo().centavos();
+            (tipo == TipoOperacao.SINCRONA ? sincronas : assincronas).put(saldo.userId(), indice);
+        }
+
+        /**
+         * Posição da conta em {@code chaves}, ou -1 se ela não existe.
+         */
+        int indice(TipoOperacao tipo, Long userId) {
+            Integer indice = (tipo == TipoOperacao.SINCRONA ? sincronas : assincronas).get(userId);
+            return indice == null ? -1 : indice;
+        }
+    }
+
+    /**
+     * Identifica uma conta pela ordem canônica de bloqueio: síncrona antes de assíncrona, depois id de usuário.
+     */
+    private record ChaveConta(TipoOperacao tipo, Long userId) implements Comparable<ChaveConta> {
+
+        ChaveConta {
+            if (tipo != TipoOperacao.SINCRONA && tipo != TipoOperacao.ASSINCRONA) {
+                throw new IllegalArgumentException("Tipo de conta inválido: " + tipo);
+            }
+        }
+
+        @Override
+        public int compareTo(ChaveConta outra) {
+            if (tipo != outra.tipo) {
+                return tipo == TipoOperacao.SINCRONA ? -1 : 1;
+            }
+            return Long.compare(userId, outra.userId);
+        }
+    }
+}
@@ -1,37 +1,204 @@
 package com.example.asyncpayments.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.scheduling.annotation.Scheduled;
-import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
-import com.example.asyncpayments.entity.Transacao;
 import com.example.asyncpayments.entity.StatusTransacao; 
+import com.example.asyncpayments.repository.TransacaoPendente;
 import com.example.asyncpayments.repository.TransacaoRepository;
 
+/**
+ * Marca as transações pendentes como sincronizadas. Cada lote lido do banco é dividido pelo usuário de origem
+ * entre workers de uma thread só, então as transações de um usuário são sempre processadas em ordem, pelo
+ * mesmo worker, enquanto usuários diferentes andam em paralelo. Cada worker grava em microlotes de
+ * {@value #TAMANHO_MICROLOTE}, um UPDATE e um commit por microlote, e para no primeiro que falhar para não
+ * passar à frente das transações que ficaram.
+ */
 @Service
-@RequiredArgsConstructor
 public class ProcessadorTransacaoService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ProcessadorTransacaoService.class);
+
+    static final int TAMANHO_LOTE = 500;
+    static final int TAMANHO_MICROLOTE = 50;
+    private static final String JOB = "transacoes.pendentes";
+    private static final Duration CONCESSAO = Duration.ofSeconds(90);
+
     private final TransacaoRepository transacaoRepository;
+    private final ExpiracaoPendentesService expiracaoPendentesService;
+    private final FilaTransacaoService filaTransacaoService;
+    private final TransactionTemplate transacao;
+    private final LeaseJobService leaseJobService;
+    private final ExecutorService[] workers;
+
+    private final AtomicLong[] atrasoMs;
+    private final Counter[] processadas;
+    private final Counter[] falhas;
+    private final Timer[] tempoMicrolote;
+
+    @Autowired
+    public ProcessadorTransacaoService(TransacaoRepository transacaoRepository,
+                                       ExpiracaoPendentesService expiracaoPendentesService,
+                                       FilaTransacaoService filaTransacaoService,
+                                       PlatformTransactionManager transactionManager,
+                                       LeaseJobService leaseJobService,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${asyncpayments.processador.workers:4}") int quantidadeWorkers) {
+        if (quantidadeWorkers <= 0) {
+            throw new IllegalArgumentException("A quantidade de workers do processador deve ser positiva.");
+        }
+        this.transacaoRepository = transacaoRepository;
+        this.expiracaoPendentesService = expiracaoPendentesService;
+        this.filaTransacaoService = filaTransacaoService;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.leaseJobService = leaseJobService;
+        this.workers = new ExecutorService[quantidadeWorkers];
+        this.atrasoMs = new AtomicLong[quantidadeWorkers];
+        this.processadas = new Counter[quantidadeWorkers];
+        this.falhas = new Counter[quantidadeWorkers];
+        this.tempoMicrolote = new Timer[quantidadeWorkers];
+        for (int shard = 0; shard < quantidadeWorkers; shard++) {
+            Tags tags = Tags.of("shard", String.valueOf(shard));
+            workers[shard] = Executors.newSingleThreadExecutor(
+                    Thread.ofPlatform().name("processador-pendentes-" + shard).daemon(true).factory());
+            atrasoMs[shard] = meterRegistry.gauge("transacoes.processador.atraso", tags, new AtomicLong());
+            processadas[shard] = meterRegistry.counter("transacoes.processador.processadas", tags);
+            falhas[shard] = meterRegistry.counter("transacoes.processador.falhas", tags);
+            tempoMicrolote[shard] = meterRegistry.timer("transacoes.processador.microlote", tags);
+        }
+    }
 
+    /**
+     * Processa as pendentes em lotes de {@value #TAMANHO_LOTE}, esperando todos os workers terminarem um lote
+     * antes de ler o próximo. Só a instância com a concessão do job executa, e ela renova a concessão antes de
+     * cada lote seguinte: se não conseguir, outra instância assumiu o job e esta para.
+     */
     @Scheduled(fixedRate = 60000) 
     public void processarTransacoesPendentes() {
-        List<Transacao> transacoesPendentes = transacaoRepository.findByStatus(StatusTransacao.PENDENTE);
+        leaseJobService.executarComoLider(JOB, CONCESSAO, this::processarLotes);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        for (ExecutorService worker : workers) {
+            worker.shutdown();
+        }
+    }
+
+    private void processarLotes() {
+        List<TransacaoPendente> pendentes;
+        do {
+            pendentes = transacaoRepository.findPendentesPorStatus(StatusTransacao.PENDENTE, PageRequest.of(0, TAMANHO_LOTE));
+            List<Future<Boolean>> resultados = new ArrayList<>();
+            List<List<TransacaoPendente>> porShard = distribuir(pendentes);
+            for (int shard = 0; shard < workers.length; shard++) {
+                List<TransacaoPendente> doShard = porShard.get(shard);
+                if (doShard.isEmpty()) {
+                    // Sem pendentes do shard neste lote, não há atraso; sem isso o gauge ficaria no último valor.
+                    atrasoMs[shard].set(0);
+                } else {
+                    int indice = shard;
+                    resultados.add(workers[shard].submit(() -> processarShard(indice, doShard)));
+                }
+            }
+            if (resultados.isEmpty()) {
+                return;
+            }
+            if (!aguardar(resultados)) {
+                return;
+            }
+        } while (pendentes.size() == TAMANHO_LOTE && renovarConcessao());
+    }
+
+    private boolean renovarConcessao() {
+        if (leaseJobService.adquirir(JOB, CONCESSAO)) {
+            return true;
+        }
+        logger.warn("[SINCRONIZACAO] Concessão do processador de pendentes não renovada; lotes restantes ficam para o líder atual.");
+        return false;
+    }
+
+    List<List<TransacaoPendente>> distribuir(List<TransacaoPendente> pendentes) {
+        List<List<TransacaoPendente>> porShard = new ArrayList<>(workers.length);
+        for (int shard = 0; shard < workers.length; shard++) {
+            porShard.add(new ArrayList<>());
+        }
+        for (TransacaoPendente pendente : pendentes) {
+            porShard.get(shard(pendente.idUsuarioOrigem())).add(pendente);
+        }
+        return porShard;
+    }
+
+    int shard(Long idUsuarioOrigem) {
+        return idUsuarioOrigem == null ? 0 : Math.floorMod(Long.hashCode(idUsuarioOrigem), workers.length);
+    }
+
+    private boolean processarShard(int shard, List<TransacaoPendente> pendentes) {
+        for (int inicio = 0; inicio < pendentes.size(); inicio += TAMANHO_MICROLOTE) {
+            List<TransacaoPendente> microlote = pendentes.subList(inicio, Math.min(pendentes.size(), inicio + TAMANHO_MICROLOTE));
+            List<Long> ids = microlote.stream().map(TransacaoPendente::id).toList();
+            long comeco = System.nanoTime();
+            int atualizadas;
+            try {
+                atualizadas = transacao.execute(status -> transacaoRepository.atualizarStatusSeAinda(
+                        ids, StatusTransacao.PENDENTE, StatusTransacao.SINCRONIZADA, OffsetDateTime.now(ZoneOffset.UTC)));
+            } catch (RuntimeException e) {
+                falhas[shard].increment();
+                logger.error("[SINCRONIZACAO] Erro ao processar microlote de transações pendentes: shard={} quantidade={}", shard, ids.size(), e);
+                return false;
+            }
+            tempoMicrolote[shard].record(Duration.ofNanos(System.nanoTime() - comeco));
+            // Só conta as que este microlote mudou; as demais já tinham saído de PENDENTE por outro caminho.
+            processadas[shard].increment(atualizadas);
+            expiracaoPendentesService.cancelar(ids);
+            // Se alguma mudou de status no meio do caminho, quem a mudou registra; as demais são lidas do banco.
+            if (atualizadas == ids.size()) {
+                filaTransacaoService.atualizarStatus(ids, StatusTransacao.SINCRONIZADA);
+            }
+            OffsetDateTime maisAntiga = microlote.get(0).dataCriacao();
+            if (maisAntiga != null) {
+                atrasoMs[shard].set(Duration.between(maisAntiga, OffsetDateTime.now(ZoneOffset.UTC)).toMillis());
+            }
+        }
+        return true;
+    }
 
-        for (Transacao transacao : transacoesPendentes) {
+    private boolean aguardar(List<Future<Boolean>> resultados) {
+        boolean sucesso = true;
+        for (Future<Boolean> resultado : resultados) {
             try {
-                transacao.setStatus(StatusTransacao.SINCRONIZADA);
-                transacao.setDataAtualizacao(OffsetDateTime.now(ZoneOffset.UTC));
-                transacaoRepository.save(transacao);
-            } catch (Exception e) {
-                transacao.setStatus(StatusTransacao.ERRO);
-                transacao.setDescricao("Erro ao processar: " + e.getMessage());
-                transacaoRepository.save(transacao);
+                sucesso &= resultado.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (ExecutionException e) {
+                logger.error("[SINCRONIZACAO] Worker do processador de pendentes falhou.", e.getCause());
+                sucesso = false;
             }
         }
+        return sucesso;
     }
-}
\ No newline at end of file
+}
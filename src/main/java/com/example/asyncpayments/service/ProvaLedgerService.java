@@ -0,0 +1,106 @@
+package com.example.asyncpayments.service;
+
+import com.example.asyncpayments.dto.ProvaInclusao;
+import com.example.asyncpayments.entity.BlockchainRegistro;
+import com.example.asyncpayments.entity.BlocoLedger;
+import com.example.asyncpayments.repository.BlockchainRegistroRepository;
+import com.example.asyncpayments.repository.BlocoLedgerRepository;
+import com.example.asyncpayments.util.ArvoreMerkle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Provas de inclusão de registros no ledger.
+ *
+ * <p>Um bloco selado não muda, então sua árvore de Merkle é montada uma vez e mantida num cache LRU de
+ * {@code asyncpayments.ledger.provas.blocos-em-cache} blocos (padrão 64; cerca de 32 KB por bloco de 500
+ * registros); com o bloco em cache, a prova custa a consulta do registro pelo índice do hash e a leitura de
+ * ⌈log2(n)⌉ hashes da árvore.
+ */
+@Service
+public class ProvaLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProvaLedgerService.class);
+
+    private final BlockchainRegistroRepository blockchainRegistroRepository;
+    private final BlocoLedgerRepository blocoLedgerRepository;
+    private final Map<Long, BlocoSelado> blocos;
+
+    public ProvaLedgerService(BlockchainRegistroRepository blockchainRegistroRepository, BlocoLedgerRepository blocoLedgerRepository,
+                              @Value("${asyncpayments.ledger.provas.blocos-em-cache:64}") int blocosEmCache) {
+        if (blocosEmCache <= 0) {
+            throw new IllegalArgumentException("O cache de blocos das provas deve ter capacidade positiva.");
+        }
+        this.blockchainRegistroRepository = blockchainRegistroRepository;
+        this.blocoLedgerRepository = blocoLedgerRepository;
+        this.blocos = new LinkedHashMap<>(blocosEmCache * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, BlocoSelado> maisAntigo) {
+                return size() > blocosEmCache;
+            }
+        };
+    }
+
+    /**
+     * Prova de inclusão do registro de hash {@code hash}, ou vazio se ele não existir ou ainda não estiver
+     * num bloco selado.
+     */
+    public Optional<ProvaInclusao> gerarProva(String hash) {
+        Optional<BlockchainRegistro> registro = blockchainRegistroRepository.findByHashTransacao(hash);
+        if (registro.isEmpty() || registro.get().getNumeroBloco() == null) {
+            return Optional.empty();
+        }
+        long numeroBloco = registro.get().getNumeroBloco();
+        int indice = registro.get().getIndiceBloco();
+        return blocoSelado(numeroBloco).map(selado -> {
+            BlocoLedger bloco = selado.bloco();
+            return new ProvaInclusao(hash, numeroBloco, indice, bloco.getQuantidadeRegistros(), bloco.getRaizMerkle(),
+                    bloco.getHashAnterior(), bloco.getHashBloco(), selado.arvore().prova(indice));
+        });
+    }
+
+    private Optional<BlocoSelado> blocoSelado(long numero) {
+        synchronized (blocos) {
+            BlocoSelado selado = blocos.get(numero);
+            if (selado != null) {
+                return Optional.of(selado);
+            }
+        }
+        Optional<BlocoLedger> bloco = blocoLedgerRepository.findByNumero(numero);
+        if (bloco.isEmpty()) {
+            return Optional.empty();
+        }
+        ArvoreMerkle arvore;
+        try {
+            arvore = ArvoreMerkle.montar(blockchainRegistroRepository.findHashesDoBloco(numero));
+        } catch (IllegalArgumentException e) {
+            logger.error("[BLOCKCHAIN] Hash inválido no bloco, prova não gerada: bloco={} motivo={}", numero, e.getMessage());
+            return Optional.empty();
+        }
+        if (!arvore.raiz().equals(bloco.get().getRaizMerkle())) {
+            // Não guarda nem prova um bloco que não confere: a auditoria do ledger aponta o problema.
+            logger.error("[BLOCKCHAIN] Raiz de Merkle do bloco não confere, prova não gerada: bloco={}", numero);
+            return Optional.empty();
+        }
+        BlocoSelado selado = new BlocoSelado(bloco.get(), arvore);
+        synchronized (blocos) {
+            blocos.put(numero, selado);
+        }
+        return Optional.of(selado);
+    }
+
+    int blocosEmCache() {
+        synchronized (blocos) {
+            return blocos.size();
+        }
+    }
+
+    private record BlocoSelado(BlocoLedger bloco, ArvoreMerkle arvore) {
+    }
+}
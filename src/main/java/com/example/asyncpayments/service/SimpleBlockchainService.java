@@ -2,29 +2,114 @@ package com.example.asyncpayments.service;
 
 import com.example.asyncpayments.entity.BlockchainRegistro;
 import com.example.asyncpayments.repository.BlockchainRegistroRepository;
-import lombok.RequiredArgsConstructor;
+import com.example.asyncpayments.util.FiltroBloom;
+import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Validação de hashes do ledger, confirmada pelo índice único de {@code hash_transacao}.
+ *
+ * <p>Com {@code asyncpayments.blockchain.filtro.escritor-unico=true}, um filtro de Bloom em memória,
+ * montado na inicialização a partir dos hashes gravados, descarta sem ir ao banco os hashes que
+ * certamente não existem. O filtro só enxerga os hashes desta instância, então só vale quando ela é a
+ * única a gravar no ledger; com várias instâncias (o padrão) ele não é montado e toda validação vai ao
+ * banco. Enquanto o filtro não está pronto, toda validação também vai ao banco.
+ */
 @Service
-@RequiredArgsConstructor
 public class SimpleBlockchainService implements BlockchainService {
 
     private static final Logger logger = LoggerFactory.getLogger(SimpleBlockchainService.class);
+
+    private static final long CAPACIDADE_MINIMA_FILTRO = 1_000_000L;
+    private static final double TAXA_FALSOS_POSITIVOS = 0.01;
+
     private final BlockchainRegistroRepository blockchainRegistroRepository;
+    private final boolean escritorUnico;
+
+    private volatile FiltroBloom filtroHashes;
+    private volatile boolean filtroPronto;
+    /** Hashes anotados antes de o filtro ficar pronto, repassados ao filtro ao fim da montagem. */
+    private final Queue<String> anotadosDuranteMontagem = new ConcurrentLinkedQueue<>();
+
+    public SimpleBlockchainService(BlockchainRegistroRepository blockchainRegistroRepository,
+                                   @Value("${asyncpayments.blockchain.filtro.escritor-unico:false}") boolean escritorUnico) {
+        this.blockchainRegistroRepository = blockchainRegistroRepository;
+        this.escritorUnico = escritorUnico;
+    }
 
     @Override
     public void registrarTransacao(BlockchainRegistro registro) {
+        anotarHash(registro.getHashTransacao());
         blockchainRegistroRepository.save(registro);
-        logger.info("Transação registrada no blockchain simulado: {}", registro.getHashTransacao());
+        logger.debug("Transação registrada no blockchain simulado: {}", registro.getHashTransacao());
     }
 
     @Override
     public boolean validarTransacao(String hash) {
-        boolean exists = blockchainRegistroRepository.findAll().stream()
-                .anyMatch(registro -> registro.getHashTransacao().equals(hash));
+        if (filtroPronto && !filtroHashes.podeConter(hash)) {
+            logger.debug("Validação de transação no blockchain simulado descartada pelo filtro: hash={}", hash);
+            return false;
+        }
+        boolean exists = blockchainRegistroRepository.existsByHashTransacao(hash);
         logger.info("Validação de transação no blockchain simulado: hash={}, válido={}", hash, exists);
         return exists;
     }
+
+    /**
+     * Inclui no filtro um hash que será gravado por outro caminho. Deve ser chamado antes da gravação,
+     * para que o hash nunca fique gravado e ausente do filtro.
+     */
+    public void anotarHash(String hash) {
+        if (!escritorUnico) {
+            return;
+        }
+        // Primeiro a fila, depois o filtro: um hash anotado antes de o filtro novo entrar em uso já está na
+        // fila quando a montagem a esvazia; um anotado depois vai direto para o filtro novo.
+        if (!filtroPronto) {
+            anotadosDuranteMontagem.add(hash);
+        }
+        FiltroBloom filtro = filtroHashes;
+        if (filtro != null) {
+            filtro.adicionar(hash);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void montarFiltroHashes() {
+        if (!escritorUnico) {
+            logger.info("[BLOCKCHAIN] Filtro de hashes do ledger desligado: mais de uma instância pode gravar no ledger");
+            return;
+        }
+        long inicio = System.currentTimeMillis();
+        long total = blockchainRegistroRepository.count();
+        FiltroBloom filtro = new FiltroBloom(Math.max(CAPACIDADE_MINIMA_FILTRO, total * 2), TAXA_FALSOS_POSITIVOS);
+        // O filtro novo entra em uso antes da leitura, para que hashes anotados durante a montagem não se percam.
+        filtroHashes = filtro;
+        LongAdder lidos = new LongAdder();
+        try (Stream<String> hashes = blockchainRegistroRepository.streamHashes()) {
+            hashes.forEach(hash -> {
+                filtro.adicionar(hash);
+                lidos.increment();
+            });
+        }
+        // Hashes anotados antes da troca e gravados depois do início da leitura só estão na fila.
+        String anotado;
+        while ((anotado = anotadosDuranteMontagem.poll()) != null) {
+            filtro.adicionar(anotado);
+        }
+        filtroPronto = true;
+        anotadosDuranteMontagem.clear();
+        logger.info("[BLOCKCHAIN] Filtro de hashes do ledger montado: hashes={} tempoMs={}", lidos.sum(), System.currentTimeMillis() - inicio);
+    }
 }
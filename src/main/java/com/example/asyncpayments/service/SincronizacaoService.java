@@ -1,20 +1,20 @@
 package com.example.asyncpayments.service;
 
-import com.example.asyncpayments.entity.ContaAssincrona;
-import com.example.asyncpayments.entity.ContaSincrona;
+import com.example.asyncpayments.entity.Dinheiro;
 import com.example.asyncpayments.entity.StatusTransacao;
-import com.example.asyncpayments.entity.Transacao;
 import com.example.asyncpayments.entity.TipoOperacao;
-import com.example.asyncpayments.entity.MetodoConexao;
-import com.example.asyncpayments.entity.GatewayPagamento;
-import com.example.asyncpayments.repository.ContaAssincronaRepository;
-import com.example.asyncpayments.repository.ContaSincronaRepository;
 import com.example.asyncpayments.repository.TransacaoRepository;
+import com.example.asyncpayments.repository.TransacaoVencida;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.Comparator;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,34 +25,81 @@ public class SincronizacaoService {
 
     private static final Logger logger = LoggerFactory.getLogger(SincronizacaoService.class);
 
-    private final ContaAssincronaRepository contaAssincronaRepository;
-    private final ContaSincronaRepository contaSincronaRepository;
+    static final int TAMANHO_LOTE_ROLLBACK = 500;
+    static final Duration PRAZO_SINCRONIZACAO = Duration.ofHours(72);
+
     private final TransacaoRepository transacaoRepository;
     private final FilaTransacaoService filaTransacaoService;
+    private final MovimentacaoSaldoService movimentacaoSaldoService;
+    private final PlatformTransactionManager transactionManager;
 
     /**
      * Roda periodicamente para marcar como ROLLBACK transações pendentes vencidas (>72h).
      * O backend nunca fica offline; sincronização é sempre iniciada pelo app.
+     *
+     * <p>Lê só as vencidas, pelo índice {@code (status, data_criacao)}, em lotes de até
+     * {@value #TAMANHO_LOTE_ROLLBACK}, cada lote em transação própria: um UPDATE de status para o lote e um
+     * crédito por usuário de origem com a soma do que ele tem a receber.
+     *
+     * @return quantidade de transações desfeitas
+     */
+    public int rollbackTransacoesNaoSincronizadas() {
+        OffsetDateTime agora = OffsetDateTime.now(ZoneOffset.UTC);
+        OffsetDateTime limite = agora.minus(PRAZO_SINCRONIZACAO);
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        int total = 0;
+        int desfeitas;
+        do {
+            desfeitas = transacao.execute(status -> rollbackLote(transacaoRepository.findVencidasParaAtualizacao(
+                    StatusTransacao.PENDENTE, limite, PageRequest.of(0, TAMANHO_LOTE_ROLLBACK)), agora));
+            total += desfeitas;
+        } while (desfeitas == TAMANHO_LOTE_ROLLBACK);
+        if (total > 0) {
+            logger.info("[SINCRONIZACAO] Transações pendentes vencidas desfeitas: quantidade={}", total);
+        }
+        return total;
+    }
+
+    /**
+     * Desfaz as transações informadas que ainda estiverem pendentes e vencidas, nos mesmos lotes da varredura.
+     *
+     * @return quantidade de transações desfeitas
      */
-    public void rollbackTransacoesNaoSincronizadas() {
+    public int rollbackTransacoes(List<Long> ids) {
         OffsetDateTime agora = OffsetDateTime.now(ZoneOffset.UTC);
-        List<Transacao> pendentes = transacaoRepository.findByStatus(StatusTransacao.PENDENTE);
-
-        for (Transacao transacao : pendentes) {
-            if (transacao.getDataCriacao() != null &&
-                java.time.Duration.between(transacao.getDataCriacao(), agora).toHours() > 72) {
-                transacao.setStatus(StatusTransacao.ROLLBACK);
-                transacao.setDescricao("Rollback: Transação não sincronizada em 72h.");
-                transacao.setDataAtualizacao(agora);
-                transacaoRepository.save(transacao);
-
-                // Devolve saldo para conta síncrona de origem
-                ContaSincrona contaSincrona = contaSincronaRepository.findByUserId(transacao.getIdUsuarioOrigem());
-                if (contaSincrona != null) {
-                    contaSincrona.setSaldo(contaSincrona.getSaldo() + transacao.getValor());
-                    contaSincronaRepository.save(contaSincrona);
-                }
+        OffsetDateTime limite = agora.minus(PRAZO_SINCRONIZACAO);
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        int total = 0;
+        for (int inicio = 0; inicio < ids.size(); inicio += TAMANHO_LOTE_ROLLBACK) {
+            List<Long> lote = ids.subList(inicio, Math.min(ids.size(), inicio + TAMANHO_LOTE_ROLLBACK));
+            total += transacao.execute(status -> rollbackLote(transacaoRepository.findVencidasPorIdParaAtualizacao(
+                    lote, StatusTransacao.PENDENTE, limite), agora));
+        }
+        if (total > 0) {
+            logger.info("[SINCRONIZACAO] Transações pendentes desfeitas no vencimento: quantidade={}", total);
+        }
+        return total;
+    }
+
+    private int rollbackLote(List<TransacaoVencida> vencidas, OffsetDateTime agora) {
+        if (vencidas.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = vencidas.stream().map(TransacaoVencida::id).toList();
+        transacaoRepository.atualizarStatus(ids, StatusTransacao.ROLLBACK, "Rollback: Transação não sincronizada em 72h.", agora);
+        filaTransacaoService.atualizarStatus(ids, StatusTransacao.ROLLBACK);
+
+        // Devolve saldo para conta síncrona de origem; em ordem de usuário, como os demais bloqueios de conta.
+        List<TransacaoVencida> porUsuario = vencidas.stream().sorted(Comparator.comparing(TransacaoVencida::idUsuarioOrigem)).toList();
+        long centavos = 0;
+        for (int i = 0; i < porUsuario.size(); i++) {
+            TransacaoVencida vencida = porUsuario.get(i);
+            centavos = Math.addExact(centavos, vencida.valor().centavos());
+            if (i + 1 == porUsuario.size() || !porUsuario.get(i + 1).idUsuarioOrigem().equals(vencida.idUsuarioOrigem())) {
+                movimentacaoSaldoService.creditar(TipoOperacao.SINCRONA, vencida.idUsuarioOrigem(), Dinheiro.deCentavos(centavos));
+                centavos = 0;
             }
         }
+        return vencidas.size();
     }
 }
@@ -1,25 +1,52 @@
 package com.example.asyncpayments.service;
 
+import com.example.asyncpayments.dto.CursorTransacao;
+import com.example.asyncpayments.dto.PaginaTransacoes;
+import com.example.asyncpayments.dto.ResultadoItemLote;
+import com.example.asyncpayments.dto.ResultadoLote;
+import com.example.asyncpayments.dto.TransacaoFiltro;
+import com.example.asyncpayments.dto.TransacaoRequest;
 import com.example.asyncpayments.dto.TransactionResponse;
 import com.example.asyncpayments.entity.*;
 import com.example.asyncpayments.repository.*;
+import com.example.asyncpayments.util.HashLedger;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import jakarta.transaction.Transactional;
 
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class TransacaoService {
 
     private static final Logger logger = LoggerFactory.getLogger(TransacaoService.class);
+    private static final Sort ORDEM_CURSOR = Sort.by(Sort.Order.desc("dataCriacao"), Sort.Order.desc("id"));
+    private static final int LIMITE_MAXIMO_PAGINA = 500;
+    private static final int LIMITE_MAXIMO_LOTE = 1000;
+    private static final Dinheiro LIMITE_ALTO_VALOR = Dinheiro.deCentavos(1_000_000);
+    private static final Dinheiro LIMITE_SEM_KYC = Dinheiro.deCentavos(50_000);
+    private static final Dinheiro LIMITE_OFFLINE = Dinheiro.deCentavos(50_000);
 
     private final UserRepository userRepository;
     private final TransacaoRepository transacaoRepository;
@@ -31,47 +58,43 @@ public class TransacaoService {
     private final SincronizacaoService sincronizacaoService;
     private final TransactionResponse transactionResponse;
     private final TransacaoAltoValorRepository transacaoAltoValorRepository;
+    private final LimiteDiarioService limiteDiarioService;
+    private final MovimentacaoSaldoService movimentacaoSaldoService;
+    private final ExpiracaoPendentesService expiracaoPendentesService;
 
     /**
      * Realiza uma transação entre contas, considerando regras de negócio para cada tipo de operação.
      */
     @Transactional
-    public Transacao realizarTransacao(Long idUsuarioOrigem, Long idUsuarioDestino, Double valor, GatewayPagamento gatewayPagamento, MetodoConexao metodoConexao, String descricao) {
+    public Transacao realizarTransacao(Long idUsuarioOrigem, Long idUsuarioDestino, Dinheiro valor, GatewayPagamento gatewayPagamento, MetodoConexao metodoConexao, String descricao) {
         logger.info("[TRANSACAO] Iniciando transação: origem={} destino={} valor={} gateway={} metodo={}", idUsuarioOrigem, idUsuarioDestino, valor, gatewayPagamento, metodoConexao);
 
         validarParametrosTransacao(idUsuarioOrigem, idUsuarioDestino, valor);
 
-        if (valor <= 10000.0) {
-            validarLimiteDiario(idUsuarioOrigem, valor);
-        }
-
-        ContaSincrona contaOrigem = contaSincronaRepository.findByUserId(idUsuarioOrigem);
-        ContaSincrona contaDestino = contaSincronaRepository.findByUserId(idUsuarioDestino);
-
-        if (contaOrigem == null || contaDestino == null) {
-            logger.error("[VALIDACAO] Conta de origem ou destino não encontrada: origem={} destino={}", idUsuarioOrigem, idUsuarioDestino);
-            throw new IllegalArgumentException("Conta de origem ou destino não encontrada.");
-        }
-
-        if (contaOrigem.getSaldo() < valor) {
-            logger.warn("[VALIDACAO] Saldo insuficiente: usuario={} saldo={} valorTentativa={}", idUsuarioOrigem, contaOrigem.getSaldo(), valor);
-            throw new IllegalArgumentException("Saldo insuficiente na conta de origem.");
+        if (!valor.maiorQue(LIMITE_ALTO_VALOR)) {
+            limiteDiarioService.reservar(idUsuarioOrigem, valor);
+        } else {
+            limiteDiarioService.registrar(idUsuarioOrigem, valor);
         }
 
         // Log para KYC (exemplo de regra de negócio)
         User userOrigem = userRepository.findById(idUsuarioOrigem).orElse(null);
-        if (valor > 500 && userOrigem != null && !userOrigem.isKycValidado()) {
+        if (valor.maiorQue(LIMITE_SEM_KYC) && userOrigem != null && !userOrigem.isKycValidado()) {
             logger.warn("[VALIDACAO] KYC obrigatório não validado: usuario={} valor={}", idUsuarioOrigem, valor);
             throw new IllegalArgumentException("KYC obrigatório para transações acima de R$500.");
         }
 
-        contaOrigem.setSaldo(contaOrigem.getSaldo() - valor);
-        contaDestino.setSaldo(contaDestino.getSaldo() + valor);
-
-        contaSincronaRepository.save(contaOrigem);
-        contaSincronaRepository.save(contaDestino);
-
-        logger.info("[TRANSACAO] Saldo atualizado: origem={} novoSaldo={} destino={} novoSaldo={}", idUsuarioOrigem, contaOrigem.getSaldo(), idUsuarioDestino, contaDestino.getSaldo());
+        switch (movimentacaoSaldoService.movimentar(TipoOperacao.SINCRONA, idUsuarioOrigem, TipoOperacao.SINCRONA, idUsuarioDestino, valor)) {
+            case CONTA_NAO_ENCONTRADA -> {
+                logger.error("[VALIDACAO] Conta de origem ou destino não encontrada: origem={} destino={}", idUsuarioOrigem, idUsuarioDestino);
+                throw new IllegalArgumentException("Conta de origem ou destino não encontrada.");
+            }
+            case SALDO_INSUFICIENTE -> {
+                logger.warn("[VALIDACAO] Saldo insuficiente: usuario={} valorTentativa={}", idUsuarioOrigem, valor);
+                throw new IllegalArgumentException("Saldo insuficiente na conta de origem.");
+            }
+            case EFETUADA -> logger.info("[TRANSACAO] Saldo atualizado: origem={} destino={} valor={}", idUsuarioOrigem, idUsuarioDestino, valor);
+        }
 
         Transacao transacao = new Transacao();
         transacao.setIdUsuarioOrigem(idUsuarioOrigem);
@@ -84,18 +107,12 @@ public class TransacaoService {
 
         Transacao transacaoSalva = transacaoRepository.save(transacao);
 
-        logger.info("[BLOCKCHAIN] Registrando transação no blockchain: transacaoId={}", transacaoSalva.getId());
-        BlockchainRegistro registro = BlockchainRegistro.builder()
-                .idUsuarioOrigem(idUsuarioOrigem)
-                .idUsuarioDestino(idUsuarioDestino)
-                .valor(valor)
-                .hashTransacao(gerarHashSimples(idUsuarioOrigem, idUsuarioDestino, valor))
-                .build();
-        blockchainService.registrarTransacao(registro);
+        logger.debug("[BLOCKCHAIN] Registrando transação no blockchain: transacaoId={}", transacaoSalva.getId());
+        blockchainService.registrarTransacao(novoRegistroBlockchain(transacao));
 
-        if (valor > 10000.0) {
+        if (valor.maiorQue(LIMITE_ALTO_VALOR)) {
             String info = String.format(
-                "Notificando BACEN: Transação de alto valor detectada! Origem: %d, Destino: %d, Valor: %.2f, Descrição: %s, Data: %s",
+                "Notificando BACEN: Transação de alto valor detectada! Origem: %d, Destino: %d, Valor: %s, Descrição: %s, Data: %s",
                 idUsuarioOrigem, idUsuarioDestino, valor, descricao, OffsetDateTime.now()
             );
             logger.warn(info);
@@ -115,29 +132,17 @@ public class TransacaoService {
         return transacaoSalva;
     }
 
-    private void validarParametrosTransacao(Long idUsuarioOrigem, Long idUsuarioDestino, Double valor) {
+    private void validarParametrosTransacao(Long idUsuarioOrigem, Long idUsuarioDestino, Dinheiro valor) {
         if (idUsuarioOrigem == null || idUsuarioDestino == null) {
             logger.error("[VALIDACAO] IDs de usuário obrigatórios não informados: origem={} destino={}", idUsuarioOrigem, idUsuarioDestino);
             throw new IllegalArgumentException("Os IDs dos usuários de origem e destino são obrigatórios.");
         }
-        if (valor == null || valor <= 0) {
+        if (valor == null || !valor.positivo()) {
             logger.error("[VALIDACAO] Valor inválido informado: valor={}", valor);
             throw new IllegalArgumentException("O valor da transação deve ser maior que zero.");
         }
     }
 
-    private void validarLimiteDiario(Long idUsuarioOrigem, Double valor) {
-        OffsetDateTime startDate = OffsetDateTime.now().minusDays(1);
-        OffsetDateTime endDate = OffsetDateTime.now();
-        List<Transacao> transacoes = transacaoRepository.findByIdUsuarioOrigemAndDataCriacaoBetween(idUsuarioOrigem, startDate, endDate);
-        double totalDiario = transacoes.stream().mapToDouble(Transacao::getValor).sum();
-
-        if (totalDiario + valor > 1000.0) {
-            logger.warn("[VALIDACAO] Limite diário excedido para usuário {}: total={} valorTentativa={}", idUsuarioOrigem, totalDiario, valor);
-            throw new IllegalStateException("Limite diário excedido");
-        }
-    }
-
     public List<Transacao> listarTodasTransacoes() {
         return transacaoRepository.findAll();
     }
@@ -152,6 +157,7 @@ public class TransacaoService {
 
     public void deletarTransacao(Long id) {
         transacaoRepository.deleteById(id);
+        filaTransacaoService.remover(id);
     }
 
     public List<Transacao> listarTransacoesPorStatus(StatusTransacao status) {
@@ -182,7 +188,7 @@ public class TransacaoService {
     }
 
     @Transactional
-    public Transacao criarTransacao(Long idUsuarioOrigem, Long idUsuarioDestino, Double valor, TipoOperacao tipoOperacao,
+    public Transacao criarTransacao(Long idUsuarioOrigem, Long idUsuarioDestino, Dinheiro valor, TipoOperacao tipoOperacao,
                                MetodoConexao metodoConexao, GatewayPagamento gatewayPagamento, String descricao) {
         validarParametrosTransacao(idUsuarioOrigem, idUsuarioDestino, valor);
 
@@ -201,53 +207,16 @@ public class TransacaoService {
             // Salva como pendente e processa sincronização
             transacao.setStatus(StatusTransacao.PENDENTE);
             transacaoRepository.save(transacao);
+            limiteDiarioService.registrar(idUsuarioOrigem, valor);
 
             return processarSincronizacao(transacao, OffsetDateTime.now(ZoneOffset.UTC));
         }
 
-        if (tipoOperacao == TipoOperacao.INTERNA) {
-            
-            ContaSincrona contaSincrona = contaSincronaRepository.findByUserId(idUsuarioOrigem);
-            ContaAssincrona contaAssincrona = contaAssincronaRepository.findByUserId(idUsuarioOrigem);
-            if (contaSincrona == null || contaAssincrona == null) throw new IllegalArgumentException("Conta não encontrada.");
-            if (contaSincrona.getSaldo() < valor) throw new IllegalArgumentException("Saldo insuficiente.");
-            contaSincrona.setSaldo(contaSincrona.getSaldo() - valor);
-            contaAssincrona.setSaldo(contaAssincrona.getSaldo() + valor);
-            contaSincronaRepository.save(contaSincrona);
-            contaAssincronaRepository.save(contaAssincrona);
-        } else if (metodoConexao == MetodoConexao.INTERNET) {
-            
-            ContaSincrona contaOrigem = contaSincronaRepository.findByUserId(idUsuarioOrigem);
-            ContaSincrona contaDestino = contaSincronaRepository.findByUserId(idUsuarioDestino);
-            if (contaOrigem == null || contaDestino == null) throw new IllegalArgumentException("Conta não encontrada.");
-            if (contaOrigem.getSaldo() < valor) throw new IllegalArgumentException("Saldo insuficiente.");
-            contaOrigem.setSaldo(contaOrigem.getSaldo() - valor);
-            contaDestino.setSaldo(contaDestino.getSaldo() + valor);
-            contaSincronaRepository.save(contaOrigem);
-            contaSincronaRepository.save(contaDestino);
-        } else if (metodoConexao == MetodoConexao.SMS || metodoConexao == MetodoConexao.NFC || metodoConexao == MetodoConexao.BLUETOOTH) {
-            
-            ContaAssincrona contaOrigem = contaAssincronaRepository.findByUserId(idUsuarioOrigem);
-            ContaAssincrona contaDestino = contaAssincronaRepository.findByUserId(idUsuarioDestino);
-            if (contaOrigem == null || contaDestino == null) throw new IllegalArgumentException("Conta não encontrada.");
-            if (contaOrigem.getSaldo() < valor) throw new IllegalArgumentException("Saldo insuficiente.");
-            contaOrigem.setSaldo(contaOrigem.getSaldo() - valor);
-            contaDestino.setSaldo(contaDestino.getSaldo() + valor);
-            contaAssincronaRepository.save(contaOrigem);
-            contaAssincronaRepository.save(contaDestino);
-        } else if (metodoConexao == MetodoConexao.ASYNC && gatewayPagamento == GatewayPagamento.INTERNO) {
-            
-            ContaSincrona contaSincrona = contaSincronaRepository.findByUserId(idUsuarioOrigem);
-            ContaAssincrona contaAssincrona = contaAssincronaRepository.findByUserId(idUsuarioOrigem);
-            if (contaSincrona == null || contaAssincrona == null) throw new IllegalArgumentException("Conta não encontrada.");
-            if (contaSincrona.getSaldo() < valor) throw new IllegalArgumentException("Saldo insuficiente.");
-            contaSincrona.setSaldo(contaSincrona.getSaldo() - valor);
-            contaAssincrona.setSaldo(contaAssincrona.getSaldo() + valor);
-            contaSincronaRepository.save(contaSincrona);
-            contaAssincronaRepository.save(contaAssincrona);
-        } else {
-            throw new IllegalArgumentException("Fluxo de transação não suportado.");
-        }
+        MovimentacaoSaldoService.Movimento movimento = movimentoDoFluxo(idUsuarioOrigem, idUsuarioDestino, valor, tipoOperacao, metodoConexao, gatewayPagamento);
+        MovimentacaoSaldoService.Resultado resultado = movimentacaoSaldoService.movimentar(
+            movimento.tipoOrigem(), movimento.idOrigem(), movimento.tipoDestino(), movimento.idDestino(), valor);
+        if (resultado == MovimentacaoSaldoService.Resultado.CONTA_NAO_ENCONTRADA) throw new IllegalArgumentException("Conta não encontrada.");
+        if (resultado == MovimentacaoSaldoService.Resultado.SALDO_INSUFICIENTE) throw new IllegalArgumentException("Saldo insuficiente.");
 
         
         User origem = userRepository.findById(idUsuarioOrigem)
@@ -255,31 +224,148 @@ public class TransacaoService {
         User destino = userRepository.findById(idUsuarioDestino)
             .orElseThrow(() -> new IllegalArgumentException("Usuário de destino não encontrado."));
 
+        Transacao transacao = montarTransacao(origem, destino, valor, tipoOperacao, metodoConexao, gatewayPagamento, descricao);
+
+        Transacao transacaoSalva = transacaoRepository.save(transacao);
+        limiteDiarioService.registrar(idUsuarioOrigem, valor);
+        return transacaoSalva;
+    }
+
+    /**
+     * Cria várias transações de uma vez, com as mesmas regras de {@link #criarTransacao}. Os saldos são
+     * movimentados em bloco e as transações gravadas em lote; um item inválido, sem saldo ou com origem
+     * diferente de {@code idUsuarioAutenticado} é recusado sem impedir os demais.
+     */
+    @Transactional
+    public ResultadoLote criarTransacoesEmLote(Long idUsuarioAutenticado, List<TransacaoRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("O lote deve conter ao menos uma transação.");
+        }
+        if (requests.size() > LIMITE_MAXIMO_LOTE) {
+            throw new IllegalArgumentException("O lote deve conter no máximo " + LIMITE_MAXIMO_LOTE + " transações.");
+        }
+        logger.info("[LOTE] Processando lote de transações: itens={}", requests.size());
+
+        Set<Long> idsUsuarios = new HashSet<>();
+        for (TransacaoRequest request : requests) {
+            if (request.getIdUsuarioOrigem() != null) idsUsuarios.add(request.getIdUsuarioOrigem());
+            if (request.getIdUsuarioDestino() != null) idsUsuarios.add(request.getIdUsuarioDestino());
+        }
+        Map<Long, User> usuarios = userRepository.findAllById(idsUsuarios).stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        ResultadoItemLote[] resultados = new ResultadoItemLote[requests.size()];
+        List<Integer> indicesValidos = new ArrayList<>();
+        List<MovimentacaoSaldoService.Movimento> movimentos = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            TransacaoRequest request = requests.get(i);
+            try {
+                movimentos.add(validarItemLote(idUsuarioAutenticado, request, usuarios));
+                indicesValidos.add(i);
+            } catch (IllegalArgumentException e) {
+                resultados[i] = ResultadoItemLote.recusado(i, e.getMessage());
+            }
+        }
+
+        List<MovimentacaoSaldoService.Resultado> movimentados = movimentacaoSaldoService.movimentarLote(movimentos);
+
+        List<Integer> indicesEfetuados = new ArrayList<>();
+        List<Transacao> transacoes = new ArrayList<>();
+        for (int j = 0; j < indicesValidos.size(); j++) {
+            int i = indicesValidos.get(j);
+            switch (movimentados.get(j)) {
+                case CONTA_NAO_ENCONTRADA -> resultados[i] = ResultadoItemLote.recusado(i, "Conta não encontrada.");
+                case SALDO_INSUFICIENTE -> resultados[i] = ResultadoItemLote.recusado(i, "Saldo insuficiente.");
+                case EFETUADA -> {
+                    TransacaoRequest request = requests.get(i);
+                    indicesEfetuados.add(i);
+                    transacoes.add(montarTransacao(
+                        usuarios.get(request.getIdUsuarioOrigem()), usuarios.get(request.getIdUsuarioDestino()),
+                        request.getValor(), request.getTipoOperacao(), request.getMetodoConexao(),
+                        request.getGatewayPagamento(), request.getDescricao()));
+                }
+            }
+        }
+
+        List<Transacao> salvas = transacaoRepository.saveAll(transacoes);
+        for (int k = 0; k < salvas.size(); k++) {
+            Transacao salva = salvas.get(k);
+            limiteDiarioService.registrar(salva.getIdUsuarioOrigem(), salva.getValor());
+            int i = indicesEfetuados.get(k);
+            resultados[i] = ResultadoItemLote.efetuado(i, salva.getId());
+        }
+
+        ResultadoLote resultado = ResultadoLote.de(Arrays.asList(resultados));
+        logger.info("[LOTE] Lote processado: efetuadas={} recusadas={}", resultado.efetuadas(), resultado.recusadas());
+        return resultado;
+    }
+
+    private MovimentacaoSaldoService.Movimento validarItemLote(Long idUsuarioAutenticado, TransacaoRequest request,
+                                                               Map<Long, User> usuarios) {
+        validarParametrosTransacao(request.getIdUsuarioOrigem(), request.getIdUsuarioDestino(), request.getValor());
+        if (!request.getIdUsuarioOrigem().equals(idUsuarioAutenticado)) {
+            throw new IllegalArgumentException("A origem da transação deve ser o usuário autenticado.");
+        }
+        if (request.getTipoOperacao() == null || request.getMetodoConexao() == null || request.getGatewayPagamento() == null) {
+            throw new IllegalArgumentException("Tipo de operação, método de conexão e gateway de pagamento são obrigatórios.");
+        }
+        if (request.getTipoOperacao() == TipoOperacao.SINCRONIZACAO) {
+            throw new IllegalArgumentException("Sincronização não pode ser enviada em lote.");
+        }
+        if (!usuarios.containsKey(request.getIdUsuarioOrigem())) {
+            throw new IllegalArgumentException("Usuário de origem não encontrado.");
+        }
+        if (!usuarios.containsKey(request.getIdUsuarioDestino())) {
+            throw new IllegalArgumentException("Usuário de destino não encontrado.");
+        }
+        return movimentoDoFluxo(request.getIdUsuarioOrigem(), request.getIdUsuarioDestino(), request.getValor(),
+            request.getTipoOperacao(), request.getMetodoConexao(), request.getGatewayPagamento());
+    }
+
+    /**
+     * Define quais contas uma transação movimenta a partir do tipo de operação, método de conexão e gateway.
+     */
+    private MovimentacaoSaldoService.Movimento movimentoDoFluxo(Long idUsuarioOrigem, Long idUsuarioDestino, Dinheiro valor,
+                                                               TipoOperacao tipoOperacao, MetodoConexao metodoConexao,
+                                                               GatewayPagamento gatewayPagamento) {
+        if (tipoOperacao == TipoOperacao.INTERNA
+                || (metodoConexao == MetodoConexao.ASYNC && gatewayPagamento == GatewayPagamento.INTERNO)) {
+            return new MovimentacaoSaldoService.Movimento(TipoOperacao.SINCRONA, idUsuarioOrigem, TipoOperacao.ASSINCRONA, idUsuarioOrigem, valor);
+        } else if (metodoConexao == MetodoConexao.INTERNET) {
+            return new MovimentacaoSaldoService.Movimento(TipoOperacao.SINCRONA, idUsuarioOrigem, TipoOperacao.SINCRONA, idUsuarioDestino, valor);
+        } else if (metodoConexao == MetodoConexao.SMS || metodoConexao == MetodoConexao.NFC || metodoConexao == MetodoConexao.BLUETOOTH) {
+            return new MovimentacaoSaldoService.Movimento(TipoOperacao.ASSINCRONA, idUsuarioOrigem, TipoOperacao.ASSINCRONA, idUsuarioDestino, valor);
+        }
+        throw new IllegalArgumentException("Fluxo de transação não suportado.");
+    }
+
+    private Transacao montarTransacao(User origem, User destino, Dinheiro valor, TipoOperacao tipoOperacao,
+                                      MetodoConexao metodoConexao, GatewayPagamento gatewayPagamento, String descricao) {
         Transacao transacao = new Transacao();
-        transacao.setIdUsuarioOrigem(idUsuarioOrigem);
-        transacao.setIdUsuarioDestino(idUsuarioDestino);
+        transacao.setIdUsuarioOrigem(origem.getId());
+        transacao.setIdUsuarioDestino(destino.getId());
         transacao.setValor(valor);
         transacao.setTipoOperacao(tipoOperacao);
         transacao.setMetodoConexao(metodoConexao);
         transacao.setGatewayPagamento(gatewayPagamento);
         transacao.setDescricao(descricao);
         transacao.setDataCriacao(OffsetDateTime.now(ZoneOffset.UTC));
-        
+
         transacao.setNomeUsuarioOrigem(origem.getNome());
         transacao.setEmailUsuarioOrigem(origem.getEmail());
         transacao.setCpfUsuarioOrigem(origem.getCpf());
-        
+
         transacao.setNomeUsuarioDestino(destino.getNome());
         transacao.setEmailUsuarioDestino(destino.getEmail());
         transacao.setCpfUsuarioDestino(destino.getCpf());
-
-        return transacaoRepository.save(transacao);
+        return transacao;
     }
 
     @Transactional
     public Transacao processarSincronizacao(Transacao transacao, OffsetDateTime dataRecebida) {
-        ContaAssincrona contaAssincrona = contaAssincronaRepository.findByUserId(transacao.getIdUsuarioOrigem());
-        ContaSincrona contaSincrona = contaSincronaRepository.findByUserId(transacao.getIdUsuarioOrigem());
+        MovimentacaoSaldoService.ContasUsuario contas = movimentacaoSaldoService.bloquearContasDoUsuario(transacao.getIdUsuarioOrigem());
+        ContaAssincrona contaAssincrona = contas.assincrona();
+        ContaSincrona contaSincrona = contas.sincrona();
 
         if (contaAssincrona == null || contaSincrona == null) {
             logger.error("[SINCRONIZACAO] Conta não encontrada para usuário {}", transacao.getIdUsuarioOrigem());
@@ -292,49 +378,55 @@ public class TransacaoService {
             logger.warn("[SINCRONIZACAO] Sincronização fora do prazo de 72h: usuario={} dataCriacao={} dataRecebida={}", transacao.getIdUsuarioOrigem(), dataCriacao, dataRecebida);
             transacao.setStatus(StatusTransacao.ROLLBACK);
             transacao.setDescricao("Sincronização não pode ser processada após 72h.");
-            transacaoRepository.save(transacao);
+            salvarComStatus(transacao);
             return transacao;
         }
 
         // Validação de valor
-        double saldoAssincrona = contaAssincrona.getSaldo();
-        if (saldoAssincrona <= 0) {
+        Dinheiro saldoAssincrona = contaAssincrona.getSaldo();
+        if (!saldoAssincrona.positivo()) {
             logger.warn("[SINCRONIZACAO] Conta assíncrona já está zerada para usuário {}", transacao.getIdUsuarioOrigem());
             transacao.setStatus(StatusTransacao.ROLLBACK);
             transacao.setDescricao("Conta assíncrona já está zerada.");
-            transacaoRepository.save(transacao);
+            salvarComStatus(transacao);
             return transacao;
         }
-        if (!saldoAssincronaEquals(transacao.getValor(), saldoAssincrona)) {
+        if (!saldoAssincrona.equals(transacao.getValor())) {
             logger.warn("[SINCRONIZACAO] Valor de sincronização não corresponde ao saldo da conta assíncrona: usuario={} valorTransacao={} saldoAssincrona={}", transacao.getIdUsuarioOrigem(), transacao.getValor(), saldoAssincrona);
             transacao.setStatus(StatusTransacao.ROLLBACK);
             transacao.setDescricao("Valor de sincronização não corresponde ao saldo da conta assíncrona.");
-            transacaoRepository.save(transacao);
+            salvarComStatus(transacao);
             return transacao;
         }
 
         // Realiza a sincronização
-        contaSincrona.setSaldo(contaSincrona.getSaldo() + saldoAssincrona);
-        contaAssincrona.setSaldo(0.0);
+        contaSincrona.setSaldo(contaSincrona.getSaldo().mais(saldoAssincrona));
+        contaAssincrona.setSaldo(Dinheiro.ZERO);
         contaSincronaRepository.save(contaSincrona);
         contaAssincronaRepository.save(contaAssincrona);
 
         transacao.setStatus(StatusTransacao.SINCRONIZADA);
         transacao.setDataAtualizacao(dataRecebida);
-        transacaoRepository.save(transacao);
+        salvarComStatus(transacao);
 
         logger.info("[SINCRONIZACAO] Sincronização concluída: usuario={} valor={}", transacao.getIdUsuarioOrigem(), saldoAssincrona);
         return transacao;
     }
 
-    // Função auxiliar para comparar double com tolerância
-    private boolean saldoAssincronaEquals(double valorTransacao, double saldoAssincrona) {
-        return Math.abs(valorTransacao - saldoAssincrona) < 0.01;
-    }
-
-    private String gerarHashSimples(Long origem, Long destino, Double valor) {
-        String raw = origem + "-" + destino + "-" + valor + "-" + System.currentTimeMillis();
-        return Integer.toHexString(raw.hashCode());
+    /**
+     * Registro do blockchain da transação, com o hash do seu conteúdo. A data é truncada em microssegundos,
+     * a precisão do banco, para que o hash possa ser recalculado a partir do registro gravado.
+     */
+    private BlockchainRegistro novoRegistroBlockchain(Transacao transacao) {
+        BlockchainRegistro registro = BlockchainRegistro.builder()
+                .idTransacao(transacao.getId())
+                .idUsuarioOrigem(transacao.getIdUsuarioOrigem())
+                .idUsuarioDestino(transacao.getIdUsuarioDestino())
+                .valor(transacao.getValor())
+                .dataRegistro(OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MICROS))
+                .build();
+        registro.setHashTransacao(HashLedger.hashRegistro(registro));
+        return registro;
     }
 
     public void sincronizarTransacoesOffline() {
@@ -343,25 +435,45 @@ public class TransacaoService {
             if (transacao.getTipoOperacao() == TipoOperacao.ASSINCRONA) {
                 transacao.setStatus(StatusTransacao.SINCRONIZADA);
                 transacao.setDataAtualizacao(OffsetDateTime.now(ZoneOffset.UTC));
-                transacaoRepository.save(transacao);
+                salvarComStatus(transacao);
             }
         }
     }
 
-    public List<Transacao> listarTransacoesEnviadas(String email) {
-        var userOpt = userRepository.findByEmail(email);
-        if (userOpt.isEmpty()) {
-            return List.of();
+    public List<Transacao> listarTransacoesEnviadas(Long idUsuario, int pagina, int tamanho) {
+        return transacaoRepository.findByIdUsuarioOrigemOrderByDataCriacaoDescIdDesc(idUsuario, paginacao(pagina, tamanho)).getContent();
+    }
+
+    public List<Transacao> listarTransacoesRecebidas(Long idUsuario, int pagina, int tamanho) {
+        return transacaoRepository.findByIdUsuarioDestinoOrderByDataCriacaoDescIdDesc(idUsuario, paginacao(pagina, tamanho)).getContent();
+    }
+
+    /**
+     * Lista enviadas e recebidas do usuário intercaladas por data de criação, em uma única consulta.
+     *
+     * @throws IllegalArgumentException se a página pedida passa do alcance da consulta
+     */
+    public List<Transacao> listarExtrato(Long idUsuario, int pagina, int tamanho) {
+        Pageable paginacao = paginacao(pagina, tamanho);
+        int deslocamento;
+        int limite;
+        try {
+            deslocamento = Math.toIntExact(paginacao.getOffset());
+            limite = Math.addExact(deslocamento, paginacao.getPageSize());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Página do extrato fora do alcance.");
         }
-        Long userId = userOpt.get().getId();
-        return transacaoRepository.findAll().stream()
-                .filter(t -> t.getIdUsuarioOrigem().equals(userId))
-                .toList();
+        return transacaoRepository.findExtrato(idUsuario, limite, paginacao.getPageSize(), deslocamento);
+    }
+
+    private Pageable paginacao(int pagina, int tamanho) {
+        return PageRequest.of(Math.max(pagina, 0), Math.min(Math.max(tamanho, 1), LIMITE_MAXIMO_PAGINA));
     }
 
     /**
      * Processa uma transação offline (assincrona), validando prazo e registrando no blockchain se necessário.
      */
+    @Transactional(dontRollbackOn = IllegalStateException.class)
     public void processarTransacaoOffline(long transacaoId, OffsetDateTime dataProcessamento) {
         Optional<Transacao> transacaoOpt = transacaoRepository.findById(transacaoId);
         if (transacaoOpt.isEmpty()) {
@@ -369,79 +481,48 @@ public class TransacaoService {
             throw new IllegalArgumentException("Transação não encontrada.");
         }
         Transacao transacao = transacaoOpt.get();
+        // Como em atualizarStatusTransacao: reprocessar uma transação já concluída moveria o saldo de novo.
+        if (transacao.getStatus() != null && transacao.getStatus().isFinal()) {
+            logger.warn("[VALIDACAO] Transação offline já concluída: transacaoId={} status={}", transacao.getId(), transacao.getStatus());
+            throw new IllegalStateException("Transação com status final não pode mudar de status.");
+        }
 
         OffsetDateTime dataCriacao = transacao.getDataCriacao();
         if (dataCriacao != null && java.time.Duration.between(dataCriacao, dataProcessamento).toHours() > 72) {
             logger.warn("[VALIDACAO] Transação fora do prazo de 72h: transacaoId={} dataCriacao={} dataProcessamento={}", transacao.getId(), dataCriacao, dataProcessamento);
             transacao.setStatus(StatusTransacao.ROLLBACK);
             transacao.setDescricao("Transação não pode ser processada após 72h.");
-            transacaoRepository.save(transacao);
+            salvarComStatus(transacao);
 
-            ContaSincrona contaSincrona = contaSincronaRepository.findByUserId(transacao.getIdUsuarioOrigem());
-            if (contaSincrona != null) {
-                contaSincrona.setSaldo(contaSincrona.getSaldo() + transacao.getValor());
-                contaSincronaRepository.save(contaSincrona);
-            }
+            movimentacaoSaldoService.creditar(TipoOperacao.SINCRONA, transacao.getIdUsuarioOrigem(), transacao.getValor());
 
             throw new IllegalStateException("Transação não pode ser processada após 72h.");
         }
 
-        ContaAssincrona contaOrigem = contaAssincronaRepository.findByUserId(transacao.getIdUsuarioOrigem());
-        ContaAssincrona contaDestino = contaAssincronaRepository.findByUserId(transacao.getIdUsuarioDestino());
-        if (contaOrigem == null || contaDestino == null) {
-            logger.error("[VALIDACAO] Conta assíncrona de origem ou destino não encontrada: origem={} destino={}", transacao.getIdUsuarioOrigem(), transacao.getIdUsuarioDestino());
-            throw new IllegalArgumentException("Conta assíncrona de origem ou destino não encontrada.");
-        }
-        if (contaOrigem.getSaldo() < transacao.getValor()) {
-            logger.warn("[VALIDACAO] Saldo insuficiente na conta assíncrona: usuario={} saldo={} valorTentativa={}", transacao.getIdUsuarioOrigem(), contaOrigem.getSaldo(), transacao.getValor());
-            throw new IllegalStateException("Saldo insuficiente na conta assíncrona de origem.");
-        }
-        contaOrigem.setSaldo(contaOrigem.getSaldo() - transacao.getValor());
-        contaDestino.setSaldo(contaDestino.getSaldo() + transacao.getValor());
-        contaAssincronaRepository.save(contaOrigem);
-        contaAssincronaRepository.save(contaDestino);
+        movimentarAssincrona(transacao.getIdUsuarioOrigem(), transacao.getIdUsuarioDestino(), transacao.getValor());
 
         transacao.setStatus(StatusTransacao.SINCRONIZADA);
         transacao.setDataAtualizacao(dataProcessamento);
-        transacaoRepository.save(transacao);
+        salvarComStatus(transacao);
 
-        logger.info("[BLOCKCHAIN] Registrando transação offline no blockchain: transacaoId={}", transacao.getId());
-        BlockchainRegistro registro = BlockchainRegistro.builder()
-                .idUsuarioOrigem(transacao.getIdUsuarioOrigem())
-                .idUsuarioDestino(transacao.getIdUsuarioDestino())
-                .valor(transacao.getValor())
-                .hashTransacao(gerarHashSimples(transacao.getIdUsuarioOrigem(), transacao.getIdUsuarioDestino(), transacao.getValor()))
-                .build();
-        blockchainService.registrarTransacao(registro);
+        logger.debug("[BLOCKCHAIN] Registrando transação offline no blockchain: transacaoId={}", transacao.getId());
+        blockchainService.registrarTransacao(novoRegistroBlockchain(transacao));
     }
 
     /**
      * Realiza uma transação assíncrona (offline), validando limites e regras.
      */
-    public void realizarTransacaoAssincrona(long idUsuarioOrigem, long idUsuarioDestino, double valor) {
-        if (valor > 500.0) {
+    @Transactional
+    public void realizarTransacaoAssincrona(long idUsuarioOrigem, long idUsuarioDestino, Dinheiro valor) {
+        if (valor.maiorQue(LIMITE_OFFLINE)) {
             logger.warn("[VALIDACAO] Valor acima do permitido para transação offline: usuario={} valor={}", idUsuarioOrigem, valor);
             throw new IllegalArgumentException("Limite de R$500 por transação offline");
         }
-        if (valor <= 0) {
+        if (!valor.positivo()) {
             logger.error("[VALIDACAO] Valor inválido informado para transação offline: valor={}", valor);
             throw new IllegalArgumentException("O valor da transação deve ser maior que zero.");
         }
-        ContaAssincrona contaOrigem = contaAssincronaRepository.findByUserId(idUsuarioOrigem);
-        ContaAssincrona contaDestino = contaAssincronaRepository.findByUserId(idUsuarioDestino);
-        if (contaOrigem == null || contaDestino == null) {
-            logger.error("[VALIDACAO] Conta assíncrona de origem ou destino não encontrada: origem={} destino={}", idUsuarioOrigem, idUsuarioDestino);
-            throw new IllegalArgumentException("Conta assíncrona de origem ou destino não encontrada.");
-        }
-        if (contaOrigem.getSaldo() < valor) {
-            logger.warn("[VALIDACAO] Saldo insuficiente na conta assíncrona: usuario={} saldo={} valorTentativa={}", idUsuarioOrigem, contaOrigem.getSaldo(), valor);
-            throw new IllegalStateException("Saldo insuficiente na conta assíncrona de origem.");
-        }
-
-        contaOrigem.setSaldo(contaOrigem.getSaldo() - valor);
-        contaDestino.setSaldo(contaDestino.getSaldo() + valor);
-        contaAssincronaRepository.save(contaOrigem);
-        contaAssincronaRepository.save(contaDestino);
+        movimentarAssincrona(idUsuarioOrigem, idUsuarioDestino, valor);
 
         Transacao transacao = new Transacao();
         transacao.setIdUsuarioOrigem(idUsuarioOrigem);
@@ -453,37 +534,24 @@ public class TransacaoService {
         transacao.setStatus(StatusTransacao.PENDENTE);
         transacao.setDataCriacao(OffsetDateTime.now(ZoneOffset.UTC));
         transacaoRepository.save(transacao);
+        limiteDiarioService.registrar(idUsuarioOrigem, valor);
+        expiracaoPendentesService.agendar(transacao);
 
-        logger.info("[BLOCKCHAIN] Registrando transação assíncrona no blockchain: origem={} destino={} valor={}", idUsuarioOrigem, idUsuarioDestino, valor);
-        BlockchainRegistro registro = BlockchainRegistro.builder()
-                .idUsuarioOrigem(idUsuarioOrigem)
-                .idUsuarioDestino(idUsuarioDestino)
-                .valor(valor)
-                .hashTransacao(gerarHashSimples(idUsuarioOrigem, idUsuarioDestino, valor))
-                .build();
-        blockchainService.registrarTransacao(registro);
+        logger.debug("[BLOCKCHAIN] Registrando transação assíncrona no blockchain: origem={} destino={} valor={}", idUsuarioOrigem, idUsuarioDestino, valor);
+        blockchainService.registrarTransacao(novoRegistroBlockchain(transacao));
     }
 
-    public Transacao transferirSincronaParaAssincrona(Long userId, Double valor) {
-        ContaSincrona contaSincrona = contaSincronaRepository.findByUserId(userId);
-        ContaAssincrona contaAssincrona = contaAssincronaRepository.findByUserId(userId);
-
-        if (contaSincrona == null || contaAssincrona == null) {
-            throw new IllegalArgumentException("Conta não encontrada.");
-        }
-        if (valor == null || valor <= 0) {
+    @Transactional
+    public Transacao transferirSincronaParaAssincrona(Long userId, Dinheiro valor) {
+        if (valor == null || !valor.positivo()) {
             throw new IllegalArgumentException("Valor inválido.");
         }
-        if (contaSincrona.getSaldo() < valor) {
-            throw new IllegalStateException("Saldo insuficiente na conta síncrona.");
+        switch (movimentacaoSaldoService.movimentar(TipoOperacao.SINCRONA, userId, TipoOperacao.ASSINCRONA, userId, valor)) {
+            case CONTA_NAO_ENCONTRADA -> throw new IllegalArgumentException("Conta não encontrada.");
+            case SALDO_INSUFICIENTE -> throw new IllegalStateException("Saldo insuficiente na conta síncrona.");
+            case EFETUADA -> { }
         }
 
-        contaSincrona.setSaldo(contaSincrona.getSaldo() - valor);
-        contaAssincrona.setSaldo(contaAssincrona.getSaldo() + valor);
-
-        contaSincronaRepository.save(contaSincrona);
-        contaAssincronaRepository.save(contaAssincrona);
-
         Transacao transacao = new Transacao();
         transacao.setIdUsuarioOrigem(userId);
         transacao.setIdUsuarioDestino(userId);
@@ -492,14 +560,38 @@ public class TransacaoService {
         transacao.setStatus(StatusTransacao.SINCRONIZADA);
         transacao.setDataCriacao(java.time.OffsetDateTime.now());
 
-        return transacaoRepository.save(transacao);
+        Transacao transacaoSalva = transacaoRepository.save(transacao);
+        limiteDiarioService.registrar(userId, valor);
+        return transacaoSalva;
+    }
+
+    /**
+     * Salva uma transação existente cujo status mudou e registra o novo status na fila.
+     */
+    private void salvarComStatus(Transacao transacao) {
+        transacaoRepository.save(transacao);
+        filaTransacaoService.atualizarStatus(transacao.getId(), transacao.getStatus());
+    }
+
+    private void movimentarAssincrona(Long idUsuarioOrigem, Long idUsuarioDestino, Dinheiro valor) {
+        switch (movimentacaoSaldoService.movimentar(TipoOperacao.ASSINCRONA, idUsuarioOrigem, TipoOperacao.ASSINCRONA, idUsuarioDestino, valor)) {
+            case CONTA_NAO_ENCONTRADA -> {
+                logger.error("[VALIDACAO] Conta assíncrona de origem ou destino não encontrada: origem={} destino={}", idUsuarioOrigem, idUsuarioDestino);
+                throw new IllegalArgumentException("Conta assíncrona de origem ou destino não encontrada.");
+            }
+            case SALDO_INSUFICIENTE -> {
+                logger.warn("[VALIDACAO] Saldo insuficiente na conta assíncrona: usuario={} valorTentativa={}", idUsuarioOrigem, valor);
+                throw new IllegalStateException("Saldo insuficiente na conta assíncrona de origem.");
+            }
+            case EFETUADA -> { }
+        }
     }
 
     public List<Transacao> buscarTransacoesFiltradas(
             Long id,
             Long idUsuarioOrigem,
             Long idUsuarioDestino,
-            Double valor,
+            Dinheiro valor,
             TipoOperacao tipoOperacao,
             MetodoConexao metodoConexao,
             GatewayPagamento gatewayPagamento,
@@ -516,55 +608,90 @@ public class TransacaoService {
             String dataAtualizacaoInicio,
             String dataAtualizacaoFim
     ) {
-        List<Transacao> transacoes = listarTodasTransacoes();
-        return transacoes.stream()
-            .filter(t -> id == null || t.getId().equals(id))
-            .filter(t -> idUsuarioOrigem == null || t.getIdUsuarioOrigem().equals(idUsuarioOrigem))
-            .filter(t -> idUsuarioDestino == null || t.getIdUsuarioDestino().equals(idUsuarioDestino))
-            .filter(t -> valor == null || t.getValor().equals(valor))
-            .filter(t -> tipoOperacao == null || t.getTipoOperacao() == tipoOperacao)
-            .filter(t -> metodoConexao == null || t.getMetodoConexao() == metodoConexao)
-            .filter(t -> gatewayPagamento == null || t.getGatewayPagamento() == gatewayPagamento)
-            .filter(t -> status == null || t.getStatus() == status)
-            .filter(t -> descricao == null || (t.getDescricao() != null && t.getDescricao().toLowerCase().contains(descricao.toLowerCase())))
-            .filter(t -> nomeUsuarioOrigem == null || (t.getNomeUsuarioOrigem() != null && t.getNomeUsuarioOrigem().toLowerCase().contains(nomeUsuarioOrigem.toLowerCase())))
-            .filter(t -> emailUsuarioOrigem == null || (t.getEmailUsuarioOrigem() != null && t.getEmailUsuarioOrigem().toLowerCase().contains(emailUsuarioOrigem.toLowerCase())))
-            .filter(t -> cpfUsuarioOrigem == null || (t.getCpfUsuarioOrigem() != null && t.getCpfUsuarioOrigem().contains(cpfUsuarioOrigem)))
-            .filter(t -> nomeUsuarioDestino == null || (t.getNomeUsuarioDestino() != null && t.getNomeUsuarioDestino().toLowerCase().contains(nomeUsuarioDestino.toLowerCase())))
-            .filter(t -> emailUsuarioDestino == null || (t.getEmailUsuarioDestino() != null && t.getEmailUsuarioDestino().toLowerCase().contains(emailUsuarioDestino.toLowerCase())))
-            .filter(t -> cpfUsuarioDestino == null || (t.getCpfUsuarioDestino() != null && t.getCpfUsuarioDestino().contains(cpfUsuarioDestino)))
-            .filter(t -> {
-                if (dataCriacaoInicio == null && dataCriacaoFim == null) return true;
-                OffsetDateTime inicio = null, fim = null;
-                try {
-                    if (dataCriacaoInicio != null) inicio = OffsetDateTime.parse(dataCriacaoInicio);
-                    if (dataCriacaoFim != null) fim = OffsetDateTime.parse(dataCriacaoFim);
-                } catch (DateTimeParseException e) { return false; }
-                if (inicio != null && t.getDataCriacao() != null && t.getDataCriacao().isBefore(inicio)) return false;
-                if (fim != null && t.getDataCriacao() != null && t.getDataCriacao().isAfter(fim)) return false;
-                return true;
-            })
-            .filter(t -> {
-                if (dataAtualizacaoInicio == null && dataAtualizacaoFim == null) return true;
-                OffsetDateTime inicio = null, fim = null;
-                try {
-                    if (dataAtualizacaoInicio != null) inicio = OffsetDateTime.parse(dataAtualizacaoInicio);
-                    if (dataAtualizacaoFim != null) fim = OffsetDateTime.parse(dataAtualizacaoFim);
-                } catch (DateTimeParseException e) { return false; }
-                if (inicio != null && t.getDataAtualizacao() != null && t.getDataAtualizacao().isBefore(inicio)) return false;
-                if (fim != null && t.getDataAtualizacao() != null && t.getDataAtualizacao().isAfter(fim)) return false;
-                return true;
-            })
-            .toList();
+        return buscarTransacoesFiltradas(new TransacaoFiltro(
+            id, idUsuarioOrigem, idUsuarioDestino, valor, tipoOperacao, metodoConexao, gatewayPagamento, status,
+            descricao, nomeUsuarioOrigem, emailUsuarioOrigem, cpfUsuarioOrigem,
+            nomeUsuarioDestino, emailUsuarioDestino, cpfUsuarioDestino,
+            dataCriacaoInicio, dataCriacaoFim, dataAtualizacaoInicio, dataAtualizacaoFim
+        ));
+    }
+
+    /**
+     * Busca transações aplicando os filtros diretamente no banco. Datas em formato inválido
+     * resultam em lista vazia, como no filtro em memória anterior.
+     */
+    public List<Transacao> buscarTransacoesFiltradas(TransacaoFiltro filtro) {
+        Specification<Transacao> especificacao;
+        try {
+            especificacao = TransacaoSpecifications.comFiltros(filtro);
+        } catch (DateTimeParseException e) {
+            logger.warn("[TRANSACAO] Filtro de data inválido: valor={}", e.getParsedString());
+            return List.of();
+        }
+        return transacaoRepository.findAll(especificacao);
+    }
+
+    /**
+     * Busca uma página de transações por cursor, em ordem decrescente de {@code (dataCriacao, id)}.
+     * Lê {@code limite + 1} linhas para saber se há próxima página sem precisar de um COUNT.
+     */
+    public PaginaTransacoes buscarPaginaTransacoes(TransacaoFiltro filtro, String cursor, int limite) {
+        if (limite <= 0 || limite > LIMITE_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("O limite deve estar entre 1 e " + LIMITE_MAXIMO_PAGINA + ".");
+        }
+        CursorTransacao posicao = cursor != null ? CursorTransacao.decodificar(cursor) : null;
+
+        Specification<Transacao> especificacao;
+        try {
+            especificacao = TransacaoSpecifications.comFiltros(filtro).and(TransacaoSpecifications.aposCursor(posicao));
+        } catch (DateTimeParseException e) {
+            logger.warn("[TRANSACAO] Filtro de data inválido: valor={}", e.getParsedString());
+            return new PaginaTransacoes(List.of(), null);
+        }
+
+        List<Transacao> linhas = transacaoRepository.findBy(especificacao,
+                consulta -> consulta.sortBy(ORDEM_CURSOR).limit(limite + 1).all());
+
+        boolean temProxima = linhas.size() > limite;
+        List<Transacao> pagina = temProxima ? linhas.subList(0, limite) : linhas;
+        String proximoCursor = temProxima ? CursorTransacao.de(pagina.get(pagina.size() - 1)).codificar() : null;
+
+        return new PaginaTransacoes(pagina.stream().map(this::mapToTransactionResponse).toList(), proximoCursor);
+    }
+
+    /**
+     * Entrega ao consumidor, uma a uma, todas as transações que atendem ao filtro, lidas de um cursor
+     * JDBC. O uso de memória independe do tamanho do resultado.
+     */
+    @Transactional
+    public void percorrerTransacoes(TransacaoFiltro filtro, Consumer<TransactionResponse> consumidor) {
+        Specification<Transacao> especificacao;
+        try {
+            especificacao = TransacaoSpecifications.comFiltros(filtro);
+        } catch (DateTimeParseException e) {
+            logger.warn("[TRANSACAO] Filtro de data inválido: valor={}", e.getParsedString());
+            return;
+        }
+        try (Stream<Transacao> transacoes = transacaoRepository.streamAll(especificacao, ORDEM_CURSOR)) {
+            transacoes.forEach(transacao -> consumidor.accept(mapToTransactionResponse(transacao)));
+        }
     }
 
     public void atualizarStatusTransacao(Long id, StatusTransacao novoStatus) {
         Optional<Transacao> transacaoOpt = transacaoRepository.findById(id);
         if (transacaoOpt.isPresent()) {
             Transacao transacao = transacaoOpt.get();
+            StatusTransacao atual = transacao.getStatus();
+            if (atual == novoStatus) {
+                return;
+            }
+            // Status finais não mudam: os índices de status de cada instância contam com isso.
+            if (atual != null && atual.isFinal()) {
+                throw new IllegalStateException("Transação com status final não pode mudar de status.");
+            }
             transacao.setStatus(novoStatus);
             transacao.setDataAtualizacao(OffsetDateTime.now(ZoneOffset.UTC));
-            transacaoRepository.save(transacao);
+            salvarComStatus(transacao);
         } else {
             throw new IllegalArgumentException("Transação não encontrada para atualização de status.");
         }
@@ -1,21 +1,48 @@
 package com.example.asyncpayments.service;
 
+import com.example.asyncpayments.entity.User;
 import com.example.asyncpayments.repository.UserRepository;
+import com.example.asyncpayments.repository.UsuarioResumo;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+/**
+ * Carrega usuários para o login pelo cache de usuários. Como {@link UserDetailsPasswordService}, regrava a
+ * senha quando o codificador pede um novo hash depois de um login bem-sucedido, por exemplo após a troca do
+ * custo do BCrypt.
+ */
 @Service
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
+    private static final Logger logger = LoggerFactory.getLogger(UserDetailsServiceImpl.class);
+
+    private final UsuarioCacheService usuarioCacheService;
     private final UserRepository userRepository;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        return userRepository.findByEmail(email)
+        return usuarioCacheService.buscarPorEmail(email)
+                .map(UsuarioResumo::paraUsuario)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.atualizarSenha(user.getUsername(), newPassword);
+        if (user instanceof User usuario && usuario.getId() != null) {
+            usuarioCacheService.invalidar(usuario.getId());
+            usuario.setPassword(newPassword);
+        }
+        logger.info("[AUTH] Hash de senha regravado com o custo atual: email={}", user.getUsername());
+        return user;
+    }
+}
@@ -2,6 +2,7 @@ package com.example.asyncpayments.service;
 
 import com.example.asyncpayments.entity.ContaAssincrona;
 import com.example.asyncpayments.entity.ContaSincrona;
+import com.example.asyncpayments.entity.Dinheiro;
 import com.example.asyncpayments.entity.User;
 import com.example.asyncpayments.entity.UserRole;
 import com.example.asyncpayments.repository.ContaAssincronaRepository;
@@ -20,6 +21,7 @@ import org.slf4j.LoggerFactory;
 public class UserService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+    private static final Dinheiro SALDO_INICIAL = Dinheiro.deCentavos(10_000);
 
     private final UserRepository userRepository;
     private final ContaSincronaRepository contaSincronaRepository;
@@ -61,12 +63,12 @@ public class UserService {
         usuario = userRepository.save(usuario);
 
         
-        ContaSincrona contaSincrona = new ContaSincrona(100.0, usuario);
+        ContaSincrona contaSincrona = new ContaSincrona(SALDO_INICIAL, usuario);
         contaSincrona = contaSincronaRepository.save(contaSincrona);
         usuario.setContaSincrona(contaSincrona);
 
         
-        ContaAssincrona contaAssincrona = new ContaAssincrona(0.0, usuario);
+        ContaAssincrona contaAssincrona = new ContaAssincrona(Dinheiro.ZERO, usuario);
         contaAssincrona = contaAssincronaRepository.save(contaAssincrona);
         usuario.setContaAssincrona(contaAssincrona);
 
@@ -0,0 +1,110 @@
+package com.example.asyncpayments.service;
+
+import com.example.asyncpayments.repository.UserRepository;
+import com.example.asyncpayments.repository.UsuarioResumo;
+import com.example.asyncpayments.util.CacheExpiravel;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache de {@link UsuarioResumo} por e-mail e por id, para que resolver quem é o usuário não seja uma ida ao
+ * banco a cada chamada. Cada chave tem o seu cache, limitado a {@code asyncpayments.usuarios.cache.capacidade}
+ * entradas e {@code asyncpayments.usuarios.cache.ttl-ms} de vida. Quem altera ou exclui um usuário deve
+ * chamar {@link #invalidar}; o tempo de vida cobre as alterações feitas por outras instâncias. Usuários
+ * inexistentes não ficam em cache. O cache por e-mail é agrupado pelo id, para que a invalidação encontre os
+ * e-mails do usuário sem percorrer o cache.
+ */
+@Service
+public class UsuarioCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsuarioCacheService.class);
+
+    private final UserRepository userRepository;
+    private final CacheExpiravel<String, UsuarioResumo> porEmail;
+    private final CacheExpiravel<Long, UsuarioResumo> porId;
+
+    @Autowired
+    public UsuarioCacheService(UserRepository userRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${asyncpayments.usuarios.cache.capacidade:10000}") int capacidade,
+                               @Value("${asyncpayments.usuarios.cache.ttl-ms:300000}") long ttlMs) {
+        this(userRepository, meterRegistry, capacidade, ttlMs, System::currentTimeMillis);
+    }
+
+    UsuarioCacheService(UserRepository userRepository,
+                        MeterRegistry meterRegistry,
+                        int capacidade,
+                        long ttlMs,
+                        LongSupplier relogio) {
+        this.userRepository = userRepository;
+        this.porEmail = new CacheExpiravel<>(capacidade, ttlMs, relogio, UsuarioResumo::id);
+        this.porId = new CacheExpiravel<>(capacidade, ttlMs, relogio);
+        registrarMetricas(meterRegistry, "email", porEmail);
+        registrarMetricas(meterRegistry, "id", porId);
+    }
+
+    public Optional<UsuarioResumo> buscarPorEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(porEmail.obter(email, chave -> userRepository.findResumoByEmail(chave).orElse(null)));
+    }
+
+    public Optional<UsuarioResumo> buscarPorId(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(porId.obter(id, chave -> userRepository.findResumoById(chave).orElse(null)));
+    }
+
+    public Optional<Long> buscarIdPorEmail(String email) {
+        return buscarPorEmail(email).map(UsuarioResumo::id);
+    }
+
+    /**
+     * Tira o usuário dos dois caches. Dentro de uma transação, repete a remoção depois do commit, para que uma
+     * leitura concorrente do valor antigo não fique em cache.
+     */
+    public void invalidar(Long id) {
+        remover(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remover(id);
+                }
+            });
+        }
+        logger.debug("[USER] Usuário removido do cache: userId={}", id);
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void removerVencidas() {
+        porEmail.removerVencidas();
+        porId.removerVencidas();
+    }
+
+    private void remover(Long id) {
+        porId.remover(id);
+        porEmail.removerGrupo(id);
+    }
+
+    private static void registrarMetricas(MeterRegistry meterRegistry, String chave, CacheExpiravel<?, ?> cache) {
+        FunctionCounter.builder("usuarios.cache.acertos", cache, CacheExpiravel::acertos).tag("chave", chave).register(meterRegistry);
+        FunctionCounter.builder("usuarios.cache.falhas", cache, CacheExpiravel::falhas).tag("chave", chave).register(meterRegistry);
+        FunctionCounter.builder("usuarios.cache.despejos", cache, CacheExpiravel::despejos).tag("chave", chave).register(meterRegistry);
+        Gauge.builder("usuarios.cache.tamanho", cache, CacheExpiravel::tamanho).tag("chave", chave).register(meterRegistry);
+    }
+}
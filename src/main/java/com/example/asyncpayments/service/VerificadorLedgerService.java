@@ -0,0 +1,151 @@
+package com.example.asyncpayments.service;
+
+import com.example.asyncpayments.dto.ResultadoVerificacaoLedger;
+import com.example.asyncpayments.entity.BlockchainRegistro;
+import com.example.asyncpayments.entity.BlocoLedger;
+import com.example.asyncpayments.entity.CheckpointLedger;
+import com.example.asyncpayments.repository.BlockchainRegistroRepository;
+import com.example.asyncpayments.repository.BlocoLedgerRepository;
+import com.example.asyncpayments.repository.CheckpointLedgerRepository;
+import com.example.asyncpayments.util.ArvoreMerkle;
+import com.example.asyncpayments.util.HashLedger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Verificação incremental do ledger: confere só os blocos selados depois do checkpoint, partindo do hash
+ * do último bloco verificado. Para cada bloco, recalcula o hash de cada registro a partir do seu conteúdo,
+ * a raiz de Merkle, o encadeamento com o bloco anterior e o hash do bloco. O checkpoint avança a cada página
+ * de blocos íntegros, em transação própria, e para no bloco anterior à primeira falha.
+ */
+@Service
+public class VerificadorLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerificadorLedgerService.class);
+
+    static final int BLOCOS_POR_PAGINA = 100;
+
+    private final BlocoLedgerRepository blocoLedgerRepository;
+    private final BlockchainRegistroRepository blockchainRegistroRepository;
+    private final CheckpointLedgerRepository checkpointLedgerRepository;
+    private final TransactionTemplate transacao;
+
+    public VerificadorLedgerService(BlocoLedgerRepository blocoLedgerRepository,
+                                    BlockchainRegistroRepository blockchainRegistroRepository,
+                                    CheckpointLedgerRepository checkpointLedgerRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.blocoLedgerRepository = blocoLedgerRepository;
+        this.blockchainRegistroRepository = blockchainRegistroRepository;
+        this.checkpointLedgerRepository = checkpointLedgerRepository;
+        this.transacao = new TransactionTemplate(transactionManager);
+    }
+
+    public synchronized ResultadoVerificacaoLedger verificarNovosBlocos() {
+        long inicio = System.currentTimeMillis();
+        CheckpointLedger checkpoint = checkpointLedgerRepository.findById(CheckpointLedger.ID_VERIFICACAO)
+                .orElseGet(() -> new CheckpointLedger(CheckpointLedger.ID_VERIFICACAO, 0, HashLedger.HASH_GENESIS, null));
+        long verificados = 0;
+        while (true) {
+            ResultadoPagina pagina = transacao.execute(status -> verificarPagina(checkpoint));
+            verificados += pagina.verificados();
+            if (pagina.falha() != null) {
+                logger.error("[BLOCKCHAIN] Ledger inconsistente: bloco={} motivo={} ultimoBlocoIntegro={}",
+                        pagina.falha().numero(), pagina.falha().motivo(), checkpoint.getNumeroBloco());
+                return ResultadoVerificacaoLedger.invalido(verificados, checkpoint.getNumeroBloco(),
+                        pagina.falha().numero(), pagina.falha().motivo());
+            }
+            if (pagina.verificados() < BLOCOS_POR_PAGINA) {
+                logger.info("[BLOCKCHAIN] Ledger verificado: blocosNovos={} ultimoBloco={} tempoMs={}",
+                        verificados, checkpoint.getNumeroBloco(), System.currentTimeMillis() - inicio);
+                return ResultadoVerificacaoLedger.integro(verificados, checkpoint.getNumeroBloco());
+            }
+        }
+    }
+
+    /**
+     * Verifica a próxima página de blocos e avança o checkpoint até o último bloco íntegro dela.
+     */
+    private ResultadoPagina verificarPagina(CheckpointLedger checkpoint) {
+        List<BlocoLedger> blocos = blocoLedgerRepository.findByNumeroGreaterThanOrderByNumeroAsc(
+                checkpoint.getNumeroBloco(), PageRequest.of(0, BLOCOS_POR_PAGINA));
+        if (blocos.isEmpty()) {
+            return new ResultadoPagina(0, null);
+        }
+        Map<Long, List<BlockchainRegistro>> registrosPorBloco = blockchainRegistroRepository
+                .findByNumeroBlocoBetweenOrderByNumeroBlocoAscIndiceBlocoAsc(blocos.get(0).getNumero(), blocos.get(blocos.size() - 1).getNumero())
+                .stream()
+                .collect(Collectors.groupingBy(BlockchainRegistro::getNumeroBloco));
+
+        int verificados = 0;
+        Falha falha = null;
+        for (BlocoLedger bloco : blocos) {
+            String motivo = verificarBloco(bloco, checkpoint.getNumeroBloco(), checkpoint.getHashBloco(),
+                    registrosPorBloco.getOrDefault(bloco.getNumero(), List.of()));
+            if (motivo != null) {
+                falha = new Falha(bloco.getNumero(), motivo);
+                break;
+            }
+            checkpoint.setNumeroBloco(bloco.getNumero());
+            checkpoint.setHashBloco(bloco.getHashBloco());
+            verificados++;
+        }
+        if (verificados > 0) {
+            checkpoint.setDataVerificacao(OffsetDateTime.now(ZoneOffset.UTC));
+            checkpointLedgerRepository.save(checkpoint);
+        }
+        return new ResultadoPagina(verificados, falha);
+    }
+
+    /**
+     * Confere um bloco e seus registros, ordenados pela posição no bloco, contra o bloco que o precede.
+     *
+     * @return o motivo da falha, ou {@code null} se o bloco estiver íntegro
+     */
+    static String verificarBloco(BlocoLedger bloco, long numeroAnterior, String hashAnterior, List<BlockchainRegistro> registros) {
+        if (bloco.getNumero() != numeroAnterior + 1) {
+            return "Bloco " + (numeroAnterior + 1) + " ausente.";
+        }
+        if (!bloco.getHashAnterior().equals(hashAnterior)) {
+            return "Hash do bloco anterior não confere.";
+        }
+        if (registros.size() != bloco.getQuantidadeRegistros()) {
+            return "Quantidade de registros não confere: esperado=" + bloco.getQuantidadeRegistros() + " encontrado=" + registros.size() + ".";
+        }
+        List<String> folhas = new ArrayList<>(registros.size());
+        for (int i = 0; i < registros.size(); i++) {
+            BlockchainRegistro registro = registros.get(i);
+            if (registro.getIndiceBloco() != i) {
+                return "Registro na posição " + i + " ausente.";
+            }
+            if (!HashLedger.hashRegistro(registro).equals(registro.getHashTransacao())) {
+                return "Conteúdo do registro " + registro.getId() + " não confere com o hash.";
+            }
+            folhas.add(registro.getHashTransacao());
+        }
+        if (!ArvoreMerkle.raiz(folhas).equals(bloco.getRaizMerkle())) {
+            return "Raiz de Merkle não confere.";
+        }
+        String hashBloco = HashLedger.hashBloco(bloco.getNumero(), bloco.getHashAnterior(), bloco.getRaizMerkle(), bloco.getQuantidadeRegistros());
+        if (!hashBloco.equals(bloco.getHashBloco())) {
+            return "Hash do bloco não confere.";
+        }
+        return null;
+    }
+
+    private record Falha(long numero, String motivo) {
+    }
+
+    private record ResultadoPagina(int verificados, Falha falha) {
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.asyncpayments.service;
+
+import com.example.asyncpayments.repository.UserRepository;
+import com.example.asyncpayments.repository.VersaoToken;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revogação de tokens JWT por versão. Cada token leva a versão de tokens do usuário no momento da emissão e
+ * só vale enquanto ela for a atual. As versões ficam num mapa em memória, carregado do banco na primeira vez
+ * que um usuário se autentica e atualizado na hora quando esta instância revoga; as demais instâncias
+ * percebem a revogação na recarga periódica ({@code asyncpayments.jwt.versoes.recarga-ms}), que busca todas
+ * as versões em memória em poucas consultas. Fora isso a autenticação não vai ao banco.
+ */
+@Service
+public class VersaoTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VersaoTokenService.class);
+
+    /** Versão de um usuário que não existe mais: nenhum token confere com ela. */
+    static final long REVOGADO = -1L;
+    private static final int TAMANHO_CONSULTA = 1000;
+
+    private final UserRepository userRepository;
+    private final UsuarioCacheService usuarioCacheService;
+    private final int capacidade;
+    private final Map<Long, Long> versoes = new ConcurrentHashMap<>();
+    private final Counter carregamentos;
+    private final Counter recusados;
+
+    public VersaoTokenService(UserRepository userRepository,
+                              UsuarioCacheService usuarioCacheService,
+                              MeterRegistry meterRegistry,
+                              @Value("${asyncpayments.jwt.versoes.capacidade:100000}") int capacidade) {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("A capacidade do cache de versões de token deve ser positiva.");
+        }
+        this.userRepository = userRepository;
+        this.usuarioCacheService = usuarioCacheService;
+        this.capacidade = capacidade;
+        this.carregamentos = meterRegistry.counter("jwt.versoes.carregamentos");
+        this.recusados = meterRegistry.counter("jwt.tokens.revogados.recusados");
+        meterRegistry.gauge("jwt.versoes.cache", versoes, Map::size);
+    }
+
+    /**
+     * Diz se um token emitido com {@code versao} para {@code userId} ainda vale. Só consulta o banco quando o
+     * usuário não está em memória.
+     */
+    public boolean vigente(Long userId, long versao) {
+        if (userId == null) {
+            return false;
+        }
+        Long atual = versoes.get(userId);
+        if (atual == null) {
+            atual = carregar(userId);
+        }
+        if (atual != versao) {
+            recusados.increment();
+            logger.debug("[JWT] Token revogado recusado: userId={} versaoToken={} versaoAtual={}", userId, versao, atual);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Revoga todos os tokens já emitidos para o usuário. O mapa em memória é atualizado depois do commit.
+     *
+     * @return a nova versão, ou {@link #REVOGADO} se o usuário não existe
+     */
+    @Transactional
+    public long revogar(Long userId) {
+        userRepository.incrementarVersaoToken(userId);
+        long nova = userRepository.findVersaoTokenById(userId).orElse(REVOGADO);
+        aposCommit(() -> versoes.put(userId, nova));
+        // O resumo em cache guarda a versão usada nos tokens emitidos no login.
+        usuarioCacheService.invalidar(userId);
+        logger.info("[JWT] Tokens revogados: userId={} versaoToken={}", userId, nova);
+        return nova;
+    }
+
+    /**
+     * Relê do banco as versões de todos os usuários em memória, para enxergar revogações feitas por outras
+     * instâncias.
+     */
+    @Scheduled(fixedDelayString = "${asyncpayments.jwt.versoes.recarga-ms:30000}")
+    public void recarregar() {
+        List<Long> ids = new ArrayList<>(versoes.keySet());
+        int alteradas = 0;
+        for (int inicio = 0; inicio < ids.size(); inicio += TAMANHO_CONSULTA) {
+            List<Long> parte = ids.subList(inicio, Math.min(ids.size(), inicio + TAMANHO_CONSULTA));
+            Set<Long> encontrados = new HashSet<>();
+            for (VersaoToken versao : userRepository.findVersoesToken(parte)) {
+                encontrados.add(versao.id());
+                Long anterior = versoes.put(versao.id(), versao.versao());
+                if (anterior != null && anterior != versao.versao()) {
+                    alteradas++;
+                }
+            }
+            for (Long id : parte) {
+                if (!encontrados.contains(id)) {
+                    versoes.put(id, REVOGADO);
+                }
+            }
+        }
+        if (alteradas > 0) {
+            logger.info("[JWT] Versões de token recarregadas: usuarios={} alteradas={}", ids.size(), alteradas);
+        }
+    }
+
+    int emMemoria() {
+        return versoes.size();
+    }
+
+    private long carregar(Long userId) {
+        long versao = userRepository.findVersaoTokenById(userId).orElse(REVOGADO);
+        carregamentos.increment();
+        if (versoes.size() >= capacidade) {
+            // Sai uma entrada qualquer; se for usada de novo, é recarregada do banco.
+            Iterator<Long> chaves = versoes.keySet().iterator();
+            if (chaves.hasNext()) {
+                chaves.next();
+                chaves.remove();
+            }
+        }
+        // Uma revogação concorrente já pôs a versão nova; ela prevalece sobre a lida aqui.
+        Long atual = versoes.putIfAbsent(userId, versao);
+        return atual != null ? atual : versao;
+    }
+
+    private static void aposCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+}
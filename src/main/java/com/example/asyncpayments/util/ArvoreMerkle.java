@@ -0,0 +1,182 @@
+package com.example.asyncpayments.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Árvore de Merkle sobre hashes hexadecimais. Cada nó é o SHA-256 da concatenação dos filhos em hexadecimal;
+ * num nível de tamanho ímpar, o último nó é combinado consigo mesmo.
+ *
+ * <p>A árvore montada guarda todos os níveis, para gerar provas de inclusão sem recalcular hashes. Cada nível
+ * é um único {@code byte[]} com os nós em binário, 32 bytes por nó; o hexadecimal só é gerado para a raiz e
+ * para os hashes devolvidos numa prova.
+ */
+public final class ArvoreMerkle {
+
+    /** Hash irmão num passo da prova e o lado em que ele entra na concatenação. */
+    public record PassoProva(String hash, Lado lado) {
+    }
+
+    public enum Lado { ESQUERDA, DIREITA }
+
+    private static final int TAMANHO_HASH = 32;
+    private static final byte[] DIGITOS_HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[][] niveis;
+
+    private ArvoreMerkle(byte[][] niveis) {
+        this.niveis = niveis;
+    }
+
+    /**
+     * Monta a árvore guardando todos os níveis. As folhas devem ser SHA-256 em hexadecimal minúsculo, como os
+     * hashes de {@link HashLedger}.
+     */
+    public static ArvoreMerkle montar(List<String> folhas) {
+        if (folhas.isEmpty()) {
+            throw new IllegalArgumentException("A árvore de Merkle precisa de ao menos uma folha.");
+        }
+        byte[] nivel = new byte[folhas.size() * TAMANHO_HASH];
+        for (int i = 0; i < folhas.size(); i++) {
+            lerHex(folhas.get(i), nivel, i * TAMANHO_HASH);
+        }
+        List<byte[]> niveis = new ArrayList<>();
+        niveis.add(nivel);
+        MessageDigest digest = HashLedger.digest();
+        byte[] concatenacao = new byte[4 * TAMANHO_HASH];
+        while (nivel.length > TAMANHO_HASH) {
+            nivel = proximoNivel(nivel, digest, concatenacao);
+            niveis.add(nivel);
+        }
+        return new ArvoreMerkle(niveis.toArray(byte[][]::new));
+    }
+
+    public static String raiz(List<String> folhas) {
+        if (folhas.isEmpty()) {
+            throw new IllegalArgumentException("A árvore de Merkle precisa de ao menos uma folha.");
+        }
+        List<String> nivel = folhas;
+        while (nivel.size() > 1) {
+            nivel = proximoNivel(nivel);
+        }
+        return nivel.get(0);
+    }
+
+    /**
+     * Recalcula a raiz a partir de uma folha e do caminho da sua prova de inclusão.
+     */
+    public static String raizDaProva(String folha, List<PassoProva> caminho) {
+        String hash = folha;
+        for (PassoProva passo : caminho) {
+            hash = passo.lado() == Lado.ESQUERDA ? combinar(passo.hash(), hash) : combinar(hash, passo.hash());
+        }
+        return hash;
+    }
+
+    public String raiz() {
+        return hex(niveis[niveis.length - 1], 0);
+    }
+
+    public int quantidadeFolhas() {
+        return niveis[0].length / TAMANHO_HASH;
+    }
+
+    public String folha(int indice) {
+        return hex(niveis[0], indice);
+    }
+
+    /**
+     * Caminho da folha até a raiz: um hash irmão por nível, ⌈log2(n)⌉ passos.
+     */
+    public List<PassoProva> prova(int indice) {
+        if (indice < 0 || indice >= quantidadeFolhas()) {
+            throw new IllegalArgumentException("Folha inexistente na árvore de Merkle: " + indice);
+        }
+        List<PassoProva> caminho = new ArrayList<>(niveis.length - 1);
+        int posicao = indice;
+        for (int n = 0; n < niveis.length - 1; n++) {
+            byte[] nivel = niveis[n];
+            if (posicao % 2 == 0) {
+                int irmao = (posicao + 1) * TAMANHO_HASH < nivel.length ? posicao + 1 : posicao;
+                caminho.add(new PassoProva(hex(nivel, irmao), Lado.DIREITA));
+            } else {
+                caminho.add(new PassoProva(hex(nivel, posicao - 1), Lado.ESQUERDA));
+            }
+            posicao /= 2;
+        }
+        return caminho;
+    }
+
+    static String combinar(String esquerda, String direita) {
+        return HashLedger.sha256(esquerda + direita);
+    }
+
+    private static List<String> proximoNivel(List<String> nivel) {
+        List<String> pais = new ArrayList<>((nivel.size() + 1) / 2);
+        for (int i = 0; i < nivel.size(); i += 2) {
+            String esquerda = nivel.get(i);
+            String direita = i + 1 < nivel.size() ? nivel.get(i + 1) : esquerda;
+            pais.add(combinar(esquerda, direita));
+        }
+        return pais;
+    }
+
+    /**
+     * Mesmo cálculo de {@link #proximoNivel(List)} sobre nós binários: cada par é escrito em hexadecimal em
+     * {@code concatenacao} e resumido direto no nível de cima.
+     */
+    private static byte[] proximoNivel(byte[] nivel, MessageDigest digest, byte[] concatenacao) {
+        int nos = nivel.length / TAMANHO_HASH;
+        byte[] pais = new byte[(nos + 1) / 2 * TAMANHO_HASH];
+        for (int i = 0; i < nos; i += 2) {
+            int direita = i + 1 < nos ? i + 1 : i;
+            escreverHex(nivel, i * TAMANHO_HASH, concatenacao, 0);
+            escreverHex(nivel, direita * TAMANHO_HASH, concatenacao, 2 * TAMANHO_HASH);
+            digest.update(concatenacao);
+            try {
+                digest.digest(pais, i / 2 * TAMANHO_HASH, TAMANHO_HASH);
+            } catch (DigestException e) {
+                throw new IllegalStateException("Falha ao calcular SHA-256.", e);
+            }
+        }
+        return pais;
+    }
+
+    private static void lerHex(String hash, byte[] destino, int inicio) {
+        if (hash == null || hash.length() != 2 * TAMANHO_HASH) {
+            throw new IllegalArgumentException("Folha da árvore de Merkle não é um SHA-256 em hexadecimal: " + hash);
+        }
+        for (int i = 0; i < TAMANHO_HASH; i++) {
+            destino[inicio + i] = (byte) (digitoHex(hash, 2 * i) << 4 | digitoHex(hash, 2 * i + 1));
+        }
+    }
+
+    private static int digitoHex(String hash, int posicao) {
+        char c = hash.charAt(posicao);
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        // Maiúsculas também são recusadas: o hash do nó é calculado sobre o texto em minúsculas.
+        throw new IllegalArgumentException("Folha da árvore de Merkle não é um SHA-256 em hexadecimal: " + hash);
+    }
+
+    private static void escreverHex(byte[] origem, int inicio, byte[] destino, int posicao) {
+        for (int i = 0; i < TAMANHO_HASH; i++) {
+            int valor = origem[inicio + i] & 0xff;
+            destino[posicao + 2 * i] = DIGITOS_HEX[valor >>> 4];
+            destino[posicao + 2 * i + 1] = DIGITOS_HEX[valor & 0x0f];
+        }
+    }
+
+    private static String hex(byte[] nivel, int no) {
+        byte[] texto = new byte[2 * TAMANHO_HASH];
+        escreverHex(nivel, no * TAMANHO_HASH, texto, 0);
+        return new String(texto, StandardCharsets.US_ASCII);
+    }
+}
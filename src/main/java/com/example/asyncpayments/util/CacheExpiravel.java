@@ -0,0 +1,249 @@
+package com.example.asyncpayments.util;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache limitado por tamanho e por tempo de vida, sobre um {@link ConcurrentHashMap}: leituras não pegam
+ * trava. Uma entrada com mais de {@code ttlMs} desde a carga não é mais devolvida. Passando da capacidade,
+ * sai a entrada usada há mais tempo entre as {@value #AMOSTRA_DESPEJO} primeiras do mapa, então o despejo é
+ * só aproximadamente o da menos usada. Valores nulos não são guardados.
+ *
+ * <p>Com {@code grupo}, o cache mantém um índice do grupo de cada valor para as suas chaves, e
+ * {@link #removerGrupo} tira todas as chaves de um grupo sem percorrer o cache.
+ *
+ * <p>{@link #obter} carrega fora de qualquer trava, então duas threads podem carregar a mesma chave ao mesmo
+ * tempo. Uma carga que começou antes de uma invalidação não fica no cache, para que um valor lido antes de
+ * uma alteração não volte depois dela.
+ */
+public class CacheExpiravel<K, V> {
+
+    static final int AMOSTRA_DESPEJO = 8;
+
+    private final int capacidade;
+    private final long ttlMs;
+    private final LongSupplier relogio;
+    private final Function<? super V, ?> grupo;
+    private final ConcurrentHashMap<K, Entrada<V>> entradas = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Object, Set<K>> chavesPorGrupo = new ConcurrentHashMap<>();
+    private final AtomicLong geracao = new AtomicLong();
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+    private final LongAdder despejos = new LongAdder();
+
+    public CacheExpiravel(int capacidade, long ttlMs, LongSupplier relogio) {
+        this(capacidade, ttlMs, relogio, null);
+    }
+
+    public CacheExpiravel(int capacidade, long ttlMs, LongSupplier relogio, Function<? super V, ?> grupo) {
+        if (capacidade <= 0 || ttlMs <= 0) {
+            throw new IllegalArgumentException("Capacidade e tempo de vida do cache devem ser positivos.");
+        }
+        this.capacidade = capacidade;
+        this.ttlMs = ttlMs;
+        this.relogio = relogio;
+        this.grupo = grupo;
+    }
+
+    /**
+     * Devolve o valor em cache ou o carrega com {@code carregar}, guardando-o se não for nulo.
+     */
+    public V obter(K chave, Function<K, V> carregar) {
+        long agora = relogio.getAsLong();
+        Entrada<V> entrada = entradas.get(chave);
+        if (entrada != null) {
+            if (!entrada.vencida(agora)) {
+                entrada.acessar(agora);
+                acertos.increment();
+                return entrada.valor();
+            }
+            if (retirar(chave, entrada)) {
+                despejos.increment();
+            }
+        }
+        falhas.increment();
+        long geracaoCarga = geracao.get();
+        V valor = carregar.apply(chave);
+        if (valor != null) {
+            long carregadaEm = relogio.getAsLong();
+            guardar(chave, new Entrada<>(valor, carregadaEm + ttlMs, carregadaEm), geracaoCarga);
+        }
+        return valor;
+    }
+
+    public void remover(K chave) {
+        geracao.incrementAndGet();
+        Entrada<V> entrada = entradas.remove(chave);
+        if (entrada != null) {
+            desindexar(chave, entrada);
+        }
+    }
+
+    /**
+     * Remove as entradas cujo valor pertence a {@code grupo}, pelo índice de grupos. Sem função de grupo no
+     * construtor, não remove nada.
+     */
+    public void removerGrupo(Object grupo) {
+        geracao.incrementAndGet();
+        Set<K> chaves = chavesPorGrupo.remove(grupo);
+        if (chaves == null) {
+            return;
+        }
+        for (K chave : chaves) {
+            Entrada<V> entrada = entradas.get(chave);
+            if (entrada != null && Objects.equals(grupoDe(entrada), grupo)) {
+                entradas.remove(chave, entrada);
+            }
+        }
+    }
+
+    public void limpar() {
+        geracao.incrementAndGet();
+        entradas.clear();
+        chavesPorGrupo.clear();
+    }
+
+    public int tamanho() {
+        return entradas.size();
+    }
+
+    public long acertos() {
+        return acertos.sum();
+    }
+
+    public long falhas() {
+        return falhas.sum();
+    }
+
+    /**
+     * Entradas que saíram por falta de espaço ou por terem vencido.
+     */
+    public long despejos() {
+        return despejos.sum();
+    }
+
+    /**
+     * Remove as entradas vencidas, que de outro modo só sairiam quando consultadas ou despejadas.
+     */
+    public void removerVencidas() {
+        long agora = relogio.getAsLong();
+        for (Map.Entry<K, Entrada<V>> entrada : entradas.entrySet()) {
+            if (entrada.getValue().vencida(agora) && retirar(entrada.getKey(), entrada.getValue())) {
+                despejos.increment();
+            }
+        }
+    }
+
+    private void guardar(K chave, Entrada<V> entrada, long geracaoCarga) {
+        // Indexa antes de publicar, para que uma invalidação do grupo a partir daqui já encontre a chave.
+        indexar(chave, entrada);
+        Entrada<V> anterior = entradas.put(chave, entrada);
+        if (anterior != null && !Objects.equals(grupoDe(anterior), grupoDe(entrada))) {
+            desindexar(chave, anterior);
+        }
+        if (geracao.get() != geracaoCarga) {
+            // Houve uma invalidação durante a carga; o valor pode ser anterior a ela.
+            retirar(chave, entrada);
+            return;
+        }
+        if (entradas.size() > capacidade) {
+            despejar(chave);
+        }
+    }
+
+    private void despejar(K protegida) {
+        long agora = relogio.getAsLong();
+        K escolhida = null;
+        Entrada<V> vitima = null;
+        Iterator<Map.Entry<K, Entrada<V>>> iterador = entradas.entrySet().iterator();
+        for (int vistas = 0; vistas < AMOSTRA_DESPEJO && iterador.hasNext(); ) {
+            Map.Entry<K, Entrada<V>> candidata = iterador.next();
+            if (candidata.getKey().equals(protegida)) {
+                continue;
+            }
+            vistas++;
+            Entrada<V> entrada = candidata.getValue();
+            if (entrada.vencida(agora)) {
+                escolhida = candidata.getKey();
+                vitima = entrada;
+                break;
+            }
+            if (vitima == null || entrada.acesso < vitima.acesso) {
+                escolhida = candidata.getKey();
+                vitima = entrada;
+            }
+        }
+        if (vitima != null && retirar(escolhida, vitima)) {
+            despejos.increment();
+        }
+    }
+
+    private boolean retirar(K chave, Entrada<V> entrada) {
+        if (!entradas.remove(chave, entrada)) {
+            return false;
+        }
+        desindexar(chave, entrada);
+        return true;
+    }
+
+    private void indexar(K chave, Entrada<V> entrada) {
+        Object chaveGrupo = grupoDe(entrada);
+        if (chaveGrupo != null) {
+            chavesPorGrupo.compute(chaveGrupo, (g, chaves) -> {
+                Set<K> atual = chaves == null ? new HashSet<>() : chaves;
+                atual.add(chave);
+                return atual;
+            });
+        }
+    }
+
+    private void desindexar(K chave, Entrada<V> entrada) {
+        Object chaveGrupo = grupoDe(entrada);
+        if (chaveGrupo != null) {
+            chavesPorGrupo.computeIfPresent(chaveGrupo, (g, chaves) -> {
+                chaves.remove(chave);
+                return chaves.isEmpty() ? null : chaves;
+            });
+        }
+    }
+
+    private Object grupoDe(Entrada<V> entrada) {
+        return grupo == null ? null : grupo.apply(entrada.valor());
+    }
+
+    private static final class Entrada<V> {
+
+        private final V valor;
+        private final long venceEm;
+        private volatile long acesso;
+
+        Entrada(V valor, long venceEm, long acesso) {
+            this.valor = valor;
+            this.venceEm = venceEm;
+            this.acesso = acesso;
+        }
+
+        V valor() {
+            return valor;
+        }
+
+        boolean vencida(long agora) {
+            return agora >= venceEm;
+        }
+
+        void acessar(long agora) {
+            // Só escreve quando o instante muda, para que leituras da mesma chave não disputem a linha de cache.
+            if (acesso != agora) {
+                acesso = agora;
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.asyncpayments.util;
+
+/**
+ * Conjunto de entradas {@code long} para {@code byte} que pode ser percorrido, como os mapas primitivos usados
+ * pelo índice de status.
+ */
+public interface EntradasLongByte {
+
+    int tamanho();
+
+    void paraCada(MapaLongByte.ConsumidorEntrada consumidor);
+}
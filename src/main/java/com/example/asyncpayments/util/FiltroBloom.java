@@ -0,0 +1,80 @@
+package com.example.asyncpayments.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom para strings, seguro para uso concorrente. {@link #podeConter} nunca responde
+ * {@code false} para um valor adicionado; pode responder {@code true} para um valor nunca adicionado,
+ * com probabilidade próxima de {@code taxaFalsosPositivos} enquanto o número de elementos não passar
+ * de {@code capacidade}.
+ */
+public class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final long totalBits;
+    private final int funcoesHash;
+
+    public FiltroBloom(long capacidade, double taxaFalsosPositivos) {
+        if (capacidade <= 0 || taxaFalsosPositivos <= 0 || taxaFalsosPositivos >= 1) {
+            throw new IllegalArgumentException("Capacidade e taxa de falsos positivos do filtro de Bloom inválidas.");
+        }
+        long bitsNecessarios = (long) Math.ceil(-capacidade * Math.log(taxaFalsosPositivos) / (Math.log(2) * Math.log(2)));
+        int palavras = (int) Math.min(Integer.MAX_VALUE - 8, (bitsNecessarios + 63) / 64);
+        this.bits = new AtomicLongArray(palavras);
+        this.totalBits = (long) palavras * 64;
+        this.funcoesHash = Math.max(1, (int) Math.round((double) totalBits / capacidade * Math.log(2)));
+    }
+
+    public void adicionar(String valor) {
+        long hash = hash64(valor);
+        long h1 = hash;
+        long h2 = hash >>> 32;
+        for (int i = 0; i < funcoesHash; i++) {
+            long bit = indice(h1 + (long) i * h2);
+            int palavra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long atual;
+            do {
+                atual = bits.get(palavra);
+                if ((atual & mascara) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(palavra, atual, atual | mascara));
+        }
+    }
+
+    public boolean podeConter(String valor) {
+        long hash = hash64(valor);
+        long h1 = hash;
+        long h2 = hash >>> 32;
+        for (int i = 0; i < funcoesHash; i++) {
+            long bit = indice(h1 + (long) i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long indice(long combinado) {
+        return (combinado & Long.MAX_VALUE) % totalBits;
+    }
+
+    /**
+     * FNV-1a de 64 bits seguido da mistura final do MurmurHash3, para espalhar bem os bits altos e baixos.
+     */
+    private static long hash64(String valor) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : valor.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
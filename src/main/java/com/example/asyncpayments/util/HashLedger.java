@@ -0,0 +1,46 @@
+package com.example.asyncpayments.util;
+
+import com.example.asyncpayments.entity.BlockchainRegistro;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Hashes SHA-256 do ledger, em hexadecimal minúsculo.
+ */
+public final class HashLedger {
+
+    /** {@code hashAnterior} do primeiro bloco. */
+    public static final String HASH_GENESIS = "0".repeat(64);
+
+    private HashLedger() {
+    }
+
+    /**
+     * Hash do conteúdo do registro. Cobre só campos gravados, para que possa ser recalculado na verificação.
+     */
+    public static String hashRegistro(BlockchainRegistro registro) {
+        Instant data = registro.getDataRegistro().toInstant();
+        return sha256(registro.getIdTransacao() + "|" + registro.getIdUsuarioOrigem() + "|" + registro.getIdUsuarioDestino()
+                + "|" + registro.getValor().centavos() + "|" + data.getEpochSecond() + "." + data.getNano());
+    }
+
+    public static String hashBloco(long numero, String hashAnterior, String raizMerkle, int quantidadeRegistros) {
+        return sha256(numero + "|" + hashAnterior + "|" + raizMerkle + "|" + quantidadeRegistros);
+    }
+
+    public static String sha256(String valor) {
+        return HexFormat.of().formatHex(digest().digest(valor.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível.", e);
+        }
+    }
+}
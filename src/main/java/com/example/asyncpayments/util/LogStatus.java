@@ -0,0 +1,196 @@
+package com.example.asyncpayments.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Log de mudanças de status, só de acréscimo, num arquivo mapeado em memória. Cada registro tem 16 bytes:
+ * id ({@code long}), status ({@code byte}) e um código de verificação gravado por último, para que um
+ * registro escrito pela metade numa queda seja reconhecido e descartado na recuperação. O arquivo tem
+ * tamanho fixo; quando enche, {@link #reescrever} troca-o atomicamente por um com só as entradas vivas.
+ * Não é seguro para uso concorrente, com exceção de {@link #copiar}, que não mexe no arquivo aberto.
+ */
+public class LogStatus implements Closeable {
+
+    public static final byte REMOVIDO = -1;
+
+    static final int TAMANHO_CABECALHO = 16;
+    static final int TAMANHO_REGISTRO = 16;
+    private static final int MAGICO = 0x4C535431;
+    private static final int VERSAO = 1;
+    private static final int CAPACIDADE_MAXIMA = (Integer.MAX_VALUE - TAMANHO_CABECALHO) / TAMANHO_REGISTRO;
+
+    private final Path arquivo;
+    private final int capacidade;
+    private FileChannel canal;
+    private MappedByteBuffer mapa;
+    private int registros = -1;
+
+    public LogStatus(Path arquivo, int capacidadeRegistros) throws IOException {
+        if (capacidadeRegistros <= 0 || capacidadeRegistros > CAPACIDADE_MAXIMA) {
+            throw new IllegalArgumentException("Capacidade do log de status inválida.");
+        }
+        this.arquivo = arquivo;
+        Path diretorio = arquivo.toAbsolutePath().getParent();
+        if (diretorio != null) {
+            Files.createDirectories(diretorio);
+        }
+        long existentes = Files.exists(arquivo) ? (Files.size(arquivo) - TAMANHO_CABECALHO) / TAMANHO_REGISTRO : 0;
+        this.capacidade = (int) Math.min(CAPACIDADE_MAXIMA, Math.max(capacidadeRegistros, existentes));
+        abrir(arquivo);
+    }
+
+    /**
+     * Relê o log, do mais antigo para o mais recente, e posiciona as próximas gravações depois do último
+     * registro íntegro. Deve ser chamado uma vez, antes de {@link #anexar}.
+     */
+    public void recuperar(MapaLongByte.ConsumidorEntrada consumidor) {
+        int lidos = 0;
+        while (lidos < capacidade) {
+            int posicao = TAMANHO_CABECALHO + lidos * TAMANHO_REGISTRO;
+            long id = mapa.getLong(posicao);
+            byte status = mapa.get(posicao + 8);
+            if (id == 0 || mapa.getInt(posicao + 12) != verificacao(id, status)) {
+                break;
+            }
+            consumidor.aceitar(id, status);
+            lidos++;
+        }
+        // Zera o que sobrou de um registro incompleto, para não confundir a próxima recuperação.
+        if (lidos < capacidade) {
+            mapa.putLong(TAMANHO_CABECALHO + lidos * TAMANHO_REGISTRO, 0);
+        }
+        registros = lidos;
+    }
+
+    /**
+     * @return {@code false} se o log está cheio e o registro não foi gravado
+     */
+    public boolean anexar(long id, byte status) {
+        if (registros < 0) {
+            throw new IllegalStateException("O log de status precisa ser recuperado antes de receber gravações.");
+        }
+        if (registros == capacidade) {
+            return false;
+        }
+        gravar(mapa, registros++, id, status);
+        return true;
+    }
+
+    /**
+     * Troca o log por um novo com uma entrada por chave de {@code indice}, gravado num arquivo temporário e
+     * movido sobre o atual. O índice não pode mudar durante a cópia.
+     */
+    public void reescrever(EntradasLongByte indice) throws IOException {
+        if (indice.tamanho() > capacidade) {
+            throw new IllegalArgumentException("O índice não cabe no log de status.");
+        }
+        trocar(copiar(indice));
+    }
+
+    /**
+     * Grava num arquivo temporário um log novo com uma entrada por chave de {@code indice}, sem alterar o log
+     * aberto; pode rodar enquanto outra thread anexa registros a ele. Se o índice mudar durante a cópia, as
+     * mudanças precisam ser anexadas depois de {@link #trocar}.
+     */
+    public Copia copiar(EntradasLongByte indice) throws IOException {
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        Files.deleteIfExists(temporario);
+        int[] gravados = {0};
+        try (FileChannel novoCanal = FileChannel.open(temporario, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer novoMapa = novoCanal.map(FileChannel.MapMode.READ_WRITE, 0, tamanhoArquivo());
+            escreverCabecalho(novoMapa);
+            indice.paraCada((id, status) -> {
+                if (gravados[0] == capacidade) {
+                    throw new IllegalArgumentException("O índice não cabe no log de status.");
+                }
+                gravar(novoMapa, gravados[0]++, id, status);
+            });
+            novoMapa.force();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporario);
+            throw e;
+        }
+        return new Copia(temporario, gravados[0]);
+    }
+
+    /**
+     * Move sobre o log atual uma cópia feita por {@link #copiar}; as próximas gravações vão para ela.
+     */
+    public void trocar(Copia copia) throws IOException {
+        canal.close();
+        Files.move(copia.arquivo(), arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        abrir(arquivo);
+        registros = copia.registros();
+    }
+
+    /**
+     * Força a gravação em disco dos registros já anexados.
+     */
+    public void sincronizar() {
+        mapa.force();
+    }
+
+    public int registros() {
+        return registros;
+    }
+
+    public int capacidade() {
+        return capacidade;
+    }
+
+    @Override
+    public void close() throws IOException {
+        mapa.force();
+        canal.close();
+    }
+
+    /**
+     * Log novo ainda fora do lugar, com {@code registros} entradas.
+     */
+    public record Copia(Path arquivo, int registros) {
+
+        public void descartar() throws IOException {
+            Files.deleteIfExists(arquivo);
+        }
+    }
+
+    private void abrir(Path caminho) throws IOException {
+        boolean novo = !Files.exists(caminho) || Files.size(caminho) == 0;
+        canal = FileChannel.open(caminho, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanhoArquivo());
+        if (novo) {
+            escreverCabecalho(mapa);
+        } else if (mapa.getInt(0) != MAGICO || mapa.getInt(4) != VERSAO) {
+            canal.close();
+            throw new IOException("O arquivo não é um log de status válido: " + caminho);
+        }
+    }
+
+    private long tamanhoArquivo() {
+        return TAMANHO_CABECALHO + (long) capacidade * TAMANHO_REGISTRO;
+    }
+
+    private static void escreverCabecalho(MappedByteBuffer destino) {
+        destino.putInt(0, MAGICO);
+        destino.putInt(4, VERSAO);
+    }
+
+    private static void gravar(MappedByteBuffer destino, int indice, long id, byte status) {
+        int posicao = TAMANHO_CABECALHO + indice * TAMANHO_REGISTRO;
+        destino.putLong(posicao, id);
+        destino.put(posicao + 8, status);
+        destino.putInt(posicao + 12, verificacao(id, status));
+    }
+
+    private static int verificacao(long id, byte status) {
+        long misturado = (id ^ ((long) status << 56)) * 0x9E3779B97F4A7C15L;
+        return (int) (misturado ^ (misturado >>> 32)) ^ MAGICO;
+    }
+}
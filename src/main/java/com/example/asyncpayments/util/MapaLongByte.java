@@ -0,0 +1,162 @@
+package com.example.asyncpayments.util;
+
+/**
+ * Mapa de {@code long} para {@code byte} em endereçamento aberto com sondagem linear, sem objetos por
+ * entrada: ocupa cerca de 9 bytes por posição e a tabela tem até o dobro de posições das entradas. A chave
+ * {@code 0} é reservada para posição vazia. Não é seguro para uso concorrente.
+ */
+public class MapaLongByte implements EntradasLongByte {
+
+    public static final int AUSENTE = -1;
+
+    private static final int CAPACIDADE_MINIMA = 16;
+
+    private long[] chaves;
+    private byte[] valores;
+    private int mascara;
+    private int tamanho;
+
+    public MapaLongByte(int capacidadeInicial) {
+        int posicoes = Math.max(CAPACIDADE_MINIMA, Integer.highestOneBit(Math.max(1, capacidadeInicial * 2 - 1)) << 1);
+        alocar(posicoes);
+    }
+
+    /**
+     * @return o valor associado a {@code chave}, ou {@link #AUSENTE}
+     */
+    public int get(long chave) {
+        validar(chave);
+        for (int posicao = posicao(chave); ; posicao = (posicao + 1) & mascara) {
+            long atual = chaves[posicao];
+            if (atual == chave) {
+                return valores[posicao];
+            }
+            if (atual == 0) {
+                return AUSENTE;
+            }
+        }
+    }
+
+    public void put(long chave, byte valor) {
+        validar(chave);
+        int posicao = posicao(chave);
+        while (chaves[posicao] != 0 && chaves[posicao] != chave) {
+            posicao = (posicao + 1) & mascara;
+        }
+        if (chaves[posicao] == 0) {
+            chaves[posicao] = chave;
+            if (++tamanho * 2 > chaves.length) {
+                valores[posicao] = valor;
+                redimensionar(chaves.length * 2);
+                return;
+            }
+        }
+        valores[posicao] = valor;
+    }
+
+    public boolean remover(long chave) {
+        validar(chave);
+        int posicao = posicao(chave);
+        while (chaves[posicao] != chave) {
+            if (chaves[posicao] == 0) {
+                return false;
+            }
+            posicao = (posicao + 1) & mascara;
+        }
+        // Puxa para trás as chaves seguintes do mesmo agrupamento, para não deixar buracos na sondagem.
+        int vaga = posicao;
+        for (int seguinte = (vaga + 1) & mascara; chaves[seguinte] != 0; seguinte = (seguinte + 1) & mascara) {
+            int ideal = posicao(chaves[seguinte]);
+            if (((seguinte - ideal) & mascara) >= ((seguinte - vaga) & mascara)) {
+                chaves[vaga] = chaves[seguinte];
+                valores[vaga] = valores[seguinte];
+                vaga = seguinte;
+            }
+        }
+        chaves[vaga] = 0;
+        valores[vaga] = 0;
+        tamanho--;
+        return true;
+    }
+
+    /**
+     * Remove todas as chaves menores que {@code limite}.
+     *
+     * @return quantidade de chaves removidas
+     */
+    public int removerAbaixoDe(long limite) {
+        long[] antigasChaves = chaves;
+        byte[] antigosValores = valores;
+        int antes = tamanho;
+        alocar(antigasChaves.length);
+        for (int posicao = 0; posicao < antigasChaves.length; posicao++) {
+            if (antigasChaves[posicao] != 0 && antigasChaves[posicao] >= limite) {
+                put(antigasChaves[posicao], antigosValores[posicao]);
+            }
+        }
+        return antes - tamanho;
+    }
+
+    @Override
+    public void paraCada(ConsumidorEntrada consumidor) {
+        for (int posicao = 0; posicao < chaves.length; posicao++) {
+            if (chaves[posicao] != 0) {
+                consumidor.aceitar(chaves[posicao], valores[posicao]);
+            }
+        }
+    }
+
+    public long[] chaves() {
+        long[] copia = new long[tamanho];
+        int indice = 0;
+        for (long chave : chaves) {
+            if (chave != 0) {
+                copia[indice++] = chave;
+            }
+        }
+        return copia;
+    }
+
+    @Override
+    public int tamanho() {
+        return tamanho;
+    }
+
+    public void limpar() {
+        alocar(chaves.length);
+    }
+
+    private void redimensionar(int posicoes) {
+        long[] antigasChaves = chaves;
+        byte[] antigosValores = valores;
+        alocar(posicoes);
+        for (int posicao = 0; posicao < antigasChaves.length; posicao++) {
+            if (antigasChaves[posicao] != 0) {
+                put(antigasChaves[posicao], antigosValores[posicao]);
+            }
+        }
+    }
+
+    private void alocar(int posicoes) {
+        chaves = new long[posicoes];
+        valores = new byte[posicoes];
+        mascara = posicoes - 1;
+        tamanho = 0;
+    }
+
+    private int posicao(long chave) {
+        long misturado = chave * 0x9E3779B97F4A7C15L;
+        return (int) (misturado ^ (misturado >>> 32)) & mascara;
+    }
+
+    private static void validar(long chave) {
+        if (chave == 0) {
+            throw new IllegalArgumentException("A chave 0 é reservada.");
+        }
+    }
+
+    @FunctionalInterface
+    public interface ConsumidorEntrada {
+        void aceitar(long chave, byte valor);
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.asyncpayments.util;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * {@link MapaLongByte} seguro para uso concorrente, dividido em faixas pela chave, cada uma com a sua trava.
+ * Leituras usam a leitura otimista do {@link StampedLock} e só pegam a trava de leitura se uma escrita na
+ * mesma faixa acontecer no meio; escritas em faixas diferentes não se bloqueiam. As operações sobre o mapa
+ * inteiro ({@link #paraCada}, {@link #removerAbaixoDe}) travam uma faixa por vez e não são atômicas em
+ * relação às escritas.
+ */
+public class MapaLongByteConcorrente implements EntradasLongByte {
+
+    private final MapaLongByte[] faixas;
+    private final StampedLock[] travas;
+    private final int mascara;
+
+    public MapaLongByteConcorrente(int capacidadeInicial, int quantidadeFaixas) {
+        if (quantidadeFaixas <= 0) {
+            throw new IllegalArgumentException("A quantidade de faixas deve ser positiva.");
+        }
+        int potencia = Integer.highestOneBit(quantidadeFaixas * 2 - 1);
+        this.faixas = new MapaLongByte[potencia];
+        this.travas = new StampedLock[potencia];
+        this.mascara = potencia - 1;
+        for (int faixa = 0; faixa < potencia; faixa++) {
+            faixas[faixa] = new MapaLongByte(Math.max(1, capacidadeInicial / potencia));
+            travas[faixa] = new StampedLock();
+        }
+    }
+
+    /**
+     * @return o valor associado a {@code chave}, ou {@link MapaLongByte#AUSENTE}
+     */
+    public int get(long chave) {
+        int faixa = faixa(chave);
+        StampedLock trava = travas[faixa];
+        long carimbo = trava.tryOptimisticRead();
+        if (carimbo != 0) {
+            try {
+                int valor = faixas[faixa].get(chave);
+                if (trava.validate(carimbo)) {
+                    return valor;
+                }
+            } catch (ArrayIndexOutOfBoundsException e) {
+                // Leu a faixa no meio de um redimensionamento; a releitura com trava decide.
+            }
+        }
+        carimbo = trava.readLock();
+        try {
+            return faixas[faixa].get(chave);
+        } finally {
+            trava.unlockRead(carimbo);
+        }
+    }
+
+    public void put(long chave, byte valor) {
+        int faixa = faixa(chave);
+        long carimbo = travas[faixa].writeLock();
+        try {
+            faixas[faixa].put(chave, valor);
+        } finally {
+            travas[faixa].unlockWrite(carimbo);
+        }
+    }
+
+    /**
+     * Associa {@code valor} a {@code chave} só se ela ainda não tem valor.
+     *
+     * @return se o valor foi gravado
+     */
+    public boolean putSeAusente(long chave, byte valor) {
+        int faixa = faixa(chave);
+        long carimbo = travas[faixa].writeLock();
+        try {
+            if (faixas[faixa].get(chave) != MapaLongByte.AUSENTE) {
+                return false;
+            }
+            faixas[faixa].put(chave, valor);
+            return true;
+        } finally {
+            travas[faixa].unlockWrite(carimbo);
+        }
+    }
+
+    public boolean remover(long chave) {
+        int faixa = faixa(chave);
+        long carimbo = travas[faixa].writeLock();
+        try {
+            return faixas[faixa].remover(chave);
+        } finally {
+            travas[faixa].unlockWrite(carimbo);
+        }
+    }
+
+    public int removerAbaixoDe(long limite) {
+        int removidas = 0;
+        for (int faixa = 0; faixa < faixas.length; faixa++) {
+            long carimbo = travas[faixa].writeLock();
+            try {
+                removidas += faixas[faixa].removerAbaixoDe(limite);
+            } finally {
+                travas[faixa].unlockWrite(carimbo);
+            }
+        }
+        return removidas;
+    }
+
+    @Override
+    public void paraCada(MapaLongByte.ConsumidorEntrada consumidor) {
+        for (int faixa = 0; faixa < faixas.length; faixa++) {
+            long carimbo = travas[faixa].readLock();
+            try {
+                faixas[faixa].paraCada(consumidor);
+            } finally {
+                travas[faixa].unlockRead(carimbo);
+            }
+        }
+    }
+
+    public long[] chaves() {
+        long[][] porFaixa = new long[faixas.length][];
+        int total = 0;
+        for (int faixa = 0; faixa < faixas.length; faixa++) {
+            long carimbo = travas[faixa].readLock();
+            try {
+                porFaixa[faixa] = faixas[faixa].chaves();
+            } finally {
+                travas[faixa].unlockRead(carimbo);
+            }
+            total += porFaixa[faixa].length;
+        }
+        long[] chaves = new long[total];
+        int posicao = 0;
+        for (long[] daFaixa : porFaixa) {
+            System.arraycopy(daFaixa, 0, chaves, posicao, daFaixa.length);
+            posicao += daFaixa.length;
+        }
+        return chaves;
+    }
+
+    @Override
+    public int tamanho() {
+        int tamanho = 0;
+        for (int faixa = 0; faixa < faixas.length; faixa++) {
+            long carimbo = travas[faixa].readLock();
+            try {
+                tamanho += faixas[faixa].tamanho();
+            } finally {
+                travas[faixa].unlockRead(carimbo);
+            }
+        }
+        return tamanho;
+    }
+
+    public void limpar() {
+        for (int faixa = 0; faixa < faixas.length; faixa++) {
+            long carimbo = travas[faixa].writeLock();
+            try {
+                faixas[faixa].limpar();
+            } finally {
+                travas[faixa].unlockWrite(carimbo);
+            }
+        }
+    }
+
+    private int faixa(long chave) {
+        long misturado = chave * 0xC2B2AE3D27D4EB4FL;
+        return (int) (misturado >>> 40) & mascara;
+    }
+}
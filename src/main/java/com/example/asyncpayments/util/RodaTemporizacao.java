@@ -0,0 +1,159 @@
+package com.example.asyncpayments.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Roda de temporização hierárquica: agenda, cancela e dispara itens em O(1) por item, sem varrer os que
+ * ainda não venceram.
+ *
+ * <p>O tempo anda em ticks de {@code tickMs}. São {@value #NIVEIS} níveis de {@value #POSICOES} posições; a
+ * posição de um nível cobre {@value #POSICOES} vezes o tempo da posição do nível abaixo, então com ticks de
+ * 1 s a roda alcança mais de 30 anos. Um item fica no nível mais baixo que alcança o seu vencimento e desce
+ * de nível quando a posição dele no nível de cima chega; dispara no primeiro tick em que o vencimento já
+ * passou, nunca antes. Cada posição é uma lista duplamente encadeada, para que o cancelamento libere o item
+ * na hora. Os métodos são sincronizados.
+ */
+public class RodaTemporizacao<T> {
+
+    static final int NIVEIS = 5;
+    static final int POSICOES = 64;
+    private static final int BITS_POR_NIVEL = 6;
+
+    private final long tickMs;
+    private final Agendado<T>[][] niveis;
+    private final Map<T, Agendado<T>> agendados = new HashMap<>();
+    private final List<T> vencidos = new ArrayList<>();
+    private long tickAtual;
+
+    @SuppressWarnings("unchecked")
+    public RodaTemporizacao(long tickMs, long agoraMs) {
+        if (tickMs <= 0) {
+            throw new IllegalArgumentException("O tick da roda de temporização deve ser positivo.");
+        }
+        this.tickMs = tickMs;
+        this.tickAtual = Math.floorDiv(agoraMs, tickMs);
+        this.niveis = new Agendado[NIVEIS][POSICOES];
+        for (Agendado<T>[] posicoes : niveis) {
+            for (int posicao = 0; posicao < POSICOES; posicao++) {
+                posicoes[posicao] = Agendado.sentinela();
+            }
+        }
+    }
+
+    /**
+     * Agenda {@code item} para {@code venceEmMs}, substituindo um agendamento anterior do mesmo item. Um item
+     * já vencido sai no próximo {@link #avancar}.
+     */
+    public synchronized void agendar(T item, long venceEmMs) {
+        cancelar(item);
+        Agendado<T> agendado = new Agendado<>(item, Math.ceilDiv(venceEmMs, tickMs));
+        agendados.put(item, agendado);
+        posicionar(agendado);
+    }
+
+    public synchronized boolean cancelar(T item) {
+        Agendado<T> agendado = agendados.remove(item);
+        if (agendado == null) {
+            return false;
+        }
+        agendado.desligar();
+        return true;
+    }
+
+    /**
+     * Anda a roda até {@code agoraMs} e devolve os itens vencidos, na ordem de vencimento.
+     */
+    public synchronized List<T> avancar(long agoraMs) {
+        long alvo = Math.floorDiv(agoraMs, tickMs);
+        while (tickAtual < alvo) {
+            tickAtual++;
+            for (int nivel = NIVEIS - 1; nivel > 0; nivel--) {
+                if ((tickAtual & ((1L << (BITS_POR_NIVEL * nivel)) - 1)) == 0) {
+                    descer(niveis[nivel][posicao(tickAtual, nivel)]);
+                }
+            }
+            Agendado<T> sentinela = niveis[0][posicao(tickAtual, 0)];
+            while (sentinela.proximo != sentinela) {
+                vencer(sentinela.proximo);
+            }
+        }
+        List<T> disparados = new ArrayList<>(vencidos);
+        vencidos.clear();
+        return disparados;
+    }
+
+    public synchronized int tamanho() {
+        return agendados.size();
+    }
+
+    private void descer(Agendado<T> sentinela) {
+        Agendado<T> agendado = sentinela.proximo;
+        sentinela.proximo = sentinela;
+        sentinela.anterior = sentinela;
+        while (agendado != sentinela) {
+            Agendado<T> seguinte = agendado.proximo;
+            agendado.anterior = agendado;
+            agendado.proximo = agendado;
+            posicionar(agendado);
+            agendado = seguinte;
+        }
+    }
+
+    private void posicionar(Agendado<T> agendado) {
+        long distancia = agendado.tick - tickAtual;
+        if (distancia <= 0) {
+            vencer(agendado);
+            return;
+        }
+        int nivel = 0;
+        while (nivel < NIVEIS - 1 && distancia >= 1L << (BITS_POR_NIVEL * (nivel + 1))) {
+            nivel++;
+        }
+        // Além do alcance do último nível, o item espera na posição mais distante e é reposicionado quando ela chega.
+        long tick = Math.min(agendado.tick, tickAtual + (1L << (BITS_POR_NIVEL * NIVEIS)) - 1);
+        agendado.ligarNoFim(niveis[nivel][posicao(tick, nivel)]);
+    }
+
+    private void vencer(Agendado<T> agendado) {
+        agendado.desligar();
+        agendados.remove(agendado.item);
+        vencidos.add(agendado.item);
+    }
+
+    private static int posicao(long tick, int nivel) {
+        return (int) ((tick >>> (BITS_POR_NIVEL * nivel)) & (POSICOES - 1));
+    }
+
+    private static final class Agendado<T> {
+        private final T item;
+        private final long tick;
+        private Agendado<T> anterior = this;
+        private Agendado<T> proximo = this;
+
+        private Agendado(T item, long tick) {
+            this.item = item;
+            this.tick = tick;
+        }
+
+        static <T> Agendado<T> sentinela() {
+            return new Agendado<>(null, 0);
+        }
+
+        void ligarNoFim(Agendado<T> sentinela) {
+            anterior = sentinela.anterior;
+            proximo = sentinela;
+            sentinela.anterior.proximo = this;
+            sentinela.anterior = this;
+        }
+
+        void desligar() {
+            anterior.proximo = proximo;
+            proximo.anterior = anterior;
+            anterior = this;
+            proximo = this;
+        }
+    }
+}
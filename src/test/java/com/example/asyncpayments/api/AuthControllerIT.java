@@ -9,6 +9,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -39,9 +40,7 @@ class AuthControllerIT {
         String token = objectMapper.readTree(registerResponse).get("token").asText();
 
         AuthRequest login = new AuthRequest(email, "123456");
-        mockMvc.perform(post("/auth/login")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(login)))
+        mockMvc.perform(asyncDispatch(login(login)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.token").exists());
 
@@ -66,9 +65,7 @@ class AuthControllerIT {
         String token = objectMapper.readTree(registerResponse).get("token").asText();
 
         AuthRequest login = new AuthRequest(email, "123456");
-        mockMvc.perform(post("/auth/login")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(login)))
+        mockMvc.perform(asyncDispatch(login(login)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.token").exists());
 
@@ -109,9 +106,18 @@ class AuthControllerIT {
                 .andExpect(status().isOk());
 
         AuthRequest login = new AuthRequest(email, "senhaErrada");
-        mockMvc.perform(post("/auth/login")
+        mockMvc.perform(asyncDispatch(login(login)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    /**
+     * O login responde de forma assíncrona; o resultado sai no despacho seguinte.
+     */
+    private MvcResult login(AuthRequest login) throws Exception {
+        return mockMvc.perform(post("/auth/login")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(login)))
-                .andExpect(status().isUnauthorized());
+                .andExpect(request().asyncStarted())
+                .andReturn();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,132 @@
+package com.example.asyncpayments.config;
+
+import com.example.asyncpayments.exception.HashSenhaSobrecarregadoException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodificadorSenhaLimitadoTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CodificadorSenhaLimitado codificador;
+
+    @AfterEach
+    void tearDown() {
+        codificador.close();
+    }
+
+    @Test
+    void encodeEMatches_devemUsarOCustoConfigurado() {
+        codificador = new CodificadorSenhaLimitado(5, 2, 8, meterRegistry);
+
+        String hash = codificador.encode("senha");
+
+        assertEquals(5, CodificadorSenhaLimitado.custoDe(hash));
+        assertTrue(codificador.matches("senha", hash));
+        assertFalse(codificador.matches("outra", hash));
+        assertEquals(1, meterRegistry.get("senha.hash.tempo").tag("operacao", "codificar").timer().count());
+        assertEquals(2, meterRegistry.get("senha.hash.tempo").tag("operacao", "conferir").timer().count());
+    }
+
+    @Test
+    void upgradeEncoding_deveRegravarHashesComOutroCusto() {
+        codificador = new CodificadorSenhaLimitado(5, 1, 8, meterRegistry);
+        String hashCusto4 = new BCryptPasswordEncoder(4).encode("senha");
+        String hashCusto6 = new BCryptPasswordEncoder(6).encode("senha");
+
+        assertTrue(codificador.upgradeEncoding(hashCusto4));
+        assertTrue(codificador.upgradeEncoding(hashCusto6));
+        assertFalse(codificador.upgradeEncoding(codificador.encode("senha")));
+        assertFalse(codificador.upgradeEncoding("nao-bcrypt"));
+        assertTrue(codificador.matches("senha", hashCusto4));
+    }
+
+    @Test
+    void encode_filaCheia_deveRecusarNaHora() throws Exception {
+        codificador = new CodificadorSenhaLimitado(4, 1, 1, meterRegistry);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<String> emExecucao = CompletableFuture.supplyAsync(() -> codificador.encode(senhaBloqueante(liberar)));
+        aguardar("senha.hash.ativos", 1);
+        CompletableFuture<String> naFila = CompletableFuture.supplyAsync(() -> codificador.encode("senha"));
+        aguardar("senha.hash.fila", 1);
+
+        assertThrows(HashSenhaSobrecarregadoException.class, () -> codificador.encode("senha"));
+        assertEquals(1.0, meterRegistry.counter("senha.hash.recusados").count());
+
+        liberar.countDown();
+        assertNotNull(emExecucao.get(10, TimeUnit.SECONDS));
+        assertNotNull(naFila.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void executarAssincrono_deveCalcularHashesNaThreadDoPool() throws Exception {
+        codificador = new CodificadorSenhaLimitado(4, 1, 1, meterRegistry);
+        String hash = codificador.encode("senha");
+
+        CompletableFuture<String> resultado = codificador.executarAssincrono(
+                () -> Thread.currentThread().getName() + ":" + codificador.matches("senha", hash));
+
+        assertEquals("hash-senha-0:true", resultado.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void executarAssincrono_falhaNaTarefa_deveCompletarComAExcecao() {
+        codificador = new CodificadorSenhaLimitado(4, 1, 1, meterRegistry);
+        IllegalArgumentException falha = new IllegalArgumentException("credenciais");
+
+        CompletableFuture<Object> resultado = codificador.executarAssincrono(() -> {
+            throw falha;
+        });
+
+        java.util.concurrent.ExecutionException e = assertThrows(java.util.concurrent.ExecutionException.class,
+                () -> resultado.get(10, TimeUnit.SECONDS));
+        assertSame(falha, e.getCause());
+    }
+
+    private void aguardar(String gauge, double valor) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (meterRegistry.get(gauge).gauge().value() != valor) {
+            assertTrue(System.nanoTime() < limite, "Tempo esgotado aguardando " + gauge);
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Senha cuja leitura espera {@code liberar}, para manter a thread do pool ocupada.
+     */
+    private static CharSequence senhaBloqueante(CountDownLatch liberar) {
+        return new CharSequence() {
+            @Override
+            public int length() {
+                return toString().length();
+            }
+
+            @Override
+            public char charAt(int index) {
+                return toString().charAt(index);
+            }
+
+            @Override
+            public CharSequence subSequence(int start, int end) {
+                return toString().subSequence(start, end);
+            }
+
+            @Override
+            public String toString() {
+                try {
+                    liberar.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "senha";
+            }
+        };
+    }
+}
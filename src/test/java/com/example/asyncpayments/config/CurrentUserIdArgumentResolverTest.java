@@ -0,0 +1,61 @@
+package com.example.asyncpayments.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurrentUserIdArgumentResolverTest {
+
+    private final CurrentUserIdArgumentResolver resolver = new CurrentUserIdArgumentResolver();
+    private final ServletWebRequest requisicao = new ServletWebRequest(new MockHttpServletRequest());
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void supportsParameter_soParametrosLongAnotados() throws Exception {
+        assertTrue(resolver.supportsParameter(parametro(0)));
+        assertFalse(resolver.supportsParameter(parametro(1)));
+        assertFalse(resolver.supportsParameter(parametro(2)));
+    }
+
+    @Test
+    void resolveArgument_deveDevolverOIdDoPrincipal() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(new UsuarioAutenticado(7L, "a@b.com"), null, List.of()));
+
+        assertEquals(7L, resolver.resolveArgument(parametro(0), null, requisicao, null));
+    }
+
+    @Test
+    void resolveArgument_semUsuarioAutenticado_deveResponder401() throws Exception {
+        MethodParameter parametro = parametro(0);
+        ResponseStatusException semAutenticacao = assertThrows(ResponseStatusException.class,
+                () -> resolver.resolveArgument(parametro, null, requisicao, null));
+        assertEquals(401, semAutenticacao.getStatusCode().value());
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("a@b.com", null, List.of()));
+        assertThrows(ResponseStatusException.class, () -> resolver.resolveArgument(parametro, null, requisicao, null));
+    }
+
+    private static MethodParameter parametro(int indice) throws NoSuchMethodException {
+        Method metodo = CurrentUserIdArgumentResolverTest.class.getDeclaredMethod("endpoint", Long.class, Long.class, String.class);
+        return new MethodParameter(metodo, indice);
+    }
+
+    @SuppressWarnings("unused")
+    private void endpoint(@CurrentUserId Long idUsuario, Long outro, @CurrentUserId String email) {
+    }
+}
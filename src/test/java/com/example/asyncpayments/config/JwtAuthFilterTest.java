@@ -0,0 +1,107 @@
+package com.example.asyncpayments.config;
+
+import com.example.asyncpayments.service.JwtService;
+import com.example.asyncpayments.service.VersaoTokenService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class JwtAuthFilterTest {
+
+    @Mock
+    private JwtService jwtService;
+    @Mock
+    private VersaoTokenService versaoTokenService;
+
+    @InjectMocks
+    private JwtAuthFilter jwtAuthFilter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        SecurityContextHolder.clearContext();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_tokenValido_deveVerificarUmaVezEAutenticarPelasClaims() throws Exception {
+        JwtService.TokenVerificado token = token(0L);
+        when(jwtService.verificar("abc")).thenReturn(Optional.of(token));
+        when(versaoTokenService.vigente(1L, 0L)).thenReturn(true);
+
+        jwtAuthFilter.doFilter(requisicao("Bearer abc"), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(autenticacao);
+        assertEquals(new UsuarioAutenticado(1L, "a@b.com"), autenticacao.getPrincipal());
+        assertEquals("a@b.com", autenticacao.getName());
+        assertEquals(List.of("ROLE_USER"), autenticacao.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        assertSame(token, autenticacao.getDetails());
+        verify(jwtService, times(1)).verificar("abc");
+        verifyNoMoreInteractions(jwtService);
+    }
+
+    @Test
+    void doFilter_tokenInvalido_naoDeveAutenticar() throws Exception {
+        when(jwtService.verificar(any())).thenReturn(Optional.empty());
+        MockFilterChain cadeia = new MockFilterChain();
+
+        jwtAuthFilter.doFilter(requisicao("Bearer abc"), new MockHttpServletResponse(), cadeia);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNotNull(cadeia.getRequest());
+        verifyNoInteractions(versaoTokenService);
+    }
+
+    @Test
+    void doFilter_tokenRevogado_naoDeveAutenticar() throws Exception {
+        when(jwtService.verificar("abc")).thenReturn(Optional.of(token(0L)));
+        when(versaoTokenService.vigente(1L, 0L)).thenReturn(false);
+
+        jwtAuthFilter.doFilter(requisicao("Bearer abc"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void doFilter_tokenSemVersao_naoDeveAutenticar() throws Exception {
+        when(jwtService.verificar("abc")).thenReturn(Optional.of(token(null)));
+
+        jwtAuthFilter.doFilter(requisicao("Bearer abc"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(versaoTokenService);
+    }
+
+    private static JwtService.TokenVerificado token(Long versao) {
+        return new JwtService.TokenVerificado("a@b.com", 1L, List.of("ROLE_USER"), versao, Instant.now().plusSeconds(60));
+    }
+
+    private static MockHttpServletRequest requisicao(String autorizacao) {
+        MockHttpServletRequest requisicao = new MockHttpServletRequest("GET", "/transacoes");
+        requisicao.setServletPath("/transacoes");
+        requisicao.addHeader("Authorization", autorizacao);
+        return requisicao;
+    }
+}
@@ -1,13 +1,17 @@
 package com.example.asyncpayments.controller;
 
+import com.example.asyncpayments.config.CodificadorSenhaLimitado;
 import com.example.asyncpayments.dto.AuthRequest;
 import com.example.asyncpayments.dto.AuthResponse;
 import com.example.asyncpayments.dto.RegisterRequest;
 import com.example.asyncpayments.entity.User;
-import com.example.asyncpayments.repository.UserRepository;
+import com.example.asyncpayments.entity.UserRole;
+import com.example.asyncpayments.repository.UsuarioResumo;
 import com.example.asyncpayments.service.AuthService;
 import com.example.asyncpayments.service.JwtService;
 import com.example.asyncpayments.service.UserService;
+import com.example.asyncpayments.service.UsuarioCacheService;
+import com.example.asyncpayments.service.VersaoTokenService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
@@ -15,6 +19,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -25,7 +31,9 @@ class AuthControllerTest {
     @Mock private UserService userService;
     @Mock private AuthService authService;
     @Mock private AuthenticationManager authenticationManager;
-    @Mock private UserRepository userRepository;
+    @Mock private UsuarioCacheService usuarioCacheService;
+    @Mock private VersaoTokenService versaoTokenService;
+    @Mock private CodificadorSenhaLimitado codificadorSenha;
 
     @InjectMocks
     private AuthController authController;
@@ -33,6 +41,8 @@ class AuthControllerTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(codificadorSenha.executarAssincrono(any())).then(invocation ->
+                CompletableFuture.completedFuture(invocation.<Supplier<?>>getArgument(0).get()));
     }
 
     @Test
@@ -50,12 +60,11 @@ class AuthControllerTest {
     @Test
     void login_deveRetornarToken() {
         AuthRequest req = new AuthRequest("a@b.com", "123");
-        User user = new User();
-        user.setEmail("a@b.com");
-        when(userRepository.findByEmail("a@b.com")).thenReturn(Optional.of(user));
-        when(jwtService.generateToken(user, user.getId())).thenReturn("token");
+        UsuarioResumo resumo = new UsuarioResumo(1L, "a@b.com", "pwenc", UserRole.USER, 0L);
+        when(usuarioCacheService.buscarPorEmail("a@b.com")).thenReturn(Optional.of(resumo));
+        when(jwtService.generateToken(any(User.class), eq(1L))).thenReturn("token");
 
-        ResponseEntity<AuthResponse> response = authController.login(req);
+        ResponseEntity<AuthResponse> response = authController.login(req).join();
 
         assertEquals(200, response.getStatusCode().value());
         assertEquals("token", response.getBody().token());
@@ -64,11 +73,30 @@ class AuthControllerTest {
     @Test
     void login_usuarioNaoEncontrado_deveRetornar404() {
     AuthRequest req = new AuthRequest("notfound@email.com", "123");
-    when(userRepository.findByEmail("notfound@email.com")).thenReturn(Optional.empty());
+    when(usuarioCacheService.buscarPorEmail("notfound@email.com")).thenReturn(Optional.empty());
 
-    ResponseEntity<AuthResponse> response = authController.login(req);
+    ResponseEntity<AuthResponse> response = authController.login(req).join();
 
     assertEquals(404, response.getStatusCode().value());
     assertNull(response.getBody());
 }
-}
\ No newline at end of file
+
+    @Test
+    void login_deveAutenticarNoPoolDeHashDeSenha() {
+        AuthRequest req = new AuthRequest("a@b.com", "123");
+        doReturn(new CompletableFuture<>()).when(codificadorSenha).executarAssincrono(any());
+
+        CompletableFuture<ResponseEntity<AuthResponse>> resposta = authController.login(req);
+
+        assertFalse(resposta.isDone());
+        verifyNoInteractions(authenticationManager, usuarioCacheService, jwtService);
+    }
+
+    @Test
+    void logout_deveRevogarTokensDoUsuario() {
+        ResponseEntity<Void> response = authController.logout(7L);
+
+        assertEquals(204, response.getStatusCode().value());
+        verify(versaoTokenService).revogar(7L);
+    }
+}
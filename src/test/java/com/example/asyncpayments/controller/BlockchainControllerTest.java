@@ -0,0 +1,73 @@
+package com.example.asyncpayments.controller;
+
+import com.example.asyncpayments.dto.ProvaInclusao;
+import com.example.asyncpayments.dto.StatusAuditoriaLedger;
+import com.example.asyncpayments.service.AuditoriaLedgerService;
+import com.example.asyncpayments.service.ProvaLedgerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+
+class BlockchainControllerTest {
+
+    @Mock
+    private AuditoriaLedgerService auditoriaLedgerService;
+    @Mock
+    private ProvaLedgerService provaLedgerService;
+
+    @InjectMocks
+    private BlockchainController blockchainController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void iniciarAuditoria_deveRetornarAccepted() {
+        StatusAuditoriaLedger status = StatusAuditoriaLedger.nuncaExecutada();
+        when(auditoriaLedgerService.iniciar(true)).thenReturn(status);
+
+        ResponseEntity<?> response = blockchainController.iniciarAuditoria(true);
+
+        assertEquals(202, response.getStatusCode().value());
+        assertSame(status, response.getBody());
+    }
+
+    @Test
+    void iniciarAuditoria_emAndamento_deveRetornarConflict() {
+        when(auditoriaLedgerService.iniciar(false)).thenThrow(new IllegalStateException("Já existe uma auditoria do ledger em andamento."));
+
+        ResponseEntity<?> response = blockchainController.iniciarAuditoria(false);
+
+        assertEquals(409, response.getStatusCode().value());
+    }
+
+    @Test
+    void buscarProva_registroSelado_deveRetornarProva() {
+        ProvaInclusao prova = new ProvaInclusao("h", 1, 0, 1, "h", "0", "b", List.of());
+        when(provaLedgerService.gerarProva("h")).thenReturn(Optional.of(prova));
+
+        ResponseEntity<ProvaInclusao> response = blockchainController.buscarProva("h");
+
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(prova, response.getBody());
+    }
+
+    @Test
+    void buscarProva_registroNaoSelado_deveRetornarNotFound() {
+        when(provaLedgerService.gerarProva("h")).thenReturn(Optional.empty());
+
+        assertEquals(404, blockchainController.buscarProva("h").getStatusCode().value());
+    }
+}
@@ -1,37 +1,50 @@
 package com.example.asyncpayments.controller;
 
+import com.example.asyncpayments.config.UsuarioAutenticado;
+import com.example.asyncpayments.config.WebConfig;
+import com.example.asyncpayments.dto.ResultadoLote;
 import com.example.asyncpayments.dto.TransacaoRequest;
 import com.example.asyncpayments.dto.TransactionResponse;
+import com.example.asyncpayments.entity.Dinheiro;
 import com.example.asyncpayments.entity.GatewayPagamento;
 import com.example.asyncpayments.entity.MetodoConexao;
 import com.example.asyncpayments.entity.StatusTransacao;
 import com.example.asyncpayments.entity.TipoOperacao;
 import com.example.asyncpayments.entity.Transacao;
-import com.example.asyncpayments.entity.User;
 import com.example.asyncpayments.repository.TransacaoRepository;
 import com.example.asyncpayments.repository.UserRepository;
 import com.example.asyncpayments.service.FilaTransacaoService;
+import com.example.asyncpayments.service.JwtService;
+import com.example.asyncpayments.service.MovimentacaoSaldoService;
 import com.example.asyncpayments.service.TransacaoService;
+import com.example.asyncpayments.service.VersaoTokenService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(TransacaoController.class)
+@Import(WebConfig.class)
 class TransacaoControllerTest {
 
     @Autowired
@@ -48,10 +61,18 @@ class TransacaoControllerTest {
     private FilaTransacaoService filaTransacaoService;
     @MockBean
     private TransacaoRepository transacaoRepository;
+    @MockBean
+    private MovimentacaoSaldoService movimentacaoSaldoService;
+    @MockBean
+    private JwtService jwtService;
+    @MockBean
+    private VersaoTokenService versaoTokenService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(movimentacaoSaldoService.executarComRetentativa(any()))
+            .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
     }
 
     @Test
@@ -103,7 +124,7 @@ class TransacaoControllerTest {
         TransacaoRequest request = new TransacaoRequest();
         request.setIdUsuarioOrigem(1L);
         request.setIdUsuarioDestino(2L);
-        request.setValor(100.0);
+        request.setValor(Dinheiro.valueOf("100.00"));
         request.setTipoOperacao(TipoOperacao.SINCRONA);
         request.setMetodoConexao(MetodoConexao.INTERNET);
         request.setGatewayPagamento(GatewayPagamento.PAGARME);
@@ -156,7 +177,7 @@ class TransacaoControllerTest {
         mockMvc.perform(get("/transacoes")
                 .param("status", "SINCRONIZADA")
                 .param("idUsuarioOrigem", "1")
-                .header("Authorization", "Bearer token"))
+                .with(authentication(usuario("ROLE_USER"))))
             .andExpect(status().isOk());
     }
 
@@ -181,14 +202,14 @@ class TransacaoControllerTest {
         mockMvc.perform(post("/transacoes")
                 .contentType("application/json")
                 .content(payload)
-                .header("Authorization", "Bearer token"))
+                .with(authentication(usuario("ROLE_USER")))
+                .with(csrf()))
             .andExpect(status().isOk());
     }
 
     @Test
     void deveAdicionarFundos() throws Exception {
         Transacao transacao = new Transacao();
-        when(userRepository.findByEmail(any())).thenReturn(Optional.of(new User()));
         when(transacaoService.criarTransacao(any(), any(), any(), any(), any(), any(), any()))
             .thenReturn(transacao);
 
@@ -199,18 +220,83 @@ class TransacaoControllerTest {
         mockMvc.perform(post("/transacoes/adicionar-fundos")
                 .contentType("application/json")
                 .content(payload)
-                .header("Authorization", "Bearer token"))
+                .with(authentication(usuario("ROLE_USER")))
+                .with(csrf()))
             .andExpect(status().isOk());
     }
 
     @Test
     void deveRetornarStatusTransacao() throws Exception {
-        when(transacaoRepository.findById(1L)).thenReturn(Optional.of(new Transacao()));
         when(filaTransacaoService.consultarStatus(1L)).thenReturn(StatusTransacao.SINCRONIZADA);
 
-        mockMvc.perform(get("/transacoes/1/status"))
+        mockMvc.perform(get("/transacoes/1/status").with(authentication(usuario("ROLE_USER"))))
             .andExpect(status().isOk())
             .andExpect(content().string(org.hamcrest.Matchers.containsString("SINCRONIZADA")));
+        verify(transacaoRepository, never()).findById(1L);
+    }
+
+    @Test
+    void consultarStatus_transacaoInexistente_deveRetornar404() {
+        when(filaTransacaoService.consultarStatus(9L)).thenThrow(new IllegalArgumentException("Transação não encontrada."));
+
+        assertEquals(404, transacaoController.consultarStatus(9L).getStatusCode().value());
+    }
+
+    @Test
+    void atualizarStatusTransacao_statusFinal_deveRetornar409() {
+        doThrow(new IllegalStateException("Transação com status final não pode mudar de status."))
+            .when(transacaoService).atualizarStatusTransacao(1L, StatusTransacao.PENDENTE);
+
+        assertEquals(409, transacaoController.atualizarStatusTransacao(1L, StatusTransacao.PENDENTE).getStatusCode().value());
+    }
+
+    @Test
+    void listarExtrato_paginaForaDoAlcance_deveRetornar400ComMensagem() throws Exception {
+        when(transacaoService.listarExtrato(1L, Integer.MAX_VALUE, 50))
+            .thenThrow(new IllegalArgumentException("Página do extrato fora do alcance."));
+
+        mockMvc.perform(get("/transacoes/extrato")
+                .param("pagina", String.valueOf(Integer.MAX_VALUE))
+                .with(authentication(usuario("ROLE_USER"))))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("Página do extrato fora do alcance."));
+    }
+
+    @Test
+    void criarTransacoesEmLote_deveUsarOUsuarioAutenticadoComoOrigem() throws Exception {
+        when(transacaoService.criarTransacoesEmLote(eq(1L), anyList())).thenReturn(ResultadoLote.de(List.of()));
+
+        mockMvc.perform(post("/transacoes/lote")
+                .contentType("application/json")
+                .content("""
+                [{ "idUsuarioOrigem": 1, "idUsuarioDestino": 2, "valor": 10.0,
+                   "metodoConexao": "INTERNET", "gatewayPagamento": "STRIPE", "tipoOperacao": "SINCRONA" }]
+                """)
+                .with(authentication(usuario("ROLE_USER")))
+                .with(csrf()))
+            .andExpect(status().isOk());
+        verify(transacaoService).criarTransacoesEmLote(eq(1L), anyList());
+    }
+
+    @Test
+    void criarTransacoesEmLote_itemInvalido_deveRetornar400SemProcessarOLote() throws Exception {
+        mockMvc.perform(post("/transacoes/lote")
+                .contentType("application/json")
+                .content("""
+                [{ "idUsuarioOrigem": 1, "idUsuarioDestino": 2, "valor": 10.0,
+                   "metodoConexao": "INTERNET", "gatewayPagamento": "STRIPE", "tipoOperacao": "SINCRONA" },
+                 { "idUsuarioOrigem": 1, "idUsuarioDestino": 2, "valor": -1.0,
+                   "metodoConexao": "INTERNET", "gatewayPagamento": "STRIPE", "tipoOperacao": "SINCRONA" }]
+                """)
+                .with(authentication(usuario("ROLE_USER")))
+                .with(csrf()))
+            .andExpect(status().isBadRequest());
+        verify(transacaoService, never()).criarTransacoesEmLote(any(), anyList());
+    }
+
+    private static UsernamePasswordAuthenticationToken usuario(String papel) {
+        return new UsernamePasswordAuthenticationToken(new UsuarioAutenticado(1L, "a@b.com"), null,
+                List.of(new SimpleGrantedAuthority(papel)));
     }
 
     // Adicione outros testes para recebidas, enviadas, atualizar status, deletar, etc.
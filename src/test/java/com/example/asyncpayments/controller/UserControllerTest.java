@@ -4,13 +4,14 @@ import com.example.asyncpayments.dto.ApiResponse;
 import com.example.asyncpayments.dto.UserDTO;
 import com.example.asyncpayments.entity.User;
 import com.example.asyncpayments.repository.UserRepository;
+import com.example.asyncpayments.service.UsuarioCacheService;
+import com.example.asyncpayments.service.VersaoTokenService;
 
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 
 import java.util.Optional;
 
@@ -22,11 +23,14 @@ class UserControllerTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
-    private UserController userController;
+    @Mock
+    private VersaoTokenService versaoTokenService;
 
     @Mock
-    private Authentication authentication;
+    private UsuarioCacheService usuarioCacheService;
+
+    @InjectMocks
+    private UserController userController;
 
     @BeforeEach
     void setUp() {
@@ -37,10 +41,9 @@ class UserControllerTest {
     void getMe_deveRetornarUsuarioAutenticado() {
         User user = new User();
         user.setEmail("me@email.com");
-        when(authentication.getName()).thenReturn("me@email.com");
-        when(userRepository.findByEmail("me@email.com")).thenReturn(Optional.of(user));
+        when(userRepository.findById(3L)).thenReturn(Optional.of(user));
 
-        ResponseEntity<UserDTO> response = userController.getMe(authentication);
+        ResponseEntity<UserDTO> response = userController.getMe(3L);
 
         assertEquals(200, response.getStatusCode().value());
         assertEquals("me@email.com", response.getBody().getEmail());
@@ -49,10 +52,9 @@ class UserControllerTest {
 
     @Test
 void getMe_usuarioNaoEncontrado_deveRetornar404() {
-    when(authentication.getName()).thenReturn("notfound@email.com");
-    when(userRepository.findByEmail("notfound@email.com")).thenReturn(Optional.empty());
+    when(userRepository.findById(3L)).thenReturn(Optional.empty());
 
-    ResponseEntity<UserDTO> response = userController.getMe(authentication);
+    ResponseEntity<UserDTO> response = userController.getMe(3L);
 
     assertEquals(404, response.getStatusCode().value());
     assertNull(response.getBody());
@@ -74,4 +76,40 @@ void buscarUsuarioPorId_usuarioNaoEncontrado_deveRetornar404() {
     ResponseEntity<UserDTO> response = userController.buscarUsuarioPorId(1L);
     assertEquals(404, response.getStatusCode().value());
 }
-}
\ No newline at end of file
+
+@Test
+void atualizarMe_emailAlterado_deveRevogarTokens() {
+    User user = new User();
+    user.setId(3L);
+    user.setEmail("antigo@email.com");
+    UserDTO dto = new UserDTO();
+    dto.setEmail("novo@email.com");
+    dto.setCpf("123");
+    when(userRepository.findById(3L)).thenReturn(Optional.of(user));
+    when(userRepository.findByEmail("novo@email.com")).thenReturn(Optional.empty());
+    when(userRepository.findByCpf("123")).thenReturn(Optional.empty());
+
+    ResponseEntity<ApiResponse<UserDTO>> response = userController.atualizarMe(3L, dto);
+
+    assertEquals(200, response.getStatusCode().value());
+    verify(usuarioCacheService).invalidar(3L);
+    verify(versaoTokenService).revogar(3L);
+}
+
+@Test
+void atualizarMe_mesmoEmail_naoDeveRevogarTokens() {
+    User user = new User();
+    user.setId(3L);
+    user.setEmail("me@email.com");
+    UserDTO dto = new UserDTO();
+    dto.setEmail("me@email.com");
+    dto.setCpf("123");
+    when(userRepository.findById(3L)).thenReturn(Optional.of(user));
+    when(userRepository.findByEmail("me@email.com")).thenReturn(Optional.of(user));
+    when(userRepository.findByCpf("123")).thenReturn(Optional.empty());
+
+    userController.atualizarMe(3L, dto);
+
+    verifyNoInteractions(versaoTokenService);
+}
+}
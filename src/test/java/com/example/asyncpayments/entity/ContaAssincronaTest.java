@@ -11,9 +11,9 @@ class ContaAssincronaTest {
     @Test
     void testBuilderAndGetters() {
         User user = User.builder().email("a@b.com").build();
-        ContaAssincrona conta = new ContaAssincrona(50.0, user);
+        ContaAssincrona conta = new ContaAssincrona(Dinheiro.valueOf("50.00"), user);
 
-        assertEquals(50.0, conta.getSaldo());
+        assertEquals(Dinheiro.valueOf("50.00"), conta.getSaldo());
         assertEquals(user, conta.getUser());
         assertEquals(TipoOperacao.ASSINCRONA, conta.getTipoOperacao());
     }
@@ -21,14 +21,14 @@ class ContaAssincronaTest {
     @Test
     void testSetters() {
         ContaAssincrona conta = new ContaAssincrona();
-        conta.setSaldo(200.0);
+        conta.setSaldo(Dinheiro.valueOf("200.00"));
         User user = new User();
         conta.setUser(user);
         conta.setBloqueada(true);
         OffsetDateTime now = OffsetDateTime.now();
         conta.setUltimaSincronizacao(now);
 
-        assertEquals(200.0, conta.getSaldo());
+        assertEquals(Dinheiro.valueOf("200.00"), conta.getSaldo());
         assertEquals(user, conta.getUser());
         assertTrue(conta.isBloqueada());
         assertEquals(now, conta.getUltimaSincronizacao());
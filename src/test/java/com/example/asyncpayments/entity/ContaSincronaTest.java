@@ -8,9 +8,9 @@ class ContaSincronaTest {
     @Test
     void testBuilderAndGetters() {
         User user = User.builder().email("a@b.com").build();
-        ContaSincrona conta = new ContaSincrona(100.0, user);
+        ContaSincrona conta = new ContaSincrona(Dinheiro.valueOf("100.00"), user);
 
-        assertEquals(100.0, conta.getSaldo());
+        assertEquals(Dinheiro.valueOf("100.00"), conta.getSaldo());
         assertEquals(user, conta.getUser());
         assertEquals(TipoOperacao.SINCRONA, conta.getTipoOperacao());
     }
@@ -18,27 +18,27 @@ class ContaSincronaTest {
     @Test
     void testSetters() {
         ContaSincrona conta = new ContaSincrona();
-        conta.setSaldo(200.0);
+        conta.setSaldo(Dinheiro.valueOf("200.00"));
         User user = new User();
         conta.setUser(user);
 
-        assertEquals(200.0, conta.getSaldo());
+        assertEquals(Dinheiro.valueOf("200.00"), conta.getSaldo());
         assertEquals(user, conta.getUser());
     }
 
     @Test
     void testTransferenciaEntreContas() {
         ContaSincrona contaOrigem = new ContaSincrona();
-        contaOrigem.setSaldo(1000.0);
+        contaOrigem.setSaldo(Dinheiro.valueOf("1000.00"));
 
         ContaSincrona contaDestino = new ContaSincrona();
-        contaDestino.setSaldo(500.0);
+        contaDestino.setSaldo(Dinheiro.valueOf("500.00"));
 
 
-        contaOrigem.setSaldo(contaOrigem.getSaldo() - 200.0);
-        contaDestino.setSaldo(contaDestino.getSaldo() + 200.0);
+        contaOrigem.setSaldo(contaOrigem.getSaldo().menos(Dinheiro.valueOf("200.00")));
+        contaDestino.setSaldo(contaDestino.getSaldo().mais(Dinheiro.valueOf("200.00")));
 
-        assertEquals(800.0, contaOrigem.getSaldo());
-        assertEquals(700.0, contaDestino.getSaldo());
+        assertEquals(Dinheiro.valueOf("800.00"), contaOrigem.getSaldo());
+        assertEquals(Dinheiro.valueOf("700.00"), contaDestino.getSaldo());
     }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.example.asyncpayments.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DinheiroTest {
+
+    @Test
+    void testSomaExata() {
+        Dinheiro total = Dinheiro.ZERO;
+        for (int i = 0; i < 10; i++) {
+            total = total.mais(Dinheiro.valueOf("0.10"));
+        }
+
+        assertEquals(Dinheiro.valueOf("1.00"), total);
+        assertEquals(100, total.centavos());
+    }
+
+    @Test
+    void testConversaoDeReais() {
+        assertEquals(1050, Dinheiro.de(new BigDecimal("10.5")).centavos());
+        assertEquals(new BigDecimal("10.50"), Dinheiro.deCentavos(1050).emReais());
+        assertEquals("10.50", Dinheiro.deCentavos(1050).toString());
+    }
+
+    @Test
+    void testRejeitaMaisDeDuasCasas() {
+        assertThrows(IllegalArgumentException.class, () -> Dinheiro.valueOf("10.555"));
+        assertThrows(IllegalArgumentException.class, () -> Dinheiro.valueOf("abc"));
+    }
+
+    @Test
+    void testComparacoes() {
+        Dinheiro dez = Dinheiro.valueOf("10");
+        Dinheiro vinte = Dinheiro.valueOf("20");
+
+        assertTrue(vinte.maiorQue(dez));
+        assertTrue(dez.menorQue(vinte));
+        assertEquals(dez, vinte.menos(dez));
+        assertFalse(Dinheiro.ZERO.positivo());
+        assertFalse(dez.negado().positivo());
+    }
+}
@@ -14,7 +14,7 @@ class TransacaoTest {
         t.setId(1L);
         t.setIdUsuarioOrigem(10L);
         t.setIdUsuarioDestino(20L);
-        t.setValor(100.0);
+        t.setValor(Dinheiro.valueOf("100.00"));
         t.setTipoOperacao(TipoOperacao.SINCRONA);
         t.setMetodoConexao(MetodoConexao.INTERNET);
         t.setGatewayPagamento(GatewayPagamento.PAGARME);
@@ -27,7 +27,7 @@ class TransacaoTest {
         assertEquals(1L, t.getId());
         assertEquals(10L, t.getIdUsuarioOrigem());
         assertEquals(20L, t.getIdUsuarioDestino());
-        assertEquals(100.0, t.getValor());
+        assertEquals(Dinheiro.valueOf("100.00"), t.getValor());
         assertEquals(TipoOperacao.SINCRONA, t.getTipoOperacao());
         assertEquals(MetodoConexao.INTERNET, t.getMetodoConexao());
         assertEquals(GatewayPagamento.PAGARME, t.getGatewayPagamento());
@@ -40,14 +40,14 @@ class TransacaoTest {
     void testAllArgsConstructor() {
         OffsetDateTime now = OffsetDateTime.now();
         Transacao t = new Transacao(
-                2L, 11L, 21L, 200.0,
+                2L, 11L, 21L, Dinheiro.valueOf("200.00"),
                 TipoOperacao.ASSINCRONA, MetodoConexao.SMS, GatewayPagamento.STRIPE,
                 StatusTransacao.PENDENTE, now, now, "Transação de teste"
         );
         assertEquals(2L, t.getId());
         assertEquals(11L, t.getIdUsuarioOrigem());
         assertEquals(21L, t.getIdUsuarioDestino());
-        assertEquals(200.0, t.getValor());
+        assertEquals(Dinheiro.valueOf("200.00"), t.getValor());
         assertEquals(TipoOperacao.ASSINCRONA, t.getTipoOperacao());
         assertEquals(MetodoConexao.SMS, t.getMetodoConexao());
         assertEquals(GatewayPagamento.STRIPE, t.getGatewayPagamento());
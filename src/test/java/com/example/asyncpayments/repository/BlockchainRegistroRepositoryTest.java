@@ -0,0 +1,107 @@
+package com.example.asyncpayments.repository;
+
+import com.example.asyncpayments.entity.BlockchainRegistro;
+import com.example.asyncpayments.entity.Dinheiro;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@RepositorioTest
+class BlockchainRegistroRepositoryTest {
+
+    @Autowired
+    private BlockchainRegistroRepository blockchainRegistroRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private TransactionTemplate transacao;
+
+    @BeforeEach
+    void setUp() {
+        transacao = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        blockchainRegistroRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void findPendentesDeSelagem_deveTrazerSoOsPendentesNaOrdemDeGravacao() {
+        BlockchainRegistro primeiro = salvar("a", true);
+        salvar("b", null);
+        BlockchainRegistro segundo = salvar("c", true);
+        salvar("d", true);
+
+        List<BlockchainRegistro> pendentes = transacao.execute(status ->
+                blockchainRegistroRepository.findPendentesDeSelagem(PageRequest.of(0, 2)));
+
+        assertEquals(List.of(primeiro.getId(), segundo.getId()), pendentes.stream().map(BlockchainRegistro::getId).toList());
+        assertEquals(3, blockchainRegistroRepository.countByPendenteSelagemTrue());
+    }
+
+    @Test
+    void findPendentesDeSelagem_registrosBloqueadosPorOutraInstancia_devemSerPulados() throws Exception {
+        BlockchainRegistro primeiro = salvar("a", true);
+        BlockchainRegistro segundo = salvar("b", true);
+        BlockchainRegistro terceiro = salvar("c", true);
+        CountDownLatch bloqueados = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        // Bloqueia por id: com limite, o H2 trava todas as linhas do filtro, não só as da página.
+        CompletableFuture<Void> outraInstancia = CompletableFuture.runAsync(() -> transacao.executeWithoutResult(status -> {
+            entityManager.find(BlockchainRegistro.class, primeiro.getId(), LockModeType.PESSIMISTIC_WRITE);
+            entityManager.find(BlockchainRegistro.class, segundo.getId(), LockModeType.PESSIMISTIC_WRITE);
+            bloqueados.countDown();
+            aguardar(liberar);
+        }));
+        try {
+            assertTrue(bloqueados.await(10, TimeUnit.SECONDS));
+
+            List<BlockchainRegistro> restantes = transacao.execute(status ->
+                    blockchainRegistroRepository.findPendentesDeSelagem(PageRequest.of(0, 10)));
+
+            assertEquals(List.of(terceiro.getId()), restantes.stream().map(BlockchainRegistro::getId).toList());
+        } finally {
+            liberar.countDown();
+        }
+        outraInstancia.get(10, TimeUnit.SECONDS);
+    }
+
+    private BlockchainRegistro salvar(String hash, Boolean pendenteSelagem) {
+        return blockchainRegistroRepository.save(BlockchainRegistro.builder()
+                .idTransacao(1L)
+                .idUsuarioOrigem(1L)
+                .idUsuarioDestino(2L)
+                .valor(Dinheiro.valueOf("1.00"))
+                .dataRegistro(OffsetDateTime.now())
+                .hashTransacao(hash)
+                .pendenteSelagem(pendenteSelagem)
+                .build());
+    }
+
+    private static void aguardar(CountDownLatch liberar) {
+        try {
+            liberar.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.asyncpayments.repository;
+
+import com.example.asyncpayments.entity.ContaSincrona;
+import com.example.asyncpayments.entity.Dinheiro;
+import com.example.asyncpayments.entity.User;
+import com.example.asyncpayments.entity.UserRole;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@RepositorioTest
+class ContaSincronaRepositoryTest {
+
+    @Autowired
+    private ContaSincronaRepository contaSincronaRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transacao;
+
+    @BeforeEach
+    void setUp() {
+        transacao = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        contaSincronaRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void debitarSeSuficiente_deveSubtrairEmCentavosExatos() {
+        User user = salvarConta("100.10");
+
+        Integer debitadas = transacao.execute(status -> contaSincronaRepository.debitarSeSuficiente(user.getId(), Dinheiro.valueOf("0.30")));
+
+        assertEquals(1, debitadas);
+        assertEquals(Dinheiro.valueOf("99.80"), contaSincronaRepository.findByUserId(user.getId()).getSaldo());
+    }
+
+    @Test
+    void debitarSeSuficiente_saldoInsuficiente_naoDeveAlterarNada() {
+        User user = salvarConta("10.00");
+
+        Integer debitadas = transacao.execute(status -> contaSincronaRepository.debitarSeSuficiente(user.getId(), Dinheiro.valueOf("10.01")));
+
+        assertEquals(0, debitadas);
+        assertEquals(Dinheiro.valueOf("10.00"), contaSincronaRepository.findByUserId(user.getId()).getSaldo());
+    }
+
+    @Test
+    void debitarSeSuficiente_saldoExato_deveZerarAConta() {
+        User user = salvarConta("10.01");
+
+        Integer debitadas = transacao.execute(status -> contaSincronaRepository.debitarSeSuficiente(user.getId(), Dinheiro.valueOf("10.01")));
+
+        assertEquals(1, debitadas);
+        assertEquals(Dinheiro.valueOf("0.00"), contaSincronaRepository.findByUserId(user.getId()).getSaldo());
+    }
+
+    @Test
+    void creditar_deveSomarEmCentavosExatos() {
+        User user = salvarConta("0.10");
+
+        Integer creditadas = transacao.execute(status -> contaSincronaRepository.creditar(user.getId(), Dinheiro.valueOf("0.20")));
+
+        assertEquals(1, creditadas);
+        assertEquals(Dinheiro.valueOf("0.30"), contaSincronaRepository.findByUserId(user.getId()).getSaldo());
+    }
+
+    @Test
+    void creditar_contaInexistente_deveDevolverZero() {
+        Integer creditadas = transacao.execute(status -> contaSincronaRepository.creditar(-1L, Dinheiro.valueOf("1.00")));
+
+        assertEquals(0, creditadas);
+    }
+
+    @Test
+    void findSaldosParaAtualizacao_deveDevolverOsSaldosEmOrdemDeUsuario() {
+        User segundo = salvarConta("2.50");
+        User primeiro = salvarConta("1.25");
+        salvarConta("9.99");
+        long menor = Math.min(primeiro.getId(), segundo.getId());
+        long maior = Math.max(primeiro.getId(), segundo.getId());
+
+        List<SaldoConta> saldos = transacao.execute(status -> contaSincronaRepository.findSaldosParaAtualizacao(List.of(maior, menor)));
+
+        assertEquals(List.of(menor, maior), saldos.stream().map(SaldoConta::userId).toList());
+        assertEquals(contaSincronaRepository.findByUserId(menor).getSaldo(), saldos.get(0).saldo());
+    }
+
+    @Test
+    void findSaldosParaAtualizacao_deveBloquearAsContasAteOFimDaTransacao() throws Exception {
+        User user = salvarConta("5.00");
+        CountDownLatch bloqueadas = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        CompletableFuture<Void> dona = CompletableFuture.runAsync(() -> transacao.executeWithoutResult(status -> {
+            contaSincronaRepository.findSaldosParaAtualizacao(List.of(user.getId()));
+            bloqueadas.countDown();
+            aguardar(liberar);
+        }));
+        CompletableFuture<Integer> credito;
+        try {
+            assertTrue(bloqueadas.await(10, TimeUnit.SECONDS));
+            credito = CompletableFuture.supplyAsync(() -> transacao.execute(status ->
+                    contaSincronaRepository.creditar(user.getId(), Dinheiro.valueOf("1.00"))));
+
+            assertThrows(TimeoutException.class, () -> credito.get(300, TimeUnit.MILLISECONDS));
+        } finally {
+            liberar.countDown();
+        }
+        dona.get(10, TimeUnit.SECONDS);
+        assertEquals(1, credito.get(10, TimeUnit.SECONDS));
+        assertEquals(Dinheiro.valueOf("6.00"), contaSincronaRepository.findByUserId(user.getId()).getSaldo());
+    }
+
+    private User salvarConta(String saldo) {
+        User user = userRepository.save(User.builder()
+                .email(System.nanoTime() + "@teste.com")
+                .password("senha")
+                .role(UserRole.USER)
+                .nome("Nome")
+                .sobrenome("Sobrenome")
+                .build());
+        contaSincronaRepository.save(new ContaSincrona(Dinheiro.valueOf(saldo), user));
+        return user;
+    }
+
+    private static void aguardar(CountDownLatch liberar) {
+        try {
+            liberar.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
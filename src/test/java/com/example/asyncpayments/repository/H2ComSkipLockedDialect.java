@@ -0,0 +1,26 @@
+package com.example.asyncpayments.repository;
+
+import org.hibernate.dialect.H2Dialect;
+
+/**
+ * {@link H2Dialect} que gera {@code for update skip locked}. O H2 aceita a cláusula desde a 2.2, mas o dialeto
+ * do Hibernate ainda a troca por um {@code for update} simples, e os testes de repositório precisam do mesmo
+ * comportamento de concorrência do PostgreSQL.
+ */
+public class H2ComSkipLockedDialect extends H2Dialect {
+
+    @Override
+    public boolean supportsSkipLocked() {
+        return true;
+    }
+
+    @Override
+    public String getForUpdateSkipLockedString() {
+        return " for update skip locked";
+    }
+
+    @Override
+    public String getForUpdateSkipLockedString(String aliases) {
+        return " for update of " + aliases + " skip locked";
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.asyncpayments.repository;
+
+import com.example.asyncpayments.config.JpaConfig;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Teste de repositório contra um banco de verdade. Por padrão é um H2 em memória no modo PostgreSQL, com o
+ * {@link H2ComSkipLockedDialect}; para rodar contra o PostgreSQL, informe
+ * {@code -Dasyncpayments.teste.banco.url=jdbc:postgresql://...} e
+ * {@code -Dasyncpayments.teste.banco.dialeto=org.hibernate.dialect.PostgreSQLDialect} e, se preciso,
+ * {@code asyncpayments.teste.banco.usuario} e {@code asyncpayments.teste.banco.senha}.
+ *
+ * <p>Os testes não rodam dentro de uma transação do teste: cada um abre as suas, para que bloqueios e
+ * commits se comportem como em produção, e limpa as tabelas que usou.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@DataJpaTest(properties = {
+        "spring.datasource.url=${asyncpayments.teste.banco.url:jdbc:h2:mem:repositorios;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;LOCK_TIMEOUT=10000}",
+        "spring.datasource.username=${asyncpayments.teste.banco.usuario:sa}",
+        "spring.datasource.password=${asyncpayments.teste.banco.senha:}",
+        "spring.jpa.database-platform=${asyncpayments.teste.banco.dialeto:com.example.asyncpayments.repository.H2ComSkipLockedDialect}",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(JpaConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@interface RepositorioTest {
+}
@@ -0,0 +1,229 @@
+package com.example.asyncpayments.repository;
+
+import com.example.asyncpayments.dto.CursorTransacao;
+import com.example.asyncpayments.entity.Dinheiro;
+import com.example.asyncpayments.entity.GatewayPagamento;
+import com.example.asyncpayments.entity.MetodoConexao;
+import com.example.asyncpayments.entity.StatusTransacao;
+import com.example.asyncpayments.entity.TipoOperacao;
+import com.example.asyncpayments.entity.Transacao;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@RepositorioTest
+class TransacaoRepositoryTest {
+
+    private static final OffsetDateTime AGORA = OffsetDateTime.of(2025, 6, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private TransactionTemplate transacao;
+
+    @BeforeEach
+    void setUp() {
+        transacao = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transacaoRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void findExtrato_deveIntercalarEnviadasERecebidasSemRepetirTransferenciaParaSiMesmo() {
+        Transacao enviada = salvar(1L, 2L, "10.00", StatusTransacao.SINCRONIZADA, AGORA.minusMinutes(5));
+        Transacao recebida = salvar(3L, 1L, "20.00", StatusTransacao.SINCRONIZADA, AGORA.minusMinutes(4));
+        Transacao paraSi = salvar(1L, 1L, "30.00", StatusTransacao.SINCRONIZADA, AGORA.minusMinutes(3));
+        salvar(2L, 3L, "40.00", StatusTransacao.SINCRONIZADA, AGORA.minusMinutes(2));
+        Transacao maisRecente = salvar(1L, 2L, "50.00", StatusTransacao.PENDENTE, AGORA.minusMinutes(1));
+
+        List<Transacao> extrato = transacaoRepository.findExtrato(1L, 10, 10, 0);
+
+        assertEquals(List.of(maisRecente.getId(), paraSi.getId(), recebida.getId(), enviada.getId()), ids(extrato));
+        assertEquals(Dinheiro.valueOf("50.00"), extrato.get(0).getValor());
+    }
+
+    @Test
+    void findExtrato_segundaPagina_deveUsarSoOsCandidatosDeCadaRamo() {
+        Transacao primeira = salvar(1L, 2L, "1.00", StatusTransacao.SINCRONIZADA, AGORA.minusMinutes(4));
+        Transacao segunda = salvar(2L, 1L, "2.00", StatusTransacao.SINCRONIZADA, AGORA.minusMinutes(3));
+        salvar(1L, 2L, "3.00", StatusTransacao.SINCRONIZADA, AGORA.minusMinutes(2));
+        salvar(2L, 1L, "4.00", StatusTransacao.SINCRONIZADA, AGORA.minusMinutes(1));
+
+        List<Transacao> pagina = transacaoRepository.findExtrato(1L, 4, 2, 2);
+
+        assertEquals(List.of(segunda.getId(), primeira.getId()), ids(pagina));
+    }
+
+    @Test
+    void findVencidasParaAtualizacao_deveTrazerSoAsVencidasDoStatusMaisAntigasPrimeiro() {
+        Transacao maisAntiga = salvar(7L, 2L, "12.34", StatusTransacao.PENDENTE, AGORA.minusHours(80));
+        Transacao vencida = salvar(8L, 2L, "0.01", StatusTransacao.PENDENTE, AGORA.minusHours(73));
+        salvar(7L, 2L, "1.00", StatusTransacao.PENDENTE, AGORA.minusHours(1));
+        salvar(7L, 2L, "1.00", StatusTransacao.SINCRONIZADA, AGORA.minusHours(90));
+
+        List<TransacaoVencida> vencidas = transacao.execute(status -> transacaoRepository.findVencidasParaAtualizacao(
+                StatusTransacao.PENDENTE, AGORA.minusHours(72), PageRequest.of(0, 10)));
+
+        assertEquals(List.of(
+                new TransacaoVencida(maisAntiga.getId(), 7L, Dinheiro.valueOf("12.34")),
+                new TransacaoVencida(vencida.getId(), 8L, Dinheiro.valueOf("0.01"))), vencidas);
+    }
+
+    @Test
+    void findVencidasParaAtualizacao_linhasBloqueadasPorOutraTransacao_devemSerPuladas() throws Exception {
+        Transacao primeira = salvar(1L, 2L, "1.00", StatusTransacao.PENDENTE, AGORA.minusHours(75));
+        Transacao segunda = salvar(1L, 2L, "2.00", StatusTransacao.PENDENTE, AGORA.minusHours(74));
+        Transacao terceira = salvar(1L, 2L, "3.00", StatusTransacao.PENDENTE, AGORA.minusHours(73));
+        CountDownLatch bloqueadas = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        // Bloqueia por id: com limite e ordenação sem índice, o H2 trava todas as linhas do filtro, não só as da página.
+        CompletableFuture<List<TransacaoVencida>> outraInstancia = CompletableFuture.supplyAsync(() -> transacao.execute(status -> {
+            List<TransacaoVencida> lote = transacaoRepository.findVencidasPorIdParaAtualizacao(
+                    List.of(primeira.getId(), segunda.getId()), StatusTransacao.PENDENTE, AGORA.minusHours(72));
+            bloqueadas.countDown();
+            aguardar(liberar);
+            return lote;
+        }));
+        try {
+            assertTrue(bloqueadas.await(10, TimeUnit.SECONDS));
+
+            List<TransacaoVencida> restantes = transacao.execute(status -> transacaoRepository.findVencidasParaAtualizacao(
+                    StatusTransacao.PENDENTE, AGORA.minusHours(72), PageRequest.of(0, 10)));
+
+            assertEquals(List.of(terceira.getId()), restantes.stream().map(TransacaoVencida::id).toList());
+        } finally {
+            liberar.countDown();
+        }
+        assertEquals(2, outraInstancia.get(10, TimeUnit.SECONDS).size());
+    }
+
+    @Test
+    void findVencidasPorIdParaAtualizacao_deveIgnorarAsQueJaSairamDoStatusOuNaoVenceram() {
+        Transacao vencida = salvar(1L, 2L, "5.00", StatusTransacao.PENDENTE, AGORA.minusHours(80));
+        Transacao sincronizada = salvar(1L, 2L, "5.00", StatusTransacao.SINCRONIZADA, AGORA.minusHours(80));
+        Transacao recente = salvar(1L, 2L, "5.00", StatusTransacao.PENDENTE, AGORA.minusHours(1));
+
+        List<TransacaoVencida> vencidas = transacao.execute(status -> transacaoRepository.findVencidasPorIdParaAtualizacao(
+                List.of(vencida.getId(), sincronizada.getId(), recente.getId()), StatusTransacao.PENDENTE, AGORA.minusHours(72)));
+
+        assertEquals(List.of(new TransacaoVencida(vencida.getId(), 1L, Dinheiro.valueOf("5.00"))), vencidas);
+    }
+
+    @Test
+    void atualizarStatusSeAinda_deveMudarSoAsQueAindaEstaoNoStatus() {
+        Transacao pendente = salvar(1L, 2L, "1.00", StatusTransacao.PENDENTE, AGORA);
+        Transacao desfeita = salvar(1L, 2L, "1.00", StatusTransacao.ROLLBACK, AGORA);
+
+        Integer atualizadas = transacao.execute(status -> transacaoRepository.atualizarStatusSeAinda(
+                List.of(pendente.getId(), desfeita.getId()), StatusTransacao.PENDENTE, StatusTransacao.SINCRONIZADA, AGORA));
+
+        assertEquals(1, atualizadas);
+        assertEquals(StatusTransacao.SINCRONIZADA, transacaoRepository.findStatusById(pendente.getId()).orElseThrow());
+        assertEquals(StatusTransacao.ROLLBACK, transacaoRepository.findStatusById(desfeita.getId()).orElseThrow());
+    }
+
+    @Test
+    void findPendentesPorStatus_deveOrdenarPorCriacaoEId() {
+        Transacao segunda = salvar(1L, 2L, "1.00", StatusTransacao.PENDENTE, AGORA.minusMinutes(1));
+        Transacao primeira = salvar(3L, 2L, "1.00", StatusTransacao.PENDENTE, AGORA.minusMinutes(2));
+        Transacao terceira = salvar(4L, 2L, "1.00", StatusTransacao.PENDENTE, AGORA.minusMinutes(1));
+        salvar(5L, 2L, "1.00", StatusTransacao.SINCRONIZADA, AGORA.minusMinutes(3));
+
+        List<TransacaoPendente> pendentes = transacaoRepository.findPendentesPorStatus(StatusTransacao.PENDENTE, PageRequest.of(0, 10));
+
+        assertEquals(List.of(primeira.getId(), segunda.getId(), terceira.getId()), pendentes.stream().map(TransacaoPendente::id).toList());
+        assertEquals(3L, pendentes.get(0).idUsuarioOrigem());
+    }
+
+    @Test
+    void findStatusPorIds_deveTrazerOStatusDeCadaId() {
+        Transacao pendente = salvar(1L, 2L, "1.00", StatusTransacao.PENDENTE, AGORA);
+        Transacao sincronizada = salvar(1L, 2L, "1.00", StatusTransacao.SINCRONIZADA, AGORA);
+
+        List<StatusPorId> status = transacaoRepository.findStatusPorIds(List.of(pendente.getId(), sincronizada.getId(), -1L));
+
+        assertEquals(2, status.size());
+        assertTrue(status.contains(new StatusPorId(pendente.getId(), StatusTransacao.PENDENTE)));
+        assertTrue(status.contains(new StatusPorId(sincronizada.getId(), StatusTransacao.SINCRONIZADA)));
+    }
+
+    @Test
+    void aposCursor_devePercorrerTambemAsTransacoesSemDataDeCriacao() {
+        Transacao antigaSemData = salvar(1L, 2L, "1.00", StatusTransacao.SINCRONIZADA, null);
+        Transacao outraSemData = salvar(1L, 2L, "1.00", StatusTransacao.SINCRONIZADA, null);
+        Transacao antiga = salvar(1L, 2L, "1.00", StatusTransacao.SINCRONIZADA, AGORA.minusMinutes(2));
+        Transacao recente = salvar(1L, 2L, "1.00", StatusTransacao.SINCRONIZADA, AGORA.minusMinutes(1));
+        Sort ordem = Sort.by(Sort.Order.desc("dataCriacao"), Sort.Order.desc("id"));
+
+        List<Long> percorridas = new ArrayList<>();
+        CursorTransacao cursor = null;
+        for (int pagina = 0; pagina < 10; pagina++) {
+            CursorTransacao posicao = cursor;
+            List<Transacao> linhas = transacaoRepository.findBy(TransacaoSpecifications.aposCursor(posicao),
+                    consulta -> consulta.sortBy(ordem).limit(1).all());
+            if (linhas.isEmpty()) {
+                break;
+            }
+            percorridas.add(linhas.get(0).getId());
+            cursor = CursorTransacao.decodificar(CursorTransacao.de(linhas.get(0)).codificar());
+        }
+
+        assertEquals(List.of(outraSemData.getId(), antigaSemData.getId(), recente.getId(), antiga.getId()), percorridas);
+    }
+
+    private Transacao salvar(Long origem, Long destino, String valor, StatusTransacao status, OffsetDateTime dataCriacao) {
+        Transacao nova = new Transacao();
+        nova.setIdUsuarioOrigem(origem);
+        nova.setIdUsuarioDestino(destino);
+        nova.setValor(Dinheiro.valueOf(valor));
+        nova.setTipoOperacao(TipoOperacao.SINCRONA);
+        nova.setMetodoConexao(MetodoConexao.INTERNET);
+        nova.setGatewayPagamento(GatewayPagamento.PAGARME);
+        Transacao salva = transacaoRepository.save(nova);
+        // O @PrePersist sempre grava PENDENTE e a hora atual; o cenário precisa de outros valores.
+        transacao.executeWithoutResult(tx -> entityManager
+                .createQuery("update Transacao t set t.status = :status, t.dataCriacao = :dataCriacao where t.id = :id")
+                .setParameter("status", status)
+                .setParameter("dataCriacao", dataCriacao)
+                .setParameter("id", salva.getId())
+                .executeUpdate());
+        return salva;
+    }
+
+    private static List<Long> ids(List<Transacao> transacoes) {
+        return transacoes.stream().map(Transacao::getId).toList();
+    }
+
+    private static void aguardar(CountDownLatch liberar) {
+        try {
+            liberar.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.asyncpayments.service;
+
+import com.example.asyncpayments.dto.StatusAuditoriaLedger;
+import com.example.asyncpayments.dto.StatusAuditoriaLedger.Situacao;
+import com.example.asyncpayments.entity.BlockchainRegistro;
+import com.example.asyncpayments.entity.BlocoLedger;
+import com.example.asyncpayments.entity.CheckpointLedger;
+import com.example.asyncpayments.entity.Dinheiro;
+import com.example.asyncpayments.repository.BlockchainRegistroRepository;
+import com.example.asyncpayments.repository.BlocoLedgerRepository;
+import com.example.asyncpayments.repository.CheckpointLedgerRepository;
+import com.example.asyncpayments.util.ArvoreMerkle;
+import com.example.asyncpayments.util.HashLedger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AuditoriaLedgerServiceTest {
+
+    @Mock
+    private BlocoLedgerRepository blocoLedgerRepository;
+    @Mock
+    private BlockchainRegistroRepository blockchainRegistroRepository;
+    @Mock
+    private CheckpointLedgerRepository checkpointLedgerRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private AuditoriaLedgerService auditoria;
+    private final List<BlocoLedger> blocos = new ArrayList<>();
+    private final List<BlockchainRegistro> registros = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        auditoria = new AuditoriaLedgerService(blocoLedgerRepository, blockchainRegistroRepository, checkpointLedgerRepository, transactionManager, pool);
+        when(blocoLedgerRepository.findByNumeroGreaterThanOrderByNumeroAsc(anyLong(), any())).then(invocation -> {
+            long depoisDe = invocation.getArgument(0);
+            return blocos.stream().filter(bloco -> bloco.getNumero() > depoisDe).limit(AuditoriaLedgerService.BLOCOS_POR_FAIXA).toList();
+        });
+        when(blockchainRegistroRepository.findByNumeroBlocoBetweenOrderByNumeroBlocoAscIndiceBlocoAsc(anyLong(), anyLong())).then(invocation -> {
+            long primeiro = invocation.getArgument(0);
+            long ultimo = invocation.getArgument(1);
+            return registros.stream().filter(r -> r.getNumeroBloco() >= primeiro && r.getNumeroBloco() <= ultimo).toList();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void executar_cadeiaIntegraEmVariasFaixas_deveVerificarTodosOsBlocos() {
+        for (int i = 0; i < 450; i++) {
+            selar(2);
+        }
+
+        StatusAuditoriaLedger status = auditoria.executar(checkpointInicial(), OffsetDateTime.now());
+
+        assertEquals(Situacao.INTEGRO, status.situacao());
+        assertEquals(450, status.blocosVerificados());
+        assertEquals(900, status.registrosVerificados());
+        assertEquals(450, status.ultimoBlocoVerificado());
+        assertTrue(status.registrosPorSegundo() > 0);
+        verify(checkpointLedgerRepository, times(3)).save(any());
+    }
+
+    @Test
+    void executar_blocoAdulterado_deveApontarPrimeiraFalhaESalvarCheckpointAnterior() {
+        for (int i = 0; i < 300; i++) {
+            selar(1);
+        }
+        registros.get(249).setIdUsuarioDestino(99L);
+        registros.get(279).setIdUsuarioDestino(99L);
+
+        StatusAuditoriaLedger status = auditoria.executar(checkpointInicial(), OffsetDateTime.now());
+
+        assertEquals(Situacao.INVALIDO, status.situacao());
+        assertEquals(250L, status.blocoInvalido());
+        assertEquals(249, status.ultimoBlocoVerificado());
+        assertEquals(249, status.blocosVerificados());
+    }
+
+    @Test
+    void executar_aPartirDoCheckpoint_deveLerSoBlocosNovos() {
+        for (int i = 0; i < 10; i++) {
+            selar(1);
+        }
+        blocos.get(0).setRaizMerkle("adulterada");
+        CheckpointLedger checkpoint = new CheckpointLedger(CheckpointLedger.ID_AUDITORIA, 5, blocos.get(4).getHashBloco(), null);
+
+        StatusAuditoriaLedger status = auditoria.executar(checkpoint, OffsetDateTime.now());
+
+        assertEquals(Situacao.INTEGRO, status.situacao());
+        assertEquals(5, status.blocosVerificados());
+        verify(blocoLedgerRepository).findByNumeroGreaterThanOrderByNumeroAsc(eq(5L), any());
+    }
+
+    @Test
+    void iniciar_comAuditoriaEmAndamento_deveLancarExcecao() {
+        ForkJoinPool poolParado = mock(ForkJoinPool.class);
+        AuditoriaLedgerService servico = new AuditoriaLedgerService(blocoLedgerRepository, blockchainRegistroRepository,
+                checkpointLedgerRepository, transactionManager, poolParado);
+        when(checkpointLedgerRepository.findById(CheckpointLedger.ID_AUDITORIA))
+                .thenReturn(Optional.of(new CheckpointLedger(CheckpointLedger.ID_AUDITORIA, 7, "h7", null)));
+
+        StatusAuditoriaLedger status = servico.iniciar(true);
+
+        assertEquals(Situacao.EM_ANDAMENTO, status.situacao());
+        assertEquals(7, status.ultimoBlocoVerificado());
+        assertThrows(IllegalStateException.class, () -> servico.iniciar(false));
+    }
+
+    @Test
+    void iniciar_falhaAntesDeAgendar_deveLiberarNovaAuditoriaEMarcarErro() {
+        ForkJoinPool poolRecusando = mock(ForkJoinPool.class);
+        doThrow(new RejectedExecutionException("pool encerrado")).doNothing().when(poolRecusando).execute(any(Runnable.class));
+        AuditoriaLedgerService servico = new AuditoriaLedgerService(blocoLedgerRepository, blockchainRegistroRepository,
+                checkpointLedgerRepository, transactionManager, poolRecusando);
+        when(checkpointLedgerRepository.findById(CheckpointLedger.ID_AUDITORIA))
+                .thenThrow(new DataAccessResourceFailureException("banco fora"))
+                .thenReturn(Optional.empty());
+
+        assertThrows(DataAccessResourceFailureException.class, () -> servico.iniciar(true));
+        assertEquals(Situacao.ERRO, servico.consultar().situacao());
+        assertEquals("banco fora", servico.consultar().motivo());
+
+        assertThrows(RejectedExecutionException.class, () -> servico.iniciar(true));
+        assertEquals(Situacao.ERRO, servico.consultar().situacao());
+
+        assertEquals(Situacao.EM_ANDAMENTO, servico.iniciar(false).situacao());
+    }
+
+    private CheckpointLedger checkpointInicial() {
+        return new CheckpointLedger(CheckpointLedger.ID_AUDITORIA, 0, HashLedger.HASH_GENESIS, null);
+    }
+
+    private void selar(int quantidade) {
+        long numero = blocos.size() + 1;
+        String hashAnterior = blocos.isEmpty() ? HashLedger.HASH_GENESIS : blocos.get(blocos.size() - 1).getHashBloco();
+        List<String> folhas = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            BlockchainRegistro registro = BlockchainRegistro.builder()
+                    .id((long) registros.size() + 1)
+                    .idTransacao((long) registros.size() + 100)
+                    .idUsuarioOrigem(1L)
+                    .idUsuarioDestino(2L)
+                    .valor(Dinheiro.valueOf("10.00"))
+                    .dataRegistro(OffsetDateTime.of(2025, 6, 1, 12, 0, 0, 0, ZoneOffset.UTC))
+                    .numeroBloco(numero)
+                    .indiceBloco(i)
+                    .build();
+            registro.setHashTransacao(HashLedger.hashRegistro(registro));
+            registros.add(registro);
+            folhas.add(registro.getHashTransacao());
+        }
+        String raiz = ArvoreMerkle.raiz(folhas);
+        blocos.add(BlocoLedger.builder()
+                .numero(numero)
+                .hashAnterior(hashAnterior)
+                .raizMerkle(raiz)
+                .hashBloco(HashLedger.hashBloco(numero, hashAnterior, raiz, quantidade))
+                .quantidadeRegistros(quantidade)
+                .build());
+    }
+}
@@ -6,6 +6,7 @@ import com.example.asyncpayments.dto.RegisterRequest;
 import com.example.asyncpayments.entity.User;
 import com.example.asyncpayments.entity.UserRole;
 import com.example.asyncpayments.repository.UserRepository;
+import com.example.asyncpayments.repository.UsuarioResumo;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
@@ -26,6 +27,7 @@ class AuthServiceTest {
     @Mock private JwtService jwtService;
     @Mock private AuthenticationManager authenticationManager;
     @Mock private UserService userService;
+    @Mock private UsuarioCacheService usuarioCacheService;
 
     @InjectMocks
     private AuthService authService;
@@ -58,9 +60,9 @@ class AuthServiceTest {
     @Test
     void login_deveAutenticarUsuario() {
         AuthRequest req = new AuthRequest("a@b.com", "pw");
-        User user = User.builder().email("a@b.com").build();
-        when(userRepository.findByEmail("a@b.com")).thenReturn(Optional.of(user));
-        when(jwtService.generateToken(any(), any())).thenReturn("token");
+        UsuarioResumo resumo = new UsuarioResumo(1L, "a@b.com", "pwenc", UserRole.USER, 0L);
+        when(usuarioCacheService.buscarPorEmail("a@b.com")).thenReturn(Optional.of(resumo));
+        when(jwtService.generateToken(any(), eq(1L))).thenReturn("token");
 
         AuthResponse resp = authService.login(req);
         assertNotNull(resp);
@@ -70,7 +72,7 @@ class AuthServiceTest {
     @Test
     void login_usuarioNaoEncontrado_deveLancarExcecao() {
         AuthRequest req = new AuthRequest("notfound@email.com", "pw");
-        when(userRepository.findByEmail("notfound@email.com")).thenReturn(Optional.empty());
+        when(usuarioCacheService.buscarPorEmail("notfound@email.com")).thenReturn(Optional.empty());
         assertThrows(UsernameNotFoundException.class, () -> authService.login(req));
     }
 }
\ No newline at end of file
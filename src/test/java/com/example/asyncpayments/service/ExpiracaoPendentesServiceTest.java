@@ -0,0 +1,117 @@
+package com.example.asyncpayments.service;
+
+import com.example.asyncpayments.entity.StatusTransacao;
+import com.example.asyncpayments.entity.Transacao;
+import com.example.asyncpayments.repository.TransacaoPendente;
+import com.example.asyncpayments.repository.TransacaoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ExpiracaoPendentesServiceTest {
+
+    private static final long HORA_MS = 3_600_000L;
+
+    @Mock
+    private TransacaoRepository transacaoRepository;
+    @Mock
+    private SincronizacaoService sincronizacaoService;
+
+    private final AtomicLong agora = new AtomicLong(1_000 * HORA_MS);
+    private ExpiracaoPendentesService expiracaoPendentesService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        expiracaoPendentesService = new ExpiracaoPendentesService(transacaoRepository, sincronizacaoService,
+                new SimpleMeterRegistry(), agora::get);
+    }
+
+    @Test
+    void disparar_deveDesfazerTransacaoAo72h() {
+        expiracaoPendentesService.agendar(transacao(1L, agora.get()));
+
+        agora.addAndGet(72 * HORA_MS - 1_000);
+        expiracaoPendentesService.disparar();
+        verifyNoInteractions(sincronizacaoService);
+
+        agora.addAndGet(1_000);
+        expiracaoPendentesService.disparar();
+        verify(sincronizacaoService).rollbackTransacoes(List.of(1L));
+        assertEquals(0, expiracaoPendentesService.agendadas());
+    }
+
+    @Test
+    void semear_deveAgendarPendentesGravadas() {
+        when(transacaoRepository.streamPorStatus(StatusTransacao.PENDENTE)).thenReturn(Stream.of(
+                new TransacaoPendente(1L, 7L, data(agora.get() - 80 * HORA_MS)),
+                new TransacaoPendente(2L, 8L, data(agora.get() - 10 * HORA_MS))));
+
+        expiracaoPendentesService.semear();
+
+        agora.addAndGet(1_000);
+        expiracaoPendentesService.disparar();
+        verify(sincronizacaoService).rollbackTransacoes(List.of(1L));
+
+        agora.addAndGet(62 * HORA_MS);
+        expiracaoPendentesService.disparar();
+        verify(sincronizacaoService).rollbackTransacoes(List.of(2L));
+    }
+
+    @Test
+    void cancelar_deveTirarTransacaoDaRoda() {
+        expiracaoPendentesService.agendar(transacao(1L, agora.get()));
+        expiracaoPendentesService.cancelar(List.of(1L));
+
+        agora.addAndGet(73 * HORA_MS);
+        expiracaoPendentesService.disparar();
+
+        verifyNoInteractions(sincronizacaoService);
+    }
+
+    @Test
+    void disparar_falhaNoRollback_deveReagendar() {
+        expiracaoPendentesService.agendar(transacao(1L, agora.get() - 72 * HORA_MS));
+        when(sincronizacaoService.rollbackTransacoes(any())).thenThrow(new IllegalStateException("banco fora")).thenReturn(1);
+
+        agora.addAndGet(1_000);
+        expiracaoPendentesService.disparar();
+        assertEquals(1, expiracaoPendentesService.agendadas());
+
+        agora.addAndGet(60_000);
+        expiracaoPendentesService.disparar();
+        verify(sincronizacaoService, times(2)).rollbackTransacoes(List.of(1L));
+        assertEquals(0, expiracaoPendentesService.agendadas());
+    }
+
+    @Test
+    void agendar_transacaoSemId_deveIgnorar() {
+        expiracaoPendentesService.agendar(transacao(null, agora.get()));
+
+        assertEquals(0, expiracaoPendentesService.agendadas());
+    }
+
+    private static Transacao transacao(Long id, long criadaEmMs) {
+        Transacao transacao = new Transacao();
+        transacao.setId(id);
+        transacao.setDataCriacao(data(criadaEmMs));
+        return transacao;
+    }
+
+    private static OffsetDateTime data(long ms) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochMilli(ms), ZoneOffset.UTC);
+    }
+}
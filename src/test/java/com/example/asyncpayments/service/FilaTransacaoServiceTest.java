@@ -0,0 +1,237 @@
+package com.example.asyncpayments.service;
+
+import com.example.asyncpayments.entity.StatusTransacao;
+import com.example.asyncpayments.repository.StatusPorId;
+import com.example.asyncpayments.repository.TransacaoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class FilaTransacaoServiceTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Mock
+    private TransacaoRepository transacaoRepository;
+
+    private FilaTransacaoService filaTransacaoService;
+    private final Map<Long, StatusTransacao> statusNoBanco = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transacaoRepository.findStatusPorIds(anyCollection())).then(invocation -> invocation.<Collection<Long>>getArgument(0).stream()
+                .filter(statusNoBanco::containsKey)
+                .map(id -> new StatusPorId(id, statusNoBanco.get(id)))
+                .toList());
+        filaTransacaoService = abrir(100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        filaTransacaoService.fechar();
+    }
+
+    @Test
+    void consultarStatus_statusRegistrado_naoDeveIrAoBanco() {
+        filaTransacaoService.atualizarStatus(1L, StatusTransacao.SINCRONIZADA);
+
+        assertEquals(StatusTransacao.SINCRONIZADA, filaTransacaoService.consultarStatus(1L));
+        verifyNoInteractions(transacaoRepository);
+    }
+
+    @Test
+    void consultarStatus_depoisDeReiniciar_deveUsarOLog() {
+        filaTransacaoService.atualizarStatus(List.of(1L, 2L), StatusTransacao.SINCRONIZADA);
+        filaTransacaoService.atualizarStatus(2L, StatusTransacao.ROLLBACK);
+        filaTransacaoService.fechar();
+
+        statusNoBanco.put(1L, StatusTransacao.SINCRONIZADA);
+        statusNoBanco.put(2L, StatusTransacao.ROLLBACK);
+
+        filaTransacaoService = abrir(100);
+
+        assertEquals(StatusTransacao.SINCRONIZADA, filaTransacaoService.consultarStatus(1L));
+        assertEquals(StatusTransacao.ROLLBACK, filaTransacaoService.consultarStatus(2L));
+        verify(transacaoRepository, times(1)).findStatusPorIds(anyCollection());
+        verify(transacaoRepository, never()).findStatusById(anyLong());
+    }
+
+    @Test
+    void revalidar_bancoRecriadoOuRestaurado_deveDescartarStatusQueNaoConferem() {
+        filaTransacaoService.atualizarStatus(List.of(1L, 2L, 3L), StatusTransacao.SINCRONIZADA);
+        filaTransacaoService.fechar();
+        statusNoBanco.put(1L, StatusTransacao.SINCRONIZADA);
+        statusNoBanco.put(2L, StatusTransacao.PENDENTE);
+
+        filaTransacaoService = abrir(100);
+
+        assertEquals(1, filaTransacaoService.tamanhoIndice());
+        when(transacaoRepository.findStatusById(2L)).thenReturn(Optional.of(StatusTransacao.PENDENTE));
+        assertEquals(StatusTransacao.PENDENTE, filaTransacaoService.consultarStatus(2L));
+        assertThrows(IllegalArgumentException.class, () -> filaTransacaoService.consultarStatus(3L));
+
+        filaTransacaoService.fechar();
+        filaTransacaoService = abrir(100);
+        assertEquals(1, filaTransacaoService.tamanhoIndice());
+    }
+
+    @Test
+    void consultarStatus_antesDeRevalidar_deveIrAoBanco() {
+        filaTransacaoService.atualizarStatus(1L, StatusTransacao.SINCRONIZADA);
+        filaTransacaoService.fechar();
+        filaTransacaoService = new FilaTransacaoService(transacaoRepository, new SimpleMeterRegistry(),
+                diretorio.resolve("status.log").toString(), 100);
+        filaTransacaoService.recuperar();
+        when(transacaoRepository.findStatusById(1L)).thenReturn(Optional.of(StatusTransacao.PENDENTE));
+
+        assertEquals(StatusTransacao.PENDENTE, filaTransacaoService.consultarStatus(1L));
+    }
+
+    @Test
+    void revalidar_bancoFora_deveDescartarIndiceRecuperado() {
+        filaTransacaoService.atualizarStatus(1L, StatusTransacao.SINCRONIZADA);
+        filaTransacaoService.fechar();
+        doThrow(new IllegalStateException("banco fora")).when(transacaoRepository).findStatusPorIds(anyCollection());
+
+        filaTransacaoService = abrir(100);
+
+        assertEquals(0, filaTransacaoService.tamanhoIndice());
+    }
+
+    @Test
+    void consultarStatus_foraDoIndice_deveBuscarNoBancoEGuardarStatusFinal() {
+        when(transacaoRepository.findStatusById(5L)).thenReturn(Optional.of(StatusTransacao.ERRO));
+
+        assertEquals(StatusTransacao.ERRO, filaTransacaoService.consultarStatus(5L));
+        assertEquals(StatusTransacao.ERRO, filaTransacaoService.consultarStatus(5L));
+
+        verify(transacaoRepository, times(1)).findStatusById(5L);
+    }
+
+    @Test
+    void consultarStatus_pendente_deveSempreIrAoBanco() {
+        when(transacaoRepository.findStatusById(5L)).thenReturn(Optional.of(StatusTransacao.PENDENTE));
+
+        filaTransacaoService.consultarStatus(5L);
+        filaTransacaoService.consultarStatus(5L);
+
+        verify(transacaoRepository, times(2)).findStatusById(5L);
+        assertEquals(0, filaTransacaoService.tamanhoIndice());
+    }
+
+    @Test
+    void consultarStatus_transacaoInexistente_deveLancarExcecao() {
+        when(transacaoRepository.findStatusById(anyLong())).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> filaTransacaoService.consultarStatus(9L));
+    }
+
+    @Test
+    void atualizarStatus_voltaParaPendenteOuRemocao_deveTirarDoIndiceMesmoAposReiniciar() {
+        filaTransacaoService.atualizarStatus(List.of(1L, 2L), StatusTransacao.SINCRONIZADA);
+        filaTransacaoService.atualizarStatus(1L, StatusTransacao.PENDENTE);
+        filaTransacaoService.remover(2L);
+        filaTransacaoService.fechar();
+        filaTransacaoService = abrir(100);
+        when(transacaoRepository.findStatusById(1L)).thenReturn(Optional.of(StatusTransacao.PENDENTE));
+
+        assertEquals(0, filaTransacaoService.tamanhoIndice());
+        assertEquals(StatusTransacao.PENDENTE, filaTransacaoService.consultarStatus(1L));
+    }
+
+    @Test
+    void atualizarStatus_indiceCheio_deveDescartarAsMaisAntigas() {
+        filaTransacaoService.fechar();
+        filaTransacaoService = abrir(8);
+
+        for (long id = 1; id <= 9; id++) {
+            filaTransacaoService.atualizarStatus(id, StatusTransacao.SINCRONIZADA);
+        }
+
+        assertTrue(filaTransacaoService.tamanhoIndice() <= 8);
+        when(transacaoRepository.findStatusById(1L)).thenReturn(Optional.of(StatusTransacao.SINCRONIZADA));
+        assertEquals(StatusTransacao.SINCRONIZADA, filaTransacaoService.consultarStatus(1L));
+        verify(transacaoRepository).findStatusById(1L);
+        assertEquals(StatusTransacao.SINCRONIZADA, filaTransacaoService.consultarStatus(9L));
+        verify(transacaoRepository, never()).findStatusById(9L);
+    }
+
+    @Test
+    void atualizarStatus_muitasMudancas_deveCompactarOLogSemPerderEstado() {
+        LongStream.rangeClosed(1, 50).forEach(id -> filaTransacaoService.atualizarStatus(id, StatusTransacao.ERRO));
+        for (int rodada = 0; rodada < 10; rodada++) {
+            LongStream.rangeClosed(1, 50).forEach(id -> filaTransacaoService.atualizarStatus(id, StatusTransacao.SINCRONIZADA));
+            filaTransacaoService.compactarLog();
+        }
+        filaTransacaoService.fechar();
+        LongStream.rangeClosed(1, 50).forEach(id -> statusNoBanco.put(id, StatusTransacao.SINCRONIZADA));
+
+        filaTransacaoService = abrir(100);
+
+        assertEquals(50, filaTransacaoService.tamanhoIndice());
+        assertEquals(StatusTransacao.SINCRONIZADA, filaTransacaoService.consultarStatus(50L));
+    }
+
+    @Test
+    void atualizarStatus_logCheio_deveDeixarACompactacaoParaATarefa() {
+        for (int rodada = 0; rodada < 4; rodada++) {
+            LongStream.rangeClosed(1, 50).forEach(id -> filaTransacaoService.atualizarStatus(id, StatusTransacao.SINCRONIZADA));
+        }
+        // O log (2 x 100 registros) está cheio: estas mudanças ficam só no índice até a compactação.
+        LongStream.rangeClosed(1, 50).forEach(id -> filaTransacaoService.atualizarStatus(id, StatusTransacao.ROLLBACK));
+        assertEquals(StatusTransacao.ROLLBACK, filaTransacaoService.consultarStatus(50L));
+
+        filaTransacaoService.compactarLog();
+        filaTransacaoService.fechar();
+        LongStream.rangeClosed(1, 50).forEach(id -> statusNoBanco.put(id, StatusTransacao.ROLLBACK));
+
+        filaTransacaoService = abrir(100);
+
+        assertEquals(50, filaTransacaoService.tamanhoIndice());
+        assertEquals(StatusTransacao.ROLLBACK, filaTransacaoService.consultarStatus(50L));
+        verify(transacaoRepository, never()).findStatusById(anyLong());
+    }
+
+    @Test
+    void atualizarStatus_dentroDeTransacao_deveEsperarOCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            filaTransacaoService.atualizarStatus(1L, StatusTransacao.SINCRONIZADA);
+            assertEquals(0, filaTransacaoService.tamanhoIndice());
+
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+            assertEquals(1, filaTransacaoService.tamanhoIndice());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private FilaTransacaoService abrir(int capacidade) {
+        FilaTransacaoService fila = new FilaTransacaoService(transacaoRepository, new SimpleMeterRegistry(),
+                diretorio.resolve("status.log").toString(), capacidade);
+        fila.recuperar();
+        fila.revalidar();
+        return fila;
+    }
+}
@@ -31,9 +31,81 @@ class JwtServiceTest {
         assertEquals(1L, jwtService.extractUserId(token));
     }
 
+    @Test
+    void verificar_deveTrazerAutoridadesEVersaoDoToken() {
+        User user = User.builder().email("a@b.com").password("pw").role(UserRole.ADMIN).versaoToken(3L).build();
+        String token = jwtService.generateToken(user, 1L);
+
+        JwtService.TokenVerificado verificado = jwtService.verificar(token).orElseThrow();
+
+        assertEquals(java.util.List.of("ROLE_ADMIN"), verificado.autoridades());
+        assertEquals(3L, verificado.versao());
+    }
+
     @Test
     void testInvalidToken() {
         UserDetails user = User.builder().email("a@b.com").password("pw").role(UserRole.USER).build();
         assertFalse(jwtService.isTokenValid("invalid.token", user));
     }
-}
\ No newline at end of file
+
+    @Test
+    void verificar_tokenEmCache_naoDeveVerificarAssinaturaDeNovo() {
+        UserDetails user = User.builder().email("a@b.com").password("pw").role(UserRole.USER).build();
+        String token = jwtService.generateToken(user, 1L);
+        assertTrue(jwtService.verificar(token).isPresent());
+
+        // Com outra chave, só o cache ainda aceita o token.
+        ReflectionTestUtils.setField(jwtService, "secretKey", "outrosecret1234567890");
+        ReflectionTestUtils.setField(jwtService, "verificacao", null);
+
+        JwtService.TokenVerificado verificado = jwtService.verificar(token).orElseThrow();
+        assertEquals("a@b.com", verificado.email());
+        assertEquals(1L, verificado.userId());
+        assertTrue(jwtService.verificar(token + "x").isEmpty());
+    }
+
+    @Test
+    void verificar_semCache_deveVerificarAssinaturaSempre() {
+        ReflectionTestUtils.setField(jwtService, "tamanhoCache", 0);
+        UserDetails user = User.builder().email("a@b.com").password("pw").role(UserRole.USER).build();
+        String token = jwtService.generateToken(user, 1L);
+        assertTrue(jwtService.verificar(token).isPresent());
+
+        ReflectionTestUtils.setField(jwtService, "secretKey", "outrosecret1234567890");
+        ReflectionTestUtils.setField(jwtService, "verificacao", null);
+
+        assertTrue(jwtService.verificar(token).isEmpty());
+    }
+
+    @Test
+    void verificar_cacheCheio_naoDevePassarDoTamanho() {
+        ReflectionTestUtils.setField(jwtService, "tamanhoCache", 3);
+        for (long id = 1; id <= 10; id++) {
+            UserDetails user = User.builder().email(id + "@b.com").password("pw").role(UserRole.USER).build();
+            String token = jwtService.generateToken(user, id);
+            assertEquals(id, jwtService.verificar(token).orElseThrow().userId());
+        }
+
+        java.util.Map<?, ?> cache = (java.util.Map<?, ?>) ReflectionTestUtils.getField(jwtService, "tokensVerificados");
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void tokenVerificado_expirado_deveConsiderarOInstanteDeExpiracao() {
+        java.time.Instant expiraEm = java.time.Instant.parse("2025-01-01T00:00:00Z");
+        JwtService.TokenVerificado verificado = new JwtService.TokenVerificado("a@b.com", 1L, java.util.List.of(), 0L, expiraEm);
+
+        assertFalse(verificado.expirado(expiraEm.minusMillis(1)));
+        assertTrue(verificado.expirado(expiraEm));
+    }
+
+    @Test
+    void verificar_tokenExpirado_deveRecusar() {
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", -1000L);
+        UserDetails user = User.builder().email("a@b.com").password("pw").role(UserRole.USER).build();
+        String token = jwtService.generateToken(user, 1L);
+
+        assertTrue(jwtService.verificar(token).isEmpty());
+        assertFalse(jwtService.isTokenValid(token, user));
+    }
+}
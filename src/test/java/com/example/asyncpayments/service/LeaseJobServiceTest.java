@@ -0,0 +1,112 @@
+package com.example.asyncpayments.service;
+
+import com.example.asyncpayments.repository.LeaseJobRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LeaseJobServiceTest {
+
+    private static final String JOB = "job.teste";
+    private static final Instant AGORA = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Mock
+    private LeaseJobRepository leaseJobRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LeaseJobService leaseJobService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        leaseJobService = new LeaseJobService(leaseJobRepository, transactionManager, meterRegistry,
+                Clock.fixed(AGORA, ZoneOffset.UTC), "no-a");
+    }
+
+    @Test
+    void executarComoLider_concessaoTomada_deveExecutarERenovarPelaDuracao() {
+        when(leaseJobRepository.tomar(eq(JOB), eq("no-a"), any(), any())).thenReturn(1);
+        AtomicInteger execucoes = new AtomicInteger();
+
+        assertTrue(leaseJobService.executarComoLider(JOB, Duration.ofMinutes(2), execucoes::incrementAndGet));
+
+        assertEquals(1, execucoes.get());
+        OffsetDateTime agora = OffsetDateTime.ofInstant(AGORA, ZoneOffset.UTC);
+        verify(leaseJobRepository).tomar(JOB, "no-a", agora, agora.plusMinutes(2));
+        verify(leaseJobRepository, never()).criar(any(), any(), any());
+        assertEquals(1.0, meterRegistry.get("jobs.lease.lider").tag("job", JOB).gauge().value());
+        assertEquals(1.0, meterRegistry.get("jobs.lease.adquiridas").tag("job", JOB).counter().count());
+    }
+
+    @Test
+    void executarComoLider_concessaoDeOutraInstancia_naoDeveExecutar() {
+        when(leaseJobRepository.tomar(any(), any(), any(), any())).thenReturn(0);
+        when(leaseJobRepository.existsById(JOB)).thenReturn(true);
+        AtomicInteger execucoes = new AtomicInteger();
+
+        assertFalse(leaseJobService.executarComoLider(JOB, Duration.ofMinutes(2), execucoes::incrementAndGet));
+
+        assertEquals(0, execucoes.get());
+        verify(leaseJobRepository, never()).criar(any(), any(), any());
+        assertEquals(0.0, meterRegistry.get("jobs.lease.lider").tag("job", JOB).gauge().value());
+        assertEquals(1.0, meterRegistry.get("jobs.lease.negadas").tag("job", JOB).counter().count());
+    }
+
+    @Test
+    void adquirir_jobSemConcessao_deveCriarLinha() {
+        when(leaseJobRepository.tomar(any(), any(), any(), any())).thenReturn(0);
+        when(leaseJobRepository.existsById(JOB)).thenReturn(false);
+
+        assertTrue(leaseJobService.adquirir(JOB, Duration.ofSeconds(90)));
+
+        verify(leaseJobRepository).criar(JOB, "no-a", OffsetDateTime.ofInstant(AGORA, ZoneOffset.UTC).plusSeconds(90));
+    }
+
+    @Test
+    void adquirir_outraInstanciaCriouAntes_naoDeveAdquirir() {
+        when(leaseJobRepository.tomar(any(), any(), any(), any())).thenReturn(0);
+        when(leaseJobRepository.existsById(JOB)).thenReturn(false);
+        when(leaseJobRepository.criar(any(), any(), any())).thenThrow(new DataIntegrityViolationException("chave duplicada"));
+
+        assertFalse(leaseJobService.adquirir(JOB, Duration.ofSeconds(90)));
+    }
+
+    @Test
+    void adquirir_falhaNoBanco_naoDeveAdquirir() {
+        when(leaseJobRepository.tomar(any(), any(), any(), any())).thenThrow(new IllegalStateException("banco fora"));
+
+        assertFalse(leaseJobService.adquirir(JOB, Duration.ofSeconds(90)));
+    }
+
+    @Test
+    void liberarTodas_deveDevolverSoAsConcessoesDestaInstancia() {
+        when(leaseJobRepository.tomar(eq(JOB), any(), any(), any())).thenReturn(1);
+        when(leaseJobRepository.tomar(eq("outro"), any(), any(), any())).thenReturn(0);
+        when(leaseJobRepository.existsById("outro")).thenReturn(true);
+        leaseJobService.adquirir(JOB, Duration.ofMinutes(1));
+        leaseJobService.adquirir("outro", Duration.ofMinutes(1));
+
+        leaseJobService.liberarTodas();
+
+        verify(leaseJobRepository).liberar(JOB, "no-a", OffsetDateTime.ofInstant(AGORA, ZoneOffset.UTC));
+        verify(leaseJobRepository, never()).liberar(eq("outro"), any(), any());
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.asyncpayments.service;
+
+import com.example.asyncpayments.entity.BlockchainRegistro;
+import com.example.asyncpayments.entity.BlocoLedger;
+import com.example.asyncpayments.repository.BlockchainRegistroRepository;
+import com.example.asyncpayments.repository.BlocoLedgerRepository;
+import com.example.asyncpayments.util.ArvoreMerkle;
+import com.example.asyncpayments.util.HashLedger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LedgerBlockchainServiceTest {
+
+    @Mock
+    private SimpleBlockchainService simpleBlockchainService;
+    @Mock
+    private BlockchainRegistroRepository blockchainRegistroRepository;
+    @Mock
+    private BlocoLedgerRepository blocoLedgerRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong relogio = new AtomicLong(1_000_000);
+    private LedgerBlockchainService ledger;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(blocoLedgerRepository.saveAndFlush(any())).then(returnsFirstArg());
+        when(blockchainRegistroRepository.findPendentesDeSelagem(any())).thenReturn(List.of());
+        ledger = new LedgerBlockchainService(simpleBlockchainService, blockchainRegistroRepository, blocoLedgerRepository,
+                transactionManager, meterRegistry, relogio::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void registrarTransacao_deveGravarComoPendenteDeSelagem() {
+        BlockchainRegistro registro = registro("a");
+
+        ledger.registrarTransacao(registro);
+
+        verify(blockchainRegistroRepository).save(registro);
+        assertTrue(registro.getPendenteSelagem());
+        assertNull(registro.getNumeroBloco());
+        assertEquals(1.0, meterRegistry.counter("blockchain.ledger.registrados").count());
+        verify(blocoLedgerRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void registrarTransacao_deveAnotarHashAntesDeGravar() {
+        BlockchainRegistro registro = registro("a");
+
+        ledger.registrarTransacao(registro);
+
+        InOrder ordem = inOrder(simpleBlockchainService, blockchainRegistroRepository);
+        ordem.verify(simpleBlockchainService).anotarHash("a");
+        ordem.verify(blockchainRegistroRepository).save(registro);
+    }
+
+    @Test
+    void registrarTransacao_dentroDeTransacao_soAcordaADescargaAposCommit() {
+        ledger.descarregar();
+        TransactionSynchronizationManager.initSynchronization();
+
+        ledger.registrarTransacao(registro("a"));
+        ledger.descarregar();
+        verify(blockchainRegistroRepository, times(1)).findPendentesDeSelagem(any());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        ledger.descarregar();
+        verify(blockchainRegistroRepository, times(2)).findPendentesDeSelagem(any());
+    }
+
+    @Test
+    void registrarTransacao_comSelagemFalhando_naoSelaNemDescartaNaThreadDoPagamento() {
+        when(blocoLedgerRepository.saveAndFlush(any())).thenThrow(new DataAccessResourceFailureException("banco fora"));
+
+        for (int i = 0; i < 3 * LedgerBlockchainService.TAMANHO_LOTE; i++) {
+            ledger.registrarTransacao(registro("h" + i));
+        }
+
+        verify(blockchainRegistroRepository, times(3 * LedgerBlockchainService.TAMANHO_LOTE)).save(any());
+        verify(blockchainRegistroRepository, never()).findPendentesDeSelagem(any());
+        verify(blocoLedgerRepository, never()).saveAndFlush(any());
+        assertEquals(0.0, meterRegistry.counter("blockchain.ledger.descarga.falhas").count());
+    }
+
+    @Test
+    void descarregar_primeiroBloco_deveSelarPendentesSobreOGenesis() {
+        BlockchainRegistro a = pendente("a");
+        BlockchainRegistro b = pendente("b");
+        when(blockchainRegistroRepository.findPendentesDeSelagem(any())).thenReturn(List.of(a, b), List.of());
+
+        ledger.descarregar();
+
+        BlocoLedger bloco = blocoSalvo();
+        assertEquals(1, bloco.getNumero());
+        assertEquals(HashLedger.HASH_GENESIS, bloco.getHashAnterior());
+        assertEquals(ArvoreMerkle.raiz(List.of("a", "b")), bloco.getRaizMerkle());
+        assertEquals(HashLedger.hashBloco(1, HashLedger.HASH_GENESIS, bloco.getRaizMerkle(), 2), bloco.getHashBloco());
+        assertEquals(1L, a.getNumeroBloco());
+        assertEquals(0, a.getIndiceBloco());
+        assertEquals(1, b.getIndiceBloco());
+        assertNull(a.getPendenteSelagem());
+        assertNull(b.getPendenteSelagem());
+        assertEquals(1, meterRegistry.timer("blockchain.ledger.descarga").count());
+        assertEquals(2.0, meterRegistry.counter("blockchain.ledger.selados").count());
+    }
+
+    @Test
+    void descarregar_deveRegistrarPendentesRestantesNoGauge() {
+        when(blockchainRegistroRepository.findPendentesDeSelagem(any())).thenReturn(List.of(pendente("a")));
+        when(blockchainRegistroRepository.countByPendenteSelagemTrue()).thenReturn(7L);
+
+        ledger.descarregar();
+
+        assertEquals(7.0, meterRegistry.get("blockchain.ledger.pendentes").gauge().value());
+    }
+
+    @Test
+    void descarregar_deveEncadearAoUltimoBlocoGravado() {
+        BlocoLedger ultimo = BlocoLedger.builder().numero(41).hashBloco("h41").build();
+        when(blocoLedgerRepository.findTopByOrderByNumeroDesc()).thenReturn(Optional.of(ultimo));
+        when(blockchainRegistroRepository.findPendentesDeSelagem(any())).thenReturn(List.of(pendente("a")));
+
+        ledger.descarregar();
+
+        BlocoLedger bloco = blocoSalvo();
+        assertEquals(42, bloco.getNumero());
+        assertEquals("h41", bloco.getHashAnterior());
+    }
+
+    @Test
+    void descarregar_loteCheio_deveSelarOProximoNaMesmaDescarga() {
+        List<BlockchainRegistro> cheio = new ArrayList<>();
+        for (int i = 0; i < LedgerBlockchainService.TAMANHO_LOTE; i++) {
+            cheio.add(pendente("h" + i));
+        }
+        when(blockchainRegistroRepository.findPendentesDeSelagem(any())).thenReturn(cheio, List.of(pendente("x")), List.of());
+
+        ledger.descarregar();
+
+        ArgumentCaptor<Pageable> paginas = ArgumentCaptor.forClass(Pageable.class);
+        verify(blockchainRegistroRepository, times(2)).findPendentesDeSelagem(paginas.capture());
+        assertEquals(LedgerBlockchainService.TAMANHO_LOTE, paginas.getValue().getPageSize());
+        verify(blocoLedgerRepository, times(2)).saveAndFlush(any());
+    }
+
+    @Test
+    void descarregar_falhaNaSelagem_deveDeixarPendentesParaAProximaDescarga() {
+        when(blockchainRegistroRepository.findPendentesDeSelagem(any())).thenReturn(List.of(pendente("a")));
+        when(blocoLedgerRepository.saveAndFlush(any()))
+            .thenThrow(new DataAccessResourceFailureException("banco fora"))
+            .then(returnsFirstArg());
+
+        ledger.descarregar();
+        ledger.descarregar();
+
+        verify(blocoLedgerRepository, times(2)).saveAndFlush(any());
+        assertEquals(1.0, meterRegistry.counter("blockchain.ledger.descarga.falhas").count());
+    }
+
+    @Test
+    void descarregar_blocoDeMesmoNumeroGravadoPorOutraInstancia_deveSelarDeNovoSobreOVencedor() {
+        when(blockchainRegistroRepository.findPendentesDeSelagem(any())).thenReturn(List.of(pendente("a")));
+        when(blocoLedgerRepository.findTopByOrderByNumeroDesc())
+            .thenReturn(Optional.empty())
+            .thenReturn(Optional.of(BlocoLedger.builder().numero(1).hashBloco("h1").build()));
+        when(blocoLedgerRepository.saveAndFlush(any()))
+            .thenThrow(new DataIntegrityViolationException("numero duplicado"))
+            .then(returnsFirstArg());
+
+        ledger.descarregar();
+        ledger.descarregar();
+
+        ArgumentCaptor<BlocoLedger> blocos = ArgumentCaptor.forClass(BlocoLedger.class);
+        verify(blocoLedgerRepository, times(2)).saveAndFlush(blocos.capture());
+        assertEquals(2, blocos.getValue().getNumero());
+        assertEquals("h1", blocos.getValue().getHashAnterior());
+    }
+
+    @Test
+    void descarregar_semCommitNovo_soVarreOBancoNoIntervalo() {
+        ledger.descarregar();
+        ledger.descarregar();
+        verify(blockchainRegistroRepository, times(1)).findPendentesDeSelagem(any());
+
+        relogio.addAndGet(LedgerBlockchainService.INTERVALO_VARREDURA_MS);
+        ledger.descarregar();
+        verify(blockchainRegistroRepository, times(2)).findPendentesDeSelagem(any());
+
+        ledger.registrarTransacao(registro("a"));
+        ledger.descarregar();
+        verify(blockchainRegistroRepository, times(3)).findPendentesDeSelagem(any());
+    }
+
+    @Test
+    void validarTransacao_deveConsultarORegistroGravado() {
+        when(simpleBlockchainService.validarTransacao("a")).thenReturn(true);
+
+        assertTrue(ledger.validarTransacao("a"));
+        assertFalse(ledger.validarTransacao("z"));
+    }
+
+    private BlocoLedger blocoSalvo() {
+        ArgumentCaptor<BlocoLedger> bloco = ArgumentCaptor.forClass(BlocoLedger.class);
+        verify(blocoLedgerRepository).saveAndFlush(bloco.capture());
+        return bloco.getValue();
+    }
+
+    private BlockchainRegistro pendente(String hash) {
+        BlockchainRegistro registro = registro(hash);
+        registro.setPendenteSelagem(true);
+        return registro;
+    }
+
+    private BlockchainRegistro registro(String hash) {
+        return BlockchainRegistro.builder().idUsuarioOrigem(1L).idUsuarioDestino(2L).hashTransacao(hash).build();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.asyncpayments.service;
+
+import com.example.asyncpayments.entity.*;
+import com.example.asyncpayments.repository.TransacaoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LimiteDiarioServiceTest {
+
+    @Mock
+    private TransacaoRepository transacaoRepository;
+
+    @InjectMocks
+    private LimiteDiarioService limiteDiarioService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void reservar_limiteExcedidoPorTransacoesDoBanco_deveNegar() {
+        when(transacaoRepository.findByIdUsuarioOrigemAndDataCriacaoBetween(eq(1L), any(OffsetDateTime.class), any(OffsetDateTime.class)))
+            .thenReturn(List.of(
+                transacao(1L, Dinheiro.valueOf("800.00"), OffsetDateTime.now(ZoneOffset.UTC)),
+                transacao(2L, Dinheiro.valueOf("300.00"), OffsetDateTime.now(ZoneOffset.UTC))
+            ));
+
+        Exception ex = assertThrows(IllegalStateException.class, () -> limiteDiarioService.reservar(1L, Dinheiro.valueOf("500.00")));
+        assertTrue(ex.getMessage().contains("Limite diário excedido"));
+    }
+
+    @Test
+    void reservar_acumulaEmMemoria_semNovaConsultaAoBanco() {
+        when(transacaoRepository.findByIdUsuarioOrigemAndDataCriacaoBetween(eq(1L), any(OffsetDateTime.class), any(OffsetDateTime.class)))
+            .thenReturn(List.of());
+
+        limiteDiarioService.reservar(1L, Dinheiro.valueOf("400.00"));
+        limiteDiarioService.reservar(1L, Dinheiro.valueOf("600.00"));
+
+        assertThrows(IllegalStateException.class, () -> limiteDiarioService.reservar(1L, Dinheiro.valueOf("0.01")));
+        assertEquals(Dinheiro.valueOf("1000.00"), limiteDiarioService.totalUltimas24h(1L));
+        verify(transacaoRepository, times(1)).findByIdUsuarioOrigemAndDataCriacaoBetween(eq(1L), any(), any());
+    }
+
+    @Test
+    void registrar_contaNoLimiteDasTransacoesSeguintes() {
+        when(transacaoRepository.findByIdUsuarioOrigemAndDataCriacaoBetween(eq(1L), any(OffsetDateTime.class), any(OffsetDateTime.class)))
+            .thenReturn(List.of());
+
+        limiteDiarioService.registrar(1L, Dinheiro.valueOf("950.00"));
+
+        assertThrows(IllegalStateException.class, () -> limiteDiarioService.reservar(1L, Dinheiro.valueOf("100.00")));
+    }
+
+    @Test
+    void carregar_ignoraTransacoesForaDaJanela() {
+        when(transacaoRepository.findByIdUsuarioOrigemAndDataCriacaoBetween(eq(1L), any(OffsetDateTime.class), any(OffsetDateTime.class)))
+            .thenReturn(List.of(transacao(1L, Dinheiro.valueOf("900.00"), OffsetDateTime.now(ZoneOffset.UTC).minusHours(30))));
+
+        assertDoesNotThrow(() -> limiteDiarioService.reservar(1L, Dinheiro.valueOf("500.00")));
+    }
+
+    private Transacao transacao(Long id, Dinheiro valor, OffsetDateTime dataCriacao) {
+        return new Transacao(id, 1L, 2L, valor, TipoOperacao.SINCRONA, MetodoConexao.INTERNET, GatewayPagamento.PAGARME, StatusTransacao.PENDENTE, dataCriacao, dataCriacao, "Transação " + id);
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.asyncpayments.service;
+
+import com.example.asyncpayments.entity.Dinheiro;
+import com.example.asyncpayments.entity.TipoOperacao;
+import com.example.asyncpayments.repository.ContaAssincronaRepository;
+import com.example.asyncpayments.repository.ContaSincronaRepository;
+import com.example.asyncpayments.repository.SaldoConta;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.PessimisticLockingFailureException;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MovimentacaoSaldoServiceTest {
+
+    @Mock
+    private ContaSincronaRepository contaSincronaRepository;
+    @Mock
+    private ContaAssincronaRepository contaAssincronaRepository;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private MovimentacaoSaldoService movimentacaoSaldoService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void movimentar_deveDebitarOrigemECreditarDestino() {
+        when(contaSincronaRepository.debitarSeSuficiente(1L, Dinheiro.valueOf("100.00"))).thenReturn(1);
+        when(contaSincronaRepository.creditar(2L, Dinheiro.valueOf("100.00"))).thenReturn(1);
+
+        MovimentacaoSaldoService.Resultado resultado =
+            movimentacaoSaldoService.movimentar(TipoOperacao.SINCRONA, 1L, TipoOperacao.SINCRONA, 2L, Dinheiro.valueOf("100.00"));
+
+        assertEquals(MovimentacaoSaldoService.Resultado.EFETUADA, resultado);
+        verify(contaSincronaRepository, never()).findByUserIdParaAtualizacao(anyLong());
+        verify(contaSincronaRepository, never()).save(any());
+    }
+
+    @Test
+    void movimentar_transferenciasCruzadas_alteramNaMesmaOrdem() {
+        when(contaSincronaRepository.debitarSeSuficiente(anyLong(), any(Dinheiro.class))).thenReturn(1);
+        when(contaSincronaRepository.creditar(anyLong(), any(Dinheiro.class))).thenReturn(1);
+
+        movimentacaoSaldoService.movimentar(TipoOperacao.SINCRONA, 1L, TipoOperacao.SINCRONA, 2L, Dinheiro.valueOf("10.00"));
+        movimentacaoSaldoService.movimentar(TipoOperacao.SINCRONA, 2L, TipoOperacao.SINCRONA, 1L, Dinheiro.valueOf("10.00"));
+
+        InOrder ordem = inOrder(contaSincronaRepository);
+        ordem.verify(contaSincronaRepository).debitarSeSuficiente(1L, Dinheiro.valueOf("10.00"));
+        ordem.verify(contaSincronaRepository).creditar(2L, Dinheiro.valueOf("10.00"));
+        ordem.verify(contaSincronaRepository).creditar(1L, Dinheiro.valueOf("10.00"));
+        ordem.verify(contaSincronaRepository).debitarSeSuficiente(2L, Dinheiro.valueOf("10.00"));
+    }
+
+    @Test
+    void movimentar_assincronaParaSincrona_alteraSincronaPrimeiro() {
+        when(contaSincronaRepository.creditar(1L, Dinheiro.valueOf("50.00"))).thenReturn(1);
+        when(contaAssincronaRepository.debitarSeSuficiente(1L, Dinheiro.valueOf("50.00"))).thenReturn(1);
+
+        movimentacaoSaldoService.movimentar(TipoOperacao.ASSINCRONA, 1L, TipoOperacao.SINCRONA, 1L, Dinheiro.valueOf("50.00"));
+
+        InOrder ordem = inOrder(contaSincronaRepository, contaAssincronaRepository);
+        ordem.verify(contaSincronaRepository).creditar(1L, Dinheiro.valueOf("50.00"));
+        ordem.verify(contaAssincronaRepository).debitarSeSuficiente(1L, Dinheiro.valueOf("50.00"));
+    }
+
+    @Test
+    void movimentar_saldoInsuficiente_naoCreditaDestino() {
+        when(contaAssincronaRepository.debitarSeSuficiente(1L, Dinheiro.valueOf("100.00"))).thenReturn(0);
+        when(contaAssincronaRepository.existsByUserId(1L)).thenReturn(true);
+
+        MovimentacaoSaldoService.Resultado resultado =
+            movimentacaoSaldoService.movimentar(TipoOperacao.ASSINCRONA, 1L, TipoOperacao.ASSINCRONA, 2L, Dinheiro.valueOf("100.00"));
+
+        assertEquals(MovimentacaoSaldoService.Resultado.SALDO_INSUFICIENTE, resultado);
+        verify(contaAssincronaRepository, never()).creditar(anyLong(), any(Dinheiro.class));
+    }
+
+    @Test
+    void movimentar_saldoInsuficienteAposCreditar_deveEstornarDestino() {
+        when(contaSincronaRepository.creditar(1L, Dinheiro.valueOf("30.00"))).thenReturn(1);
+        when(contaSincronaRepository.debitarSeSuficiente(2L, Dinheiro.valueOf("30.00"))).thenReturn(0);
+        when(contaSincronaRepository.existsByUserId(2L)).thenReturn(true);
+
+        MovimentacaoSaldoService.Resultado resultado =
+            movimentacaoSaldoService.movimentar(TipoOperacao.SINCRONA, 2L, TipoOperacao.SINCRONA, 1L, Dinheiro.valueOf("30.00"));
+
+        assertEquals(MovimentacaoSaldoService.Resultado.SALDO_INSUFICIENTE, resultado);
+        verify(contaSincronaRepository).creditar(1L, Dinheiro.valueOf("-30.00"));
+    }
+
+    @Test
+    void movimentar_destinoInexistente_deveEstornarOrigem() {
+        when(contaSincronaRepository.debitarSeSuficiente(1L, Dinheiro.valueOf("10.00"))).thenReturn(1);
+        when(contaSincronaRepository.creditar(2L, Dinheiro.valueOf("10.00"))).thenReturn(0);
+
+        MovimentacaoSaldoService.Resultado resultado =
+            movimentacaoSaldoService.movimentar(TipoOperacao.SINCRONA, 1L, TipoOperacao.SINCRONA, 2L, Dinheiro.valueOf("10.00"));
+
+        assertEquals(MovimentacaoSaldoService.Resultado.CONTA_NAO_ENCONTRADA, resultado);
+        verify(contaSincronaRepository).creditar(1L, Dinheiro.valueOf("10.00"));
+    }
+
+    @Test
+    void movimentarLote_deveAplicarSomenteVariacaoLiquidaPorConta() {
+        when(contaSincronaRepository.findSaldosParaAtualizacao(any()))
+            .thenReturn(List.of(new SaldoConta(1L, Dinheiro.valueOf("100.00")), new SaldoConta(2L, Dinheiro.valueOf("10.00"))));
+        when(contaSincronaRepository.creditar(anyLong(), any(Dinheiro.class))).thenReturn(1);
+
+        List<MovimentacaoSaldoService.Resultado> resultados = movimentacaoSaldoService.movimentarLote(List.of(
+            new MovimentacaoSaldoService.Movimento(TipoOperacao.SINCRONA, 1L, TipoOperacao.SINCRONA, 2L, Dinheiro.valueOf("60.00")),
+            new MovimentacaoSaldoService.Movimento(TipoOperacao.SINCRONA, 1L, TipoOperacao.SINCRONA, 2L, Dinheiro.valueOf("60.00")),
+            new MovimentacaoSaldoService.Movimento(TipoOperacao.SINCRONA, 2L, TipoOperacao.SINCRONA, 1L, Dinheiro.valueOf("70.00")),
+            new MovimentacaoSaldoService.Movimento(TipoOperacao.SINCRONA, 2L, TipoOperacao.SINCRONA, 9L, Dinheiro.valueOf("1.00"))
+        ));
+
+        assertEquals(List.of(
+            MovimentacaoSaldoService.Resultado.EFETUADA,
+            MovimentacaoSaldoService.Resultado.SALDO_INSUFICIENTE,
+            MovimentacaoSaldoService.Resultado.EFETUADA,
+            MovimentacaoSaldoService.Resultado.CONTA_NAO_ENCONTRADA), resultados);
+        InOrder ordem = inOrder(contaSincronaRepository);
+        ordem.verify(contaSincronaRepository).findSaldosParaAtualizacao(Set.of(1L, 2L, 9L));
+        ordem.verify(contaSincronaRepository).creditar(1L, Dinheiro.valueOf("10.00"));
+        ordem.verify(contaSincronaRepository).creditar(2L, Dinheiro.valueOf("-10.00"));
+        verify(contaSincronaRepository, never()).debitarSeSuficiente(anyLong(), any(Dinheiro.class));
+        verifyNoInteractions(contaAssincronaRepository);
+    }
+
+    @Test
+    void movimentarLote_contasSincronaEAssincronaDoMesmoUsuario_devemSerTratadasSeparadamente() {
+        when(contaSincronaRepository.findSaldosParaAtualizacao(any()))
+            .thenReturn(List.of(new SaldoConta(1L, Dinheiro.valueOf("50.00"))));
+        when(contaAssincronaRepository.findSaldosParaAtualizacao(any()))
+            .thenReturn(List.of(new SaldoConta(1L, Dinheiro.valueOf("5.00"))));
+        when(contaSincronaRepository.creditar(anyLong(), any(Dinheiro.class))).thenReturn(1);
+        when(contaAssincronaRepository.creditar(anyLong(), any(Dinheiro.class))).thenReturn(1);
+
+        List<MovimentacaoSaldoService.Resultado> resultados = movimentacaoSaldoService.movimentarLote(List.of(
+            new MovimentacaoSaldoService.Movimento(TipoOperacao.ASSINCRONA, 1L, TipoOperacao.SINCRONA, 1L, Dinheiro.valueOf("6.00")),
+            new MovimentacaoSaldoService.Movimento(TipoOperacao.SINCRONA, 1L, TipoOperacao.ASSINCRONA, 1L, Dinheiro.valueOf("20.00"))
+        ));
+
+        assertEquals(List.of(
+            MovimentacaoSaldoService.Resultado.SALDO_INSUFICIENTE,
+            MovimentacaoSaldoService.Resultado.EFETUADA), resultados);
+        InOrder ordem = inOrder(contaSincronaRepository, contaAssincronaRepository);
+        ordem.verify(contaSincronaRepository).creditar(1L, Dinheiro.valueOf("-20.00"));
+        ordem.verify(contaAssincronaRepository).creditar(1L, Dinheiro.valueOf("20.00"));
+    }
+
+    @Test
+    void executarComRetentativa_conflitoTransitorio_deveRepetirEContar() {
+        AtomicInteger chamadas = new AtomicInteger();
+
+        String resultado = movimentacaoSaldoService.executarComRetentativa(() -> {
+            if (chamadas.incrementAndGet() < 2) {
+                throw new PessimisticLockingFailureException("deadlock");
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", resultado);
+        assertEquals(2, chamadas.get());
+        assertEquals(1.0, meterRegistry.counter("movimentacao.saldo.retentativas").count());
+    }
+
+    @Test
+    void executarComRetentativa_conflitoPersistente_deveDesistir() {
+        AtomicInteger chamadas = new AtomicInteger();
+
+        assertThrows(PessimisticLockingFailureException.class, () ->
+            movimentacaoSaldoService.executarComRetentativa(() -> {
+                chamadas.incrementAndGet();
+                throw new PessimisticLockingFailureException("timeout");
+            })
+        );
+
+        assertEquals(MovimentacaoSaldoService.MAXIMO_TENTATIVAS, chamadas.get());
+        assertEquals(1.0, meterRegistry.counter("movimentacao.saldo.conflitos.esgotados").count());
+    }
+}
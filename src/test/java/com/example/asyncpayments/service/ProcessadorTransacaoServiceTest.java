@@ -0,0 +1,169 @@
+package com.example.asyncpayments.service;
+
+import com.example.asyncpayments.entity.StatusTransacao;
+import com.example.asyncpayments.repository.TransacaoPendente;
+import com.example.asyncpayments.repository.TransacaoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProcessadorTransacaoServiceTest {
+
+    private static final int WORKERS = 3;
+
+    @Mock
+    private TransacaoRepository transacaoRepository;
+    @Mock
+    private ExpiracaoPendentesService expiracaoPendentesService;
+    @Mock
+    private FilaTransacaoService filaTransacaoService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private LeaseJobService leaseJobService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProcessadorTransacaoService processador;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        processador = new ProcessadorTransacaoService(transacaoRepository, expiracaoPendentesService, filaTransacaoService, transactionManager,
+                leaseJobService, meterRegistry, WORKERS);
+        when(leaseJobService.executarComoLider(any(), any(), any())).then(invocation -> {
+            invocation.<Runnable>getArgument(2).run();
+            return true;
+        });
+        when(leaseJobService.adquirir(any(), any())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        processador.encerrar();
+    }
+
+    @Test
+    void processarTransacoesPendentes_deveManterUsuarioNoMesmoWorkerEmOrdem() {
+        List<TransacaoPendente> pendentes = LongStream.range(0, 120)
+                .mapToObj(id -> new TransacaoPendente(id, id % 7, OffsetDateTime.now(ZoneOffset.UTC).minusMinutes(120 - id)))
+                .toList();
+        when(transacaoRepository.findPendentesPorStatus(eq(StatusTransacao.PENDENTE), any())).thenReturn(pendentes);
+        Map<String, List<Long>> porThread = new ConcurrentHashMap<>();
+        when(transacaoRepository.atualizarStatusSeAinda(any(), any(), any(), any())).then(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            porThread.computeIfAbsent(Thread.currentThread().getName(), nome -> new ArrayList<>()).addAll(ids);
+            return ids.size();
+        });
+
+        processador.processarTransacoesPendentes();
+
+        assertEquals(120, porThread.values().stream().mapToInt(List::size).sum());
+        for (List<Long> ids : porThread.values()) {
+            assertEquals(ids.stream().sorted().toList(), ids, "transações de um worker fora de ordem");
+            long shards = ids.stream().map(id -> processador.shard(id % 7)).distinct().count();
+            assertEquals(1, shards, "worker recebeu transações de outro shard");
+        }
+        assertTrue(porThread.keySet().stream().allMatch(nome -> nome.startsWith("processador-pendentes-")));
+        verify(expiracaoPendentesService, atLeast(WORKERS)).cancelar(any());
+        verify(filaTransacaoService, atLeast(WORKERS)).atualizarStatus(anyCollection(), eq(StatusTransacao.SINCRONIZADA));
+        double total = meterRegistry.get("transacoes.processador.processadas").counters().stream()
+                .mapToDouble(counter -> counter.count()).sum();
+        assertEquals(120.0, total);
+        verify(transactionManager, atLeast(WORKERS)).commit(any());
+    }
+
+    @Test
+    void processarTransacoesPendentes_deveGravarEmMicrolotes() {
+        List<TransacaoPendente> pendentes = LongStream.range(0, ProcessadorTransacaoService.TAMANHO_MICROLOTE + 1)
+                .mapToObj(id -> new TransacaoPendente(id, 3L, OffsetDateTime.now(ZoneOffset.UTC)))
+                .toList();
+        when(transacaoRepository.findPendentesPorStatus(any(), any())).thenReturn(pendentes);
+        List<Integer> tamanhos = new ArrayList<>();
+        when(transacaoRepository.atualizarStatusSeAinda(any(), any(), any(), any())).then(invocation -> {
+            tamanhos.add(invocation.<Collection<Long>>getArgument(0).size());
+            return 0;
+        });
+
+        processador.processarTransacoesPendentes();
+
+        assertEquals(List.of(ProcessadorTransacaoService.TAMANHO_MICROLOTE, 1), tamanhos);
+        verify(filaTransacaoService, never()).atualizarStatus(anyCollection(), any());
+        verify(transacaoRepository, times(1)).findPendentesPorStatus(any(), any());
+        String shard = String.valueOf(processador.shard(3L));
+        assertEquals(0.0, meterRegistry.get("transacoes.processador.processadas").tag("shard", shard).counter().count());
+    }
+
+    @Test
+    void processarTransacoesPendentes_semPendentesDoShard_deveZerarAtraso() {
+        List<TransacaoPendente> antigas = List.of(new TransacaoPendente(1L, 3L, OffsetDateTime.now(ZoneOffset.UTC).minusMinutes(10)));
+        when(transacaoRepository.findPendentesPorStatus(any(), any())).thenReturn(antigas, List.of());
+        when(transacaoRepository.atualizarStatusSeAinda(any(), any(), any(), any())).thenReturn(1);
+        String shard = String.valueOf(processador.shard(3L));
+
+        processador.processarTransacoesPendentes();
+        assertTrue(meterRegistry.get("transacoes.processador.atraso").tag("shard", shard).gauge().value() >= 600_000);
+
+        processador.processarTransacoesPendentes();
+        assertEquals(0.0, meterRegistry.get("transacoes.processador.atraso").tag("shard", shard).gauge().value());
+    }
+
+    @Test
+    void processarTransacoesPendentes_falhaNoMicrolote_deveParaOShardENaoLerProximoLote() {
+        List<TransacaoPendente> pendentes = LongStream.range(0, ProcessadorTransacaoService.TAMANHO_LOTE)
+                .mapToObj(id -> new TransacaoPendente(id, 5L, OffsetDateTime.now(ZoneOffset.UTC)))
+                .toList();
+        when(transacaoRepository.findPendentesPorStatus(any(), any())).thenReturn(pendentes);
+        when(transacaoRepository.atualizarStatusSeAinda(any(), any(), any(), any())).thenThrow(new IllegalStateException("banco fora"));
+
+        processador.processarTransacoesPendentes();
+
+        verify(transacaoRepository, times(1)).atualizarStatusSeAinda(any(), any(), any(), any());
+        verify(transacaoRepository, times(1)).findPendentesPorStatus(any(), any());
+        verifyNoInteractions(expiracaoPendentesService);
+        String shard = String.valueOf(processador.shard(5L));
+        assertEquals(1.0, meterRegistry.get("transacoes.processador.falhas").tag("shard", shard).counter().count());
+    }
+
+    @Test
+    void processarTransacoesPendentes_loteCheio_deveRenovarConcessaoAntesDoProximoLote() {
+        List<TransacaoPendente> cheio = LongStream.range(0, ProcessadorTransacaoService.TAMANHO_LOTE)
+                .mapToObj(id -> new TransacaoPendente(id, id % 7, OffsetDateTime.now(ZoneOffset.UTC)))
+                .toList();
+        when(transacaoRepository.findPendentesPorStatus(any(), any())).thenReturn(cheio, cheio, List.of());
+        when(transacaoRepository.atualizarStatusSeAinda(any(), any(), any(), any()))
+                .then(invocation -> invocation.<Collection<Long>>getArgument(0).size());
+        when(leaseJobService.adquirir(any(), any())).thenReturn(true, false);
+
+        processador.processarTransacoesPendentes();
+
+        verify(leaseJobService, times(2)).adquirir(eq("transacoes.pendentes"), any());
+        verify(transacaoRepository, times(2)).findPendentesPorStatus(any(), any());
+    }
+
+    @Test
+    void processarTransacoesPendentes_semConcessao_naoDeveLerPendentes() {
+        doReturn(false).when(leaseJobService).executarComoLider(any(), any(), any());
+
+        processador.processarTransacoesPendentes();
+
+        verifyNoInteractions(transacaoRepository);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.asyncpayments.service;
+
+import com.example.asyncpayments.dto.ProvaInclusao;
+import com.example.asyncpayments.entity.BlockchainRegistro;
+import com.example.asyncpayments.entity.BlocoLedger;
+import com.example.asyncpayments.repository.BlockchainRegistroRepository;
+import com.example.asyncpayments.repository.BlocoLedgerRepository;
+import com.example.asyncpayments.util.ArvoreMerkle;
+import com.example.asyncpayments.util.HashLedger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ProvaLedgerServiceTest {
+
+    private static final List<String> HASHES_BLOCO_3 = List.of(hash("h0"), hash("h1"), hash("h2"), hash("h3"), hash("h4"));
+
+    @Mock
+    private BlockchainRegistroRepository blockchainRegistroRepository;
+    @Mock
+    private BlocoLedgerRepository blocoLedgerRepository;
+
+    private ProvaLedgerService provaLedgerService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        provaLedgerService = new ProvaLedgerService(blockchainRegistroRepository, blocoLedgerRepository, 2);
+        for (int i = 0; i < HASHES_BLOCO_3.size(); i++) {
+            when(blockchainRegistroRepository.findByHashTransacao(HASHES_BLOCO_3.get(i))).thenReturn(Optional.of(registro(HASHES_BLOCO_3.get(i), 3L, i)));
+        }
+        when(blockchainRegistroRepository.findHashesDoBloco(3L)).thenReturn(HASHES_BLOCO_3);
+        when(blocoLedgerRepository.findByNumero(3L)).thenReturn(Optional.of(BlocoLedger.builder()
+                .numero(3).hashAnterior("h-2").hashBloco("h-3").quantidadeRegistros(5).raizMerkle(ArvoreMerkle.raiz(HASHES_BLOCO_3)).build()));
+    }
+
+    @Test
+    void gerarProva_registroSelado_deveRetornarCaminhoAteARaiz() {
+        ProvaInclusao prova = provaLedgerService.gerarProva(hash("h3")).orElseThrow();
+
+        assertEquals(3, prova.numeroBloco());
+        assertEquals(3, prova.indiceBloco());
+        assertEquals("h-3", prova.hashBloco());
+        assertEquals(3, prova.caminho().size());
+        assertEquals(prova.raizMerkle(), ArvoreMerkle.raizDaProva(hash("h3"), prova.caminho()));
+    }
+
+    @Test
+    void gerarProva_mesmoBloco_deveMontarArvoreUmaVez() {
+        provaLedgerService.gerarProva(hash("h0"));
+        provaLedgerService.gerarProva(hash("h4"));
+
+        verify(blockchainRegistroRepository, times(1)).findHashesDoBloco(3L);
+        verify(blocoLedgerRepository, times(1)).findByNumero(3L);
+    }
+
+    @Test
+    void gerarProva_cacheCheio_deveDescartarBlocoMenosUsado() {
+        for (long numero = 4; numero <= 5; numero++) {
+            String unico = hash("b" + numero);
+            when(blockchainRegistroRepository.findByHashTransacao(unico)).thenReturn(Optional.of(registro(unico, numero, 0)));
+            when(blockchainRegistroRepository.findHashesDoBloco(numero)).thenReturn(List.of(unico));
+            when(blocoLedgerRepository.findByNumero(numero)).thenReturn(Optional.of(BlocoLedger.builder()
+                    .numero(numero).quantidadeRegistros(1).raizMerkle(unico).build()));
+        }
+
+        provaLedgerService.gerarProva(hash("h0"));
+        provaLedgerService.gerarProva(hash("b4"));
+        provaLedgerService.gerarProva(hash("b5"));
+        provaLedgerService.gerarProva(hash("h1"));
+
+        assertEquals(2, provaLedgerService.blocosEmCache());
+        verify(blockchainRegistroRepository, times(2)).findHashesDoBloco(3L);
+    }
+
+    @Test
+    void gerarProva_registroAindaNaoSelado_deveRetornarVazio() {
+        when(blockchainRegistroRepository.findByHashTransacao("pendente")).thenReturn(Optional.of(registro("pendente", null, null)));
+
+        assertTrue(provaLedgerService.gerarProva("pendente").isEmpty());
+        assertTrue(provaLedgerService.gerarProva("inexistente").isEmpty());
+        verify(blocoLedgerRepository, never()).findByNumero(anyLong());
+    }
+
+    @Test
+    void gerarProva_raizQueNaoConfere_naoDeveGerarProva() {
+        when(blockchainRegistroRepository.findHashesDoBloco(3L)).thenReturn(List.of(hash("h0"), hash("h1"), hash("adulterado"), hash("h3"), hash("h4")));
+
+        assertTrue(provaLedgerService.gerarProva(hash("h0")).isEmpty());
+        assertEquals(0, provaLedgerService.blocosEmCache());
+    }
+
+    @Test
+    void gerarProva_hashGravadoForaDoFormato_naoDeveGerarProva() {
+        when(blockchainRegistroRepository.findHashesDoBloco(3L)).thenReturn(List.of(hash("h0"), hash("h1"), "h2", hash("h3"), hash("h4")));
+
+        assertTrue(provaLedgerService.gerarProva(hash("h0")).isEmpty());
+        assertEquals(0, provaLedgerService.blocosEmCache());
+    }
+
+    private static String hash(String valor) {
+        return HashLedger.sha256(valor);
+    }
+
+    private BlockchainRegistro registro(String hash, Long numeroBloco, Integer indice) {
+        return BlockchainRegistro.builder().hashTransacao(hash).numeroBloco(numeroBloco).indiceBloco(indice).build();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.asyncpayments.service;
+
+import com.example.asyncpayments.entity.BlockchainRegistro;
+import com.example.asyncpayments.repository.BlockchainRegistroRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class SimpleBlockchainServiceTest {
+
+    @Mock
+    private BlockchainRegistroRepository blockchainRegistroRepository;
+
+    private SimpleBlockchainService blockchainService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        blockchainService = new SimpleBlockchainService(blockchainRegistroRepository, true);
+    }
+
+    @Test
+    void validarTransacao_filtroNaoMontado_deveConsultarIndice() {
+        when(blockchainRegistroRepository.existsByHashTransacao("a")).thenReturn(true);
+
+        assertTrue(blockchainService.validarTransacao("a"));
+        verify(blockchainRegistroRepository).existsByHashTransacao("a");
+    }
+
+    @Test
+    void validarTransacao_hashForaDoFiltro_naoDeveConsultarBanco() {
+        when(blockchainRegistroRepository.streamHashes()).thenReturn(Stream.of("a", "b"));
+        blockchainService.montarFiltroHashes();
+
+        assertFalse(blockchainService.validarTransacao("z"));
+        verify(blockchainRegistroRepository, never()).existsByHashTransacao(anyString());
+    }
+
+    @Test
+    void validarTransacao_hashNoFiltro_deveConfirmarNoIndice() {
+        when(blockchainRegistroRepository.streamHashes()).thenReturn(Stream.of("a"));
+        when(blockchainRegistroRepository.existsByHashTransacao("a")).thenReturn(true);
+        blockchainService.montarFiltroHashes();
+
+        assertTrue(blockchainService.validarTransacao("a"));
+        verify(blockchainRegistroRepository).existsByHashTransacao("a");
+    }
+
+    @Test
+    void validarTransacao_variasInstancias_naoDeveMontarFiltroNemDescartarSemConsulta() {
+        blockchainService = new SimpleBlockchainService(blockchainRegistroRepository, false);
+        when(blockchainRegistroRepository.existsByHashTransacao("de-outra-instancia")).thenReturn(true);
+        blockchainService.montarFiltroHashes();
+
+        assertTrue(blockchainService.validarTransacao("de-outra-instancia"));
+        verify(blockchainRegistroRepository, never()).streamHashes();
+    }
+
+    @Test
+    void montarFiltroHashes_hashAnotadoAntesDaMontagemEGravadoDepoisDaLeitura_deveEntrarNoFiltro() {
+        when(blockchainRegistroRepository.streamHashes()).thenReturn(Stream.of("a"));
+        when(blockchainRegistroRepository.existsByHashTransacao("novo")).thenReturn(true);
+
+        blockchainService.anotarHash("novo");
+        blockchainService.montarFiltroHashes();
+
+        assertTrue(blockchainService.validarTransacao("novo"));
+    }
+
+    @Test
+    void registrarTransacao_deveIncluirHashNoFiltro() {
+        when(blockchainRegistroRepository.streamHashes()).thenReturn(Stream.empty());
+        when(blockchainRegistroRepository.existsByHashTransacao("novo")).thenReturn(true);
+        blockchainService.montarFiltroHashes();
+
+        blockchainService.registrarTransacao(BlockchainRegistro.builder().hashTransacao("novo").build());
+
+        assertTrue(blockchainService.validarTransacao("novo"));
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.asyncpayments.service;
+
+import com.example.asyncpayments.entity.Dinheiro;
+import com.example.asyncpayments.entity.StatusTransacao;
+import com.example.asyncpayments.entity.TipoOperacao;
+import com.example.asyncpayments.repository.TransacaoRepository;
+import com.example.asyncpayments.repository.TransacaoVencida;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SincronizacaoServiceTest {
+
+    @Mock
+    private TransacaoRepository transacaoRepository;
+    @Mock
+    private MovimentacaoSaldoService movimentacaoSaldoService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private FilaTransacaoService filaTransacaoService;
+
+    @InjectMocks
+    private SincronizacaoService sincronizacaoService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void rollbackTransacoesNaoSincronizadas_deveAgruparDevolucoesPorUsuario() {
+        when(transacaoRepository.findVencidasParaAtualizacao(eq(StatusTransacao.PENDENTE), any(), any()))
+            .thenReturn(List.of(
+                new TransacaoVencida(10L, 2L, Dinheiro.valueOf("5.00")),
+                new TransacaoVencida(11L, 1L, Dinheiro.valueOf("1.50")),
+                new TransacaoVencida(12L, 2L, Dinheiro.valueOf("2.25"))));
+
+        int desfeitas = sincronizacaoService.rollbackTransacoesNaoSincronizadas();
+
+        assertEquals(3, desfeitas);
+        verify(transacaoRepository).atualizarStatus(eq(List.of(10L, 11L, 12L)), eq(StatusTransacao.ROLLBACK), anyString(), any());
+        verify(filaTransacaoService).atualizarStatus(List.of(10L, 11L, 12L), StatusTransacao.ROLLBACK);
+        InOrder ordem = inOrder(movimentacaoSaldoService);
+        ordem.verify(movimentacaoSaldoService).creditar(TipoOperacao.SINCRONA, 1L, Dinheiro.valueOf("1.50"));
+        ordem.verify(movimentacaoSaldoService).creditar(TipoOperacao.SINCRONA, 2L, Dinheiro.valueOf("7.25"));
+        verifyNoMoreInteractions(movimentacaoSaldoService);
+    }
+
+    @Test
+    void rollbackTransacoesNaoSincronizadas_deveBuscarSoVencidasHaMaisDe72h() {
+        when(transacaoRepository.findVencidasParaAtualizacao(any(), any(), any())).thenReturn(List.of());
+        OffsetDateTime antes = OffsetDateTime.now();
+
+        assertEquals(0, sincronizacaoService.rollbackTransacoesNaoSincronizadas());
+
+        ArgumentCaptor<OffsetDateTime> limite = ArgumentCaptor.forClass(OffsetDateTime.class);
+        ArgumentCaptor<Pageable> pagina = ArgumentCaptor.forClass(Pageable.class);
+        verify(transacaoRepository).findVencidasParaAtualizacao(eq(StatusTransacao.PENDENTE), limite.capture(), pagina.capture());
+        assertTrue(Duration.between(limite.getValue(), antes).abs().minusHours(72).abs().getSeconds() < 5);
+        assertEquals(SincronizacaoService.TAMANHO_LOTE_ROLLBACK, pagina.getValue().getPageSize());
+        verify(transacaoRepository, never()).atualizarStatus(any(), any(), any(), any());
+        verifyNoInteractions(movimentacaoSaldoService);
+    }
+
+    @Test
+    void rollbackTransacoesNaoSincronizadas_loteCheio_deveBuscarProximoLote() {
+        List<TransacaoVencida> loteCheio = LongStream.range(0, SincronizacaoService.TAMANHO_LOTE_ROLLBACK)
+            .mapToObj(id -> new TransacaoVencida(id, 1L, Dinheiro.valueOf("1.00")))
+            .toList();
+        when(transacaoRepository.findVencidasParaAtualizacao(any(), any(), any()))
+            .thenReturn(loteCheio)
+            .thenReturn(List.of(new TransacaoVencida(999L, 1L, Dinheiro.valueOf("1.00"))));
+        List<Integer> tamanhos = new ArrayList<>();
+        when(transacaoRepository.atualizarStatus(any(), any(), any(), any())).then(invocation -> {
+            tamanhos.add(invocation.<Collection<Long>>getArgument(0).size());
+            return tamanhos.get(tamanhos.size() - 1);
+        });
+
+        int desfeitas = sincronizacaoService.rollbackTransacoesNaoSincronizadas();
+
+        assertEquals(SincronizacaoService.TAMANHO_LOTE_ROLLBACK + 1, desfeitas);
+        assertEquals(List.of(SincronizacaoService.TAMANHO_LOTE_ROLLBACK, 1), tamanhos);
+        verify(movimentacaoSaldoService).creditar(TipoOperacao.SINCRONA, 1L, Dinheiro.deCentavos(SincronizacaoService.TAMANHO_LOTE_ROLLBACK * 100L));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void rollbackTransacoes_deveDesfazerSoAsInformadasEmLotes() {
+        List<Long> ids = LongStream.range(0, SincronizacaoService.TAMANHO_LOTE_ROLLBACK + 1).boxed().toList();
+        when(transacaoRepository.findVencidasPorIdParaAtualizacao(any(), eq(StatusTransacao.PENDENTE), any()))
+            .thenReturn(List.of(new TransacaoVencida(0L, 1L, Dinheiro.valueOf("1.00"))))
+            .thenReturn(List.of());
+        when(transacaoRepository.atualizarStatus(any(), any(), any(), any())).thenReturn(1);
+
+        assertEquals(1, sincronizacaoService.rollbackTransacoes(ids));
+
+        ArgumentCaptor<Collection<Long>> lotes = ArgumentCaptor.captor();
+        verify(transacaoRepository, times(2)).findVencidasPorIdParaAtualizacao(lotes.capture(), any(), any());
+        assertEquals(SincronizacaoService.TAMANHO_LOTE_ROLLBACK, lotes.getAllValues().get(0).size());
+        assertEquals(List.of((long) SincronizacaoService.TAMANHO_LOTE_ROLLBACK), List.copyOf(lotes.getAllValues().get(1)));
+        verify(transacaoRepository).atualizarStatus(eq(List.of(0L)), eq(StatusTransacao.ROLLBACK), anyString(), any());
+        verify(movimentacaoSaldoService).creditar(TipoOperacao.SINCRONA, 1L, Dinheiro.valueOf("1.00"));
+        verify(transacaoRepository, never()).findVencidasParaAtualizacao(any(), any(), any());
+    }
+}
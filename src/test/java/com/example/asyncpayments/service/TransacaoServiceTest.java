@@ -1,11 +1,20 @@
 package com.example.asyncpayments.service;
 
+import com.example.asyncpayments.dto.CursorTransacao;
+import com.example.asyncpayments.dto.PaginaTransacoes;
+import com.example.asyncpayments.dto.ResultadoLote;
+import com.example.asyncpayments.dto.TransacaoFiltro;
+import com.example.asyncpayments.dto.TransacaoRequest;
 import com.example.asyncpayments.dto.TransactionResponse;
 import com.example.asyncpayments.entity.*;
 import com.example.asyncpayments.repository.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.lang.reflect.Method;
 import java.time.OffsetDateTime;
@@ -15,6 +24,8 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class TransacaoServiceTest {
@@ -39,6 +50,12 @@ public class TransacaoServiceTest {
     private TransactionResponse transactionResponse;
     @Mock
     private TransacaoAltoValorRepository transacaoAltoValorRepository; 
+    @Mock
+    private LimiteDiarioService limiteDiarioService;
+    @Mock
+    private MovimentacaoSaldoService movimentacaoSaldoService;
+    @Mock
+    private ExpiracaoPendentesService expiracaoPendentesService;
 
     @InjectMocks
     private TransacaoService transacaoService;
@@ -46,6 +63,8 @@ public class TransacaoServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(movimentacaoSaldoService.movimentar(any(), any(), any(), any(), any(Dinheiro.class)))
+            .thenReturn(MovimentacaoSaldoService.Resultado.EFETUADA);
     }
 
     @Test
@@ -54,18 +73,11 @@ void realizarTransacao_deveSalvarTransacao() {
     transacao.setId(123L); 
     when(transacaoRepository.save(any(Transacao.class))).thenReturn(transacao);
 
-    ContaSincrona contaOrigem = new ContaSincrona();
-    contaOrigem.setSaldo(1000.0);
-    ContaSincrona contaDestino = new ContaSincrona();
-    contaDestino.setSaldo(500.0);
-
-    when(contaSincronaRepository.findByUserId(1L)).thenReturn(contaOrigem);
-    when(contaSincronaRepository.findByUserId(2L)).thenReturn(contaDestino);
-
     Transacao salvo = transacaoService.realizarTransacao(
-            1L, 2L, 100.0, GatewayPagamento.PAGARME, MetodoConexao.INTERNET, null);
+            1L, 2L, Dinheiro.valueOf("100.00"), GatewayPagamento.PAGARME, MetodoConexao.INTERNET, null);
 
     assertNotNull(salvo);
+    verify(movimentacaoSaldoService).movimentar(TipoOperacao.SINCRONA, 1L, TipoOperacao.SINCRONA, 2L, Dinheiro.valueOf("100.00"));
     verify(transacaoRepository, atLeastOnce()).save(any(Transacao.class));
 }
 
@@ -73,6 +85,8 @@ void realizarTransacao_deveSalvarTransacao() {
 void processarTransacaoOffline_transacaoApos72h_deveNegar() {
     Transacao transacao = new Transacao();
     transacao.setId(1L);
+    transacao.setIdUsuarioOrigem(1L);
+    transacao.setValor(Dinheiro.valueOf("100.00"));
     transacao.setStatus(StatusTransacao.PENDENTE);
     transacao.setDataCriacao(OffsetDateTime.now().minusHours(80));
     when(transacaoRepository.findById(1L)).thenReturn(Optional.of(transacao));
@@ -82,15 +96,16 @@ void processarTransacaoOffline_transacaoApos72h_deveNegar() {
     );
     assertEquals(StatusTransacao.ROLLBACK, transacao.getStatus());
     assertTrue(ex.getMessage().contains("após 72h"));
+    verify(movimentacaoSaldoService).creditar(TipoOperacao.SINCRONA, 1L, Dinheiro.valueOf("100.00"));
 }
 
     @Test
 void realizarTransacao_contaOrigemNaoEncontrada_deveLancarExcecao() {
-    when(contaSincronaRepository.findByUserId(1L)).thenReturn(null);
-    when(contaSincronaRepository.findByUserId(2L)).thenReturn(new ContaSincrona());
+    when(movimentacaoSaldoService.movimentar(TipoOperacao.SINCRONA, 1L, TipoOperacao.SINCRONA, 2L, Dinheiro.valueOf("100.00")))
+        .thenReturn(MovimentacaoSaldoService.Resultado.CONTA_NAO_ENCONTRADA);
 
     Exception ex = assertThrows(IllegalArgumentException.class, () ->
-        transacaoService.realizarTransacao(1L, 2L, 100.0, GatewayPagamento.PAGARME, MetodoConexao.INTERNET, null)
+        transacaoService.realizarTransacao(1L, 2L, Dinheiro.valueOf("100.00"), GatewayPagamento.PAGARME, MetodoConexao.INTERNET, null)
     );
     assertTrue(ex.getMessage().toLowerCase().contains("conta de origem ou destino não encontrada"));
 }
@@ -102,31 +117,18 @@ void listarTodasTransacoes_deveChamarFindAll() {
 }
 @Test
 void realizarTransacao_valorInvalido_deveLancarExcecao() {
-    ContaSincrona contaOrigem = new ContaSincrona();
-    contaOrigem.setSaldo(1000.0);
-    ContaSincrona contaDestino = new ContaSincrona();
-    contaDestino.setSaldo(500.0);
-
-    when(contaSincronaRepository.findByUserId(1L)).thenReturn(contaOrigem);
-    when(contaSincronaRepository.findByUserId(2L)).thenReturn(contaDestino);
-
     Exception ex = assertThrows(IllegalArgumentException.class, () ->
-        transacaoService.realizarTransacao(1L, 2L, 0.0, GatewayPagamento.PAGARME, MetodoConexao.INTERNET, null)
+        transacaoService.realizarTransacao(1L, 2L, Dinheiro.valueOf("0.00"), GatewayPagamento.PAGARME, MetodoConexao.INTERNET, null)
     );
 assertEquals("O valor da transação deve ser maior que zero.", ex.getMessage());}
 
 @Test
 void realizarTransacao_saldoInsuficiente_deveLancarExcecao() {
-    ContaSincrona contaOrigem = new ContaSincrona();
-    contaOrigem.setSaldo(50.0);
-    ContaSincrona contaDestino = new ContaSincrona();
-    contaDestino.setSaldo(500.0);
-
-    when(contaSincronaRepository.findByUserId(1L)).thenReturn(contaOrigem);
-    when(contaSincronaRepository.findByUserId(2L)).thenReturn(contaDestino);
+    when(movimentacaoSaldoService.movimentar(TipoOperacao.SINCRONA, 1L, TipoOperacao.SINCRONA, 2L, Dinheiro.valueOf("100.00")))
+        .thenReturn(MovimentacaoSaldoService.Resultado.SALDO_INSUFICIENTE);
 
     Exception ex = assertThrows(IllegalArgumentException.class, () ->
-        transacaoService.realizarTransacao(1L, 2L, 100.0, GatewayPagamento.PAGARME, MetodoConexao.INTERNET, null)
+        transacaoService.realizarTransacao(1L, 2L, Dinheiro.valueOf("100.00"), GatewayPagamento.PAGARME, MetodoConexao.INTERNET, null)
     );
     assertTrue(ex.getMessage().toLowerCase().contains("saldo insuficiente"));
 }
@@ -151,26 +153,19 @@ void deletarTransacao_deveChamarDeleteById() {
 }
 @Test
 void realizarTransacao_contaDestinoNaoEncontrada_deveLancarExcecao() {
-    when(contaSincronaRepository.findByUserId(1L)).thenReturn(new ContaSincrona());
-    when(contaSincronaRepository.findByUserId(2L)).thenReturn(null);
+    when(movimentacaoSaldoService.movimentar(TipoOperacao.SINCRONA, 1L, TipoOperacao.SINCRONA, 2L, Dinheiro.valueOf("100.00")))
+        .thenReturn(MovimentacaoSaldoService.Resultado.CONTA_NAO_ENCONTRADA);
 
     Exception ex = assertThrows(IllegalArgumentException.class, () ->
-        transacaoService.realizarTransacao(1L, 2L, 100.0, GatewayPagamento.PAGARME, MetodoConexao.INTERNET, null)
+        transacaoService.realizarTransacao(1L, 2L, Dinheiro.valueOf("100.00"), GatewayPagamento.PAGARME, MetodoConexao.INTERNET, null)
     );
     assertTrue(ex.getMessage().toLowerCase().contains("conta de origem ou destino não encontrada"));
 }
 @Test
 void realizarTransacaoAssincrona_deveRegistrarTransacaoNoBlockchain() {
-    ContaAssincrona contaOrigem = new ContaAssincrona();
-    contaOrigem.setSaldo(1000.0);
-    ContaAssincrona contaDestino = new ContaAssincrona();
-    contaDestino.setSaldo(500.0);
-
-    when(contaAssincronaRepository.findByUserId(1L)).thenReturn(contaOrigem);
-    when(contaAssincronaRepository.findByUserId(2L)).thenReturn(contaDestino);
-
-    transacaoService.realizarTransacaoAssincrona(1L, 2L, 100.0);
+    transacaoService.realizarTransacaoAssincrona(1L, 2L, Dinheiro.valueOf("100.00"));
 
+    verify(movimentacaoSaldoService).movimentar(TipoOperacao.ASSINCRONA, 1L, TipoOperacao.ASSINCRONA, 2L, Dinheiro.valueOf("100.00"));
     verify(blockchainService).registrarTransacao(any(BlockchainRegistro.class));
 }
 
@@ -181,19 +176,12 @@ void processarTransacaoOffline_deveRegistrarTransacaoNoBlockchain() {
     transacao.setId(1L);
     transacao.setIdUsuarioOrigem(1L);
     transacao.setIdUsuarioDestino(2L);
-    transacao.setValor(100.0);
+    transacao.setValor(Dinheiro.valueOf("100.00"));
     transacao.setStatus(StatusTransacao.PENDENTE); 
     transacao.setDataCriacao(OffsetDateTime.now(ZoneOffset.UTC).minusHours(1));
 
-    ContaAssincrona contaOrigem = new ContaAssincrona();
-    contaOrigem.setSaldo(500.0);
-    ContaAssincrona contaDestino = new ContaAssincrona();
-    contaDestino.setSaldo(300.0);
-
     
     when(transacaoRepository.findById(1L)).thenReturn(Optional.of(transacao));
-    when(contaAssincronaRepository.findByUserId(1L)).thenReturn(contaOrigem);
-    when(contaAssincronaRepository.findByUserId(2L)).thenReturn(contaDestino);
 
     
     transacaoService.processarTransacaoOffline(1L, OffsetDateTime.now(ZoneOffset.UTC));
@@ -204,55 +192,215 @@ void processarTransacaoOffline_deveRegistrarTransacaoNoBlockchain() {
 }
 
 @Test
-void realizarTransacao_limiteDiarioExcedido_deveNegar() {
-    OffsetDateTime startDate = OffsetDateTime.now().minusDays(1);
-    OffsetDateTime endDate = OffsetDateTime.now();
+void processarTransacaoOffline_transacaoJaConcluida_naoDeveMovimentarDeNovo() {
+    Transacao transacao = new Transacao();
+    transacao.setId(1L);
+    transacao.setIdUsuarioOrigem(1L);
+    transacao.setIdUsuarioDestino(2L);
+    transacao.setValor(Dinheiro.valueOf("100.00"));
+    transacao.setStatus(StatusTransacao.ROLLBACK);
+    transacao.setDataCriacao(OffsetDateTime.now(ZoneOffset.UTC).minusHours(80));
+    when(transacaoRepository.findById(1L)).thenReturn(Optional.of(transacao));
 
-    when(transacaoRepository.findByIdUsuarioOrigemAndDataCriacaoBetween(
-        anyLong(), any(OffsetDateTime.class), any(OffsetDateTime.class)))
-    .thenReturn(List.of(
-        new Transacao(1L, 1L, 2L, 800.0, TipoOperacao.SINCRONA, MetodoConexao.INTERNET, GatewayPagamento.PAGARME, StatusTransacao.PENDENTE, OffsetDateTime.now(), OffsetDateTime.now(), "Transação 1"),
-        new Transacao(2L, 1L, 2L, 300.0, TipoOperacao.SINCRONA, MetodoConexao.INTERNET, GatewayPagamento.PAGARME, StatusTransacao.PENDENTE, OffsetDateTime.now(), OffsetDateTime.now(), "Transação 2")
-    ));
+    assertThrows(IllegalStateException.class, () ->
+        transacaoService.processarTransacaoOffline(1L, OffsetDateTime.now(ZoneOffset.UTC)));
 
-    
-    ContaSincrona contaOrigem = new ContaSincrona();
-    contaOrigem.setSaldo(2000.0);
-    ContaSincrona contaDestino = new ContaSincrona();
-    contaDestino.setSaldo(1000.0);
+    assertEquals(StatusTransacao.ROLLBACK, transacao.getStatus());
+    verifyNoInteractions(movimentacaoSaldoService, blockchainService);
+    verify(transacaoRepository, never()).save(any(Transacao.class));
+}
 
-    when(contaSincronaRepository.findByUserId(1L)).thenReturn(contaOrigem);
-    when(contaSincronaRepository.findByUserId(2L)).thenReturn(contaDestino);
+@Test
+void realizarTransacao_limiteDiarioExcedido_deveNegar() {
+    doThrow(new IllegalStateException("Limite diário excedido"))
+        .when(limiteDiarioService).reservar(1L, Dinheiro.valueOf("500.00"));
 
     Exception ex = assertThrows(IllegalStateException.class, () ->
-        transacaoService.realizarTransacao(1L, 2L, 500.0, GatewayPagamento.PAGARME, MetodoConexao.INTERNET, null)
+        transacaoService.realizarTransacao(1L, 2L, Dinheiro.valueOf("500.00"), GatewayPagamento.PAGARME, MetodoConexao.INTERNET, null)
     );
     assertTrue(ex.getMessage().contains("Limite diário excedido"));
+    verify(movimentacaoSaldoService, never()).movimentar(any(), any(), any(), any(), any(Dinheiro.class));
+    verify(transacaoRepository, never()).save(any(Transacao.class));
 }
 
 @Test
 void realizarTransacaoOffline_valorAcimaDe500_deveNegar() {
     Exception ex = assertThrows(IllegalArgumentException.class, () ->
-        transacaoService.realizarTransacaoAssincrona(1L, 2L, 600.0)
+        transacaoService.realizarTransacaoAssincrona(1L, 2L, Dinheiro.valueOf("600.00"))
     );
     assertTrue(ex.getMessage().contains("Limite de R$500 por transação offline"));
 }
 @Test
 void realizarTransacao_valorAcimaDe10000_deveNotificarBACEN() {
-    ContaSincrona contaOrigem = new ContaSincrona();
-    contaOrigem.setSaldo(20000.0);
-    ContaSincrona contaDestino = new ContaSincrona();
-    contaDestino.setSaldo(5000.0);
-
-    when(contaSincronaRepository.findByUserId(1L)).thenReturn(contaOrigem);
-    when(contaSincronaRepository.findByUserId(2L)).thenReturn(contaDestino);
-
     Transacao transacao = new Transacao();
     transacao.setId(123L); 
     when(transacaoRepository.save(any(Transacao.class))).thenReturn(transacao);
 
-    transacaoService.realizarTransacao(1L, 2L, 15000.0, GatewayPagamento.PAGARME, MetodoConexao.INTERNET, null);
+    transacaoService.realizarTransacao(1L, 2L, Dinheiro.valueOf("15000.00"), GatewayPagamento.PAGARME, MetodoConexao.INTERNET, null);
 
     verify(blockchainService).registrarTransacao(any(BlockchainRegistro.class));
 }
-}
\ No newline at end of file
+
+@Test
+void buscarTransacoesFiltradas_deveConsultarRepositorioComSpecification() {
+    Transacao transacao = new Transacao();
+    transacao.setId(1L);
+    when(transacaoRepository.findAll(ArgumentMatchers.<Specification<Transacao>>any())).thenReturn(List.of(transacao));
+
+    List<Transacao> resultado = transacaoService.buscarTransacoesFiltradas(TransacaoFiltro.builder()
+        .status(StatusTransacao.SINCRONIZADA)
+        .descricao("pagamento")
+        .dataCriacaoInicio("2025-06-01T00:00:00Z")
+        .build());
+
+    assertEquals(1, resultado.size());
+    verify(transacaoRepository).findAll(ArgumentMatchers.<Specification<Transacao>>any());
+    verify(transacaoRepository, never()).findAll();
+}
+
+@Test
+void buscarTransacoesFiltradas_dataInvalida_deveRetornarListaVazia() {
+    List<Transacao> resultado = transacaoService.buscarTransacoesFiltradas(TransacaoFiltro.builder()
+        .dataCriacaoInicio("ontem")
+        .build());
+
+    assertTrue(resultado.isEmpty());
+    verifyNoInteractions(transacaoRepository);
+}
+
+@Test
+void buscarPaginaTransacoes_deveRetornarCursorQuandoHaProximaPagina() {
+    OffsetDateTime agora = OffsetDateTime.now(ZoneOffset.UTC).withNano(0);
+    Transacao t1 = new Transacao(3L, 1L, 2L, Dinheiro.valueOf("10.00"), TipoOperacao.SINCRONA, MetodoConexao.INTERNET, GatewayPagamento.PAGARME, StatusTransacao.PENDENTE, agora, agora, "t1");
+    Transacao t2 = new Transacao(2L, 1L, 2L, Dinheiro.valueOf("20.00"), TipoOperacao.SINCRONA, MetodoConexao.INTERNET, GatewayPagamento.PAGARME, StatusTransacao.PENDENTE, agora.minusMinutes(1), agora, "t2");
+    Transacao t3 = new Transacao(1L, 1L, 2L, Dinheiro.valueOf("30.00"), TipoOperacao.SINCRONA, MetodoConexao.INTERNET, GatewayPagamento.PAGARME, StatusTransacao.PENDENTE, agora.minusMinutes(2), agora, "t3");
+    when(transacaoRepository.findBy(ArgumentMatchers.<Specification<Transacao>>any(), any())).thenReturn(List.of(t1, t2, t3));
+
+    PaginaTransacoes pagina = transacaoService.buscarPaginaTransacoes(new TransacaoFiltro(), null, 2);
+
+    assertEquals(2, pagina.transacoes().size());
+    assertNotNull(pagina.nextCursor());
+    CursorTransacao cursor = CursorTransacao.decodificar(pagina.nextCursor());
+    assertEquals(2L, cursor.id());
+    assertTrue(cursor.dataCriacao().isEqual(t2.getDataCriacao()));
+}
+
+@Test
+void buscarPaginaTransacoes_ultimaPagina_deveRetornarCursorNulo() {
+    when(transacaoRepository.findBy(ArgumentMatchers.<Specification<Transacao>>any(), any())).thenReturn(List.of(new Transacao()));
+
+    PaginaTransacoes pagina = transacaoService.buscarPaginaTransacoes(new TransacaoFiltro(), null, 2);
+
+    assertEquals(1, pagina.transacoes().size());
+    assertNull(pagina.nextCursor());
+}
+
+@Test
+void buscarPaginaTransacoes_cursorInvalido_deveLancarExcecao() {
+    assertThrows(IllegalArgumentException.class, () ->
+        transacaoService.buscarPaginaTransacoes(new TransacaoFiltro(), "nao-e-um-cursor", 10)
+    );
+}
+
+@Test
+void listarTransacoesRecebidas_deveConsultarPorDestinoPaginado() {
+    when(transacaoRepository.findByIdUsuarioDestinoOrderByDataCriacaoDescIdDesc(eq(2L), any(Pageable.class)))
+        .thenReturn(new SliceImpl<>(List.of(new Transacao())));
+
+    List<Transacao> recebidas = transacaoService.listarTransacoesRecebidas(2L, 0, 20);
+
+    assertEquals(1, recebidas.size());
+    verify(transacaoRepository).findByIdUsuarioDestinoOrderByDataCriacaoDescIdDesc(2L, PageRequest.of(0, 20));
+    verify(transacaoRepository, never()).findAll();
+}
+
+@Test
+void listarExtrato_deveLerApenasAsLinhasDaPagina() {
+    when(transacaoRepository.findExtrato(1L, 30, 10, 20)).thenReturn(List.of(new Transacao()));
+
+    List<Transacao> extrato = transacaoService.listarExtrato(1L, 2, 10);
+
+    assertEquals(1, extrato.size());
+    verify(transacaoRepository).findExtrato(1L, 30, 10, 20);
+}
+
+@Test
+void listarExtrato_paginaForaDoAlcance_deveLancarExcecao() {
+    assertThrows(IllegalArgumentException.class, () -> transacaoService.listarExtrato(1L, Integer.MAX_VALUE, 100));
+    verify(transacaoRepository, never()).findExtrato(any(), anyInt(), anyInt(), anyInt());
+}
+
+@Test
+void criarTransacoesEmLote_deveProcessarItensValidosERecusarOsDemais() {
+    User origem = User.builder().id(1L).nome("Origem").build();
+    User destino = User.builder().id(2L).nome("Destino").build();
+    when(userRepository.findAllById(any())).thenReturn(List.of(origem, destino));
+    when(movimentacaoSaldoService.movimentarLote(anyList())).thenReturn(List.of(
+        MovimentacaoSaldoService.Resultado.EFETUADA,
+        MovimentacaoSaldoService.Resultado.SALDO_INSUFICIENTE));
+    when(transacaoRepository.saveAll(anyList())).thenAnswer(inv -> {
+        List<Transacao> transacoes = inv.getArgument(0);
+        transacoes.get(0).setId(10L);
+        return transacoes;
+    });
+
+    ResultadoLote resultado = transacaoService.criarTransacoesEmLote(1L, List.of(
+        requestLote(1L, 2L, "10.00"),
+        requestLote(1L, 3L, "10.00"),
+        requestLote(1L, 2L, "0.00"),
+        requestLote(1L, 2L, "20.00"),
+        requestLote(2L, 1L, "5.00")));
+
+    assertEquals(1, resultado.efetuadas());
+    assertEquals(4, resultado.recusadas());
+    assertEquals(10L, resultado.itens().get(0).idTransacao());
+    assertEquals("Usuário de destino não encontrado.", resultado.itens().get(1).mensagem());
+    assertEquals("O valor da transação deve ser maior que zero.", resultado.itens().get(2).mensagem());
+    assertEquals("Saldo insuficiente.", resultado.itens().get(3).mensagem());
+    assertEquals("A origem da transação deve ser o usuário autenticado.", resultado.itens().get(4).mensagem());
+    verify(movimentacaoSaldoService).movimentarLote(List.of(
+        new MovimentacaoSaldoService.Movimento(TipoOperacao.SINCRONA, 1L, TipoOperacao.SINCRONA, 2L, Dinheiro.valueOf("10.00")),
+        new MovimentacaoSaldoService.Movimento(TipoOperacao.SINCRONA, 1L, TipoOperacao.SINCRONA, 2L, Dinheiro.valueOf("20.00"))));
+    verify(limiteDiarioService).registrar(1L, Dinheiro.valueOf("10.00"));
+    verify(movimentacaoSaldoService, never()).movimentar(any(), any(), any(), any(), any(Dinheiro.class));
+}
+
+@Test
+void criarTransacoesEmLote_loteVazio_deveLancarExcecao() {
+    assertThrows(IllegalArgumentException.class, () -> transacaoService.criarTransacoesEmLote(1L, List.of()));
+    verifyNoInteractions(movimentacaoSaldoService);
+}
+
+@Test
+void atualizarStatusTransacao_statusFinal_naoDeveMudar() {
+    Transacao transacao = new Transacao();
+    transacao.setId(1L);
+    transacao.setStatus(StatusTransacao.SINCRONIZADA);
+    when(transacaoRepository.findById(1L)).thenReturn(Optional.of(transacao));
+
+    assertThrows(IllegalStateException.class, () -> transacaoService.atualizarStatusTransacao(1L, StatusTransacao.ROLLBACK));
+    transacaoService.atualizarStatusTransacao(1L, StatusTransacao.SINCRONIZADA);
+
+    assertEquals(StatusTransacao.SINCRONIZADA, transacao.getStatus());
+    verify(transacaoRepository, never()).save(any(Transacao.class));
+}
+
+@Test
+void atualizarStatusTransacao_pendente_deveGravarNovoStatus() {
+    Transacao transacao = new Transacao();
+    transacao.setId(1L);
+    transacao.setStatus(StatusTransacao.PENDENTE);
+    when(transacaoRepository.findById(1L)).thenReturn(Optional.of(transacao));
+
+    transacaoService.atualizarStatusTransacao(1L, StatusTransacao.ERRO);
+
+    assertEquals(StatusTransacao.ERRO, transacao.getStatus());
+    assertNotNull(transacao.getDataAtualizacao());
+    verify(transacaoRepository).save(transacao);
+}
+
+private TransacaoRequest requestLote(Long origem, Long destino, String valor) {
+    return new TransacaoRequest(origem, destino, Dinheiro.valueOf(valor), MetodoConexao.INTERNET,
+        GatewayPagamento.PAGARME, TipoOperacao.SINCRONA, "lote");
+}
+}
@@ -1,10 +1,12 @@
 package com.example.asyncpayments.service;
 
-import com.example.asyncpayments.entity.User;
+import com.example.asyncpayments.entity.UserRole;
 import com.example.asyncpayments.repository.UserRepository;
+import com.example.asyncpayments.repository.UsuarioResumo;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 import java.util.Optional;
@@ -14,6 +16,7 @@ import static org.mockito.Mockito.*;
 
 class UserDetailsServiceImplTest {
 
+    @Mock private UsuarioCacheService usuarioCacheService;
     @Mock private UserRepository userRepository;
 
     @InjectMocks
@@ -26,14 +29,30 @@ class UserDetailsServiceImplTest {
 
     @Test
     void loadUserByUsername_usuarioExiste() {
-        User user = User.builder().email("a@b.com").build();
-        when(userRepository.findByEmail("a@b.com")).thenReturn(Optional.of(user));
-        assertEquals(user, userDetailsService.loadUserByUsername("a@b.com"));
+        UsuarioResumo resumo = new UsuarioResumo(1L, "a@b.com", "pwenc", UserRole.USER, 0L);
+        when(usuarioCacheService.buscarPorEmail("a@b.com")).thenReturn(Optional.of(resumo));
+
+        UserDetails userDetails = userDetailsService.loadUserByUsername("a@b.com");
+
+        assertEquals("a@b.com", userDetails.getUsername());
+        assertEquals("pwenc", userDetails.getPassword());
+        assertEquals("ROLE_USER", userDetails.getAuthorities().iterator().next().getAuthority());
     }
 
     @Test
     void loadUserByUsername_usuarioNaoExiste() {
-        when(userRepository.findByEmail("notfound@email.com")).thenReturn(Optional.empty());
+        when(usuarioCacheService.buscarPorEmail("notfound@email.com")).thenReturn(Optional.empty());
         assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("notfound@email.com"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void updatePassword_deveRegravarHashEInvalidarCache() {
+        UserDetails user = new UsuarioResumo(1L, "a@b.com", "hash-antigo", UserRole.USER, 0L).paraUsuario();
+
+        UserDetails atualizado = userDetailsService.updatePassword(user, "hash-novo");
+
+        assertEquals("hash-novo", atualizado.getPassword());
+        verify(userRepository).atualizarSenha("a@b.com", "hash-novo");
+        verify(usuarioCacheService).invalidar(1L);
+    }
+}
@@ -4,6 +4,7 @@ import com.example.asyncpayments.entity.User;
 import com.example.asyncpayments.entity.UserRole;
 import com.example.asyncpayments.entity.ContaSincrona;
 import com.example.asyncpayments.entity.ContaAssincrona;
+import com.example.asyncpayments.entity.Dinheiro;
 import com.example.asyncpayments.repository.UserRepository;
 import com.example.asyncpayments.repository.ContaSincronaRepository;
 import com.example.asyncpayments.repository.ContaAssincronaRepository;
@@ -54,8 +55,8 @@ class UserServiceTest {
                 .build();
 
         
-        ContaSincrona contaSincronaMock = new ContaSincrona(100.0, usuarioMock);
-        ContaAssincrona contaAssincronaMock = new ContaAssincrona(0.0, usuarioMock);
+        ContaSincrona contaSincronaMock = new ContaSincrona(Dinheiro.valueOf("100.00"), usuarioMock);
+        ContaAssincrona contaAssincronaMock = new ContaAssincrona(Dinheiro.ZERO, usuarioMock);
 
         
         when(userRepository.save(any(User.class))).thenReturn(usuarioMock);
@@ -0,0 +1,81 @@
+package com.example.asyncpayments.service;
+
+import com.example.asyncpayments.entity.UserRole;
+import com.example.asyncpayments.repository.UserRepository;
+import com.example.asyncpayments.repository.UsuarioResumo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UsuarioCacheServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final AtomicLong agora = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private UsuarioCacheService usuarioCacheService;
+    private final UsuarioResumo resumo = new UsuarioResumo(1L, "a@b.com", "pwenc", UserRole.USER, 0L);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        usuarioCacheService = new UsuarioCacheService(userRepository, meterRegistry, 100, 60_000, agora::get);
+        when(userRepository.findResumoByEmail("a@b.com")).thenReturn(Optional.of(resumo));
+        when(userRepository.findResumoById(1L)).thenReturn(Optional.of(resumo));
+    }
+
+    @Test
+    void buscarPorEmail_deveIrAoBancoUmaVez() {
+        assertEquals(Optional.of(1L), usuarioCacheService.buscarIdPorEmail("a@b.com"));
+        assertEquals(Optional.of(resumo), usuarioCacheService.buscarPorEmail("a@b.com"));
+
+        verify(userRepository, times(1)).findResumoByEmail("a@b.com");
+        assertEquals(1.0, meterRegistry.get("usuarios.cache.acertos").tag("chave", "email").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("usuarios.cache.falhas").tag("chave", "email").functionCounter().count());
+    }
+
+    @Test
+    void buscarPorEmail_usuarioInexistente_naoDeveFicarEmCache() {
+        when(userRepository.findResumoByEmail("x@b.com")).thenReturn(Optional.empty());
+
+        assertTrue(usuarioCacheService.buscarPorEmail("x@b.com").isEmpty());
+        assertTrue(usuarioCacheService.buscarPorEmail("x@b.com").isEmpty());
+        assertTrue(usuarioCacheService.buscarPorEmail(null).isEmpty());
+
+        verify(userRepository, times(2)).findResumoByEmail("x@b.com");
+    }
+
+    @Test
+    void buscar_aposTempoDeVida_deveRecarregar() {
+        usuarioCacheService.buscarPorId(1L);
+        agora.addAndGet(60_000);
+
+        usuarioCacheService.buscarPorId(1L);
+
+        verify(userRepository, times(2)).findResumoById(1L);
+        assertEquals(1.0, meterRegistry.get("usuarios.cache.despejos").tag("chave", "id").functionCounter().count());
+    }
+
+    @Test
+    void invalidar_deveTirarOUsuarioDosDoisCaches() {
+        usuarioCacheService.buscarPorEmail("a@b.com");
+        usuarioCacheService.buscarPorId(1L);
+
+        usuarioCacheService.invalidar(1L);
+        usuarioCacheService.buscarPorEmail("a@b.com");
+        usuarioCacheService.buscarPorId(1L);
+
+        verify(userRepository, times(2)).findResumoByEmail("a@b.com");
+        verify(userRepository, times(2)).findResumoById(1L);
+    }
+}
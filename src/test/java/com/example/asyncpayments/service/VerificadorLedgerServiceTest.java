@@ -0,0 +1,173 @@
+package com.example.asyncpayments.service;
+
+import com.example.asyncpayments.dto.ResultadoVerificacaoLedger;
+import com.example.asyncpayments.entity.BlockchainRegistro;
+import com.example.asyncpayments.entity.BlocoLedger;
+import com.example.asyncpayments.entity.CheckpointLedger;
+import com.example.asyncpayments.entity.Dinheiro;
+import com.example.asyncpayments.repository.BlockchainRegistroRepository;
+import com.example.asyncpayments.repository.BlocoLedgerRepository;
+import com.example.asyncpayments.repository.CheckpointLedgerRepository;
+import com.example.asyncpayments.util.ArvoreMerkle;
+import com.example.asyncpayments.util.HashLedger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class VerificadorLedgerServiceTest {
+
+    @Mock
+    private BlocoLedgerRepository blocoLedgerRepository;
+    @Mock
+    private BlockchainRegistroRepository blockchainRegistroRepository;
+    @Mock
+    private CheckpointLedgerRepository checkpointLedgerRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private VerificadorLedgerService verificador;
+    private final List<BlocoLedger> blocos = new ArrayList<>();
+    private final List<BlockchainRegistro> registros = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        verificador = new VerificadorLedgerService(blocoLedgerRepository, blockchainRegistroRepository, checkpointLedgerRepository, transactionManager);
+        when(blocoLedgerRepository.findByNumeroGreaterThanOrderByNumeroAsc(anyLong(), any())).then(invocation -> {
+            long depoisDe = invocation.getArgument(0);
+            return blocos.stream().filter(bloco -> bloco.getNumero() > depoisDe).toList();
+        });
+        when(blockchainRegistroRepository.findByNumeroBlocoBetweenOrderByNumeroBlocoAscIndiceBlocoAsc(anyLong(), anyLong())).then(invocation -> {
+            long primeiro = invocation.getArgument(0);
+            long ultimo = invocation.getArgument(1);
+            return registros.stream().filter(r -> r.getNumeroBloco() >= primeiro && r.getNumeroBloco() <= ultimo).toList();
+        });
+    }
+
+    @Test
+    void verificarNovosBlocos_cadeiaIntegra_deveAvancarCheckpoint() {
+        selar(2);
+        selar(3);
+
+        ResultadoVerificacaoLedger resultado = verificador.verificarNovosBlocos();
+
+        assertTrue(resultado.integro());
+        assertEquals(2, resultado.blocosVerificados());
+        assertEquals(2, resultado.ultimoBlocoVerificado());
+        assertEquals(2, checkpointSalvo().getNumeroBloco());
+        assertEquals(blocos.get(1).getHashBloco(), checkpointSalvo().getHashBloco());
+    }
+
+    @Test
+    void verificarNovosBlocos_devePartirDoCheckpoint() {
+        selar(1);
+        selar(1);
+        BlocoLedger primeiro = blocos.get(0);
+        primeiro.setRaizMerkle("adulterada");
+        when(checkpointLedgerRepository.findById(CheckpointLedger.ID_VERIFICACAO))
+                .thenReturn(Optional.of(new CheckpointLedger(CheckpointLedger.ID_VERIFICACAO, 1, primeiro.getHashBloco(), null)));
+
+        ResultadoVerificacaoLedger resultado = verificador.verificarNovosBlocos();
+
+        assertTrue(resultado.integro());
+        assertEquals(1, resultado.blocosVerificados());
+        verify(blockchainRegistroRepository).findByNumeroBlocoBetweenOrderByNumeroBlocoAscIndiceBlocoAsc(2L, 2L);
+    }
+
+    @Test
+    void verificarNovosBlocos_registroAdulterado_devePararNoBlocoAnterior() {
+        selar(1);
+        selar(2);
+        registros.get(2).setValor(Dinheiro.valueOf("999.00"));
+
+        ResultadoVerificacaoLedger resultado = verificador.verificarNovosBlocos();
+
+        assertFalse(resultado.integro());
+        assertEquals(2L, resultado.blocoInvalido());
+        assertEquals(1, resultado.ultimoBlocoVerificado());
+        assertEquals(1, checkpointSalvo().getNumeroBloco());
+    }
+
+    @Test
+    void verificarNovosBlocos_encadeamentoQuebrado_deveRecusarBloco() {
+        selar(1);
+        selar(1);
+        blocos.get(1).setHashAnterior(HashLedger.HASH_GENESIS);
+
+        ResultadoVerificacaoLedger resultado = verificador.verificarNovosBlocos();
+
+        assertFalse(resultado.integro());
+        assertEquals(2L, resultado.blocoInvalido());
+        assertEquals("Hash do bloco anterior não confere.", resultado.motivo());
+    }
+
+    @Test
+    void verificarNovosBlocos_registroRemovido_deveRecusarBloco() {
+        selar(3);
+        registros.remove(1);
+
+        ResultadoVerificacaoLedger resultado = verificador.verificarNovosBlocos();
+
+        assertFalse(resultado.integro());
+        assertEquals(1L, resultado.blocoInvalido());
+        verify(checkpointLedgerRepository, never()).save(any());
+    }
+
+    @Test
+    void verificarNovosBlocos_semBlocosNovos_naoDeveGravarCheckpoint() {
+        ResultadoVerificacaoLedger resultado = verificador.verificarNovosBlocos();
+
+        assertTrue(resultado.integro());
+        assertEquals(0, resultado.blocosVerificados());
+        verify(checkpointLedgerRepository, never()).save(any());
+    }
+
+    private void selar(int quantidade) {
+        long numero = blocos.size() + 1;
+        String hashAnterior = blocos.isEmpty() ? HashLedger.HASH_GENESIS : blocos.get(blocos.size() - 1).getHashBloco();
+        List<String> folhas = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            BlockchainRegistro registro = BlockchainRegistro.builder()
+                    .id((long) registros.size() + 1)
+                    .idTransacao((long) registros.size() + 100)
+                    .idUsuarioOrigem(1L)
+                    .idUsuarioDestino(2L)
+                    .valor(Dinheiro.valueOf("10.00"))
+                    .dataRegistro(OffsetDateTime.of(2025, 6, 1, 12, 0, 0, 0, ZoneOffset.UTC))
+                    .numeroBloco(numero)
+                    .indiceBloco(i)
+                    .build();
+            registro.setHashTransacao(HashLedger.hashRegistro(registro));
+            registros.add(registro);
+            folhas.add(registro.getHashTransacao());
+        }
+        String raiz = ArvoreMerkle.raiz(folhas);
+        blocos.add(BlocoLedger.builder()
+                .numero(numero)
+                .hashAnterior(hashAnterior)
+                .raizMerkle(raiz)
+                .hashBloco(HashLedger.hashBloco(numero, hashAnterior, raiz, quantidade))
+                .quantidadeRegistros(quantidade)
+                .build());
+    }
+
+    private CheckpointLedger checkpointSalvo() {
+        ArgumentCaptor<CheckpointLedger> checkpoint = ArgumentCaptor.forClass(CheckpointLedger.class);
+        verify(checkpointLedgerRepository, atLeastOnce()).save(checkpoint.capture());
+        return checkpoint.getValue();
+    }
+}
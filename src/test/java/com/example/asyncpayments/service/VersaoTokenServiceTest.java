@@ -0,0 +1,96 @@
+package com.example.asyncpayments.service;
+
+import com.example.asyncpayments.repository.UserRepository;
+import com.example.asyncpayments.repository.VersaoToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class VersaoTokenServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private UsuarioCacheService usuarioCacheService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private VersaoTokenService versaoTokenService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        versaoTokenService = new VersaoTokenService(userRepository, usuarioCacheService, meterRegistry, 2);
+    }
+
+    @Test
+    void vigente_deveCarregarUmaVezEResponderDaMemoria() {
+        when(userRepository.findVersaoTokenById(1L)).thenReturn(Optional.of(0L));
+
+        assertTrue(versaoTokenService.vigente(1L, 0L));
+        assertTrue(versaoTokenService.vigente(1L, 0L));
+        assertFalse(versaoTokenService.vigente(1L, 1L));
+
+        verify(userRepository, times(1)).findVersaoTokenById(1L);
+        assertEquals(1.0, meterRegistry.counter("jwt.tokens.revogados.recusados").count());
+    }
+
+    @Test
+    void vigente_usuarioInexistente_deveRecusar() {
+        when(userRepository.findVersaoTokenById(1L)).thenReturn(Optional.empty());
+
+        assertFalse(versaoTokenService.vigente(1L, 0L));
+        assertFalse(versaoTokenService.vigente(null, 0L));
+    }
+
+    @Test
+    void revogar_deveRecusarTokensDaVersaoAnterior() {
+        when(userRepository.findVersaoTokenById(1L)).thenReturn(Optional.of(0L));
+        assertTrue(versaoTokenService.vigente(1L, 0L));
+
+        doReturn(Optional.of(1L)).when(userRepository).findVersaoTokenById(1L);
+        assertEquals(1L, versaoTokenService.revogar(1L));
+
+        verify(userRepository).incrementarVersaoToken(1L);
+        verify(usuarioCacheService).invalidar(1L);
+        assertFalse(versaoTokenService.vigente(1L, 0L));
+        assertTrue(versaoTokenService.vigente(1L, 1L));
+    }
+
+    @Test
+    void recarregar_deveAplicarRevogacoesDeOutrasInstancias() {
+        when(userRepository.findVersaoTokenById(1L)).thenReturn(Optional.of(0L));
+        when(userRepository.findVersaoTokenById(2L)).thenReturn(Optional.of(0L));
+        versaoTokenService.vigente(1L, 0L);
+        versaoTokenService.vigente(2L, 0L);
+        // O usuário 1 foi revogado em outra instância e o 2 foi excluído.
+        when(userRepository.findVersoesToken(anyCollection())).thenReturn(List.of(new VersaoToken(1L, 1L)));
+
+        versaoTokenService.recarregar();
+
+        assertFalse(versaoTokenService.vigente(1L, 0L));
+        assertTrue(versaoTokenService.vigente(1L, 1L));
+        assertFalse(versaoTokenService.vigente(2L, 0L));
+        verify(userRepository, times(2)).findVersaoTokenById(anyLong());
+    }
+
+    @Test
+    void vigente_cacheCheio_deveDescartarUmaEntrada() {
+        when(userRepository.findVersaoTokenById(anyLong())).thenReturn(Optional.of(0L));
+
+        versaoTokenService.vigente(1L, 0L);
+        versaoTokenService.vigente(2L, 0L);
+        versaoTokenService.vigente(3L, 0L);
+
+        assertEquals(2, versaoTokenService.emMemoria());
+    }
+}
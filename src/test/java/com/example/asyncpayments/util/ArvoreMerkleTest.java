@@ -0,0 +1,96 @@
+package com.example.asyncpayments.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ArvoreMerkleTest {
+
+    @Test
+    void raiz_umaFolha_deveSerAPropriaFolha() {
+        assertEquals("a", ArvoreMerkle.raiz(List.of("a")));
+    }
+
+    @Test
+    void raiz_quantidadeImpar_deveDuplicarUltimoNo() {
+        String ab = HashLedger.sha256("ab");
+        String cc = HashLedger.sha256("cc");
+
+        assertEquals(HashLedger.sha256(ab + cc), ArvoreMerkle.raiz(List.of("a", "b", "c")));
+    }
+
+    @Test
+    void raiz_deveMudarComAOrdemDasFolhas() {
+        assertNotEquals(ArvoreMerkle.raiz(List.of("a", "b")), ArvoreMerkle.raiz(List.of("b", "a")));
+    }
+
+    @Test
+    void raiz_semFolhas_deveLancarExcecao() {
+        assertThrows(IllegalArgumentException.class, () -> ArvoreMerkle.raiz(List.of()));
+    }
+
+    @Test
+    void prova_deveReconstruirARaizParaTodasAsFolhas() {
+        for (int tamanho = 1; tamanho <= 17; tamanho++) {
+            List<String> folhas = new ArrayList<>();
+            for (int i = 0; i < tamanho; i++) {
+                folhas.add(HashLedger.sha256("registro-" + i));
+            }
+            ArvoreMerkle arvore = ArvoreMerkle.montar(folhas);
+            assertEquals(ArvoreMerkle.raiz(folhas), arvore.raiz());
+
+            for (int i = 0; i < tamanho; i++) {
+                List<ArvoreMerkle.PassoProva> caminho = arvore.prova(i);
+                assertEquals(32 - Integer.numberOfLeadingZeros(tamanho - 1), caminho.size());
+                assertEquals(arvore.raiz(), ArvoreMerkle.raizDaProva(folhas.get(i), caminho));
+            }
+        }
+    }
+
+    @Test
+    void raizDaProva_folhaTrocada_naoDeveConferir() {
+        ArvoreMerkle arvore = ArvoreMerkle.montar(folhas("a", "b", "c", "d"));
+
+        assertNotEquals(arvore.raiz(), ArvoreMerkle.raizDaProva(HashLedger.sha256("x"), arvore.prova(2)));
+    }
+
+    @Test
+    void prova_folhaInexistente_deveLancarExcecao() {
+        ArvoreMerkle arvore = ArvoreMerkle.montar(folhas("a", "b"));
+
+        assertThrows(IllegalArgumentException.class, () -> arvore.prova(2));
+    }
+
+    @Test
+    void montar_deveDevolverAsFolhasEmHexadecimal() {
+        List<String> folhas = folhas("a", "b", "c");
+
+        ArvoreMerkle arvore = ArvoreMerkle.montar(folhas);
+
+        assertEquals(3, arvore.quantidadeFolhas());
+        assertEquals(folhas.get(1), arvore.folha(1));
+        assertEquals(folhas.get(2), arvore.prova(2).get(0).hash());
+    }
+
+    @Test
+    void montar_folhaQueNaoEhSha256EmMinusculas_deveLancarExcecao() {
+        assertThrows(IllegalArgumentException.class, () -> ArvoreMerkle.montar(List.of("a")));
+        assertThrows(IllegalArgumentException.class, () -> ArvoreMerkle.montar(List.of(HashLedger.sha256("a").toUpperCase())));
+        assertThrows(IllegalArgumentException.class, () -> ArvoreMerkle.montar(List.of("g".repeat(64))));
+    }
+
+    private static List<String> folhas(String... valores) {
+        return Arrays.stream(valores).map(HashLedger::sha256).toList();
+    }
+
+    @Test
+    void sha256_deveProduzirHexadecimalConhecido() {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", HashLedger.sha256("abc"));
+    }
+}
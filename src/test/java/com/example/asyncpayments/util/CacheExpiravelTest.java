@@ -0,0 +1,153 @@
+package com.example.asyncpayments.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CacheExpiravelTest {
+
+    private final AtomicLong agora = new AtomicLong(1_000);
+
+    @Test
+    void obter_deveCarregarUmaVezEContarAcertosEFalhas() {
+        CacheExpiravel<String, String> cache = new CacheExpiravel<>(10, 1_000, agora::get);
+        AtomicInteger cargas = new AtomicInteger();
+
+        assertEquals("A", cache.obter("a", chave -> { cargas.incrementAndGet(); return "A"; }));
+        assertEquals("A", cache.obter("a", chave -> { cargas.incrementAndGet(); return "A"; }));
+
+        assertEquals(1, cargas.get());
+        assertEquals(1, cache.acertos());
+        assertEquals(1, cache.falhas());
+    }
+
+    @Test
+    void obter_valorNulo_naoDeveGuardar() {
+        CacheExpiravel<String, String> cache = new CacheExpiravel<>(10, 1_000, agora::get);
+
+        assertNull(cache.obter("a", chave -> null));
+
+        assertEquals(0, cache.tamanho());
+    }
+
+    @Test
+    void obter_entradaVencida_deveRecarregar() {
+        CacheExpiravel<String, String> cache = new CacheExpiravel<>(10, 1_000, agora::get);
+        cache.obter("a", chave -> "antigo");
+
+        agora.addAndGet(1_000);
+
+        assertEquals("novo", cache.obter("a", chave -> "novo"));
+        assertEquals(1, cache.despejos());
+    }
+
+    @Test
+    void obter_acimaDaCapacidade_deveDespejarAMenosUsada() {
+        CacheExpiravel<String, String> cache = new CacheExpiravel<>(2, 1_000, agora::get);
+        cache.obter("a", chave -> "A");
+        agora.incrementAndGet();
+        cache.obter("b", chave -> "B");
+        agora.incrementAndGet();
+        cache.obter("a", chave -> "A");
+        agora.incrementAndGet();
+
+        cache.obter("c", chave -> "C");
+
+        assertEquals(2, cache.tamanho());
+        assertEquals(1, cache.despejos());
+        assertEquals("A", cache.obter("a", chave -> "A2"));
+        assertEquals("B2", cache.obter("b", chave -> "B2"));
+    }
+
+    @Test
+    void obter_invalidacaoDuranteACarga_naoDeveGuardarValorAntigo() {
+        CacheExpiravel<String, String> cache = new CacheExpiravel<>(10, 1_000, agora::get);
+
+        assertEquals("antigo", cache.obter("a", chave -> {
+            cache.remover("a");
+            return "antigo";
+        }));
+
+        assertEquals("novo", cache.obter("a", chave -> "novo"));
+    }
+
+    @Test
+    void removerGrupo_deveRemoverTodasAsChavesDoGrupo() {
+        CacheExpiravel<String, Integer> cache = new CacheExpiravel<>(10, 1_000, agora::get, valor -> valor % 2);
+        cache.obter("a", chave -> 1);
+        cache.obter("b", chave -> 3);
+        cache.obter("c", chave -> 2);
+
+        cache.removerGrupo(1);
+
+        assertEquals(1, cache.tamanho());
+        assertEquals(5, cache.obter("a", chave -> 5));
+        assertEquals(2, cache.obter("c", chave -> 4));
+    }
+
+    @Test
+    void removerGrupo_entradaSubstituidaPorOutroGrupo_naoDeveRemover() {
+        CacheExpiravel<String, Integer> cache = new CacheExpiravel<>(10, 1_000, agora::get, valor -> valor % 2);
+        cache.obter("a", chave -> 1);
+        cache.remover("a");
+        cache.obter("a", chave -> 2);
+
+        cache.removerGrupo(1);
+
+        assertEquals(2, cache.obter("a", chave -> 4));
+    }
+
+    @Test
+    void removerGrupo_duranteACarga_naoDeveGuardarValorAntigo() {
+        CacheExpiravel<String, Integer> cache = new CacheExpiravel<>(10, 1_000, agora::get, valor -> valor % 2);
+
+        assertEquals(1, cache.obter("a", chave -> {
+            cache.removerGrupo(1);
+            return 1;
+        }));
+
+        assertEquals(0, cache.tamanho());
+    }
+
+    @Test
+    void obter_muitasChaves_naoDevePassarDaCapacidade() {
+        CacheExpiravel<Integer, Integer> cache = new CacheExpiravel<>(50, 1_000, agora::get, valor -> valor % 7);
+        for (int chave = 0; chave < 1_000; chave++) {
+            agora.incrementAndGet();
+            int valor = chave;
+            cache.obter(chave, c -> valor);
+        }
+
+        assertEquals(50, cache.tamanho());
+        assertEquals(950, cache.despejos());
+        for (int grupo = 0; grupo < 7; grupo++) {
+            cache.removerGrupo(grupo);
+        }
+        assertEquals(0, cache.tamanho());
+    }
+
+    @Test
+    void removerVencidas_deveLimparSemConsulta() {
+        CacheExpiravel<String, String> cache = new CacheExpiravel<>(10, 1_000, agora::get);
+        cache.obter("a", chave -> "A");
+        agora.addAndGet(500);
+        cache.obter("b", chave -> "B");
+        agora.addAndGet(600);
+
+        cache.removerVencidas();
+
+        assertEquals(1, cache.tamanho());
+        assertEquals(1, cache.despejos());
+    }
+
+    @Test
+    void construtor_parametrosInvalidos_deveLancarExcecao() {
+        assertThrows(IllegalArgumentException.class, () -> new CacheExpiravel<String, String>(0, 1_000, agora::get));
+        assertThrows(IllegalArgumentException.class, () -> new CacheExpiravel<String, String>(10, 0, agora::get));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.asyncpayments.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FiltroBloomTest {
+
+    @Test
+    void podeConter_valoresAdicionados_deveResponderTrue() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.adicionar("hash-" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filtro.podeConter("hash-" + i));
+        }
+    }
+
+    @Test
+    void podeConter_valoresNuncaAdicionados_deveRespeitarTaxaDeFalsosPositivos() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.adicionar("hash-" + i);
+        }
+
+        int falsosPositivos = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filtro.podeConter("ausente-" + i)) {
+                falsosPositivos++;
+            }
+        }
+        assertTrue(falsosPositivos < 2_000, "falsos positivos: " + falsosPositivos);
+    }
+
+    @Test
+    void podeConter_filtroVazio_deveResponderFalse() {
+        assertFalse(new FiltroBloom(100, 0.01).podeConter("qualquer"));
+    }
+
+    @Test
+    void construtor_parametrosInvalidos_deveLancarExcecao() {
+        assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(100, 1.0));
+    }
+}
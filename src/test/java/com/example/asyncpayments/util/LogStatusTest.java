@@ -0,0 +1,126 @@
+package com.example.asyncpayments.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogStatusTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void recuperar_deveRelerRegistrosNaOrdemAposReabrir() throws IOException {
+        Path arquivo = diretorio.resolve("status.log");
+        try (LogStatus log = new LogStatus(arquivo, 8)) {
+            log.recuperar((id, status) -> fail("log novo não deveria ter registros"));
+            assertTrue(log.anexar(10, (byte) 1));
+            assertTrue(log.anexar(11, (byte) 2));
+            assertTrue(log.anexar(10, LogStatus.REMOVIDO));
+        }
+
+        List<String> lidos = new ArrayList<>();
+        try (LogStatus log = new LogStatus(arquivo, 8)) {
+            log.recuperar((id, status) -> lidos.add(id + ":" + status));
+            assertEquals(3, log.registros());
+            assertTrue(log.anexar(12, (byte) 3));
+        }
+        assertEquals(List.of("10:1", "11:2", "10:-1"), lidos);
+    }
+
+    @Test
+    void recuperar_registroIncompleto_deveParar() throws IOException {
+        Path arquivo = diretorio.resolve("status.log");
+        try (LogStatus log = new LogStatus(arquivo, 8)) {
+            log.recuperar((id, status) -> { });
+            log.anexar(10, (byte) 1);
+            log.anexar(11, (byte) 2);
+        }
+        // Simula uma queda no meio da gravação do segundo registro: o código de verificação não bate.
+        try (RandomAccessFile bruto = new RandomAccessFile(arquivo.toFile(), "rw")) {
+            bruto.seek(LogStatus.TAMANHO_CABECALHO + LogStatus.TAMANHO_REGISTRO + 12);
+            bruto.writeInt(0);
+        }
+
+        List<Long> lidos = new ArrayList<>();
+        try (LogStatus log = new LogStatus(arquivo, 8)) {
+            log.recuperar((id, status) -> lidos.add(id));
+            assertEquals(1, log.registros());
+        }
+        assertEquals(List.of(10L), lidos);
+    }
+
+    @Test
+    void anexar_logCheio_deveRecusarAteReescrever() throws IOException {
+        Path arquivo = diretorio.resolve("status.log");
+        MapaLongByte indice = new MapaLongByte(4);
+        try (LogStatus log = new LogStatus(arquivo, 2)) {
+            log.recuperar((id, status) -> { });
+            assertTrue(log.anexar(1, (byte) 1));
+            assertTrue(log.anexar(1, (byte) 2));
+            assertFalse(log.anexar(1, (byte) 3));
+
+            indice.put(1, (byte) 3);
+            log.reescrever(indice);
+            assertEquals(1, log.registros());
+            assertTrue(log.anexar(2, (byte) 1));
+        }
+
+        List<String> lidos = new ArrayList<>();
+        try (LogStatus log = new LogStatus(arquivo, 2)) {
+            log.recuperar((id, status) -> lidos.add(id + ":" + status));
+        }
+        assertEquals(List.of("1:3", "2:1"), lidos);
+        assertFalse(Files.exists(arquivo.resolveSibling("status.log.tmp")));
+    }
+
+    @Test
+    void copiar_naoDeveMexerNoLogAbertoAteTrocar() throws IOException {
+        Path arquivo = diretorio.resolve("status.log");
+        MapaLongByte indice = new MapaLongByte(4);
+        try (LogStatus log = new LogStatus(arquivo, 4)) {
+            log.recuperar((id, status) -> { });
+            log.anexar(1, (byte) 1);
+            log.anexar(1, (byte) 2);
+            indice.put(1, (byte) 2);
+
+            LogStatus.Copia copia = log.copiar(indice);
+            assertTrue(log.anexar(2, (byte) 1));
+            assertEquals(3, log.registros());
+
+            log.trocar(copia);
+            assertEquals(1, log.registros());
+            assertTrue(log.anexar(2, (byte) 1));
+        }
+
+        List<String> lidos = new ArrayList<>();
+        try (LogStatus log = new LogStatus(arquivo, 4)) {
+            log.recuperar((id, status) -> lidos.add(id + ":" + status));
+        }
+        assertEquals(List.of("1:2", "2:1"), lidos);
+        assertFalse(Files.exists(arquivo.resolveSibling("status.log.tmp")));
+    }
+
+    @Test
+    void construtor_arquivoQueNaoELog_deveLancarExcecao() throws IOException {
+        Path arquivo = diretorio.resolve("outro.txt");
+        Files.writeString(arquivo, "não é um log de status");
+
+        assertThrows(IOException.class, () -> new LogStatus(arquivo, 8));
+    }
+
+    @Test
+    void anexar_semRecuperar_deveLancarExcecao() throws IOException {
+        try (LogStatus log = new LogStatus(diretorio.resolve("status.log"), 8)) {
+            assertThrows(IllegalStateException.class, () -> log.anexar(1, (byte) 1));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.asyncpayments.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapaLongByteConcorrenteTest {
+
+    @Test
+    void escritasELeiturasConcorrentes_naoDevemPerderNemInventarEntradas() throws Exception {
+        MapaLongByteConcorrente mapa = new MapaLongByteConcorrente(16, 8);
+        int escritores = 4;
+        int porEscritor = 50_000;
+        AtomicBoolean escrevendo = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(escritores + 2);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int escritor = 0; escritor < escritores; escritor++) {
+                long base = (long) escritor * porEscritor;
+                tarefas.add(executor.submit(() -> {
+                    for (long chave = base + 1; chave <= base + porEscritor; chave++) {
+                        mapa.put(chave, (byte) (chave % 3));
+                    }
+                }));
+            }
+            List<Future<?>> leitores = new ArrayList<>();
+            for (int leitor = 0; leitor < 2; leitor++) {
+                leitores.add(executor.submit(() -> {
+                    while (escrevendo.get()) {
+                        for (long chave = 1; chave <= (long) escritores * porEscritor; chave += 997) {
+                            int valor = mapa.get(chave);
+                            assertTrue(valor == MapaLongByte.AUSENTE || valor == chave % 3, "valor inventado para " + chave);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+            escrevendo.set(false);
+            for (Future<?> leitor : leitores) {
+                leitor.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(escritores * porEscritor, mapa.tamanho());
+        for (long chave = 1; chave <= (long) escritores * porEscritor; chave++) {
+            assertEquals(chave % 3, mapa.get(chave));
+        }
+    }
+
+    @Test
+    void putSeAusente_naoDeveSobrescrever() {
+        MapaLongByteConcorrente mapa = new MapaLongByteConcorrente(16, 4);
+
+        assertTrue(mapa.putSeAusente(5, (byte) 1));
+        assertFalse(mapa.putSeAusente(5, (byte) 2));
+
+        assertEquals(1, mapa.get(5));
+    }
+
+    @Test
+    void removerAbaixoDeEChaves_devemCobrirTodasAsFaixas() {
+        MapaLongByteConcorrente mapa = new MapaLongByteConcorrente(16, 4);
+        for (long chave = 1; chave <= 1_000; chave++) {
+            mapa.put(chave, (byte) 1);
+        }
+
+        assertEquals(499, mapa.removerAbaixoDe(500));
+
+        long[] chaves = mapa.chaves();
+        assertEquals(501, chaves.length);
+        assertTrue(java.util.Arrays.stream(chaves).allMatch(chave -> chave >= 500));
+        assertEquals(MapaLongByte.AUSENTE, mapa.get(499));
+    }
+}
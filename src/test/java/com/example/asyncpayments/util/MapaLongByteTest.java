@@ -0,0 +1,69 @@
+package com.example.asyncpayments.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapaLongByteTest {
+
+    @Test
+    void operacoesAleatorias_devemBaterComHashMap() {
+        MapaLongByte mapa = new MapaLongByte(4);
+        Map<Long, Byte> esperado = new HashMap<>();
+        Random aleatorio = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            long chave = 1 + aleatorio.nextInt(5_000);
+            int operacao = aleatorio.nextInt(3);
+            if (operacao == 0) {
+                byte valor = (byte) aleatorio.nextInt(4);
+                mapa.put(chave, valor);
+                esperado.put(chave, valor);
+            } else if (operacao == 1) {
+                assertEquals(esperado.remove(chave) != null, mapa.remover(chave));
+            } else {
+                Byte valor = esperado.get(chave);
+                assertEquals(valor == null ? MapaLongByte.AUSENTE : valor, mapa.get(chave));
+            }
+        }
+        assertEquals(esperado.size(), mapa.tamanho());
+        esperado.forEach((chave, valor) -> assertEquals(valor.intValue(), mapa.get(chave)));
+    }
+
+    @Test
+    void removerAbaixoDe_deveManterSoChavesMaioresOuIguais() {
+        MapaLongByte mapa = new MapaLongByte(16);
+        for (long chave = 1; chave <= 100; chave++) {
+            mapa.put(chave, (byte) (chave % 4));
+        }
+
+        assertEquals(49, mapa.removerAbaixoDe(50));
+
+        assertEquals(51, mapa.tamanho());
+        assertEquals(MapaLongByte.AUSENTE, mapa.get(49));
+        assertEquals(2, mapa.get(50));
+        assertEquals(0, mapa.get(100));
+    }
+
+    @Test
+    void paraCada_devePercorrerTodasAsEntradas() {
+        MapaLongByte mapa = new MapaLongByte(16);
+        mapa.put(7, (byte) 1);
+        mapa.put(-3, (byte) 2);
+        Map<Long, Byte> vistos = new HashMap<>();
+
+        mapa.paraCada(vistos::put);
+
+        assertEquals(Map.of(7L, (byte) 1, -3L, (byte) 2), vistos);
+    }
+
+    @Test
+    void chaveZero_deveLancarExcecao() {
+        MapaLongByte mapa = new MapaLongByte(16);
+
+        assertThrows(IllegalArgumentException.class, () -> mapa.put(0, (byte) 1));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.asyncpayments.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RodaTemporizacaoTest {
+
+    @Test
+    void avancar_deveDispararSoAposOVencimento() {
+        RodaTemporizacao<String> roda = new RodaTemporizacao<>(10, 0);
+        roda.agendar("a", 25);
+        roda.agendar("b", 30);
+
+        assertEquals(List.of(), roda.avancar(29));
+        assertEquals(List.of("a", "b"), roda.avancar(30));
+        assertEquals(0, roda.tamanho());
+    }
+
+    @Test
+    void avancar_deveDescerItensDosNiveisAltosSemAdiantar() {
+        RodaTemporizacao<Long> roda = new RodaTemporizacao<>(1, 0);
+        long[] vencimentos = {63, 64, 65, 4_095, 4_096, 4_097, 300_000, 20_000_000, 1L << 31};
+        for (long vencimento : vencimentos) {
+            roda.agendar(vencimento, vencimento);
+        }
+
+        List<Long> disparados = new ArrayList<>();
+        for (long agora = 0; agora <= 300_001; agora++) {
+            for (Long item : roda.avancar(agora)) {
+                assertEquals(item.longValue(), agora, "disparado fora do vencimento");
+                disparados.add(item);
+            }
+        }
+        assertEquals(List.of(63L, 64L, 65L, 4_095L, 4_096L, 4_097L, 300_000L), disparados);
+
+        assertEquals(List.of(20_000_000L), roda.avancar(20_000_000));
+        assertEquals(List.of(), roda.avancar((1L << 31) - 1));
+        assertEquals(List.of(1L << 31), roda.avancar(1L << 31));
+    }
+
+    @Test
+    void avancar_itemAlemDoAlcance_deveEsperarAteOVencimento() {
+        RodaTemporizacao<String> roda = new RodaTemporizacao<>(1, 0);
+        long alcance = 1L << (6 * RodaTemporizacao.NIVEIS);
+        roda.agendar("longe", alcance * 2 + 5);
+
+        assertEquals(List.of(), roda.avancar(alcance * 2 + 4));
+        assertEquals(List.of("longe"), roda.avancar(alcance * 2 + 5));
+    }
+
+    @Test
+    void cancelar_deveImpedirODisparo() {
+        RodaTemporizacao<String> roda = new RodaTemporizacao<>(1, 0);
+        roda.agendar("a", 5_000);
+        roda.agendar("b", 5_000);
+
+        assertTrue(roda.cancelar("a"));
+        assertFalse(roda.cancelar("a"));
+        assertEquals(List.of("b"), roda.avancar(5_000));
+    }
+
+    @Test
+    void agendar_mesmoItem_deveSubstituirOVencimento() {
+        RodaTemporizacao<String> roda = new RodaTemporizacao<>(1, 0);
+        roda.agendar("a", 100);
+        roda.agendar("a", 10);
+
+        assertEquals(1, roda.tamanho());
+        assertEquals(List.of("a"), roda.avancar(10));
+        assertEquals(List.of(), roda.avancar(100));
+    }
+
+    @Test
+    void agendar_jaVencido_deveSairNoProximoAvanco() {
+        RodaTemporizacao<String> roda = new RodaTemporizacao<>(1_000, 50_000);
+        roda.agendar("a", 1_000);
+
+        assertEquals(List.of("a"), roda.avancar(50_000));
+    }
+
+    @Test
+    void construtor_tickInvalido_deveLancarExcecao() {
+        assertThrows(IllegalArgumentException.class, () -> new RodaTemporizacao<String>(0, 0));
+    }
+}